@@ -0,0 +1,118 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.trader.TraderRetail;
+
+/**
+ * Account lookups by trader id and by {@linkplain Trader} object: the indexed {@linkplain AccountsList}
+ * against the linear scans it replaced ({@linkplain LinearAccountsList}). Lookups hit random accounts.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class AccountsListBenchmark {
+
+	private static final int LOOKUPS = 1 << 12;
+
+	@Param({"100000"})
+	int accounts;
+
+	AccountsList indexed;
+	LinearAccountsList linear;
+	int[] ids = new int[LOOKUPS];
+	Trader[] traders = new Trader[LOOKUPS];
+	int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Trader.resetID();
+		indexed = new AccountsList();
+		linear = new LinearAccountsList();
+		Trader[] all = new Trader[accounts];
+		for (int i = 0; i < accounts; i++) {
+			all[i] = new TraderRetail("Trader " + i);
+			Account a = new AccountBasic(all[i], 1000000);
+			indexed.addAccount(a);
+			linear.addAccount(a);
+		}
+		Random rnd = new Random(42);
+		for (int i = 0; i < LOOKUPS; i++) {
+			traders[i] = all[rnd.nextInt(accounts)];
+			ids[i] = traders[i].getID();
+		}
+	}
+
+	private int nextIndex() {
+		int i = next;
+		next = (i + 1) & (LOOKUPS - 1);
+		return i;
+	}
+
+	@Benchmark
+	public Trader getTraderByIDIndexed() {
+		return indexed.getTraderByID(ids[nextIndex()]);
+	}
+
+	@Benchmark
+	public Trader getTraderByIDLinear() {
+		return linear.getTraderByID(ids[nextIndex()]);
+	}
+
+	@Benchmark
+	public Account getTraderAccountIndexed() {
+		return indexed.getTraderAccount(traders[nextIndex()]);
+	}
+
+	@Benchmark
+	public Account getTraderAccountLinear() {
+		return linear.getTraderAccount(traders[nextIndex()]);
+	}
+
+	/**
+	 * The lookups of {@linkplain AccountsList} before indexing, kept as a baseline.
+	 */
+	static class LinearAccountsList {
+		private ArrayList<Account> accounts = new ArrayList<>();
+
+		void addAccount(Account a) {
+			accounts.add(a);
+		}
+
+		Trader getTraderByID(int tid) {
+			Trader t = null;
+			for (Account a : accounts) {
+				t = a.getTrader();
+				if (t.getID() == tid) {
+					return t;
+				}
+			}
+			return t;
+		}
+
+		Account getTraderAccount(Trader t) {
+			Account foundAccount = null;
+			for (Account a : accounts) {
+				if (a.getTrader() == t) {
+					foundAccount = a;
+				}
+			}
+			return foundAccount;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Time of an opening auction under {@linkplain MatchingMode#CALL_AUCTION}: the burst of orders of the call period submitted as one batch,
+ * then {@linkplain StockExchange#uncross(long)}, or the uncross alone on a book already loaded.
+ * Each iteration is one run on a freshly loaded exchange.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class AuctionBenchmark {
+
+	@Param({"64"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	@Param({"1000000"})
+	int orders;
+
+	SyntheticMarket market;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		market = SyntheticMarket.generate(securities, accounts, 0, orders, 1, 42);
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	@Benchmark
+	public long callAndUncross(Call call) {
+		call.exc.submitOrders(call.flow);
+		return call.exc.uncross(1);
+	}
+
+	@Benchmark
+	public long uncross(Loaded loaded) {
+		return loaded.exc.uncross(1);
+	}
+
+	/**
+	 * An exchange in its call period, and the orders to submit to it.
+	 */
+	@State(Scope.Thread)
+	public static class Call {
+		StockExchange exc;
+		List<IOrder> flow;
+
+		@Setup(Level.Iteration)
+		public void load(AuctionBenchmark b) {
+			//Let the previous iteration's exchange be collected before loading the next
+			exc = null;
+			flow = null;
+			exc = b.market.newExchange();
+			exc.setMatchingMode(MatchingMode.CALL_AUCTION);
+			flow = b.market.readOrders(exc);
+		}
+	}
+
+	/**
+	 * An exchange whose book holds the orders of the call period.
+	 */
+	@State(Scope.Thread)
+	public static class Loaded {
+		StockExchange exc;
+
+		@Setup(Level.Iteration)
+		public void load(AuctionBenchmark b) {
+			exc = null;
+			exc = b.market.newExchange();
+			exc.setMatchingMode(MatchingMode.CALL_AUCTION);
+			exc.submitOrders(b.market.readOrders(exc));
+			//Collect the garbage of loading now rather than during the uncross
+			System.gc();
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Time to rest a whole session's orders (as for an opening auction) under {@linkplain MatchingMode#NONE}: one by one with
+ * {@linkplain StockExchange#submitOrder(IOrder, long)}, or as one batch with {@linkplain StockExchange#submitOrders(java.util.Collection)}.
+ * Each iteration is one run on a freshly loaded exchange.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class BatchSubmitBenchmark {
+
+	@Param({"64"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	@Param({"300000"})
+	int orders;
+
+	SyntheticMarket market;
+	StockExchange exc;
+	List<IOrder> flow;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		market = SyntheticMarket.generate(securities, accounts, 0, orders, 30, 42);
+	}
+
+	@Setup(Level.Iteration)
+	public void load() {
+		exc = market.newExchange();
+		flow = market.readOrders(exc);
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	@Benchmark
+	public StockExchange oneByOne() {
+		for (IOrder o : flow) {
+			exc.submitOrder(o, o.getTime());
+		}
+		return exc;
+	}
+
+	@Benchmark
+	public StockExchange batch() {
+		exc.submitOrders(flow);
+		return exc;
+	}
+}
@@ -0,0 +1,91 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Time of one quote update by id on a loaded book, as market makers send them: a replace at a new price, which re-queues the order,
+ * a replace lowering the quantity, which keeps its place, and a cancel followed by a new order.
+ * Orders are updated round-robin over the whole book.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class CancelReplaceBenchmark {
+
+	@Param({"64"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	@Param({"300000"})
+	int orders;
+
+	SyntheticMarket market;
+	StockExchange exc;
+	IOrder[] resting;
+	int next;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		market = SyntheticMarket.generate(securities, accounts, 0, orders, 30, 42);
+	}
+
+	@Setup(Level.Iteration)
+	public void load() {
+		exc = market.newExchange();
+		resting = market.readOrders(exc).toArray(new IOrder[0]);
+		exc.submitOrders(resting);
+		next = 0;
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	private IOrder nextOrder() {
+		IOrder o = resting[next];
+		next = next + 1 == resting.length ? 0 : next + 1;
+		return o;
+	}
+
+	@Benchmark
+	public boolean reprice() {
+		IOrder o = nextOrder();
+		return exc.replaceOrder(o.getID(), o.getPrice() ^ 1, o.getQuantity());
+	}
+
+	@Benchmark
+	public boolean reduce() {
+		IOrder o = nextOrder();
+		return exc.replaceOrder(o.getID(), o.getPrice(), o.getQuantity() > 1 ? o.getQuantity() - 1 : 500);
+	}
+
+	@Benchmark
+	public IOrder cancelAndResubmit() {
+		IOrder o = nextOrder();
+		IOrder c = exc.cancelOrder(o.getID());
+		exc.getOrderbook().addOrder(o);
+		return c;
+	}
+}
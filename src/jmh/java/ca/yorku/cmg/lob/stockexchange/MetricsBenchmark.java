@@ -0,0 +1,84 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.yorku.cmg.lob.stockexchange.metrics.ExchangeMetrics;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Time to match and settle a whole session's orders under continuous matching, with {@linkplain ExchangeMetrics} off and on.
+ * Each iteration is one run on a freshly loaded exchange; the metrics of the last iteration are printed.
+ * Compare the {@code off} case with {@linkplain PipelineBenchmark#serial()} of the same parameters on a build without metrics
+ * to see the cost of the disabled instrumentation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class MetricsBenchmark {
+
+	@Param({"64"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	@Param({"100000"})
+	int orders;
+
+	@Param({"false", "true"})
+	boolean metrics;
+
+	SyntheticMarket market;
+	StockExchange exc;
+	List<IOrder> flow;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		market = SyntheticMarket.generate(securities, accounts, 0, orders, 30, 42);
+	}
+
+	@Setup(Level.Iteration)
+	public void load() {
+		exc = market.newExchange();
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		if (metrics) {
+			exc.setMetrics(new ExchangeMetrics());
+		}
+		flow = market.readOrders(exc);
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		if (exc.getMetrics() != null) {
+			System.out.println();
+			System.out.println(exc.getMetrics().snapshot());
+		}
+		market.delete();
+	}
+
+	@Benchmark
+	public StockExchange submitOrders() {
+		for (IOrder o : flow) {
+			exc.submitOrder(o, o.getTime());
+		}
+		return exc;
+	}
+}
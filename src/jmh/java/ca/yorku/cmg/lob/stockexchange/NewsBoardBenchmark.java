@@ -0,0 +1,75 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import ca.yorku.cmg.lob.stockexchange.events.Event;
+import ca.yorku.cmg.lob.stockexchange.events.NewsBoard;
+
+/**
+ * Event lookups by time on a {@linkplain NewsBoard}, at random times over the simulated period.
+ * About {@code events / days} events share each time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class NewsBoardBenchmark {
+
+	private static final int LOOKUPS = 1 << 12;
+
+	@Param({"100000"})
+	int events;
+
+	@Param({"10000"})
+	int days;
+
+	SyntheticMarket market;
+	NewsBoard news;
+	long[] times = new long[LOOKUPS];
+	int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		market = SyntheticMarket.generate(50, 10, events, 0, days, 42);
+		news = market.newExchange().getNewsBoard();
+		Random rnd = new Random(42);
+		for (int i = 0; i < LOOKUPS; i++) {
+			times[i] = rnd.nextInt(days + 1);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	private int nextIndex() {
+		int i = next;
+		next = (i + 1) & (LOOKUPS - 1);
+		return i;
+	}
+
+	@Benchmark
+	public Event getEventAt() {
+		return news.getEventAt(times[nextIndex()]);
+	}
+
+	@Benchmark
+	public List<Event> getEventsAt() {
+		return news.getEventsAt(times[nextIndex()]);
+	}
+}
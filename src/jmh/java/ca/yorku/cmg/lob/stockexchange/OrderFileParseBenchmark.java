@@ -0,0 +1,114 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.ingest.IngestReport;
+import ca.yorku.cmg.lob.stockexchange.ingest.MappedOrderFileReader;
+import ca.yorku.cmg.lob.stockexchange.ingest.OrderLogReader;
+import ca.yorku.cmg.lob.stockexchange.ingest.TickerLookup;
+import ca.yorku.cmg.lob.trader.Trader;
+
+/**
+ * Reading an order file into primitives, trader and security, without submitting the orders: the line-by-line
+ * {@code split}/{@code valueOf} loop of {@linkplain StockExchange#processOrderFile(String)} against {@linkplain MappedOrderFileReader},
+ * and reading the same orders from a binary order log ({@linkplain OrderLogReader}).
+ * Divide {@code orders} by the score for lines per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class OrderFileParseBenchmark {
+
+	@Param({"1000000"})
+	int orders;
+
+	SyntheticMarket market;
+	StockExchange exc;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		market = SyntheticMarket.generate(50, 1000, 0, orders, 30, 42);
+		market.orderLogFile();
+		exc = market.newExchange();
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	@Benchmark
+	public void lineByLine(Blackhole bh) throws IOException {
+		try (BufferedReader br = new BufferedReader(new FileReader(market.ordersFile().toFile()))) {
+			String line = br.readLine();
+			while ((line = br.readLine()) != null) {
+				String[] parts = line.split(",", -1);
+				if (parts.length >= 6) {
+					int traderID = Integer.valueOf(parts[0].trim());
+					String tkr = parts[1].trim();
+					String type = parts[2].trim();
+					int qty = Integer.valueOf(parts[3].trim());
+					int price = Integer.valueOf(parts[4].trim());
+					long time = Long.valueOf(parts[5].trim());
+					Trader t = exc.getAccounts().getTraderByID(traderID);
+					Security sec = exc.getSecurities().getSecurityByTicker(tkr);
+					bh.consume(t);
+					bh.consume(sec);
+					bh.consume(type.equals("bid"));
+					bh.consume(qty);
+					bh.consume(price);
+					bh.consume(time);
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public IngestReport mapped(Blackhole bh) throws IOException {
+		TickerLookup tickers = new TickerLookup(exc.getSecurities()::getSecurityByTicker);
+		return new MappedOrderFileReader(tickers).read(market.ordersFile(), (tid, sec, bid, price, qty, time) -> {
+			bh.consume(exc.getAccounts().getTraderByID(tid));
+			bh.consume(sec);
+			bh.consume(bid);
+			bh.consume(qty);
+			bh.consume(price);
+			bh.consume(time);
+			return true;
+		});
+	}
+
+	@Benchmark
+	public IngestReport binaryLog(Blackhole bh) throws IOException {
+		return new OrderLogReader(exc.getSecurities()::getSecurityByTicker).read(market.orderLogFile(), (tid, sec, bid, price, qty, time) -> {
+			bh.consume(exc.getAccounts().getTraderByID(tid));
+			bh.consume(sec);
+			bh.consume(bid);
+			bh.consume(qty);
+			bh.consume(price);
+			bh.consume(time);
+			return true;
+		});
+	}
+}
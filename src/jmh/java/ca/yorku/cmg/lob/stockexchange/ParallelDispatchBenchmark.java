@@ -0,0 +1,129 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.events.DispatchMode;
+import ca.yorku.cmg.lob.stockexchange.events.Event;
+import ca.yorku.cmg.lob.stockexchange.events.GoodNews;
+import ca.yorku.cmg.lob.stockexchange.events.NewsBoard;
+import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgent;
+import ca.yorku.cmg.lob.trader.Trader;
+
+/**
+ * Good news pushed to agents that spend {@code think} units of CPU deciding, then bid below the price, serially or in parallel.
+ * Bids alone leave the price at its reference, so no agent is delivered an event twice: this is where parallel delivery gains,
+ * in proportion to the cores available.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class ParallelDispatchBenchmark {
+
+	@Param({"50"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	@Param({"200"})
+	int events;
+
+	@Param({"0", "20000"})
+	int think;
+
+	@Param({"SERIAL", "FORK_JOIN"})
+	DispatchMode mode;
+
+	SyntheticMarket market;
+	StockExchange exc;
+	List<Event> news;
+
+	/**
+	 * Bids 1% below the price after thinking.
+	 */
+	static final class ThinkingAgent extends TradingAgent {
+		private final int think;
+
+		ThinkingAgent(Trader t, StockExchange e, NewsBoard n, int think) {
+			super(t, e, n);
+			this.think = think;
+		}
+
+		@Override
+		protected void actOnEvent(Event e, int pos, int price) {
+			Blackhole.consumeCPU(think);
+			exc.submitOrder(exc.newOrder(t, e.getSecrity(), true, Math.max(1, price * 99 / 100), 1 + pos / 100, e.getTime()), e.getTime());
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void generate() {
+		market = SyntheticMarket.generate(securities, accounts, 0, 0, 1, 42);
+	}
+
+	@Setup(Level.Iteration)
+	public void load() {
+		exc = market.newExchange();
+		NewsBoard board = exc.getNewsBoard();
+		SecurityIndex index = exc.getSecurityIndex();
+		List<Security> secs = new ArrayList<>();
+		for (int id = 0; id < index.size(); id++) {
+			secs.add(index.get(id));
+		}
+		for (TradingAgent a : exc.getTraders()) {
+			ThinkingAgent thinking = new ThinkingAgent(a.getTrader(), exc, board, think);
+			for (Security sec : secs) {
+				if (board.getObservers(sec).contains(a)) {
+					board.removeObserver(a, sec);
+					board.registerObserver(thinking, sec);
+				}
+			}
+		}
+		board.setDispatchChunkSize(8);
+		board.setDispatchMode(mode);
+		news = new ArrayList<>(events);
+		for (int i = 0; i < events; i++) {
+			news.add(new GoodNews(i, secs.get(i % secs.size())));
+		}
+	}
+
+	@TearDown(Level.Iteration)
+	public void serial() {
+		exc.getNewsBoard().setDispatchMode(DispatchMode.SERIAL);
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	@Benchmark
+	public StockExchange push() {
+		NewsBoard board = exc.getNewsBoard();
+		for (Event e : news) {
+			board.notifyObservers(e);
+		}
+		return exc;
+	}
+}
@@ -0,0 +1,91 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Time to match and settle a whole session's orders under continuous matching: submitted to the exchange on one thread,
+ * or through an {@linkplain ExchangePipeline}. Each iteration is one run on a freshly loaded exchange; the pipeline's stage
+ * statistics of the last iteration are printed. Run with {@code -prof gc} to compare the allocation per order.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class PipelineBenchmark {
+
+	@Param({"64"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	@Param({"100000"})
+	int orders;
+
+	SyntheticMarket market;
+	StockExchange exc;
+	List<IOrder> flow;
+	ExchangePipeline.StageStats[] stats;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		market = SyntheticMarket.generate(securities, accounts, 0, orders, 30, 42);
+	}
+
+	@Setup(Level.Iteration)
+	public void load() {
+		exc = market.newExchange();
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		flow = market.readOrders(exc);
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		if (stats != null) {
+			System.out.println();
+			for (ExchangePipeline.StageStats s : stats) {
+				System.out.println(s);
+			}
+		}
+		market.delete();
+	}
+
+	@Benchmark
+	public StockExchange serial() {
+		for (IOrder o : flow) {
+			exc.submitOrder(o, o.getTime());
+		}
+		return exc;
+	}
+
+	@Benchmark
+	public StockExchange pipeline() {
+		try (ExchangePipeline pipeline = new ExchangePipeline(exc)) {
+			for (IOrder o : flow) {
+				pipeline.submitOrder(o, o.getTime());
+			}
+			pipeline.awaitIdle();
+			stats = pipeline.getStageStats();
+		}
+		return exc;
+	}
+}
@@ -0,0 +1,156 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Settlement-style position updates (a buyer gains units, a seller loses them) on random books and securities:
+ * the id-indexed {@linkplain PositionBook} by id and by ticker, against the boxed map it replaced ({@linkplain MapPositionBook}).
+ * Run with {@code -prof gc} to see the allocation per update.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class PositionBookBenchmark {
+
+	private static final int UPDATES = 1 << 12;
+
+	@Param({"1000"})
+	int books;
+
+	@Param({"64"})
+	int securities;
+
+	PositionBook[] indexed;
+	MapPositionBook[] boxed;
+	int[] buyer = new int[UPDATES];
+	int[] seller = new int[UPDATES];
+	int[] sid = new int[UPDATES];
+	String[] tkr = new String[UPDATES];
+	int[] qty = new int[UPDATES];
+	int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SecurityIndex index = new SecurityIndex();
+		String[] tickers = new String[securities];
+		for (int s = 0; s < securities; s++) {
+			tickers[s] = "SEC" + s;
+			index.register(tickers[s]);
+		}
+		indexed = new PositionBook[books];
+		boxed = new MapPositionBook[books];
+		for (int b = 0; b < books; b++) {
+			indexed[b] = new PositionBook(index);
+			boxed[b] = new MapPositionBook();
+			for (int s = 0; s < securities; s++) {
+				indexed[b].updatePosition(tickers[s], 1000000);
+				boxed[b].updatePosition(tickers[s], 1000000);
+			}
+		}
+		//The second half of the stream reverses the first, so that positions do not drift across iterations
+		Random rnd = new Random(42);
+		int half = UPDATES / 2;
+		for (int i = 0; i < half; i++) {
+			buyer[i] = seller[i + half] = rnd.nextInt(books);
+			seller[i] = buyer[i + half] = rnd.nextInt(books);
+			sid[i] = sid[i + half] = rnd.nextInt(securities);
+			tkr[i] = tkr[i + half] = tickers[sid[i]];
+			qty[i] = qty[i + half] = 200 + rnd.nextInt(1000);
+		}
+	}
+
+	private int nextIndex() {
+		int i = next;
+		next = (i + 1) & (UPDATES - 1);
+		return i;
+	}
+
+	@Benchmark
+	public void addToPositionById() {
+		int i = nextIndex();
+		indexed[buyer[i]].addToPosition(sid[i], qty[i]);
+	}
+
+	@Benchmark
+	public void addToPositionBoxed() {
+		int i = nextIndex();
+		boxed[buyer[i]].addToPosition(tkr[i], qty[i]);
+	}
+
+	@Benchmark
+	public int settleById() {
+		int i = nextIndex();
+		PositionBook b = indexed[buyer[i]];
+		PositionBook s = indexed[seller[i]];
+		b.addToPosition(sid[i], qty[i]);
+		s.deductFromPosition(sid[i], qty[i]);
+		return b.getPosition(sid[i]);
+	}
+
+	@Benchmark
+	public int settleByTicker() {
+		int i = nextIndex();
+		PositionBook b = indexed[buyer[i]];
+		PositionBook s = indexed[seller[i]];
+		b.addToPosition(tkr[i], qty[i]);
+		s.deductFromPosition(tkr[i], qty[i]);
+		return b.getPosition(tkr[i]);
+	}
+
+	@Benchmark
+	public int settleBoxed() {
+		int i = nextIndex();
+		MapPositionBook b = boxed[buyer[i]];
+		MapPositionBook s = boxed[seller[i]];
+		b.addToPosition(tkr[i], qty[i]);
+		s.deductFromPosition(tkr[i], qty[i]);
+		return b.getPosition(tkr[i]);
+	}
+
+	/**
+	 * The {@linkplain PositionBook} before id indexing, kept as a baseline.
+	 */
+	static class MapPositionBook {
+		private Map<String, Integer> positions = new HashMap<String, Integer>();
+
+		void updatePosition(String tkr, int quantity) {
+			positions.put(tkr, quantity);
+		}
+
+		int getPosition(String tkr) {
+			Integer pos = positions.get(tkr);
+			return pos == null ? 0 : pos;
+		}
+
+		void addToPosition(String tkr, int addedQty) {
+			Integer currPos = positions.get(tkr);
+			if (currPos == null) {
+				currPos = 0;
+			}
+			positions.put(tkr, addedQty + currPos);
+		}
+
+		void deductFromPosition(String tkr, int removeQty) {
+			Integer currPos = positions.get(tkr);
+			if (currPos == null || currPos < removeQty) {
+				return;
+			}
+			positions.put(tkr, currPos - removeQty);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to read and submit a whole order file ({@linkplain StockExchange#processOrderFile(String)} and the memory-mapped
+ * {@linkplain StockExchange#ingestOrderFile(String)}, or the same orders from a binary log with
+ * {@linkplain StockExchange#replayOrderLog(String)}) into a freshly loaded exchange,
+ * with and without matching. Each iteration is one run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class ProcessOrderFileBenchmark {
+
+	@Param({"50"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	@Param({"100000"})
+	int orders;
+
+	@Param({"NONE", "CONTINUOUS"})
+	MatchingMode mode;
+
+	SyntheticMarket market;
+	StockExchange exc;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		market = SyntheticMarket.generate(securities, accounts, 0, orders, 30, 42);
+		market.orderLogFile();
+	}
+
+	@Setup(Level.Iteration)
+	public void load() {
+		exc = market.newExchange();
+		exc.setMatchingMode(mode);
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	@Benchmark
+	public StockExchange processOrderFile() {
+		exc.processOrderFile(market.ordersFile().toString());
+		return exc;
+	}
+
+	@Benchmark
+	public StockExchange ingestOrderFile() {
+		exc.ingestOrderFile(market.ordersFile().toString());
+		return exc;
+	}
+
+	@Benchmark
+	public StockExchange replayOrderLog() {
+		exc.replayOrderLog(market.orderLogFile().toString());
+		return exc;
+	}
+}
@@ -0,0 +1,88 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.book.ExchangeTrade;
+import ca.yorku.cmg.lob.stockexchange.report.ReportWriter;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.trader.TraderRetail;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+/**
+ * Rendering a trades log of {@code trades} rows: by String concatenation, as {@linkplain StockExchange#printTradesLog(boolean)} used to,
+ * into a String through a {@linkplain ReportWriter}, and streamed to a {@linkplain Writer} that discards it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ReportBenchmark {
+
+	@Param({"10000"})
+	int trades;
+
+	List<ITrade> log;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Trader.resetID();
+		Random rnd = new Random(42);
+		Trader[] traders = new Trader[100];
+		for (int i = 0; i < traders.length; i++) {
+			traders[i] = new TraderRetail("Trader " + i);
+		}
+		Security[] secs = new Security[50];
+		for (int i = 0; i < secs.length; i++) {
+			secs[i] = new Security("S" + i, "Security " + i);
+		}
+		log = new ArrayList<ITrade>(trades);
+		for (int i = 0; i < trades; i++) {
+			log.add(new ExchangeTrade(traders[rnd.nextInt(traders.length)], traders[rnd.nextInt(traders.length)],
+					secs[rnd.nextInt(secs.length)], 1000 + rnd.nextInt(100000), 1 + rnd.nextInt(500), i));
+		}
+	}
+
+	@Benchmark
+	public String concatenated() {
+		String output = "[From____  To______  Tkr_  Quantity  Price__  Time____]\n";
+		for (ITrade t : log) {
+			output += t.toString();
+		}
+		return output;
+	}
+
+	@Benchmark
+	public String toStringBuilder() throws IOException {
+		StringBuilder sb = new StringBuilder();
+		ReportWriter out = new ReportWriter(sb).text("[From____  To______  Tkr_  Quantity  Price__  Time____]\n");
+		for (ITrade t : log) {
+			out.trade(t);
+		}
+		return sb.toString();
+	}
+
+	@Benchmark
+	public void toWriter() throws IOException {
+		ReportWriter out = new ReportWriter(Writer.nullWriter()).text("[From____  To______  Tkr_  Quantity  Price__  Time____]\n");
+		for (ITrade t : log) {
+			out.trade(t);
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.yorku.cmg.lob.stockexchange.scenario.ReferenceData;
+import ca.yorku.cmg.lob.stockexchange.scenario.Scenario;
+import ca.yorku.cmg.lob.stockexchange.scenario.ScenarioResult;
+import ca.yorku.cmg.lob.stockexchange.scenario.ScenarioRunner;
+
+/**
+ * Time to run a set of scenarios, differing by their agent mixes, over the same synthetic market with a {@linkplain ScenarioRunner}:
+ * one after the other on the calling thread, or all at once on the common fork/join pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class ScenarioBenchmark {
+
+	@Param({"50"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	@Param({"1000"})
+	int events;
+
+	@Param({"16"})
+	int scenarios;
+
+	SyntheticMarket market;
+	ScenarioRunner runner;
+	List<Scenario> mixes;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		market = SyntheticMarket.generate(securities, accounts, events, 0, 250, 42);
+		runner = new ScenarioRunner(ReferenceData.load(market.securitiesFile().toString(), market.accountsFile().toString(),
+				market.positionsFile().toString()));
+		mixes = new ArrayList<>();
+		for (int i = 0; i < scenarios; i++) {
+			Scenario s = new Scenario("mix-" + i, market.pricesFile().toString(), market.eventsFile().toString());
+			s.setAgentMix((double) i / scenarios, i);
+			mixes.add(s);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	@Benchmark
+	public long serial() {
+		long fees = 0;
+		for (Scenario s : mixes) {
+			fees += runner.run(s).getFees();
+		}
+		return fees;
+	}
+
+	@Benchmark
+	public long parallel() {
+		long fees = 0;
+		for (ScenarioResult r : runner.runAll(mixes)) {
+			fees += r.getFees();
+		}
+		return fees;
+	}
+}
@@ -0,0 +1,104 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Time to match and settle a whole session's orders under continuous matching: submitted to the exchange on one thread
+ * ({@code shards = 0}), or through a {@linkplain ShardedExchange} with {@code shards} shards, fed by as many producer threads,
+ * each submitting the orders of the securities of one shard. Each iteration is one run on a freshly loaded exchange.
+ * Scaling needs at least twice as many cores as shards.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class ShardedExchangeBenchmark {
+
+	@Param({"64"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	@Param({"100000"})
+	int orders;
+
+	@Param({"0", "1", "2", "4"})
+	int shards;
+
+	SyntheticMarket market;
+	StockExchange exc;
+	List<IOrder> flow;
+	List<List<IOrder>> flows;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		market = SyntheticMarket.generate(securities, accounts, 0, orders, 30, 42);
+	}
+
+	@Setup(Level.Iteration)
+	public void load() {
+		exc = market.newExchange();
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		flow = market.readOrders(exc);
+		flows = new ArrayList<List<IOrder>>();
+		for (int p = 0; p < shards; p++) {
+			flows.add(new ArrayList<IOrder>());
+		}
+		for (int i = 0; shards > 0 && i < flow.size(); i++) {
+			IOrder o = flow.get(i);
+			flows.get(exc.getSecurityIndex().idOf(o.getSecurity()) % shards).add(o);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	@Benchmark
+	public StockExchange submitOrders() throws InterruptedException {
+		if (shards == 0) {
+			for (IOrder o : flow) {
+				exc.submitOrder(o, o.getTime());
+			}
+			return exc;
+		}
+		try (ShardedExchange sharded = new ShardedExchange(exc, shards)) {
+			Thread[] producers = new Thread[shards];
+			for (int p = 0; p < shards; p++) {
+				List<IOrder> f = flows.get(p);
+				producers[p] = new Thread(() -> {
+					for (IOrder o : f) {
+						sharded.submitOrder(o, o.getTime());
+					}
+				});
+				producers[p].start();
+			}
+			for (Thread t : producers) {
+				t.join();
+			}
+		}
+		return exc;
+	}
+}
@@ -0,0 +1,86 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgent;
+
+/**
+ * A whole simulation run on a freshly loaded exchange: every agent polls for news each day, as in
+ * {@code StockExchangeTest.pollingTest}, or the {@linkplain ca.yorku.cmg.lob.stockexchange.events.NewsBoard} pushes
+ * the events to the subscribed agents, as in {@code StockExchangeTest.pushTest}, or a {@linkplain SimulationDriver} jumps from one event time
+ * to the next. Each iteration is one run. Run with {@code -p days=3650} for a sparse ten-year horizon.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+public class SimulationBenchmark {
+
+	@Param({"50"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	@Param({"1000"})
+	int events;
+
+	@Param({"250"})
+	int days;
+
+	SyntheticMarket market;
+	StockExchange exc;
+
+	@Setup(Level.Trial)
+	public void generate() {
+		market = SyntheticMarket.generate(securities, accounts, events, 0, days, 42);
+	}
+
+	@Setup(Level.Iteration)
+	public void load() {
+		exc = market.newExchange();
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	@Benchmark
+	public StockExchange polling() {
+		for (int i = 0; i <= days; i++) {
+			for (TradingAgent t : exc.getTraders()) {
+				t.timeAdvancedTo(i);
+			}
+		}
+		return exc;
+	}
+
+	@Benchmark
+	public StockExchange discreteEvent() {
+		new SimulationDriver(exc).run();
+		return exc;
+	}
+
+	@Benchmark
+	public StockExchange push() {
+		exc.getNewsBoard().runEventsList();
+		return exc;
+	}
+}
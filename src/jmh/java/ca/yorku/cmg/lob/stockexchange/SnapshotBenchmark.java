@@ -0,0 +1,83 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Time to get an independent copy of a loaded exchange: forking a snapshot, which copies no account and no book, forking and then trading
+ * once, which copies one book and two accounts, and rebuilding the exchange from its inputs, the only way to get one without snapshots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class SnapshotBenchmark {
+
+	@Param({"64"})
+	int securities;
+
+	@Param({"10000"})
+	int accounts;
+
+	@Param({"300000"})
+	int orders;
+
+	SyntheticMarket market;
+	ExchangeSnapshot snapshot;
+	IOrder first;
+	Trader taker;
+
+	@Setup(Level.Trial)
+	public void load() {
+		market = SyntheticMarket.generate(securities, accounts, 0, orders, 30, 42);
+		StockExchange exc = market.newExchange();
+		exc.submitOrders(market.readOrders(exc));
+		first = exc.getOrderbook().getBooks().iterator().next().getBestBid().getFirst().getOrder();
+		taker = exc.getAccounts().getTraderByID(1);
+		snapshot = exc.snapshot();
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() {
+		market.delete();
+	}
+
+	@Benchmark
+	public StockExchange fork() {
+		return snapshot.fork();
+	}
+
+	@Benchmark
+	public StockExchange forkAndTrade() {
+		StockExchange f = snapshot.fork();
+		f.setMatchingMode(MatchingMode.CONTINUOUS);
+		f.submitOrder(f.newOrder(taker, first.getSecurity(), !(first instanceof Bid), first.getPrice(), 1, 31), 31);
+		return f;
+	}
+
+	@Benchmark
+	public StockExchange rebuild() {
+		StockExchange exc = market.newExchange();
+		exc.submitOrders(market.readOrders(exc));
+		return exc;
+	}
+}
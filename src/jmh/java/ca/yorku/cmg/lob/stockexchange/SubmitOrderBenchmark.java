@@ -0,0 +1,96 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.trader.TraderInstitutional;
+
+/**
+ * Orders/sec ({@code thrpt}) and per-order latency percentiles ({@code sample}, see the p0.99 row) of
+ * {@linkplain StockExchange#submitOrder(ca.yorku.cmg.lob.tradestandards.IOrder, long)} under continuous matching.
+ * Prices are drawn around a fixed mid so that roughly half of the orders cross.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class SubmitOrderBenchmark {
+
+	private static final int ORDERS = 1 << 16;
+
+	@Param({"8"})
+	int securities;
+
+	@Param({"1000"})
+	int accounts;
+
+	StockExchange exc;
+	Security[] secs;
+	Trader[] traders;
+
+	//Pre-generated order stream, replayed cyclically
+	int[] secIdx = new int[ORDERS];
+	int[] traderIdx = new int[ORDERS];
+	int[] price = new int[ORDERS];
+	int[] qty = new int[ORDERS];
+	boolean[] isBid = new boolean[ORDERS];
+	int next;
+	long time;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		exc = new StockExchange();
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		secs = new Security[securities];
+		for (int i = 0; i < securities; i++) {
+			String tkr = "T" + i;
+			exc.getSecurities().addSecurity(tkr, "Security " + i);
+			secs[i] = exc.getSecurities().getSecurityByTicker(tkr);
+		}
+		traders = new Trader[accounts];
+		for (int i = 0; i < accounts; i++) {
+			traders[i] = new TraderInstitutional("Trader " + i);
+			Account a = new AccountPro(traders[i], Long.MAX_VALUE / 4);
+			for (Security s : secs) {
+				a.updatePosition(s.getTicker(), Integer.MAX_VALUE / 4);
+			}
+			exc.getAccounts().addAccount(a);
+		}
+
+		Random rnd = new Random(42);
+		for (int i = 0; i < ORDERS; i++) {
+			secIdx[i] = rnd.nextInt(securities);
+			traderIdx[i] = rnd.nextInt(accounts);
+			isBid[i] = rnd.nextBoolean();
+			price[i] = 10000 + (int) Math.round(rnd.nextGaussian() * 50) + (isBid[i] ? -10 : 10);
+			qty[i] = 1 + rnd.nextInt(500);
+		}
+	}
+
+	@Benchmark
+	public void submitOrder() {
+		int i = next;
+		next = (i + 1) & (ORDERS - 1);
+		time++;
+		if (isBid[i]) {
+			exc.submitOrder(new Bid(traders[traderIdx[i]], secs[secIdx[i]], price[i], qty[i], time), time);
+		} else {
+			exc.submitOrder(new Ask(traders[traderIdx[i]], secs[secIdx[i]], price[i], qty[i], time), time);
+		}
+	}
+}
@@ -0,0 +1,217 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.stockexchange.ingest.MappedOrderFileReader;
+import ca.yorku.cmg.lob.stockexchange.ingest.OrderLogWriter;
+import ca.yorku.cmg.lob.stockexchange.ingest.TickerLookup;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Generates the input files of a {@linkplain StockExchange} (securities, prices, accounts, initial positions,
+ * news events and orders) for any number of securities, accounts, events and orders, in the formats of the files
+ * under {@code src/test/resources}. Generation is deterministic for a given seed.
+ * <p>Each account holds a handful of securities, in amounts large enough that its asks, which are only ever for securities it holds,
+ * do not run it out of units over a run.</p>
+ * <p>Trader ids in the position and order files assume ids are handed out from 1 in the order of the accounts file,
+ * so {@linkplain #newExchange()} resets the id counters before loading.</p>
+ */
+final class SyntheticMarket {
+
+	/** Number of securities each account initially holds. */
+	private static final int HOLDINGS = 4;
+
+	final int securities;
+	final int accounts;
+	final int events;
+	final int orders;
+	final int days;
+
+	private final Path dir;
+
+	private SyntheticMarket(int securities, int accounts, int events, int orders, int days, Path dir) {
+		this.securities = securities;
+		this.accounts = accounts;
+		this.events = events;
+		this.orders = orders;
+		this.days = days;
+		this.dir = dir;
+	}
+
+	/**
+	 * Writes a market to a fresh temporary directory.
+	 * @param securities Number of securities.
+	 * @param accounts Number of accounts, each with a trading agent.
+	 * @param events Number of news events, spread uniformly over the days.
+	 * @param orders Number of orders in the order file, spread uniformly over the days.
+	 * @param days Length of the simulated period; times range from 0 to {@code days}.
+	 * @param seed Seed of the generator.
+	 * @return The generated market.
+	 */
+	static SyntheticMarket generate(int securities, int accounts, int events, int orders, int days, long seed) {
+		try {
+			SyntheticMarket m = new SyntheticMarket(securities, accounts, events, orders, days, Files.createTempDirectory("lob-bench"));
+			m.write(new Random(seed));
+			return m;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String ticker(int s) {
+		return "S" + s;
+	}
+
+	private void write(Random rnd) throws IOException {
+		int[] reference = new int[securities];
+		try (BufferedWriter sec = Files.newBufferedWriter(securitiesFile());
+				BufferedWriter prc = Files.newBufferedWriter(pricesFile())) {
+			sec.write("code,description\n");
+			prc.write("code,description,price\n");
+			for (int s = 0; s < securities; s++) {
+				reference[s] = 1000 + rnd.nextInt(50000);
+				sec.write(ticker(s) + ",Security " + s + "\n");
+				prc.write(ticker(s) + ",Security " + s + "," + reference[s] + "\n");
+			}
+		}
+
+		int[] firstHolding = new int[accounts];
+		try (BufferedWriter acc = Files.newBufferedWriter(accountsFile());
+				BufferedWriter pos = Files.newBufferedWriter(positionsFile())) {
+			acc.write("Title,TraderType,AcountType, InitCashBalance ,TradingStyle\n");
+			pos.write("tid,tkr,Count\n");
+			for (int a = 0; a < accounts; a++) {
+				boolean institutional = rnd.nextInt(10) == 0;
+				acc.write("Trader " + a + "," + (institutional ? "Institutional" : "Retail") + ","
+						+ (institutional ? "Pro" : "Basic") + "," + (institutional ? 5000000000L : 1000000000L) + ","
+						+ (rnd.nextBoolean() ? "Conservative" : "Aggressive") + "\n");
+				firstHolding[a] = rnd.nextInt(securities);
+				for (int h = 0; h < Math.min(HOLDINGS, securities); h++) {
+					pos.write((a + 1) + "," + ticker((firstHolding[a] + h) % securities) + "," + (10000 + rnd.nextInt(90000)) + "\n");
+				}
+			}
+		}
+
+		try (BufferedWriter evt = Files.newBufferedWriter(eventsFile())) {
+			for (int e = 0; e < events; e++) {
+				evt.write(rnd.nextInt(days + 1) + "," + ticker(rnd.nextInt(securities)) + ","
+						+ (rnd.nextBoolean() ? "Good" : "Bad") + "\n");
+			}
+		}
+
+		try (BufferedWriter ord = Files.newBufferedWriter(ordersFile())) {
+			ord.write("tid,tkr,type,qty,price,time\n");
+			for (int o = 0; o < orders; o++) {
+				//Anyone may buy anything, but sellers only sell what they hold
+				int a = rnd.nextInt(accounts);
+				boolean bid = rnd.nextBoolean();
+				int s = bid ? rnd.nextInt(securities) : (firstHolding[a] + rnd.nextInt(Math.min(HOLDINGS, securities))) % securities;
+				int price = Math.max(1, reference[s] + (int) Math.round(rnd.nextGaussian() * reference[s] / 100) + (bid ? -10 : 10));
+				ord.write((a + 1) + "," + ticker(s) + "," + (bid ? "bid" : "ask") + ","
+						+ (1 + rnd.nextInt(500)) + "," + price + "," + ((long) o * days / orders) + "\n");
+			}
+		}
+	}
+
+	/**
+	 * Creates an exchange holding the securities, prices, accounts, positions and events of the market, with no orders.
+	 * @return The exchange.
+	 */
+	StockExchange newExchange() {
+		Trader.resetID();
+		Order.resetID();
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile(securitiesFile().toString());
+		exc.readAccountsListFromFile(accountsFile().toString());
+		exc.readInitialPositionsFromFile(positionsFile().toString());
+		exc.readPriceListfromFile(pricesFile().toString());
+		exc.getNewsBoard().loadEvents(eventsFile().toString());
+		return exc;
+	}
+
+	/**
+	 * Reads the orders of the order file into order objects for the traders and securities of an exchange.
+	 * @param exc An exchange created by {@linkplain #newExchange()}.
+	 * @return The orders, in file order.
+	 */
+	List<IOrder> readOrders(StockExchange exc) {
+		TickerLookup tickers = new TickerLookup(exc.getSecurities()::getSecurityByTicker);
+		List<IOrder> orders = new ArrayList<IOrder>(this.orders);
+		try {
+			new MappedOrderFileReader(tickers).read(ordersFile(), (tid, sec, bid, price, qty, time) -> {
+				Trader t = exc.getAccounts().getTraderByID(tid);
+				orders.add(bid ? new Bid(t, sec, price, qty, time) : new Ask(t, sec, price, qty, time));
+				return true;
+			});
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return orders;
+	}
+
+	Path securitiesFile() {
+		return dir.resolve("securities.csv");
+	}
+
+	Path pricesFile() {
+		return dir.resolve("prices.csv");
+	}
+
+	Path accountsFile() {
+		return dir.resolve("accounts.csv");
+	}
+
+	Path positionsFile() {
+		return dir.resolve("initial.csv");
+	}
+
+	Path eventsFile() {
+		return dir.resolve("events.csv");
+	}
+
+	Path ordersFile() {
+		return dir.resolve("orders.csv");
+	}
+
+	/**
+	 * Returns the orders of the order file as a binary order log, writing it on first use.
+	 * @return The path of the log.
+	 */
+	Path orderLogFile() {
+		Path log = dir.resolve("orders.bin");
+		if (!Files.exists(log)) {
+			StockExchange exc = newExchange();
+			try (OrderLogWriter w = new OrderLogWriter(log)) {
+				exc.setOrderLog(w);
+				exc.ingestOrderFile(ordersFile().toString());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return log;
+	}
+
+	/**
+	 * Deletes the generated files.
+	 */
+	void delete() {
+		try (Stream<Path> files = Files.walk(dir)) {
+			files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
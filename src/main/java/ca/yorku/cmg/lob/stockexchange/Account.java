@@ -1,5 +1,8 @@
 package ca.yorku.cmg.lob.stockexchange;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
 import ca.yorku.cmg.lob.trader.Trader;
 import ca.yorku.cmg.lob.tradestandards.ITrade;
 
@@ -7,8 +10,14 @@ import ca.yorku.cmg.lob.tradestandards.ITrade;
 /**
  * Abstract class representing a financial account associated with a {@linkplain ca.yorku.cmg.lob.trader.Trader}.
  * Manages the account's balance, fee application, and positions in a {@linkplain ca.yorku.cmg.lob.exchange.PositionBook}.
+ * <p>Balance and position updates by settlement are atomic and lock-free, so several threads may settle trades of one account at once.</p>
+ * <p>The account also keeps the cash reserved by its resting bids and, in its {@linkplain PositionBook}, the units reserved by its resting asks,
+ * which the pre-trade risk checks of the {@linkplain StockExchange} take and release incrementally (see {@linkplain StockExchange#setRiskChecks(boolean)}).
+ * Reservations are atomic as well.</p>
+ * <p>Accounts of a {@linkplain StockExchange#snapshot() snapshot} are shared by the exchange and its forks until one of them changes the account,
+ * which then works on its own copy ({@linkplain AccountsList}).</p>
  */
-public abstract class Account {
+public abstract class Account implements Cloneable {
 
     /** The {@linkplain ca.yorku.cmg.lob.trader.Trader} associated with this account. */
     private Trader trader;
@@ -16,8 +25,28 @@ public abstract class Account {
     /** The {@linkplain ca.yorku.cmg.lob.exchange.PositionBook} managing the positions for this account. */
     private PositionBook book;
 
-    /** The current balance of the account in monetary units. */
-    private long balance;
+    /** The current balance of the account in monetary units. Updated through {@link #BALANCE} only. */
+    private volatile long balance;
+
+    /** The cash reserved by resting bids. Updated through {@link #RESERVED_CASH} only. */
+    private volatile long reservedCash;
+
+    /**
+     * The generation of the {@linkplain AccountsList} that may change this account, see {@linkplain AccountsList#snapshot()}.
+     * Volatile, and set last, so that a thread seeing it set also sees the account it was copied into.
+     */
+    volatile Object owner;
+
+    private static final VarHandle BALANCE;
+    private static final VarHandle RESERVED_CASH;
+    static {
+        try {
+            BALANCE = MethodHandles.lookup().findVarHandle(Account.class, "balance", long.class);
+            RESERVED_CASH = MethodHandles.lookup().findVarHandle(Account.class, "reservedCash", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
 
     /**
      * Constructs an {@linkplain ca.yorku.cmg.lob.exchange.Account} with an associated {@linkplain ca.yorku.cmg.lob.trader.Trader} and an initial balance.
@@ -26,9 +55,21 @@ public abstract class Account {
      * @param initBalance the initial balance of the account
      */
     Account(Trader trader, long initBalance) {
+        this(trader, initBalance, new SecurityIndex());
+    }
+
+    /**
+     * Constructs an {@linkplain Account} whose {@linkplain PositionBook} is indexed by the ids of a given {@linkplain SecurityIndex},
+     * normally the one of the {@linkplain StockExchange} holding the account.
+     *
+     * @param trader      the {@linkplain ca.yorku.cmg.lob.trader.Trader} associated with this account
+     * @param initBalance the initial balance of the account
+     * @param index       the index resolving tickers to security ids
+     */
+    Account(Trader trader, long initBalance, SecurityIndex index) {
         this.trader = trader;
         this.balance = initBalance;
-        this.book = new PositionBook();
+        this.book = new PositionBook(index);
     }
 
     /**
@@ -49,24 +90,124 @@ public abstract class Account {
         return balance;
     }
 
+    /**
+     * Returns the cash reserved by the account's resting bids.
+     *
+     * @return the reserved cash
+     */
+    public long getReservedCash() {
+        return reservedCash;
+    }
+
+    /**
+     * Returns the balance not reserved by resting bids, i.e., what a new bid may commit.
+     *
+     * @return the available balance
+     */
+    public long getAvailableBalance() {
+        return balance - reservedCash;
+    }
+
+    /**
+     * Reserves cash for a bid, if the available balance covers it.
+     *
+     * @param amount the amount to reserve
+     * @return {@code true} if the amount was reserved
+     */
+    boolean tryReserveCash(long amount) {
+        long r;
+        do {
+            r = reservedCash;
+            if (balance - r < amount) {
+                return false;
+            }
+        } while (!RESERVED_CASH.compareAndSet(this, r, r + amount));
+        return true;
+    }
+
+    /**
+     * Adds to (or, if negative, releases from) the reserved cash, without checking the balance.
+     *
+     * @param amount the amount
+     */
+    void addReservedCash(long amount) {
+        RESERVED_CASH.getAndAdd(this, amount);
+    }
+
+    /**
+     * Returns the units of a security reserved by the account's resting asks.
+     *
+     * @param sid the id of the security in the {@linkplain SecurityIndex} of the account
+     * @return the reserved units
+     */
+    public int getReservedPosition(int sid) {
+        return this.book.getReserved(sid);
+    }
+
+    /**
+     * Returns the units of a security held and not reserved by resting asks, i.e., what a new ask may sell.
+     *
+     * @param sid the id of the security in the {@linkplain SecurityIndex} of the account
+     * @return the available units
+     */
+    public int getAvailablePosition(int sid) {
+        return this.book.getPosition(sid) - this.book.getReserved(sid);
+    }
+
+    /**
+     * Reserves units of a security for an ask, if that many are available.
+     *
+     * @param sid the id of the security
+     * @param qty the number of units
+     * @return {@code true} if the units were reserved
+     */
+    boolean tryReservePosition(int sid, int qty) {
+        return this.book.tryReserve(sid, qty);
+    }
+
+    /**
+     * Adds to (or, if negative, releases from) the units reserved in a security, without checking the position.
+     *
+     * @param sid the id of the security
+     * @param qty the number of units
+     */
+    void addReservedPosition(int sid, int qty) {
+        this.book.addReserved(sid, qty);
+    }
+
+    /**
+     * Releases all reservations of the account.
+     */
+    void clearReservations() {
+        reservedCash = 0;
+        this.book.clearReserved();
+    }
+
     /**
      * Adds a specified amount to the account balance.
      *
      * @param amount the amount to add to the balance
      */
-    public void addMoney(int amount) {
-        balance += amount;
+    public void addMoney(long amount) {
+        BALANCE.getAndAdd(this, amount);
     }
 
     /**
      * Withdraws a specified amount from the account balance, if sufficient funds are available.
+     * The check and the withdrawal are one atomic step, so concurrent withdrawals never overdraw the account.
      *
      * @param amount the amount to withdraw
+     * @return {@code true} if the amount was withdrawn, {@code false} if the funds were insufficient
      */
-    public void withdrawMoney(int amount) {
-        if (balance >= amount) {
-            balance -= amount;
-        }
+    public boolean withdrawMoney(long amount) {
+        long b;
+        do {
+            b = balance;
+            if (b < amount) {
+                return false;
+            }
+        } while (!BALANCE.compareAndSet(this, b, b - amount));
+        return true;
     }
 
     /**
@@ -75,7 +216,7 @@ public abstract class Account {
      * @param t the {@linkplain ITrade} for which the fee is applied
      */
     public void applyFee(ITrade t) {
-        balance -= this.getFee(t);
+        BALANCE.getAndAdd(this, -(long) this.getFee(t));
     }
 
     /**
@@ -126,4 +267,82 @@ public abstract class Account {
     public void deductFromPosition(String tkr, int newQty) {
         this.book.deductFromPosition(tkr, newQty);
     }
+
+    /**
+     * Retrieves the current quantity (number of units) of a position by security id.
+     *
+     * @param sid the id of the security in the {@linkplain SecurityIndex} of the account
+     * @return the quantity of the position (number of units)
+     */
+    public int getPosition(int sid) {
+        return this.book.getPosition(sid);
+    }
+
+    /**
+     * Adds a specified quantity to a position, by security id.
+     *
+     * @param sid       the id of the security in the {@linkplain SecurityIndex} of the account
+     * @param addedQty  the quantity to add
+     */
+    public void addToPosition(int sid, int addedQty) {
+        this.book.addToPosition(sid, addedQty);
+    }
+
+    /**
+     * Deducts a specified quantity from a position, by security id.
+     *
+     * @param sid    the id of the security in the {@linkplain SecurityIndex} of the account
+     * @param newQty the quantity to deduct
+     */
+    public void deductFromPosition(int sid, int newQty) {
+        this.book.deductFromPosition(sid, newQty);
+    }
+
+    /**
+     * Deducts units of a security if that many are held, in one atomic check-and-deduct.
+     *
+     * @param sid the id of the security
+     * @param qty the number of units
+     * @return {@code true} if the units were deducted
+     */
+    boolean tryDeductPosition(int sid, int qty) {
+        return this.book.tryDeduct(sid, qty);
+    }
+
+    /**
+     * Makes room for positions in the securities with ids below {@code securities} up front, so that updating them never
+     * reallocates the positions and threads may update positions in different securities of the account at the same time.
+     *
+     * @param securities the number of security ids to make room for
+     */
+    void reservePositions(int securities) {
+        this.book.reserve(securities);
+    }
+
+    /**
+     * Re-indexes the positions of the account by another {@linkplain SecurityIndex}, carrying them over by ticker.
+     *
+     * @param index the new index
+     */
+    void useSecurityIndex(SecurityIndex index) {
+        this.book.reindex(index);
+    }
+
+    /**
+     * Copies the account: balance, reservations and positions, the latter indexed by a given {@linkplain SecurityIndex},
+     * which must give the securities the same ids as the index of this account.
+     *
+     * @param index the index of the copy, {@code null} for the index of this account
+     * @return the copy, with no owner
+     */
+    Account copy(SecurityIndex index) {
+        try {
+            Account c = (Account) super.clone();
+            c.book = this.book.copy(index != null ? index : this.book.getSecurityIndex());
+            c.owner = null;
+            return c;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError(e);
+        }
+    }
 }
@@ -20,6 +20,17 @@ public class AccountBasic extends Account {
         super(trader, initBalance);
     }
 
+    /**
+     * Constructs an {@linkplain AccountBasic} whose positions are indexed by a given {@linkplain SecurityIndex}.
+     *
+     * @param trader      the {@linkplain Trader} associated with this account
+     * @param initBalance the initial balance of the account
+     * @param index       the index resolving tickers to security ids
+     */
+    AccountBasic(Trader trader, long initBalance, SecurityIndex index) {
+        super(trader, initBalance, index);
+    }
+
     /**
      * Returns the fixed fee for all trades.
      *
@@ -21,6 +21,17 @@ public class AccountPro extends Account {
         super(trader, initBalance);
     }
 
+    /**
+     * Constructs an {@linkplain AccountPro} whose positions are indexed by a given {@linkplain SecurityIndex}.
+     *
+     * @param trader      the {@linkplain Trader} associated with this account
+     * @param initBalance the initial balance of the account
+     * @param index       the index resolving tickers to security ids
+     */
+    AccountPro(Trader trader, long initBalance, SecurityIndex index) {
+        super(trader, initBalance, index);
+    }
+
     /**
      * Calculates the fee for a trade based on its quantity.
      * The fee (in cents) is equal to the trade quantity multiplied by 1, 
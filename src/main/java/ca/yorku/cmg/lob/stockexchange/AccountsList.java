@@ -1,7 +1,16 @@
 package ca.yorku.cmg.lob.stockexchange;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
+import ca.yorku.cmg.lob.stockexchange.report.ReportWriter;
 import ca.yorku.cmg.lob.trader.Trader;
 
 
@@ -9,17 +18,166 @@ import ca.yorku.cmg.lob.trader.Trader;
  * A class that manages a list of {@linkplain Account} objects.
  * Provides functionality for adding accounts, retrieving traders by ID,
  * finding accounts associated with specific traders, and printing balances for debugging.
+ * <p>Lookups are O(1): accounts are indexed by trader id in an array (trader ids are dense, counting from 1),
+ * falling back to a map for ids far beyond the number of accounts, and by {@linkplain Trader} object in an identity map.
+ * The indexes hold the position of each account in the list.</p>
+ * <p>Lists are copied on write. {@linkplain #snapshot()} and {@linkplain #fork()} share the list and its indexes, and the accounts in it,
+ * with the new list in O(1). Each list owns the accounts of its own generation only: the first time any other account is looked up,
+ * it is copied, and the copy replaces it in that list, so that only the accounts looked up after a snapshot are ever copied.
+ * The list itself is copied on the first such replacement, the indexes on the first account added.</p>
  */
 public class AccountsList {
-	private ArrayList<Account> accounts = new ArrayList<>();
+	private volatile ArrayList<Account> accounts = new ArrayList<>();
+	private int[] byID = new int[16];
+	private Map<Integer, Integer> sparseByID = new HashMap<>();
+	private Map<Trader, Integer> byTrader = new IdentityHashMap<>();
+	private SecurityIndex securityIndex;
+	
+	//Accounts whose owner is this token may be changed in place; the others are shared with a snapshot or fork
+	private Object generation = new Object();
+	private boolean listShared = false;
+	private boolean indexShared = false;
+	
+	/**
+	 * Creates an empty list; accounts keep whatever {@linkplain SecurityIndex} their positions are indexed by.
+	 */
+	public AccountsList() {
+		this(null);
+	}
+	
+	/**
+	 * Creates an empty list whose accounts all index their positions by the same {@linkplain SecurityIndex}.
+	 * @param securityIndex The index of the {@linkplain StockExchange} holding the accounts.
+	 */
+	public AccountsList(SecurityIndex securityIndex) {
+		this.securityIndex = securityIndex;
+	}
+	
+	/**
+	 * Creates a list sharing everything with another, whose accounts it copies before handing them out.
+	 */
+	private AccountsList(AccountsList from, SecurityIndex securityIndex) {
+		this.accounts = from.accounts;
+		this.byID = from.byID;
+		this.sparseByID = from.sparseByID;
+		this.byTrader = from.byTrader;
+		this.securityIndex = securityIndex;
+		this.listShared = true;
+		this.indexShared = true;
+	}
+	
+	/**
+	 * Freezes the accounts as they are: from now on this list copies every account before handing it out, as a fork would.
+	 * @return The frozen accounts, to {@linkplain #fork(SecurityIndex) fork} from. The caller must not change them.
+	 */
+	AccountsList snapshot() {
+		AccountsList frozen = new AccountsList(this, securityIndex);
+		frozen.generation = generation;
+		generation = new Object();
+		listShared = true;
+		indexShared = true;
+		return frozen;
+	}
+	
+	/**
+	 * Creates a list with the same accounts, in O(1). Neither list sees the changes the other makes to its accounts afterwards,
+	 * as long as this list is not changed in place, i.e., as long as it is a {@linkplain #snapshot()}.
+	 * @param index The {@linkplain SecurityIndex} the accounts of the new list are indexed by, giving the same ids as the one of this list.
+	 * @return The new list.
+	 */
+	AccountsList fork(SecurityIndex index) {
+		return new AccountsList(this, index);
+	}
 	
     /**
      * Adds an {@linkplain Account} to the list.
+     * If the list has a {@linkplain SecurityIndex}, the positions of the account are re-indexed by it.
      *
      * @param a the {@linkplain Account} to be added
      */
 	public void addAccount(Account a) {
+		if (securityIndex != null) {
+			a.useSecurityIndex(securityIndex);
+		}
+		if (listShared) {
+			accounts = new ArrayList<>(accounts);
+			listShared = false;
+		}
+		if (indexShared) {
+			byID = byID.clone();
+			sparseByID = new HashMap<>(sparseByID);
+			byTrader = new IdentityHashMap<>(byTrader);
+			indexShared = false;
+		}
+		int slot = accounts.size();
+		a.owner = generation;
 		accounts.add(a);
+		byTrader.put(a.getTrader(), slot);
+		
+		int tid = a.getTrader().getID();
+		if (tid >= 0 && tid <= 4 * accounts.size() + 64) {
+			if (tid >= byID.length) {
+				byID = Arrays.copyOf(byID, Math.max(tid + 1, byID.length * 2));
+			}
+			if (byID[tid] == 0) {
+				byID[tid] = slot + 1;
+			}
+		} else {
+			sparseByID.putIfAbsent(tid, slot);
+		}
+	}
+	
+	/**
+	 * Returns the account at a position of the list, copying it first if it is shared with a snapshot or fork.
+	 * Safe to call from several threads at once, e.g., agents looking up their own accounts during parallel news delivery:
+	 * accounts already owned are returned without locking, and copies are made under the lock of the list.
+	 */
+	private Account own(int slot) {
+		Account a = accounts.get(slot);
+		if (a.owner == generation) {
+			return a;
+		}
+		return copy(slot);
+	}
+	
+	private synchronized Account copy(int slot) {
+		Account a = accounts.get(slot);
+		if (a.owner == generation) {
+			return a;
+		}
+		ArrayList<Account> list = accounts;
+		if (listShared) {
+			list = new ArrayList<>(list);
+		}
+		Account c = a.copy(securityIndex);
+		c.owner = generation;
+		list.set(slot, c);
+		if (listShared) {
+			accounts = list;
+			listShared = false;
+		}
+		return c;
+	}
+	
+	/**
+	 * @return The position in the list of the account of a trader id, -1 if none.
+	 */
+	private int slotOf(int tid) {
+		if (tid >= 0 && tid < byID.length && byID[tid] != 0) {
+			return byID[tid] - 1;
+		}
+		Integer slot = sparseByID.get(tid);
+		return slot == null ? -1 : slot;
+	}
+	
+	/**
+	 * Get the account of a trader by trader ID
+	 * @param tid The id of the trader (as it appears in, e.g., files and lists) 
+	 * @return The {@linkplain Account} of the trader with that ID. Null if none was found.
+	 */
+	public Account getAccountByID(int tid) {
+		int slot = slotOf(tid);
+		return (slot < 0 ? null : own(slot));
 	}
 	
 	/**
@@ -28,14 +186,8 @@ public class AccountsList {
 	 * @return A {@linkplain ca.yorku.cmg.lob.trader.Trader} object that matches the ID. Null if none was found.
 	 */
 	public Trader getTraderByID(int tid) {
-		Trader t = null;
-		for (Account a: accounts) {
-			t = a.getTrader(); 
-			if (t.getID() == tid) {
-				return (t);
-			}
-		}
-		return (t);
+		int slot = slotOf(tid);
+		return (slot < 0 ? null : accounts.get(slot).getTrader());
 	}
 	
 	
@@ -45,14 +197,39 @@ public class AccountsList {
 	 * @return The {@linkplain ca.yorku.cmg.lob.exchange.Account} object corresponding to the trader, {@ code null} if the trader does not have an account.
 	 */
 	public Account getTraderAccount(Trader t) {
-		Account foundAccount = null;
-		
+		Integer slot = byTrader.get(t);
+		return(slot == null ? null : own(slot));
+	}
+	
+	/**
+	 * Returns all accounts, in the order they were added. Accounts shared with a snapshot or fork are all copied first.
+	 * @return A read-only list of the accounts.
+	 */
+	public List<Account> getAccounts() {
+		for (int slot = 0; slot < accounts.size(); slot++) {
+			own(slot);
+		}
+		return Collections.unmodifiableList(accounts);
+	}
+	
+	/**
+	 * @return The number of accounts.
+	 */
+	public int size() {
+		return accounts.size();
+	}
+	
+	/**
+	 * @return The number of accounts this list may change in place, i.e., not shared with a snapshot or fork.
+	 */
+	public int ownedSize() {
+		int n = 0;
 		for (Account a : accounts) {
-			if (a.getTrader() == t) {
-				foundAccount = a;
+			if (a.owner == generation) {
+				n++;
 			}
 		}
-		return(foundAccount);
+		return n;
 	}
 	
 	
@@ -63,22 +240,38 @@ public class AccountsList {
      * @return a formatted string displaying the balances of all accounts and their total
      */
 	public String debugPrintBalances(boolean header) {
-		String out = "";
+		StringBuilder out = new StringBuilder();
+		try {
+			writeBalances(new ReportWriter(out), header);
+		} catch (IOException e) {
+			//A StringBuilder does not throw
+			throw new UncheckedIOException(e);
+		}
+		return(out.toString());
+	}
+
+    /**
+     * Writes the balances of all accounts and their total, as {@linkplain #debugPrintBalances(boolean)} prints them.
+     *
+     * @param out the writer the rows are written to
+     * @param header {@code true} to include a header in the output, {@code false} otherwise
+     * @throws IOException if the writer fails
+     */
+	public void writeBalances(ReportWriter out, boolean header) throws IOException {
 		if (header) {
-			out = "[_Institution_____________________ Balance_________]\n";
+			out.text("[_Institution_____________________ Balance_________]\n");
 		}
 		long total = 0;
 		
 		for (Account a : accounts) {
 			String ttl = a.getTrader().getTitle();
 			total += a.getBalance();
-			out += String.format("[%2d %30s %16s]\n",
-	        // Truncate the string if it exceeds the desired length
-	        a.getTrader().getID(),(ttl.length() > 30 ? ttl.substring(0, 30) : ttl), String.format("$%,.2f",a.getBalance()/100.0));
+			//"[%2d %30s %16s]\n", truncating the title if it exceeds the desired length
+			out.text('[').integer(a.getTrader().getID(), 2).text(' ')
+				.text(ttl.length() > 30 ? ttl.substring(0, 30) : ttl, 30).text(' ')
+				.dollars(a.getBalance(), 16).text("]\n");
 		}
-		out += String.format("[%30s %16s]\n",
-		        "                           TOTAL:", String.format("$%,.2f",total/100.0));
-		return(out);
+		out.text('[').text("                           TOTAL:", 30).text(' ').dollars(total, 16).text("]\n");
 	}
 	
 }
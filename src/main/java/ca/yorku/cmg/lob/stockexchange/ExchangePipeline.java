@@ -0,0 +1,434 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.stockexchange.book.LimitOrderBook;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevelOrderbook;
+import ca.yorku.cmg.lob.stockexchange.marketdata.MarketDataCache;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+/**
+ * Processes the orders of a {@linkplain StockExchange} in a pipeline of stages, each on its own thread: validate, risk, match, settle and journal.
+ * Stages hand slots of one pre-allocated ring on to each other by advancing their cursors, as in the LMAX Disruptor, and take no lock.
+ * While it runs, the pipeline takes over the exchange, whose logs should only be read once the pipeline is {@linkplain #close() closed}.
+ */
+public class ExchangePipeline implements OrderIntake, AutoCloseable {
+
+	/** Default number of slots of the ring. */
+	public static final int DEFAULT_CAPACITY = 1 << 14;
+
+	private static final int ACCEPTED = 0;
+	private static final int INVALID = 1;
+	private static final int RISK = 2;
+
+	private final StockExchange exchange;
+	private final SecurityIndex index;
+	private final AccountsList accounts;
+	private final PriceLevelOrderbook book;
+	private final MarketDataCache marketData;
+	//Owned by the match stage
+	private final StockExchange.Settlement settlement;
+	private final MatchingMode matchingMode;
+	private final boolean riskChecks;
+
+	private final Slot[] ring;
+	private final int mask;
+	private final AtomicLong claimed = new AtomicLong(-1);
+	private final Stage[] stages;
+	private final AtomicInteger entering = new AtomicInteger();
+	private volatile boolean running = true;
+	//Raised by close() before it waits for the orders submitted: orders submitted afterwards are rejected
+	private volatile boolean closing = false;
+	private volatile long invalid = 0;
+	private volatile long riskRejected = 0;
+
+	/**
+	 * Starts a pipeline over an exchange, with a ring of {@linkplain #DEFAULT_CAPACITY} slots.
+	 * @param exchange The exchange, with its securities and accounts loaded.
+	 */
+	public ExchangePipeline(StockExchange exchange) {
+		this(exchange, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Starts a pipeline over an exchange.
+	 * @param exchange The exchange, with its securities and accounts loaded.
+	 * @param capacity The number of slots of the ring, a power of two.
+	 */
+	public ExchangePipeline(StockExchange exchange, int capacity) {
+		if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+		}
+		if (exchange.intake != null) {
+			throw new IllegalStateException("Exchange is already sharded or pipelined");
+		}
+		this.exchange = exchange;
+		this.index = exchange.getSecurityIndex();
+		this.accounts = exchange.getAccounts();
+		this.book = exchange.getOrderbook();
+		this.marketData = exchange.getMarketData();
+		this.settlement = exchange.new Settlement();
+		this.matchingMode = exchange.getMatchingMode();
+		this.riskChecks = exchange.isRiskChecks();
+
+		//Stages read what others write: size everything up front so that nothing is reallocated under them
+		for (Account a : accounts.getAccounts()) {
+			a.reservePositions(index.size());
+		}
+		marketData.reserve(index.size());
+
+		ring = new Slot[capacity];
+		for (int i = 0; i < capacity; i++) {
+			ring[i] = new Slot();
+		}
+		mask = capacity - 1;
+
+		Stage validate = new Stage("validate", null, this::validate);
+		Stage risk = new Stage("risk", validate, this::checkRisk);
+		Stage match = new Stage("match", risk, this::match);
+		Stage settle = new Stage("settle", match, this::settle);
+		Stage journal = new Stage("journal", settle, this::journal);
+		stages = new Stage[] {validate, risk, match, settle, journal};
+
+		exchange.intake = this;
+		for (Stage s : stages) {
+			s.thread.start();
+		}
+	}
+
+	/**
+	 * Claims the next slot of the ring for an order. Safe to call from any thread; waits only while the ring is full.
+	 * @param order The order.
+	 * @param time The time of submission.
+	 * @throws IllegalStateException If the pipeline is closing or closed.
+	 */
+	@Override
+	public void submitOrder(IOrder order, long time) {
+		//close() raises the flag, then waits for the submitters it did not stop: one of the two sees the other
+		entering.incrementAndGet();
+		try {
+			if (closing) {
+				throw new IllegalStateException("Pipeline is closed");
+			}
+			long seq = claimed.incrementAndGet();
+			Stage last = stages[stages.length - 1];
+			int idle = 0;
+			while (seq - ring.length > last.cursor) {
+				idle = idle(idle);
+			}
+			Slot s = ring[(int) seq & mask];
+			s.order = order;
+			s.time = time;
+			s.status = ACCEPTED;
+			s.sid = -1;
+			s.account = null;
+			s.fills.clear();
+			s.stamp = System.nanoTime();
+			s.published = seq;
+		} finally {
+			entering.decrementAndGet();
+		}
+	}
+
+	@Override
+	public int getPrice(int sid) {
+		return sid < 0 ? 0 : marketData.getPrice(sid);
+	}
+
+	/**
+	 * Waits until every order submitted so far has gone through all stages.
+	 */
+	public void awaitIdle() {
+		long target = claimed.get();
+		Stage last = stages[stages.length - 1];
+		int idle = 0;
+		while (last.cursor < target) {
+			idle = idle(idle);
+		}
+	}
+
+	/**
+	 * Rejects further orders, waits for those submitted, stops the stages and lets the exchange process orders on its own again.
+	 */
+	@Override
+	public void close() {
+		if (closing) {
+			return;
+		}
+		closing = true;
+		while (entering.get() != 0) {
+			Thread.onSpinWait();
+		}
+		awaitIdle();
+		running = false;
+		boolean interrupted = false;
+		for (Stage s : stages) {
+			while (s.thread.isAlive()) {
+				try {
+					s.thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		exchange.intake = null;
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return The statistics of each stage, in pipeline order.
+	 */
+	public StageStats[] getStageStats() {
+		StageStats[] stats = new StageStats[stages.length];
+		for (int i = 0; i < stages.length; i++) {
+			Stage s = stages[i];
+			long upstream = s.upstream == null ? claimed.get() : s.upstream.cursor;
+			stats[i] = new StageStats(s.name, s.processed, Math.max(0, upstream - s.cursor), s.latencyTotal, s.latencyMax);
+		}
+		return stats;
+	}
+
+	/**
+	 * @return The number of orders rejected by the validate stage.
+	 */
+	public long getInvalidCount() {
+		return invalid;
+	}
+
+	/**
+	 * @return The number of orders rejected by the risk stage.
+	 */
+	public long getRiskRejectedCount() {
+		return riskRejected;
+	}
+
+	private static int idle(int n) {
+		if (n < 100) {
+			Thread.onSpinWait();
+		} else if (n < 200) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(50_000);
+		}
+		return n + 1;
+	}
+
+	/* Stages */
+
+	private void validate(Slot s) {
+		IOrder o = s.order;
+		int sid = o.getSecurity() == null ? -1 : index.idOf(o.getSecurity());
+		Account a = o.getTrader() == null ? null : accounts.getTraderAccount(o.getTrader());
+		if (sid < 0 || a == null || o.getQuantity() <= 0 || o.getPrice() <= 0) {
+			s.status = INVALID;
+			invalid = invalid + 1;
+			return;
+		}
+		s.sid = sid;
+		s.account = a;
+		s.bid = o instanceof Bid;
+	}
+
+	private void checkRisk(Slot s) {
+		IOrder o = s.order;
+		boolean ok = riskChecks ? exchange.reserve(o, s.sid) : s.bid ? s.account.getBalance() >= (long) o.getPrice() * o.getQuantity()
+				: s.account.getPosition(s.sid) >= o.getQuantity();
+		if (!ok) {
+			s.status = RISK;
+			riskRejected = riskRejected + 1;
+		}
+	}
+
+	private void match(Slot s) {
+		IOrder o = s.order;
+		if (matchingMode == MatchingMode.CONTINUOUS) {
+			settlement.sid = s.sid;
+			book.matchOrder(o, s.time, s.fills, settlement);
+			for (int i = 0; i < s.fills.size(); i++) {
+				ITrade t = s.fills.get(i);
+				marketData.onTrade(s.sid, t.getPrice(), t.getQuantity());
+			}
+			if (o.getQuantity() > 0) {
+				book.addOrder(o);
+			}
+		} else {
+			book.addOrder(o);
+		}
+		LimitOrderBook b = book.getBook(o.getSecurity());
+		marketData.onTopOfBook(s.sid, b.getBestBidPrice(), b.getBestAskPrice());
+	}
+
+	private void settle(Slot s) {
+		for (int i = 0; i < s.fills.size(); i++) {
+			exchange.logTrade(s.fills.get(i));
+		}
+	}
+
+	private void journal(Slot s) {
+		exchange.writeOrderLog(s.order, s.sid, s.time);
+		exchange.logOrder(s.order);
+	}
+
+	/**
+	 * A slot of the ring: an order and what the stages found out about it. Reused for every order that lands on it.
+	 */
+	private static final class Slot {
+		//Sequence of the order in the slot, written last by the submitting thread to publish it
+		volatile long published = -1;
+		IOrder order;
+		long time;
+		int status;
+		int sid;
+		Account account;
+		boolean bid;
+		final ArrayList<ITrade> fills = new ArrayList<ITrade>();
+		//When the previous stage finished with the slot
+		long stamp;
+	}
+
+	/**
+	 * The work of a stage on one slot.
+	 */
+	private interface Handler {
+		void handle(Slot s);
+	}
+
+	/**
+	 * A stage: one thread processing, in order, the slots the stage before it has finished.
+	 */
+	private final class Stage implements Runnable {
+		final String name;
+		final Stage upstream;
+		final Handler handler;
+		final Thread thread;
+
+		//Sequence of the last slot this stage finished
+		volatile long cursor = -1;
+		volatile long processed = 0;
+		volatile long latencyTotal = 0;
+		volatile long latencyMax = 0;
+
+		Stage(String name, Stage upstream, Handler handler) {
+			this.name = name;
+			this.upstream = upstream;
+			this.handler = handler;
+			thread = new Thread(this, "exchange-pipeline-" + name);
+			thread.setDaemon(true);
+		}
+
+		/**
+		 * @return The last sequence that can be processed, at least {@code next - 1}.
+		 */
+		private long available(long next) {
+			if (upstream != null) {
+				return upstream.cursor;
+			}
+			//First stage: follow the slots published by the submitting threads, in sequence
+			long seq = next - 1;
+			while (seq + 1 - next < ring.length && ring[(int) (seq + 1) & mask].published == seq + 1) {
+				seq++;
+			}
+			return seq;
+		}
+
+		@Override
+		public void run() {
+			long next = 0;
+			int idle = 0;
+			while (true) {
+				long available = available(next);
+				if (available < next) {
+					if (!running) {
+						return;
+					}
+					idle = idle(idle);
+					continue;
+				}
+				idle = 0;
+				long total = 0;
+				long max = 0;
+				for (long seq = next; seq <= available; seq++) {
+					Slot s = ring[(int) seq & mask];
+					if (s.status == ACCEPTED) {
+						try {
+							handler.handle(s);
+						} catch (RuntimeException e) {
+							System.err.println("Error in ExchangePipeline: " + name + " failed on order " + s.order.getID() + ": " + e);
+						}
+					}
+					long now = System.nanoTime();
+					long latency = now - s.stamp;
+					s.stamp = now;
+					total += latency;
+					if (latency > max) {
+						max = latency;
+					}
+				}
+				processed = processed + (available - next + 1);
+				latencyTotal = latencyTotal + total;
+				if (max > latencyMax) {
+					latencyMax = max;
+				}
+				next = available + 1;
+				cursor = available;
+			}
+		}
+	}
+
+	/**
+	 * What a stage has done so far.
+	 */
+	public static final class StageStats {
+		private final String name;
+		private final long processed;
+		private final long depth;
+		private final long latencyTotal;
+		private final long latencyMax;
+
+		StageStats(String name, long processed, long depth, long latencyTotal, long latencyMax) {
+			this.name = name;
+			this.processed = processed;
+			this.depth = depth;
+			this.latencyTotal = latencyTotal;
+			this.latencyMax = latencyMax;
+		}
+
+		/** @return The name of the stage. */
+		public String getName() {
+			return name;
+		}
+
+		/** @return The number of slots the stage has finished, rejected orders included. */
+		public long getProcessed() {
+			return processed;
+		}
+
+		/** @return The number of slots finished by the previous stage (or submitted) and waiting for this one. */
+		public long getDepth() {
+			return depth;
+		}
+
+		/** @return The mean time, in nanoseconds, from the previous stage finishing a slot (or its submission) to this stage finishing it. */
+		public long getMeanLatency() {
+			return processed == 0 ? 0 : latencyTotal / processed;
+		}
+
+		/** @return The longest such time, in nanoseconds. */
+		public long getMaxLatency() {
+			return latencyMax;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%-8s %10d processed, depth %6d, latency mean %8d ns, max %10d ns",
+					name, processed, depth, getMeanLatency(), latencyMax);
+		}
+	}
+}
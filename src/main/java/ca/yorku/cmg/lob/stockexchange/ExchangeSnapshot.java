@@ -0,0 +1,98 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.security.SecurityList;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevelOrderbook;
+import ca.yorku.cmg.lob.stockexchange.events.EventTimeline;
+import ca.yorku.cmg.lob.stockexchange.events.NewsBoard;
+import ca.yorku.cmg.lob.stockexchange.marketdata.MarketDataCache;
+import ca.yorku.cmg.lob.stockexchange.tradingagent.INewsObserver;
+import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgent;
+import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgentConservative;
+import ca.yorku.cmg.lob.trader.Trader;
+
+/**
+ * The state of a {@linkplain StockExchange} frozen at one moment by {@linkplain StockExchange#snapshot()}, from which any number of
+ * independent exchanges can be {@linkplain #fork() forked}, e.g., to play out alternative futures from the same point.
+ * <p>Accounts and books are shared with the exchange and the forks, which copy an account or a book the first time they touch it
+ * ({@linkplain AccountsList}, {@linkplain PriceLevelOrderbook}), so a snapshot and a fork cost O(1) in the number of accounts and resting orders.
+ * What is per security or per agent is copied: the {@linkplain SecurityIndex}, the {@linkplain MarketDataCache}, and the trading agents
+ * with their news subscriptions, which each fork re-creates for itself. Securities, traders and the news timeline never change and are shared.</p>
+ * <p>Forking only reads the snapshot, so several threads may fork from one snapshot and run the forks at the same time.</p>
+ */
+public final class ExchangeSnapshot {
+	final SecurityList securities;
+	final SecurityIndex securityIndex;
+	final AccountsList accounts;
+	final PriceLevelOrderbook book;
+	final MarketDataCache marketData;
+	final EventTimeline timeline;
+
+	//Trading agents, in creation order, and the traders whose agents each security notifies, in subscription order
+	final Trader[] agents;
+	final boolean[] conservative;
+	final Trader[][] subscribers;
+
+	final MatchingMode matchingMode;
+	final boolean riskChecks;
+	final boolean localOrderIds;
+	final long nextOrderId;
+	final long totalFees;
+
+	ExchangeSnapshot(SecurityList securities, SecurityIndex securityIndex, AccountsList accounts, PriceLevelOrderbook book,
+			MarketDataCache marketData, NewsBoard news, List<TradingAgent> agents, MatchingMode matchingMode, boolean riskChecks,
+			boolean localOrderIds, long nextOrderId, long totalFees) {
+		this.securities = securities;
+		this.securityIndex = securityIndex;
+		this.accounts = accounts;
+		this.book = book;
+		this.marketData = marketData;
+		this.timeline = news.getTimeline();
+		this.matchingMode = matchingMode;
+		this.riskChecks = riskChecks;
+		this.localOrderIds = localOrderIds;
+		this.nextOrderId = nextOrderId;
+		this.totalFees = totalFees;
+
+		this.agents = new Trader[agents.size()];
+		this.conservative = new boolean[agents.size()];
+		for (int i = 0; i < this.agents.length; i++) {
+			this.agents[i] = agents.get(i).getTrader();
+			this.conservative[i] = agents.get(i) instanceof TradingAgentConservative;
+		}
+		Set<INewsObserver> own = Collections.newSetFromMap(new IdentityHashMap<>());
+		own.addAll(agents);
+		this.subscribers = new Trader[securityIndex.size()][];
+		List<Trader> subs = new ArrayList<>();
+		for (int sid = 0; sid < subscribers.length; sid++) {
+			Security sec = securityIndex.get(sid);
+			subs.clear();
+			if (sec != null) {
+				for (INewsObserver o : news.getObservers(sec)) {
+					//Only the agents of the exchange itself are carried over
+					if (own.contains(o)) {
+						subs.add(((TradingAgent) o).getTrader());
+					}
+				}
+			}
+			subscribers[sid] = subs.toArray(new Trader[0]);
+		}
+	}
+
+	/**
+	 * Creates an exchange in the state of the snapshot: same securities, accounts, positions, reservations, resting orders (with their ids
+	 * and priorities), prices, fees collected, matching mode and risk checks, and a trading agent of the same style for each agent, subscribed
+	 * to the same news, over the same news timeline. Its order and trade logs start empty, and it has no order log, journals or metrics.
+	 * Events loaded into its news board are only seen by it.
+	 * @return The new exchange, independent of the snapshot, of the exchange snapshot and of the other forks.
+	 */
+	public StockExchange fork() {
+		return new StockExchange(this);
+	}
+}
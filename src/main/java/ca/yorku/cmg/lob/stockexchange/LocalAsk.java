@@ -0,0 +1,29 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.trader.Trader;
+
+/**
+ * A {@linkplain Ask} numbered by its {@linkplain StockExchange} rather than by the id counter shared by all orders
+ * (see {@linkplain StockExchange#setLocalOrderIds(boolean)}).
+ */
+class LocalAsk extends Ask {
+	private final long id;
+
+	LocalAsk(Trader t, Security sec, int price, int qty, long time, long id) {
+		super(t, sec, price, qty, time);
+		this.id = id;
+	}
+
+	@Override
+	public long getID() {
+		return id;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[%3d  %s  %7.2f  %8d  %8d  %5d]", getTrader().getID(), getSecurity().getTicker(), getPrice() / 100.0,
+				getQuantity(), getTime(), id);
+	}
+}
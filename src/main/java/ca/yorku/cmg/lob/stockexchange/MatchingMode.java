@@ -0,0 +1,19 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+/**
+ * How a {@linkplain StockExchange} handles orders arriving through {@linkplain StockExchange#submitOrder(ca.yorku.cmg.lob.tradestandards.IOrder, long)}.
+ */
+public enum MatchingMode {
+
+	/** Orders are only added to the book and never cross. This is the default, and what the trading agent tests expect. */
+	NONE,
+
+	/** Orders are matched on arrival against the opposite half-book by price-time priority; only the unfilled remainder rests. */
+	CONTINUOUS,
+
+	/**
+	 * A call period, e.g., before the open or the close: orders are only added to the book, which may cross, until
+	 * {@linkplain StockExchange#uncross(long)} executes everything that can trade at a single price per security.
+	 */
+	CALL_AUCTION
+}
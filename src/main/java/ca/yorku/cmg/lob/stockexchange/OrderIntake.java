@@ -0,0 +1,23 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Something that takes over order processing from a {@linkplain StockExchange} while it runs, such as a {@linkplain ShardedExchange}
+ * or an {@linkplain ExchangePipeline}: the exchange forwards {@linkplain StockExchange#submitOrder(IOrder, long)} and price reads to it.
+ */
+interface OrderIntake {
+
+	/**
+	 * Accepts an order submitted to the exchange.
+	 * @param order The order.
+	 * @param time The time of submission.
+	 */
+	void submitOrder(IOrder order, long time);
+
+	/**
+	 * @param sid The id of a security, -1 if unknown.
+	 * @return The current price of the security, 0 if nothing is known about it.
+	 */
+	int getPrice(int sid);
+}
@@ -0,0 +1,107 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.ArrayList;
+
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Defers the orders submitted, cancelled and replaced while some code runs, so that they can be released into their
+ * {@linkplain StockExchange}s later, in a deterministic order, by one thread. Orders created inside only get their ids when released.
+ */
+public class OrderSequencer {
+
+	//The sequencer capturing the submissions of the current thread, if any
+	private static final ThreadLocal<OrderSequencer> ACTIVE = new ThreadLocal<>();
+
+	private final ArrayList<Runnable> pending = new ArrayList<>();
+
+	/**
+	 * Runs some code, capturing every order it submits, cancels or replaces on any {@linkplain StockExchange} instead of processing it.
+	 * @param r The code to run.
+	 */
+	public void run(Runnable r) {
+		OrderSequencer previous = ACTIVE.get();
+		ACTIVE.set(this);
+		try {
+			r.run();
+		} finally {
+			if (previous == null) {
+				ACTIVE.remove();
+			} else {
+				ACTIVE.set(previous);
+			}
+		}
+	}
+
+	/**
+	 * Submits the captured orders to their exchanges, along with the captured cancels and replaces, in the order they were captured, and forgets them.
+	 */
+	public void release() {
+		for (Runnable d : pending) {
+			d.run();
+		}
+		pending.clear();
+	}
+
+	/**
+	 * Submits some of the captured orders, cancels and replaces, in the order they were captured. They are not forgotten until {@linkplain #clear()}.
+	 * @param from The index of the first one, e.g., the {@linkplain #size()} before some observer ran.
+	 * @param to The index after the last one, e.g., the {@linkplain #size()} after it ran.
+	 */
+	public void release(int from, int to) {
+		for (int i = from; i < to; i++) {
+			pending.get(i).run();
+		}
+	}
+
+	/**
+	 * Forgets the captured orders, cancels and replaces without submitting them.
+	 */
+	public void clear() {
+		pending.clear();
+	}
+
+	/**
+	 * @return The number of orders, cancels and replaces captured and not yet released.
+	 */
+	public int size() {
+		return pending.size();
+	}
+
+	/**
+	 * @return {@code true} if the calling thread is running inside a sequencer, so that the orders it submits are captured.
+	 */
+	static boolean isActive() {
+		return ACTIVE.get() != null;
+	}
+
+	/**
+	 * Captures an order if the calling thread is running inside a sequencer.
+	 * @param exchange The exchange the order is submitted to.
+	 * @param order The order.
+	 * @param time The time of submission.
+	 * @return {@code true} if the order was captured and must not be processed now.
+	 */
+	static boolean defer(StockExchange exchange, IOrder order, long time) {
+		OrderSequencer s = ACTIVE.get();
+		if (s == null) {
+			return false;
+		}
+		s.pending.add(() -> exchange.submitOrder(order, time));
+		return true;
+	}
+
+	/**
+	 * Captures a cancel or replace if the calling thread is running inside a sequencer.
+	 * @param action Applies the cancel or replace to its exchange when released.
+	 * @return {@code true} if the action was captured and must not be applied now.
+	 */
+	static boolean defer(Runnable action) {
+		OrderSequencer s = ACTIVE.get();
+		if (s == null) {
+			return false;
+		}
+		s.pending.add(action);
+		return true;
+	}
+}
@@ -0,0 +1,103 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * An order created inside an {@linkplain OrderSequencer}: it has no id, and only becomes a {@linkplain ca.yorku.cmg.lob.orderbook.Bid}
+ * or an {@linkplain ca.yorku.cmg.lob.orderbook.Ask} when the sequencer releases it, on the releasing thread.
+ */
+class PendingOrder implements IOrder {
+	private final StockExchange exchange;
+	private final boolean bid;
+	private Trader trader;
+	private Security security;
+	private int price;
+	private int quantity;
+	private long time;
+	private IOrder created = null;
+
+	PendingOrder(StockExchange exchange, Trader t, Security sec, boolean bid, int price, int qty, long time) {
+		this.exchange = exchange;
+		this.trader = t;
+		this.security = sec;
+		this.bid = bid;
+		this.price = price;
+		this.quantity = qty;
+		this.time = time;
+	}
+
+	/**
+	 * @return The order this stands for, created with its id on the first call.
+	 */
+	IOrder create() {
+		if (created == null) {
+			created = exchange.newOrder(trader, security, bid, price, quantity, time);
+		}
+		return created;
+	}
+
+	@Override
+	public void setPrice(int price) {
+		this.price = price;
+	}
+
+	@Override
+	public int getPrice() {
+		return price;
+	}
+
+	@Override
+	public void setTrader(Trader t) {
+		this.trader = t;
+	}
+
+	@Override
+	public Trader getTrader() {
+		return trader;
+	}
+
+	@Override
+	public Security getSecurity() {
+		return security;
+	}
+
+	@Override
+	public void setSecurity(Security sec) {
+		this.security = sec;
+	}
+
+	@Override
+	public int getQuantity() {
+		return quantity;
+	}
+
+	@Override
+	public void setQuantity(int qty) {
+		this.quantity = qty;
+	}
+
+	@Override
+	public void setTime(long time) {
+		this.time = time;
+	}
+
+	@Override
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return The id of the created order, or -1 until it is released.
+	 */
+	@Override
+	public long getID() {
+		return created == null ? -1 : created.getID();
+	}
+
+	@Override
+	public long getValue() {
+		return (long) price * quantity;
+	}
+}
@@ -1,24 +1,59 @@
 package ca.yorku.cmg.lob.stockexchange;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
 
 
 /**
  * A class that represents a position book, which tracks the number of shares of various securities owned.
- * Positions are stored in a map with the security ticker as the key and the number of shares owned as the value.
+ * Positions are stored in an {@code int} array indexed by the dense id that a {@linkplain SecurityIndex} gives each ticker,
+ * so updates neither box nor allocate. Methods taking a ticker resolve it through the index; methods taking an id skip that step.
+ * <p>Books of accounts of the same {@linkplain StockExchange} share the exchange's index, so an id resolved once is valid for all of them.</p>
+ * <p>Next to each position the book keeps the number of units reserved by resting asks (see {@linkplain StockExchange#setRiskChecks(boolean)}),
+ * updated atomically so that reservations can be taken and released from several threads.</p>
  */
 public class PositionBook {
-	private Map<String,Integer> positions = new HashMap<String,Integer>();
+	private static final VarHandle RESERVED = MethodHandles.arrayElementVarHandle(int[].class);
+	private static final VarHandle POSITIONS = MethodHandles.arrayElementVarHandle(int[].class);
+
+	private SecurityIndex index;
+	private int[] positions = new int[0];
+	private int[] reserved = new int[0];
+
+	/**
+	 * Creates a book with its own {@linkplain SecurityIndex}.
+	 */
+	public PositionBook() {
+		this(new SecurityIndex());
+	}
 
 	/**
-	 * Updates position in a security (number of security shares owned) to a given quantity. 
-	 * 
-	 * @param tkr The ticker of the security. 
+	 * Creates a book whose positions are indexed by the ids of a given {@linkplain SecurityIndex}.
+	 * @param index The index resolving tickers to ids.
+	 */
+	public PositionBook(SecurityIndex index) {
+		this.index = index;
+	}
+
+	/**
+	 * Updates position in a security (number of security shares owned) to a given quantity.
+	 *
+	 * @param tkr The ticker of the security.
 	 * @param quantity The new amount owned by the account.
 	 */
 	public void updatePosition(String tkr, int quantity){
-		positions.put(tkr, quantity);
+		updatePosition(index.register(tkr), quantity);
+	}
+
+	/**
+	 * Updates position in a security to a given quantity.
+	 * @param sid The id of the security in the {@linkplain SecurityIndex} of the book.
+	 * @param quantity The new amount owned by the account.
+	 */
+	public void updatePosition(int sid, int quantity){
+		ensureCapacity(sid);
+		positions[sid] = quantity;
 	}
 
 	/**
@@ -27,13 +62,18 @@ public class PositionBook {
 	 * @return The quanity of shares in the given security. It is 0 if the security is not part of the book.
 	 */
 	public int getPosition(String tkr) {
-		Integer pos = positions.get(tkr);
-		if (pos == null) {
-			pos = 0;
-		}
-		return pos;
+		return getPosition(index.idOf(tkr));
 	}
-	
+
+	/**
+	 * Get the number of shares in a security owned
+	 * @param sid The id of the security in the {@linkplain SecurityIndex} of the book.
+	 * @return The quanity of shares in the given security. It is 0 if the security is not part of the book.
+	 */
+	public int getPosition(int sid) {
+		return (sid >= 0 && sid < positions.length) ? positions[sid] : 0;
+	}
+
     /**
      * Adds the specified quantity to the current position of a security.
      * If the security does not already exist in the book, it creates a new entry with the specified quantity.
@@ -42,14 +82,21 @@ public class PositionBook {
      * @param addedQty the quantity of shares to be added to the current position
      */
 	public void addToPosition(String tkr, int addedQty) {
-		Integer currPos = positions.get(tkr);
-		if (currPos == null) {
-			currPos = 0;
-		}
-		positions.put(tkr,addedQty + currPos);
+		addToPosition(index.register(tkr), addedQty);
 	}
 
-	
+    /**
+     * Adds the specified quantity to the current position of a security.
+     *
+     * @param sid the id of the security in the {@linkplain SecurityIndex} of the book
+     * @param addedQty the quantity of shares to be added to the current position
+     */
+	public void addToPosition(int sid, int addedQty) {
+		ensureCapacity(sid);
+		POSITIONS.getAndAdd(positions, sid, addedQty);
+	}
+
+
     /**
      * Deducts the specified quantity from the current position of a security.
      * If the security does not exist or if there are insufficient shares to remove, an error is logged.
@@ -58,15 +105,159 @@ public class PositionBook {
      * @param removeQty the quantity of shares to be removed from the current position
      */
 	public void deductFromPosition(String tkr, int removeQty) {
-		Integer currPos = positions.get(tkr);
-		if (currPos == null) {
+		int sid = index.idOf(tkr);
+		if (sid < 0) {
 			System.err.println("Error in PositionBook#deductFromPosition: position in " + tkr + " does not exist");
 			return;
-		} else if (currPos < removeQty) {
-			System.err.println("Error in PositionBook#deductFromPosition: current position in " + tkr + " insufficient.");
+		}
+		deductFromPosition(sid, removeQty);
+	}
+
+    /**
+     * Deducts the specified quantity from the current position of a security.
+     * If the security does not exist or if there are insufficient shares to remove, an error is logged.
+     *
+     * @param sid the id of the security in the {@linkplain SecurityIndex} of the book
+     * @param removeQty the quantity of shares to be removed from the current position
+     */
+	public void deductFromPosition(int sid, int removeQty) {
+		if (sid < 0 || sid >= positions.length) {
+			System.err.println("Error in PositionBook#deductFromPosition: position in " + (sid < 0 ? "#" + sid : index.getTicker(sid)) + " does not exist");
+			return;
+		} else if (positions[sid] < removeQty) {
+			System.err.println("Error in PositionBook#deductFromPosition: current position in " + index.getTicker(sid) + " insufficient.");
+			return;
+		}
+		positions[sid] -= removeQty;
+	}
+
+	/**
+	 * Deducts units of a security if that many are held, in one atomic check-and-deduct.
+	 * @param sid The id of the security.
+	 * @param qty The number of units.
+	 * @return {@code true} if the units were deducted.
+	 */
+	boolean tryDeduct(int sid, int qty) {
+		if (sid < 0 || sid >= positions.length) {
+			return false;
+		}
+		int p;
+		do {
+			p = (int) POSITIONS.getVolatile(positions, sid);
+			if (p < qty) {
+				return false;
+			}
+		} while (!POSITIONS.compareAndSet(positions, sid, p, p - qty));
+		return true;
+	}
+
+	/**
+	 * @param sid The id of the security in the {@linkplain SecurityIndex} of the book.
+	 * @return The number of units of the security reserved by resting asks.
+	 */
+	public int getReserved(int sid) {
+		return (sid >= 0 && sid < reserved.length) ? (int) RESERVED.getVolatile(reserved, sid) : 0;
+	}
+
+	/**
+	 * Reserves units of a security if that many are held and not yet reserved.
+	 * @param sid The id of the security.
+	 * @param qty The number of units to reserve.
+	 * @return {@code true} if the units were reserved.
+	 */
+	boolean tryReserve(int sid, int qty) {
+		if (sid < 0) {
+			return false;
+		}
+		ensureCapacity(sid);
+		int r;
+		do {
+			r = (int) RESERVED.getVolatile(reserved, sid);
+			if (positions[sid] - r < qty) {
+				return false;
+			}
+		} while (!RESERVED.compareAndSet(reserved, sid, r, r + qty));
+		return true;
+	}
+
+	/**
+	 * Adds to (or, if negative, releases from) the units reserved in a security, without checking the position.
+	 * @param sid The id of the security.
+	 * @param qty The number of units.
+	 */
+	void addReserved(int sid, int qty) {
+		ensureCapacity(sid);
+		RESERVED.getAndAdd(reserved, sid, qty);
+	}
+
+	/**
+	 * Releases all reservations.
+	 */
+	void clearReserved() {
+		Arrays.fill(reserved, 0);
+	}
+
+	/**
+	 * @return The {@linkplain SecurityIndex} the positions of this book are indexed by.
+	 */
+	public SecurityIndex getSecurityIndex() {
+		return index;
+	}
+
+	/**
+	 * Copies the book, positions and reservations.
+	 * @param newIndex The index of the copy, giving the securities the same ids as the index of this book.
+	 * @return The copy.
+	 */
+	PositionBook copy(SecurityIndex newIndex) {
+		PositionBook c = new PositionBook(newIndex);
+		c.positions = positions.clone();
+		c.reserved = reserved.clone();
+		return c;
+	}
+
+	/**
+	 * Re-indexes the book by another {@linkplain SecurityIndex}, carrying all positions over by ticker.
+	 * @param newIndex The new index.
+	 */
+	void reindex(SecurityIndex newIndex) {
+		if (newIndex == index) {
 			return;
 		}
-		positions.put(tkr,currPos - removeQty);
+		int[] old = positions;
+		int[] oldReserved = reserved;
+		SecurityIndex oldIndex = index;
+		index = newIndex;
+		positions = new int[0];
+		reserved = new int[0];
+		for (int sid = 0; sid < old.length; sid++) {
+			if (old[sid] != 0 || oldReserved[sid] != 0) {
+				int id = index.register(oldIndex.getTicker(sid));
+				updatePosition(id, old[sid]);
+				reserved[id] = oldReserved[sid];
+			}
+		}
+	}
+
+	/**
+	 * Makes room for the positions with ids below {@code n}.
+	 * @param n The number of ids.
+	 */
+	void reserve(int n) {
+		if (n > positions.length) {
+			positions = Arrays.copyOf(positions, n);
+			reserved = Arrays.copyOf(reserved, n);
+		}
+	}
+
+	/**
+	 * Makes room for the position with id {@code sid}.
+	 */
+	private void ensureCapacity(int sid) {
+		if (sid >= positions.length) {
+			positions = Arrays.copyOf(positions, Math.max(sid + 1, index.size()));
+			reserved = Arrays.copyOf(reserved, positions.length);
+		}
 	}
 
 }
@@ -0,0 +1,177 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ca.yorku.cmg.lob.security.Security;
+
+/**
+ * Assigns each ticker traded in a {@linkplain StockExchange} a dense id (0, 1, 2, ...),
+ * so that per-security data can live in primitive arrays. Ids are assigned by {@linkplain #register(Security)} as securities are added;
+ * lookups never modify the index and may run on any number of threads, even while a security is being added.
+ * Lookups by {@linkplain Security} object go through an identity table of primitive ids and never hash the ticker string.
+ */
+public class SecurityIndex {
+	private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(Security[].class);
+
+	/**
+	 * Open addressing on identity hash codes. A slot's id is written before its key is published.
+	 */
+	private static final class Table {
+		final Security[] keys;
+		final int[] ids;
+
+		Table(int capacity) {
+			keys = new Security[capacity];
+			ids = new int[capacity];
+		}
+	}
+
+	private volatile Table table = new Table(32);
+	private int entries = 0;
+	private final ConcurrentHashMap<String, Integer> tickers = new ConcurrentHashMap<>();
+	private volatile Security[] securities = new Security[16];
+	private volatile String[] tickerOf = new String[16];
+	private volatile int size = 0;
+
+	/**
+	 * Returns the id of a security, assigning the next free id if its ticker has not been seen before.
+	 * A different {@linkplain Security} object with an already known ticker gets the id of that ticker.
+	 * @param sec The {@linkplain Security}.
+	 * @return The dense id of the security.
+	 */
+	public synchronized int register(Security sec) {
+		int id = idOf(sec);
+		if (id < 0) {
+			id = register(sec.getTicker());
+		}
+		if (securities[id] == null) {
+			securities[id] = sec;
+		}
+		if (lookup(table, sec) < 0) {
+			insert(sec, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Returns the id of a ticker, assigning the next free id if the ticker has not been seen before.
+	 * @param tkr The ticker.
+	 * @return The dense id of the ticker.
+	 */
+	public synchronized int register(String tkr) {
+		Integer id = tickers.get(tkr);
+		if (id != null) {
+			return id;
+		}
+		if (size == tickerOf.length) {
+			securities = Arrays.copyOf(securities, size * 2);
+			tickerOf = Arrays.copyOf(tickerOf, size * 2);
+		}
+		tickerOf[size] = tkr;
+		tickers.put(tkr, size);
+		return size++;
+	}
+
+	private void insert(Security sec, int id) {
+		Table t = table;
+		if (2 * (entries + 1) > t.keys.length) {
+			Table bigger = new Table(t.keys.length * 2);
+			for (int i = 0; i < t.keys.length; i++) {
+				if (t.keys[i] != null) {
+					put(bigger, t.keys[i], t.ids[i]);
+				}
+			}
+			put(bigger, sec, id);
+			table = bigger;
+		} else {
+			put(t, sec, id);
+		}
+		entries++;
+	}
+
+	private static void put(Table t, Security sec, int id) {
+		int mask = t.keys.length - 1;
+		int i = System.identityHashCode(sec) & mask;
+		while (t.keys[i] != null) {
+			i = (i + 1) & mask;
+		}
+		t.ids[i] = id;
+		KEYS.setRelease(t.keys, i, sec);
+	}
+
+	private static int lookup(Table t, Security sec) {
+		int mask = t.keys.length - 1;
+		int i = System.identityHashCode(sec) & mask;
+		Security k;
+		while ((k = (Security) KEYS.getAcquire(t.keys, i)) != null) {
+			if (k == sec) {
+				return t.ids[i];
+			}
+			i = (i + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the id of a security without assigning one.
+	 * @param sec The {@linkplain Security}.
+	 * @return The dense id of the security, or -1 if neither it nor its ticker has been registered.
+	 */
+	public int idOf(Security sec) {
+		int id = lookup(table, sec);
+		return id >= 0 ? id : idOf(sec.getTicker());
+	}
+
+	/**
+	 * Returns the id of a ticker without assigning one. Hashes the ticker; prefer {@linkplain #idOf(Security)} on hot paths.
+	 * @param tkr The ticker.
+	 * @return The dense id of the ticker, or -1 if the ticker has not been registered.
+	 */
+	public int idOf(String tkr) {
+		Integer id = tickers.get(tkr);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * @param id A dense id.
+	 * @return The {@linkplain Security} with that id, {@code null} if the id was only ever assigned through its ticker.
+	 */
+	public Security get(int id) {
+		return securities[id];
+	}
+
+	/**
+	 * @param id A dense id.
+	 * @return The ticker with that id.
+	 */
+	public String getTicker(int id) {
+		return tickerOf[id];
+	}
+
+	/**
+	 * @return The number of ids assigned so far; ids range from 0 to {@code size() - 1}.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return An index giving the same ids as this one, to which later ids are assigned independently of this one.
+	 */
+	public synchronized SecurityIndex copy() {
+		SecurityIndex c = new SecurityIndex();
+		for (int id = 0; id < size; id++) {
+			c.register(tickerOf[id]);
+		}
+		Table t = table;
+		for (int i = 0; i < t.keys.length; i++) {
+			if (t.keys[i] != null) {
+				c.register(t.keys[i]);
+			}
+		}
+		return c;
+	}
+}
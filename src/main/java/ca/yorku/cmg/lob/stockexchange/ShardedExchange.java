@@ -0,0 +1,331 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.book.LevelListener;
+import ca.yorku.cmg.lob.stockexchange.book.LimitOrderBook;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevel;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevelOrderbook;
+import ca.yorku.cmg.lob.stockexchange.book.RestingOrder;
+import ca.yorku.cmg.lob.stockexchange.concurrent.MpscQueue;
+import ca.yorku.cmg.lob.stockexchange.marketdata.MarketDataCache;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+/**
+ * Runs a {@linkplain StockExchange} on several threads by partitioning its securities across shards, each the only thread touching its books.
+ * Accounts are settled atomically across shards, without locks. While it runs, the sharded exchange takes over the exchange;
+ * {@linkplain #close()} hands back the resting orders, market data and logs. All securities must be known before sharding.
+ */
+public class ShardedExchange implements OrderIntake, AutoCloseable {
+
+	private final StockExchange exchange;
+	private final SecurityIndex index;
+	private final Shard[] shards;
+	private final MatchingMode matchingMode;
+	private final boolean riskChecks;
+	private final LevelListener depth;
+	private volatile boolean running = true;
+	//Raised by close() before it waits for the orders submitted: orders submitted afterwards are rejected
+	private volatile boolean closing = false;
+
+	/**
+	 * Shards an exchange and starts one thread per shard.
+	 * @param exchange The exchange, with its securities and accounts loaded.
+	 * @param shards The number of shards; securities are assigned to shards by id.
+	 */
+	public ShardedExchange(StockExchange exchange, int shards) {
+		if (shards < 1) {
+			throw new IllegalArgumentException("Number of shards must be positive: " + shards);
+		}
+		if (exchange.intake != null) {
+			throw new IllegalStateException("Exchange is already sharded or pipelined");
+		}
+		this.exchange = exchange;
+		this.index = exchange.getSecurityIndex();
+		this.matchingMode = exchange.getMatchingMode();
+		this.riskChecks = exchange.isRiskChecks();
+		this.shards = new Shard[shards];
+		for (int i = 0; i < shards; i++) {
+			this.shards[i] = new Shard(i);
+		}
+
+		for (Account a : exchange.getAccounts().getAccounts()) {
+			a.reservePositions(index.size());
+		}
+
+		//The shards take over the market data and resting orders of their securities
+		for (int sid = 0; sid < index.size(); sid++) {
+			shardOf(sid).marketData.copy(sid, exchange.getMarketData());
+		}
+		//Moving orders does not change the depth, so level listeners only follow the books once the orders are in place
+		this.depth = exchange.getOrderbook().getLevelListener();
+		exchange.getOrderbook().setLevelListener(null);
+		moveRestingOrders(exchange.getOrderbook(), null);
+		for (Shard s : this.shards) {
+			s.book.setLevelListener(depth);
+		}
+
+		exchange.intake = this;
+		for (Shard s : this.shards) {
+			s.thread.start();
+		}
+	}
+
+	/**
+	 * Queues an order for the shard of its security. Safe to call from any thread; never blocks.
+	 * Every order accepted is processed before {@linkplain #close()} returns.
+	 * @param order The order.
+	 * @param time The time of submission.
+	 * @throws IllegalStateException If the sharded exchange is closing or closed.
+	 */
+	@Override
+	public void submitOrder(IOrder order, long time) {
+		int sid = index.idOf(order.getSecurity());
+		if (sid < 0) {
+			System.err.println("Error in ShardedExchange#submitOrder: unknown security " + order.getSecurity().getTicker());
+			return;
+		}
+		Shard s = shardOf(sid);
+		//close() raises the flag, then waits for the submitters it did not stop: one of the two sees the other
+		s.entering.incrementAndGet();
+		try {
+			if (closing) {
+				throw new IllegalStateException("Sharded exchange is closed");
+			}
+			s.submitted.incrementAndGet();
+			s.queue.offer(new Submission(order, time, sid));
+			if (s.parked) {
+				LockSupport.unpark(s.thread);
+			}
+		} finally {
+			s.entering.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Waits until every order submitted so far has been processed.
+	 */
+	public void awaitIdle() {
+		for (Shard s : shards) {
+			int spins = 0;
+			while (s.processed < s.submitted.get()) {
+				if (++spins < 100) {
+					Thread.onSpinWait();
+				} else {
+					LockSupport.parkNanos(10_000);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rejects further orders, waits for all orders submitted, stops the shard threads and hands the books, market data, orders and trades
+	 * back to the exchange, which then processes orders on its own again.
+	 */
+	@Override
+	public void close() {
+		if (closing) {
+			return;
+		}
+		closing = true;
+		for (Shard s : shards) {
+			while (s.entering.get() != 0) {
+				Thread.onSpinWait();
+			}
+		}
+		awaitIdle();
+		running = false;
+		for (Shard s : shards) {
+			LockSupport.unpark(s.thread);
+		}
+		boolean interrupted = false;
+		for (Shard s : shards) {
+			while (s.thread.isAlive()) {
+				try {
+					s.thread.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		exchange.intake = null;
+		for (int sid = 0; sid < index.size(); sid++) {
+			exchange.getMarketData().copy(sid, shardOf(sid).marketData);
+		}
+		for (Shard s : shards) {
+			s.book.setLevelListener(null);
+			moveRestingOrders(s.book, exchange.getOrderbook());
+			exchange.recordSharded(s.orders, s.trades);
+		}
+		exchange.getOrderbook().setLevelListener(depth);
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Moves all resting orders of a book, level by level in priority order, to another book, or to the books of their shards.
+	 */
+	private void moveRestingOrders(PriceLevelOrderbook from, PriceLevelOrderbook to) {
+		List<IOrder> moved = new ArrayList<IOrder>();
+		for (LimitOrderBook b : from.getBooks()) {
+			for (PriceLevel level : b.getBidLevels()) {
+				for (RestingOrder n = level.getFirst(); n != null; n = n.getNext()) {
+					moved.add(n.getOrder());
+				}
+			}
+			for (PriceLevel level : b.getAskLevels()) {
+				for (RestingOrder n = level.getFirst(); n != null; n = n.getNext()) {
+					moved.add(n.getOrder());
+				}
+			}
+		}
+		for (IOrder o : moved) {
+			from.cancelOrder(o.getID());
+			if (to != null) {
+				to.addOrder(o);
+			} else {
+				shardOf(index.idOf(o.getSecurity())).book.addOrder(o);
+			}
+		}
+	}
+
+	private Shard shardOf(int sid) {
+		return shards[sid % shards.length];
+	}
+
+	/**
+	 * @param sec A security known to the exchange.
+	 * @return The index of the shard that owns the security.
+	 */
+	public int getShard(Security sec) {
+		return index.idOf(sec) % shards.length;
+	}
+
+	/**
+	 * @return The number of shards.
+	 */
+	public int getShardCount() {
+		return shards.length;
+	}
+
+	/**
+	 * Reads a price from the market data of the shard owning a security, as {@linkplain StockExchange#getPrice(Security)}.
+	 * Read from another thread than the shard's, the price may lag behind the orders still queued.
+	 * @param sid The id of the security.
+	 * @return The current price, 0 if nothing is known about the security.
+	 */
+	@Override
+	public int getPrice(int sid) {
+		return sid < 0 ? 0 : shardOf(sid).marketData.getPrice(sid);
+	}
+
+	/**
+	 * @return The number of orders processed so far, across all shards.
+	 */
+	public long getProcessedCount() {
+		long n = 0;
+		for (Shard s : shards) {
+			n += s.processed;
+		}
+		return n;
+	}
+
+	/**
+	 * An order waiting in the queue of a shard.
+	 */
+	private static final class Submission {
+		final IOrder order;
+		final long time;
+		final int sid;
+
+		Submission(IOrder order, long time, int sid) {
+			this.order = order;
+			this.time = time;
+			this.sid = sid;
+		}
+	}
+
+	/**
+	 * A partition of the securities, with the one thread that processes their orders.
+	 */
+	private final class Shard implements Runnable {
+		final MpscQueue<Submission> queue = new MpscQueue<Submission>();
+		final AtomicLong submitted = new AtomicLong();
+		final AtomicInteger entering = new AtomicInteger();
+		volatile long processed = 0;
+		volatile boolean parked = false;
+		final Thread thread;
+
+		//Owned by the shard thread while it runs
+		final PriceLevelOrderbook book = new PriceLevelOrderbook();
+		final MarketDataCache marketData = new MarketDataCache();
+		final ArrayList<ITrade> fills = new ArrayList<ITrade>();
+		final StockExchange.Settlement settlement = exchange.new Settlement();
+		final ArrayList<IOrder> orders = new ArrayList<IOrder>();
+		final ArrayList<ITrade> trades = new ArrayList<ITrade>();
+
+		Shard(int i) {
+			thread = new Thread(this, "exchange-shard-" + i);
+			thread.setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				Submission s = queue.poll();
+				if (s == null) {
+					if (!running) {
+						return;
+					}
+					//Producers unpark after offering if they see the flag; re-check the queue after raising it so no wakeup is lost
+					parked = true;
+					if (queue.isEmpty() && running) {
+						LockSupport.park(this);
+					}
+					parked = false;
+					continue;
+				}
+				try {
+					process(s.order, s.time, s.sid);
+				} catch (RuntimeException e) {
+					System.err.println("Error in ShardedExchange: order " + s.order.getID() + " failed: " + e);
+				}
+				processed = processed + 1;
+			}
+		}
+
+		/**
+		 * The shard's part of {@linkplain StockExchange#submitOrder(IOrder, long)}.
+		 */
+		private void process(IOrder order, long time, int sid) {
+			if (riskChecks && !exchange.reserve(order, sid)) {
+				return;
+			}
+			if (matchingMode == MatchingMode.CONTINUOUS) {
+				fills.clear();
+				settlement.sid = sid;
+				book.matchOrder(order, time, fills, settlement);
+				for (int i = 0; i < fills.size(); i++) {
+					ITrade t = fills.get(i);
+					marketData.onTrade(sid, t.getPrice(), t.getQuantity());
+					trades.add(t);
+				}
+				if (order.getQuantity() > 0) {
+					book.addOrder(order);
+				}
+			} else {
+				book.addOrder(order);
+			}
+			LimitOrderBook b = book.getBook(order.getSecurity());
+			marketData.onTopOfBook(sid, b.getBestBidPrice(), b.getBestAskPrice());
+			orders.add(order);
+		}
+	}
+}
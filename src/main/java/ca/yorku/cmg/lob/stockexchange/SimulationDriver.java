@@ -0,0 +1,208 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import ca.yorku.cmg.lob.stockexchange.events.EventTimeline;
+import ca.yorku.cmg.lob.stockexchange.events.NewsBoard;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Runs a simulation over a {@linkplain StockExchange} as a discrete-event simulation: rather than advancing time tick by tick and having every
+ * {@linkplain ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgent} poll for news at every tick, the driver jumps from one time at which something
+ * happens to the next. Something happens at a time if a news event of the {@linkplain NewsBoard} is at that time
+ * ({@linkplain EventTimeline.Cursor#peekNextTime()}), an order added with {@linkplain #addOrders(Collection)} is due, or an action was
+ * {@linkplain #schedule(long, Runnable) scheduled}. Times at which nothing happens cost nothing, however long the horizon.
+ * <p>At each time, in this order:</p>
+ * <ol>
+ * <li>the orders due are submitted to the exchange, in the order they were added, as one batch ({@linkplain StockExchange#submitOrders(Collection)});</li>
+ * <li>the news events at that time are pushed to the agents subscribed to their securities, which are the agents holding them, so only those
+ * agents wake; as with polling, each agent handles all of its events, in the order they were loaded, before the next agent handles any
+ * ({@linkplain NewsBoard#notifyObservers(List)});</li>
+ * <li>the scheduled actions are run, in the order they were scheduled.</li>
+ * </ol>
+ * <p>Delivering events this way leads to the same orders, in the same order, as polling every agent at every tick, as long as the agents
+ * subscribed to each security did so in the order in which they poll, as they do when subscribed by initial positions listed in that order.
+ * Events must be loaded into the news board before the driver is created.</p>
+ */
+public class SimulationDriver {
+	private final StockExchange exchange;
+	private final NewsBoard news;
+	private final EventTimeline.Cursor events;
+
+	//Orders not yet submitted, sorted by time, from next on
+	private IOrder[] orders = new IOrder[0];
+	private int next = 0;
+
+	private final PriorityQueue<Scheduled> actions = new PriorityQueue<>();
+	private long scheduled = 0;
+
+	private long now = Long.MIN_VALUE;
+	private long steps = 0;
+
+	/**
+	 * Constructor
+	 * @param exchange The exchange, with its securities, accounts and news events loaded.
+	 */
+	public SimulationDriver(StockExchange exchange) {
+		this.exchange = exchange;
+		this.news = exchange.getNewsBoard();
+		this.events = news.getTimeline().cursor();
+	}
+
+	/**
+	 * Creates a driver over a fork of the exchange of this one, e.g., {@linkplain StockExchange#fork()}, that goes on from the current time:
+	 * its news cursor is past every event at or before the current time, in the timeline of the news board of the fork, so events loaded into
+	 * the fork beforehand are delivered if they are later. Orders not yet submitted and scheduled actions are not carried over, as they belong to this exchange.
+	 * @param fork The forked exchange.
+	 * @return The new driver, at the current time.
+	 */
+	public SimulationDriver fork(StockExchange fork) {
+		SimulationDriver d = new SimulationDriver(fork);
+		if (now != Long.MIN_VALUE) {
+			d.events.advanceTo(now);
+		}
+		d.now = now;
+		return d;
+	}
+
+	/**
+	 * Adds orders to be submitted, each at its own time ({@linkplain IOrder#getTime()}). Orders due at the same time are submitted
+	 * in the order they were added.
+	 * @param more The orders.
+	 * @throws IllegalArgumentException If an order is due at or before the current time.
+	 */
+	public void addOrders(Collection<? extends IOrder> more) {
+		IOrder[] merged = Arrays.copyOf(Arrays.copyOfRange(orders, next, orders.length), orders.length - next + more.size());
+		int n = orders.length - next;
+		for (IOrder o : more) {
+			checkFuture(o.getTime());
+			merged[n++] = o;
+		}
+		Arrays.sort(merged, Comparator.comparingLong(IOrder::getTime)); //stable
+		orders = merged;
+		next = 0;
+	}
+
+	/**
+	 * Schedules an action, e.g., the {@linkplain StockExchange#uncross(long)} closing a call period. An action may schedule more.
+	 * @param time The time at which to run the action.
+	 * @param action The action.
+	 * @throws IllegalArgumentException If {@code time} is not after the current time.
+	 */
+	public void schedule(long time, Runnable action) {
+		checkFuture(time);
+		actions.add(new Scheduled(time, scheduled++, action));
+	}
+
+	private void checkFuture(long time) {
+		if (time <= now) {
+			throw new IllegalArgumentException("Time " + time + " is not after the current time " + now);
+		}
+	}
+
+	/**
+	 * @return The next time at which something happens, or {@linkplain Long#MAX_VALUE} if nothing is left to happen.
+	 */
+	public long nextTime() {
+		long t = events.peekNextTime();
+		if (next < orders.length) {
+			t = Math.min(t, orders[next].getTime());
+		}
+		if (!actions.isEmpty()) {
+			t = Math.min(t, actions.peek().time);
+		}
+		return t;
+	}
+
+	/**
+	 * Advances to the next time at which something happens and processes everything that happens then.
+	 * @return The time processed, or {@linkplain Long#MAX_VALUE} if nothing was left to happen.
+	 */
+	public long step() {
+		long t = nextTime();
+		if (t == Long.MAX_VALUE) {
+			return t;
+		}
+		now = t;
+		steps++;
+
+		int from = next;
+		while (next < orders.length && orders[next].getTime() == t) {
+			next++;
+		}
+		if (next - from == 1) {
+			exchange.submitOrder(orders[from], t);
+		} else if (next > from) {
+			exchange.submitOrders(Arrays.asList(orders).subList(from, next));
+		}
+		Arrays.fill(orders, from, next, null);
+
+		news.notifyObservers(events.advanceTo(t));
+
+		while (!actions.isEmpty() && actions.peek().time == t) {
+			actions.poll().action.run();
+		}
+		return t;
+	}
+
+	/**
+	 * Processes, in time order, everything that happens up to a time, included.
+	 * @param end The time to stop at.
+	 * @return The number of times processed.
+	 */
+	public long runUntil(long end) {
+		long n = 0;
+		long t;
+		while ((t = nextTime()) != Long.MAX_VALUE && t <= end) {
+			step();
+			n++;
+		}
+		return n;
+	}
+
+	/**
+	 * Processes everything that is left to happen, in time order.
+	 * @return The number of times processed.
+	 */
+	public long run() {
+		return runUntil(Long.MAX_VALUE - 1);
+	}
+
+	/**
+	 * @return The last time processed, {@linkplain Long#MIN_VALUE} before the first step.
+	 */
+	public long getTime() {
+		return now;
+	}
+
+	/**
+	 * @return The number of times processed so far, which is all the driver ever wakes up for.
+	 */
+	public long getSteps() {
+		return steps;
+	}
+
+	/**
+	 * An action waiting for its time. Actions at the same time run in the order they were scheduled.
+	 */
+	private static class Scheduled implements Comparable<Scheduled> {
+		final long time;
+		final long seq;
+		final Runnable action;
+
+		Scheduled(long time, long seq, Runnable action) {
+			this.time = time;
+			this.seq = seq;
+			this.action = action;
+		}
+
+		@Override
+		public int compareTo(Scheduled o) {
+			return time != o.time ? Long.compare(time, o.time) : Long.compare(seq, o.seq);
+		}
+	}
+}
@@ -1,19 +1,46 @@
 package ca.yorku.cmg.lob.stockexchange;
 
 import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import ca.yorku.cmg.lob.orderbook.Ask;
 import ca.yorku.cmg.lob.orderbook.Bid;
-import ca.yorku.cmg.lob.orderbook.Orderbook;
-import ca.yorku.cmg.lob.orderbook.Trade;
 import ca.yorku.cmg.lob.security.Security;
 import ca.yorku.cmg.lob.security.SecurityList;
+import ca.yorku.cmg.lob.stockexchange.book.FillSettler;
+import ca.yorku.cmg.lob.stockexchange.book.LimitOrderBook;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevel;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevelOrderbook;
+import ca.yorku.cmg.lob.stockexchange.book.RestingOrder;
 import ca.yorku.cmg.lob.stockexchange.events.NewsBoard;
+import ca.yorku.cmg.lob.stockexchange.ingest.IngestReport;
+import ca.yorku.cmg.lob.stockexchange.ingest.MappedOrderFileReader;
+import ca.yorku.cmg.lob.stockexchange.ingest.OrderLogReader;
+import ca.yorku.cmg.lob.stockexchange.ingest.OrderLogWriter;
+import ca.yorku.cmg.lob.stockexchange.ingest.OrderSink;
+import ca.yorku.cmg.lob.stockexchange.ingest.TickerLookup;
+import ca.yorku.cmg.lob.stockexchange.journal.OrderCodec;
+import ca.yorku.cmg.lob.stockexchange.journal.SpillingJournal;
+import ca.yorku.cmg.lob.stockexchange.journal.TradeCodec;
+import ca.yorku.cmg.lob.stockexchange.marketdata.DepthFeed;
+import ca.yorku.cmg.lob.stockexchange.marketdata.MarketDataCache;
+import ca.yorku.cmg.lob.stockexchange.metrics.ExchangeMetrics;
+import ca.yorku.cmg.lob.stockexchange.metrics.OrderSubmittedEvent;
+import ca.yorku.cmg.lob.stockexchange.report.ReportWriter;
+import ca.yorku.cmg.lob.stockexchange.tradingagent.INewsObserver;
 import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgent;
 import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgentAggressive;
 import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgentConservative;
@@ -21,46 +48,725 @@ import ca.yorku.cmg.lob.trader.Trader;
 import ca.yorku.cmg.lob.trader.TraderInstitutional;
 import ca.yorku.cmg.lob.trader.TraderRetail;
 import ca.yorku.cmg.lob.tradestandards.IOrder;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
 
 /**
  * Represents a stock exchange that manages securities, accounts, orders, and trades.
+ * <p>Closing an exchange closes the files its logs may be spilled to ({@linkplain #spillLogsTo(Path, int)}).</p>
  */
-public class StockExchange {
+public class StockExchange implements Closeable {
 
-		private Orderbook book;
+		/** The first id of the orders numbered by an exchange with {@linkplain #setLocalOrderIds(boolean) local ids}, far above the ids of the shared counter. */
+		public static final long LOCAL_ORDER_ID_BASE = 1L << 40;
+
+		private PriceLevelOrderbook book;
 		private NewsBoard newsDesk;
 		
 		private SecurityList securities = new SecurityList();
-		private AccountsList accounts = new AccountsList();
-		private ArrayList<Trade> tradesLog = new ArrayList<Trade>();
+		private List<ITrade> tradesLog = new ArrayList<ITrade>();
 		private ArrayList<TradingAgent> traders = new ArrayList<TradingAgent>();
+		private Map<Trader, TradingAgent> agents = new IdentityHashMap<Trader, TradingAgent>();
+		//Position of each agent in traders, the order in which agents poll for news
+		private Map<INewsObserver, Integer> agentRanks = new IdentityHashMap<INewsObserver, Integer>();
+		
+		private List<IOrder> log = new ArrayList<>();
 		
-		private ArrayList<IOrder> log = new ArrayList<>();
+		private SecurityIndex securityIndex = new SecurityIndex();
+		private AccountsList accounts = new AccountsList(securityIndex);
+		private MarketDataCache marketData = new MarketDataCache();
+		private DepthFeed depthFeed;
 		
-		private Map<String, Integer> prices = new HashMap<String, Integer>();
+		//Per-exchange order ids, when on
+		private boolean localOrderIds = false;
+		private final AtomicLong nextOrderId = new AtomicLong(LOCAL_ORDER_ID_BASE);
 					
-		long totalFees = 0;
+		//Added to by every thread settling trades
+		private final LongAdder totalFees = new LongAdder();
+		
+		private MatchingMode matchingMode = MatchingMode.NONE;
+		
+		//Scratch list receiving the fills of the order being matched
+		private ArrayList<ITrade> fills = new ArrayList<ITrade>();
+		private final Settlement settlement = new Settlement();
+		
+		private OrderLogWriter orderLog = null;
+		
+		//Orders read from files are submitted in batches of this many
+		private static final int BATCH_SIZE = 1 << 16;
+		
+		//Pre-trade risk checks, see setRiskChecks
+		private boolean riskChecks = false;
+		private final LongAdder riskRejected = new LongAdder();
+		private final LongAdder failedSettlements = new LongAdder();
+		
+		//Null unless metrics are on
+		private ExchangeMetrics metrics = null;
+		
+		//Set while a ShardedExchange or an ExchangePipeline owns the books and receives the orders
+		OrderIntake intake = null;
+		
+		//Set once the security list is shared with a snapshot
+		private boolean securitiesShared = false;
 
 		/**
-		 * A <a href="https://en.wikipedia.org/wiki/Method_stub">method stub</a> that traders or other calling environments can call to register a new order. <p>NOTE: the order is not processed by the stock exchange, feature yet to be implemented. Orders are kept in a list for testing.</p> 
+		 * Called by traders or other calling environments to register a new order. If the calling thread runs inside an {@linkplain OrderSequencer}, the order is only captured, to be submitted when the sequencer is released. If {@linkplain #setRiskChecks(boolean) risk checks} are on, an order the account cannot cover is rejected here and leaves no trace, as is an order for a security not traded here. If an order log is set, the order is appended to it. Under {@linkplain MatchingMode#NONE} (the default) and {@linkplain MatchingMode#CALL_AUCTION} the order is only added to the book. Under {@linkplain MatchingMode#CONTINUOUS} it is first matched against the opposite side of the book, every resulting trade is settled, and only the unfilled remainder rests. Orders are also kept in a list for testing. While a {@linkplain ShardedExchange} or an {@linkplain ExchangePipeline} runs over this exchange, the order is handed to it instead.
 		 * @param order The {@linkplain IOrder} implementing object to be submitted. 
 		 * @param time The time of submission. 
 		 */
 		public void submitOrder(IOrder order, long time) {
-			if (order instanceof Bid) {
-				book.getBids().addOrder((Bid) order);
+			if (OrderSequencer.defer(this, order, time)) {
+				return;
+			}
+			if (order instanceof PendingOrder) {
+				order = ((PendingOrder) order).create();
+			}
+			ExchangeMetrics m = metrics;
+			if (intake != null) {
+				if (m != null) {
+					m.countOrder();
+				}
+				intake.submitOrder(order, time);
+				return;
+			}
+			if (m == null) {
+				processOrder(order, time);
+				return;
+			}
+			OrderSubmittedEvent event = new OrderSubmittedEvent();
+			event.begin();
+			int quantity = order.getQuantity();
+			int trades = tradesLog.size();
+			long start = System.nanoTime();
+			processOrder(order, time);
+			m.recordSubmit(System.nanoTime() - start);
+			if (event.shouldCommit()) {
+				event.ticker = order.getSecurity().getTicker();
+				event.bid = order instanceof Bid;
+				event.price = order.getPrice();
+				event.quantity = quantity;
+				event.fills = tradesLog.size() - trades;
+				event.commit();
+			}
+		}
+		
+		/**
+		 * Submits a batch of orders, each at its own time ({@linkplain IOrder#getTime()}), with the same result as submitting them one by one
+		 * in array order with {@linkplain #submitOrder(IOrder, long)}: same books, with the same priorities, same order log, same logs, same market data.
+		 * <p>Under {@linkplain MatchingMode#NONE} and {@linkplain MatchingMode#CALL_AUCTION}, where orders only rest, the batch is grouped by security and side with a counting sort,
+		 * each group is sorted by price (keeping arrival order within a price), and each run of orders at one price is appended to its
+		 * price level in one go, so each level is looked up once per batch rather than once per order, and the top of each book is read once.
+		 * Under continuous matching, or with risk checks on, while sharded or pipelined, or inside an {@linkplain OrderSequencer}, where
+		 * the outcome of an order depends on every order before it, the orders are submitted one by one. With metrics on, orders of a
+		 * bulk-inserted batch are counted but not timed.</p>
+		 * @param orders The orders, in arrival order.
+		 */
+		public void submitOrders(IOrder[] orders) {
+			submitOrders(orders, orders.length);
+		}
+		
+		/**
+		 * Submits a batch of orders as {@linkplain #submitOrders(IOrder[])}, in the iteration order of the collection.
+		 * @param orders The orders, in arrival order.
+		 */
+		public void submitOrders(Collection<? extends IOrder> orders) {
+			submitOrders(orders.toArray(new IOrder[0]));
+		}
+		
+		/**
+		 * Submits the first {@code n} orders of an array as {@linkplain #submitOrders(IOrder[])}. Keeps no reference to the array.
+		 */
+		private void submitOrders(IOrder[] orders, int n) {
+			if (matchingMode == MatchingMode.CONTINUOUS || riskChecks || intake != null || OrderSequencer.isActive()) {
+				for (int i = 0; i < n; i++) {
+					submitOrder(orders[i], orders[i].getTime());
+				}
+				return;
+			}
+			int[] sids = new int[n];
+			for (int i = 0; i < n; i++) {
+				sids[i] = securityIndex.idOf(orders[i].getSecurity());
+				if (sids[i] < 0) {
+					//Rejected one by one
+					for (int j = 0; j < n; j++) {
+						submitOrder(orders[j], orders[j].getTime());
+					}
+					return;
+				}
+			}
+			for (int i = 0; i < n; i++) {
+				writeOrderLog(orders[i], sids[i], orders[i].getTime());
+			}
+			
+			//Counting sort on (security, side); books are created in order of first appearance, as one by one
+			int groups = 2 * securityIndex.size();
+			int[] start = new int[groups + 1];
+			for (int i = 0; i < n; i++) {
+				int g = 2 * sids[i] + (orders[i] instanceof Bid ? 1 : 0);
+				if (start[g + 1]++ == 0 && start[(g ^ 1) + 1] == 0) {
+					book.getBook(orders[i].getSecurity());
+				}
+			}
+			for (int g = 0; g < groups; g++) {
+				start[g + 1] += start[g];
+			}
+			//Within a group, sort by price, then by arrival
+			long[] keys = new long[n];
+			int[] next = Arrays.copyOf(start, groups);
+			for (int i = 0; i < n; i++) {
+				int g = 2 * sids[i] + (orders[i] instanceof Bid ? 1 : 0);
+				keys[next[g]++] = ((long) orders[i].getPrice() << 32) | i;
+			}
+			IOrder[] sorted = new IOrder[n];
+			for (int g = 0; g < groups; g++) {
+				Arrays.sort(keys, start[g], start[g + 1]);
+				for (int k = start[g]; k < start[g + 1]; k++) {
+					sorted[k] = orders[(int) keys[k]];
+				}
+			}
+			
+			for (int g = 0; g < groups; g += 2) {
+				if (start[g + 2] > start[g]) {
+					Security sec = sorted[start[g]].getSecurity();
+					book.getBook(sec).addAll(sorted, start[g], start[g + 1]);
+					book.getBook(sec).addAll(sorted, start[g + 1], start[g + 2]);
+					updateTopOfBook(sec);
+				}
+			}
+			log.addAll(Arrays.asList(orders).subList(0, n));
+			if (metrics != null) {
+				metrics.countOrders(n);
+			}
+		}
+		
+		/**
+		 * The work of {@linkplain #submitOrder(IOrder, long)} once the order is to be processed here: risk checks, order log, matching or resting, logging.
+		 * @param order The order
+		 * @param time The time of submission
+		 */
+		private void processOrder(IOrder order, long time) {
+			int sid = securityIndex.idOf(order.getSecurity());
+			if (sid < 0) {
+				System.err.println("Order rejected, security not traded in this exchange: " + order.getSecurity().getTicker());
+				return;
+			}
+			if (riskChecks && !reserve(order, sid)) {
+				return;
+			}
+			if (orderLog != null) {
+				writeOrderLog(order, sid, time);
+			}
+			if (matchingMode == MatchingMode.CONTINUOUS) {
+				matchOrder(order, time);
 			} else {
-				book.getAsks().addOrder((Ask) order);
+				book.addOrder(order);
+			}
+			updateTopOfBook(order.getSecurity());
+			log.add(order);
+		}
+		
+		/**
+		 * Appends an order to the order log, if one is set.
+		 * @param order The order
+		 * @param sid The id of its security
+		 * @param time The time of submission
+		 * @throws UncheckedIOException If the log cannot be written
+		 */
+		void writeOrderLog(IOrder order, int sid, long time) {
+			if (orderLog == null) {
+				return;
 			}
+			try {
+				orderLog.append(order, sid, time);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		/**
+		 * Adds an order processed elsewhere, e.g., by an {@linkplain ExchangePipeline}, to the list of orders kept for testing.
+		 * @param order The order
+		 */
+		void logOrder(IOrder order) {
 			log.add(order);
 		}
 
 		/**
-		 * A <a href="https://en.wikipedia.org/wiki/Method_stub">method stub</a> that returns the price of a ticker. <p>NOTE: the price is based on an initial list read from a file. Price identification based on consulting the Ask halfbook not implemented</p> 
+		 * Adds a trade settled elsewhere, e.g., by an {@linkplain ExchangePipeline}, to the trades log.
+		 * @param t The trade
+		 */
+		void logTrade(ITrade t) {
+			tradesLog.add(t);
+		}
+
+		/**
+		 * Pushes the current best bid and ask of a security to the market data cache.
+		 * @param sec The security whose book has changed
+		 */
+		private void updateTopOfBook(Security sec) {
+			LimitOrderBook b = book.getBook(sec);
+			marketData.onTopOfBook(securityIndex.idOf(sec), b.getBestBidPrice(), b.getBestAskPrice());
+		}
+		
+		/**
+		 * Matches an incoming order against the opposite side of the book, settles the resulting trades and rests whatever quantity is left.
+		 * An order whose side of a trade fails to settle is dropped, see {@linkplain #getFailedSettlementCount()}.
+		 * @param order The incoming order
+		 * @param time The time of submission
+		 */
+		private void matchOrder(IOrder order, long time) {
+			fills.clear();
+			int sid = securityIndex.idOf(order.getSecurity());
+			settlement.sid = sid;
+			if (metrics == null) {
+				book.matchOrder(order, time, fills, settlement);
+			} else {
+				long start = System.nanoTime();
+				book.matchOrder(order, time, fills, settlement);
+				metrics.recordMatch(System.nanoTime() - start, fills.size());
+			}
+			for (int i = 0; i < fills.size(); i++) {
+				logSettled(fills.get(i), sid);
+			}
+			if (order.getQuantity() > 0) {
+				book.addOrder(order);
+			}
+		}
+		
+		/**
+		 * Pulls a resting order out of the book, found by its id ({@linkplain IOrder#getID()}) in the order id index of the
+		 * {@linkplain PriceLevelOrderbook}, so in constant time plus, if its price level empties, a logarithmic removal of the level.
+		 * With {@linkplain #setRiskChecks(boolean) risk checks} on, what the order still commits is released. If the calling thread runs
+		 * inside an {@linkplain OrderSequencer}, the cancel is only captured, to be applied in turn with the orders when the sequencer is released.
+		 * Cancels are not written to the order log.
+		 * @param orderId The id of the order
+		 * @return The cancelled order, or {@code null} if no order with that id rests in the book or the cancel was captured
+		 * @throws IllegalStateException If the exchange is sharded or pipelined
+		 */
+		public IOrder cancelOrder(long orderId) {
+			if (OrderSequencer.defer(() -> cancelOrder(orderId))) {
+				return null;
+			}
+			if (intake != null) {
+				throw new IllegalStateException("Exchange is sharded or pipelined");
+			}
+			IOrder order = book.cancelOrder(orderId);
+			if (order == null) {
+				return null;
+			}
+			if (riskChecks) {
+				adjustReservation(order, securityIndex.idOf(order.getSecurity()), 0, 0);
+			}
+			updateTopOfBook(order.getSecurity());
+			return order;
+		}
+
+		/**
+		 * As {@linkplain #replaceOrder(long, int, int, long)}, at the time of the order being replaced.
+		 * @param orderId The id of the order
+		 * @param newPrice The new price
+		 * @param newQty The new quantity
+		 * @return {@code false} if no order with that id rests in the book, if the replacement is rejected by the risk checks, or if it was captured
+		 */
+		public boolean replaceOrder(long orderId, int newPrice, int newQty) {
+			checkReplacement(newPrice, newQty);
+			if (OrderSequencer.defer(() -> replaceOrder(orderId, newPrice, newQty))) {
+				return false;
+			}
+			return replace(orderId, newPrice, newQty, 0, false);
+		}
+
+		/**
+		 * Changes the price and quantity of a resting order, found by id as in {@linkplain #cancelOrder(long)}. The order object is updated
+		 * and keeps its id. A replace that only lowers the quantity, at the same price, keeps the order's place in the queue of its level.
+		 * Any other replace loses it: the order leaves the book and comes back as if newly submitted at {@code time}, so under
+		 * {@linkplain MatchingMode#CONTINUOUS} it trades if its new price crosses the book.
+		 * <p>With {@linkplain #setRiskChecks(boolean) risk checks} on, only the difference between what the order commits before and after is
+		 * checked and reserved, or released; a replace the account cannot cover is rejected, counted in {@linkplain #getRiskRejectedCount()},
+		 * and leaves the order as it was. Inside an {@linkplain OrderSequencer} the replace is only captured, like {@linkplain #cancelOrder(long)}.
+		 * Replaces are not written to the order log.</p>
+		 * @param orderId The id of the order
+		 * @param newPrice The new price
+		 * @param newQty The new quantity
+		 * @param time The time of the replace
+		 * @return {@code false} if no order with that id rests in the book, if the replacement is rejected by the risk checks, or if it was captured
+		 * @throws IllegalArgumentException If {@code newPrice} or {@code newQty} is not positive; use {@linkplain #cancelOrder(long)} to pull an order
+		 * @throws IllegalStateException If the exchange is sharded or pipelined
+		 */
+		public boolean replaceOrder(long orderId, int newPrice, int newQty, long time) {
+			checkReplacement(newPrice, newQty);
+			if (OrderSequencer.defer(() -> replaceOrder(orderId, newPrice, newQty, time))) {
+				return false;
+			}
+			return replace(orderId, newPrice, newQty, time, true);
+		}
+
+		/**
+		 * @throws IllegalArgumentException If the price or quantity of a replacement is not positive
+		 */
+		private static void checkReplacement(int newPrice, int newQty) {
+			if (newPrice <= 0 || newQty <= 0) {
+				throw new IllegalArgumentException("Invalid price " + newPrice + " or quantity " + newQty);
+			}
+		}
+
+		/**
+		 * The work of {@linkplain #replaceOrder(long, int, int, long)} once the replace is to be applied here.
+		 * @param orderId The id of the order
+		 * @param newPrice The new price
+		 * @param newQty The new quantity
+		 * @param time The time of the replace
+		 * @param retime {@code false} to use the time of the order instead of {@code time}
+		 * @return {@code false} if no order with that id rests in the book, or if the replacement is rejected by the risk checks
+		 */
+		private boolean replace(long orderId, int newPrice, int newQty, long time, boolean retime) {
+			if (intake != null) {
+				throw new IllegalStateException("Exchange is sharded or pipelined");
+			}
+			RestingOrder node = book.getOrder(orderId);
+			if (node == null) {
+				return false;
+			}
+			IOrder order = node.getOrder();
+			int sid = securityIndex.idOf(order.getSecurity());
+			if (riskChecks && !adjustReservation(order, sid, newPrice, newQty)) {
+				riskRejected.increment();
+				return false;
+			}
+			if (newPrice == order.getPrice() && newQty <= order.getQuantity()) {
+				if (newQty < order.getQuantity()) {
+					book.getBook(order.getSecurity()).reduce(node, order.getQuantity() - newQty);
+				}
+				return true;
+			}
+			if (!retime) {
+				time = order.getTime();
+			}
+			book.cancelOrder(orderId);
+			order.setPrice(newPrice);
+			order.setQuantity(newQty);
+			order.setTime(time);
+			if (matchingMode == MatchingMode.CONTINUOUS) {
+				matchOrder(order, time);
+			} else {
+				book.addOrder(order);
+			}
+			updateTopOfBook(order.getSecurity());
+			return true;
+		}
+
+		/**
+		 * Moves the reservation of a resting order from what it commits now to what it would commit at another price and quantity:
+		 * cash at the limit price for a bid, units for an ask. An increase is checked against what the account has available.
+		 * @param order The resting order, as it is now
+		 * @param sid The id of its security
+		 * @param newPrice The new price, 0 with {@code newQty} 0 to release all
+		 * @param newQty The new quantity
+		 * @return {@code false} if an increase cannot be covered, in which case nothing changes
+		 */
+		private boolean adjustReservation(IOrder order, int sid, int newPrice, int newQty) {
+			Account a = accounts.getTraderAccount(order.getTrader());
+			if (a == null) {
+				return true;
+			}
+			if (order instanceof Bid) {
+				long delta = (long) newPrice * newQty - (long) order.getPrice() * order.getQuantity();
+				if (delta > 0) {
+					return a.tryReserveCash(delta);
+				}
+				a.addReservedCash(delta);
+			} else {
+				int delta = newQty - order.getQuantity();
+				if (delta > 0) {
+					return a.tryReservePosition(sid, delta);
+				}
+				a.addReservedPosition(sid, delta);
+			}
+			return true;
+		}
+
+		/**
+		 * Logs a settled trade and passes it to the market data.
+		 * @param t The trade, settled
+		 * @param sid The id of the traded security
+		 */
+		private void logSettled(ITrade t, int sid) {
+			marketData.onTrade(sid, t.getPrice(), t.getQuantity());
+			tradesLog.add(t);
+		}
+
+		/**
+		 * Settles a trade against the accounts: moves cash and units between buyer and seller, and charges both fees.
+		 * If the seller's units or the buyer's cash fall short, nothing moves and the trade counts in {@linkplain #getFailedSettlementCount()}.
+		 * @param t The trade to settle
+		 * @param sid The id of the traded security
+		 * @return The fees charged, or {@linkplain FillSettler#BUYER_FAILED} or {@linkplain FillSettler#SELLER_FAILED} if the trade was not settled
+		 */
+		int settleAccounts(ITrade t, int sid) {
+			Account buyer = accounts.getTraderAccount(t.getBuyer());
+			Account seller = accounts.getTraderAccount(t.getSeller());
+			
+			//ITrade#getValue() is an int, too small for large trades
+			long value = (long) t.getPrice() * t.getQuantity();
+			if (!seller.tryDeductPosition(sid, t.getQuantity())) {
+				failedSettlements.increment();
+				return FillSettler.SELLER_FAILED;
+			}
+			if (!buyer.withdrawMoney(value)) {
+				seller.addToPosition(sid, t.getQuantity());
+				failedSettlements.increment();
+				return FillSettler.BUYER_FAILED;
+			}
+			if (buyer.getPosition(sid) == 0) {
+				subscribeToNews(t.getBuyer(), t.getSecurity());
+			}
+			buyer.addToPosition(sid, t.getQuantity());
+			seller.addMoney(value);
+			
+			t.setBuyerFee(buyer.getFee(t));
+			t.setSellerFee(seller.getFee(t));
+			buyer.applyFee(t);
+			seller.applyFee(t);
+			return t.getBuyerFee() + t.getSellerFee();
+		}
+
+		/**
+		 * Settles the accounts of a trade and adds its fees to the total. Safe to call from any thread; never blocks.
+		 * @param t The trade to settle
+		 * @param sid The id of the traded security
+		 * @return {@linkplain FillSettler#SETTLED}, or why nothing was settled, as {@linkplain #settleAccounts(ITrade, int)}
+		 */
+		int settleConcurrently(ITrade t, int sid) {
+			int fees = settleAccounts(t, sid);
+			if (fees < 0) {
+				return fees;
+			}
+			totalFees.add(fees);
+			return FillSettler.SETTLED;
+		}
+
+		/**
+		 * Settles the fills of a book as it matches them, for one security at a time, on the thread matching the book.
+		 */
+		final class Settlement implements FillSettler {
+			//The security of the book being matched
+			int sid;
+
+			@Override
+			public int settle(ITrade trade, IOrder bid, IOrder ask) {
+				int result = settleConcurrently(trade, sid);
+				if (result == SETTLED && riskChecks) {
+					releaseFill(trade, sid, bid.getPrice());
+				}
+				return result;
+			}
+
+			@Override
+			public void dropped(IOrder order) {
+				if (riskChecks) {
+					adjustReservation(order, sid, 0, 0);
+				}
+			}
+		}
+
+		/**
+		 * @return The number of trades matched but not settled because the buyer's balance or the seller's position did not cover them.
+		 * Such trades are not logged and leave the book as it was, but for the order of the side that failed, which is dropped.
+		 * Pre-trade {@linkplain #setRiskChecks(boolean) risk checks} prevent them.
+		 */
+		public long getFailedSettlementCount() {
+			return failedSettlements.sum();
+		}
+
+		/**
+		 * Turns metrics on, or off with {@code null}. Each submitted order is counted once, and timed unless bulk-inserted or handed to a sharded exchange or pipeline.
+		 * @param metrics The metrics, or {@code null}. Off by default.
+		 */
+		public void setMetrics(ExchangeMetrics metrics) {
+			this.metrics = metrics;
+			newsDesk.setMetrics(metrics);
+			if (metrics != null) {
+				metrics.setBookDepth(book::size);
+			}
+		}
+
+		/**
+		 * @return The metrics set by {@linkplain #setMetrics(ExchangeMetrics)}, {@code null} if metrics are off
+		 */
+		public ExchangeMetrics getMetrics() {
+			return metrics;
+		}
+
+		/**
+		 * Turns pre-trade risk checks on or off. While on, every submitted order must be covered by what its account has not yet committed
+		 * to resting orders: a bid by the available balance ({@linkplain Account#getAvailableBalance()}) at its limit price, an ask by the
+		 * available units ({@linkplain Account#getAvailablePosition(int)}). An accepted order reserves that much; the reservation
+		 * is released as the order fills (the bid side at the bid's limit price) and, for what is left, when it is cancelled.
+		 * Each check and each release is a constant-time update of the account, whatever the number of resting orders.
+		 * Orders that fail the check are counted in {@linkplain #getRiskRejectedCount()}. Fees are not reserved.
+		 * <p>Off by default. Turning checks on recomputes the reservations of all accounts from the resting orders, once.</p>
+		 * @param on {@code true} to check orders
+		 * @throws IllegalStateException If the exchange is sharded or pipelined
+		 */
+		public void setRiskChecks(boolean on) {
+			if (intake != null) {
+				throw new IllegalStateException("Exchange is sharded or pipelined");
+			}
+			if (on && !riskChecks) {
+				rebuildReservations();
+			}
+			riskChecks = on;
+		}
+
+		/**
+		 * @return {@code true} if pre-trade risk checks are on
+		 */
+		public boolean isRiskChecks() {
+			return riskChecks;
+		}
+
+		/**
+		 * @return The number of orders rejected by the pre-trade risk checks
+		 */
+		public long getRiskRejectedCount() {
+			return riskRejected.sum();
+		}
+
+		/**
+		 * Checks an incoming order against what its account has not yet committed and, if covered, reserves what it commits.
+		 * Safe to call from several threads.
+		 * @param order The order
+		 * @param sid The id of its security
+		 * @return {@code false} if the order is rejected
+		 */
+		boolean reserve(IOrder order, int sid) {
+			Account a = accounts.getTraderAccount(order.getTrader());
+			boolean ok = a != null && (order instanceof Bid
+					? a.tryReserveCash((long) order.getPrice() * order.getQuantity())
+					: a.tryReservePosition(sid, order.getQuantity()));
+			if (!ok) {
+				riskRejected.increment();
+			}
+			return ok;
+		}
+
+		/**
+		 * Releases what a trade filled from the reservations of both sides, given the limit price of the bid.
+		 * @param t The trade, settled
+		 * @param sid The id of the traded security
+		 * @param bidPrice The limit price of the bid filled, at which its cash was reserved
+		 */
+		private void releaseFill(ITrade t, int sid, int bidPrice) {
+			accounts.getTraderAccount(t.getBuyer()).addReservedCash(-(long) bidPrice * t.getQuantity());
+			accounts.getTraderAccount(t.getSeller()).addReservedPosition(sid, -t.getQuantity());
+		}
+
+		/**
+		 * Ends a call period: uncrosses the book of every security in a single-price auction (see {@linkplain LimitOrderBook#auctionPrice(int)}),
+		 * ties being broken towards the current price of the security. The resulting trades are settled and logged as they execute, in
+		 * price-time priority, book by book; what does not execute stays in the book. Typically called at the end of a
+		 * {@linkplain MatchingMode#CALL_AUCTION} period, before switching to continuous matching, but it uncrosses whatever book it finds.
+		 * @param time The time of execution
+		 * @return The number of units executed, over all securities
+		 * @throws IllegalStateException If the exchange is sharded or pipelined
+		 */
+		public long uncross(long time) {
+			if (intake != null) {
+				throw new IllegalStateException("Exchange is sharded or pipelined");
+			}
+			long volume = 0;
+			for (LimitOrderBook b : book.getBooks()) {
+				int sid = securityIndex.idOf(b.getSecurity());
+				fills.clear();
+				settlement.sid = sid;
+				if (b.uncross(marketData.getPrice(sid), time, fills, settlement) == 0) {
+					continue;
+				}
+				for (int i = 0; i < fills.size(); i++) {
+					ITrade t = fills.get(i);
+					logSettled(t, sid);
+					volume += t.getQuantity();
+				}
+				updateTopOfBook(b.getSecurity());
+			}
+			return volume;
+		}
+
+		/**
+		 * Sets the reservations of all accounts to what their resting orders commit.
+		 */
+		private void rebuildReservations() {
+			for (Account a : accounts.getAccounts()) {
+				a.clearReservations();
+			}
+			for (LimitOrderBook b : book.getBooks()) {
+				int sid = securityIndex.idOf(b.getSecurity());
+				for (PriceLevel level : b.getBidLevels()) {
+					for (RestingOrder n = level.getFirst(); n != null; n = n.getNext()) {
+						Account a = accounts.getTraderAccount(n.getOrder().getTrader());
+						if (a != null) {
+							a.addReservedCash((long) level.getPrice() * n.getOrder().getQuantity());
+						}
+					}
+				}
+				for (PriceLevel level : b.getAskLevels()) {
+					for (RestingOrder n = level.getFirst(); n != null; n = n.getNext()) {
+						Account a = accounts.getTraderAccount(n.getOrder().getTrader());
+						if (a != null) {
+							a.addReservedPosition(sid, n.getOrder().getQuantity());
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Takes in what a {@linkplain ShardedExchange} processed, as if it had been submitted here.
+		 * @param orders The orders submitted
+		 * @param trades The trades settled
+		 */
+		void recordSharded(List<IOrder> orders, List<ITrade> trades) {
+			log.addAll(orders);
+			tradesLog.addAll(trades);
+		}
+
+		/**
+		 * Subscribes the trading agent of a trader, if it has one, to the news of a security it now holds.
+		 * @param t The trader
+		 * @param sec The security
+		 */
+		private void subscribeToNews(Trader t, Security sec) {
+			TradingAgent agent = agents.get(t);
+			if (agent != null) {
+				//Shards settle trades on several threads
+				synchronized (newsDesk) {
+					newsDesk.registerObserver(agent, sec);
+				}
+			}
+		}
+		
+		/**
+		 * Returns the current price of a ticker: the last trade price if it has traded, else the mid of a two-sided, uncrossed book, else the reference price read by {@linkplain #readPriceListfromFile(String)}.
+		 * Hashes the ticker: callers holding the {@linkplain Security} use {@linkplain #getPrice(Security)}.
 		 * @param tkr The ticker whose price is to be returned
+		 * @return The current price, 0 if nothing is known about the ticker
 		 */
 		public int getPrice(String tkr) {
-			return(prices.get(tkr));
+			if (intake != null) {
+				return(intake.getPrice(securityIndex.idOf(tkr)));
+			}
+			return(marketData.getPrice(securityIndex.idOf(tkr)));
+		}
+		
+		/**
+		 * Returns the current price of a security, as {@linkplain #getPrice(String)}, without hashing its ticker or allocating.
+		 * @param sec The {@linkplain Security} whose price is to be returned
+		 * @return The current price, 0 if nothing is known about the security
+		 */
+		public int getPrice(Security sec) {
+			if (intake != null) {
+				return(intake.getPrice(securityIndex.idOf(sec)));
+			}
+			return(marketData.getPrice(securityIndex.idOf(sec)));
 		}
 		
 		
@@ -69,12 +775,25 @@ public class StockExchange {
 		 * @return The output
 		 */
 		public String getLogTestSample() {
-			String out = "";
+			StringBuilder out = new StringBuilder();
+			try {
+				writeLogTestSample(new ReportWriter(out));
+			} catch (IOException e) {
+				//A StringBuilder does not throw
+				throw new UncheckedIOException(e);
+			}
+			return(out.toString());
+		}
+		
+		/**
+		 * Writes the output described by {@linkplain #getLogTestSample()}.
+		 * @param out The writer the output is written to.
+		 * @throws IOException If the writer fails.
+		 */
+		public void writeLogTestSample(ReportWriter out) throws IOException {
 			for (IOrder r: log) {
-				out += String.format("[%3d  %s  %6d  %6d]", 
-						r.getTrader().getID(), r.getSecurity().getTicker(), r.getPrice(), r.getQuantity());
+				out.orderSample(r);
 			}
-			return(out);
 		}
 		
 		
@@ -82,12 +801,188 @@ public class StockExchange {
 	     * Default constructor for the Exchange class.
 	     */
 		public StockExchange(){
-			book = new Orderbook();
+			book = new PriceLevelOrderbook();
+			depthFeed = new DepthFeed(book);
 			newsDesk = new NewsBoard(getSecurities());
+			newsDesk.setStateVersion(this::changeCount);
+			newsDesk.setObserverRank(o -> agentRanks.getOrDefault(o, Integer.MAX_VALUE));
+		}
+
+		/**
+		 * The state version of a security for parallel news delivery: agents only read its price and their positions in it.
+		 */
+		private long changeCount(Security sec) {
+			return marketData.getChangeCount(securityIndex.idOf(sec));
+		}
+
+		/**
+		 * Creates an exchange in the state of a snapshot, see {@linkplain ExchangeSnapshot#fork()}.
+		 * @param s The snapshot
+		 */
+		StockExchange(ExchangeSnapshot s) {
+			securities = s.securities;
+			securitiesShared = true;
+			securityIndex = s.securityIndex.copy();
+			accounts = s.accounts.fork(securityIndex);
+			book = s.book.fork();
+			depthFeed = new DepthFeed(book);
+			for (int sid = 0; sid < securityIndex.size(); sid++) {
+				marketData.copy(sid, s.marketData);
+			}
+			newsDesk = new NewsBoard(securities, s.timeline);
+			newsDesk.setStateVersion(this::changeCount);
+			newsDesk.setObserverRank(o -> agentRanks.getOrDefault(o, Integer.MAX_VALUE));
+			for (int i = 0; i < s.agents.length; i++) {
+				TradingAgent agent = s.conservative[i] ? new TradingAgentConservative(s.agents[i], this, newsDesk)
+						: new TradingAgentAggressive(s.agents[i], this, newsDesk);
+				agentRanks.put(agent, traders.size());
+				traders.add(agent);
+				agents.put(s.agents[i], agent);
+			}
+			for (int sid = 0; sid < s.subscribers.length; sid++) {
+				for (Trader t : s.subscribers[sid]) {
+					newsDesk.registerObserver(agents.get(t), securityIndex.get(sid));
+				}
+			}
+			matchingMode = s.matchingMode;
+			riskChecks = s.riskChecks;
+			localOrderIds = s.localOrderIds;
+			nextOrderId.set(s.nextOrderId);
+			totalFees.add(s.totalFees);
+		}
+
+		/**
+		 * Freezes the state of the exchange, to {@linkplain ExchangeSnapshot#fork() fork} any number of independent exchanges from it later,
+		 * e.g., to play out alternative news from the same point. Accounts and books are not copied: the exchange and the forks share them and
+		 * each copies an account or a book, resting orders included, the first time it touches it after the snapshot, so the snapshot costs
+		 * O(1) in the number of accounts and resting orders, plus O(1) per security and per agent. Orders resting at the time of the snapshot
+		 * are thus replaced, in this exchange too, by copies with the same ids as their books are copied: order objects held by the caller
+		 * no longer follow fills and replacements. The security list is shared, and can no longer be added to.
+		 * @return The snapshot
+		 * @throws IllegalStateException If the exchange is sharded or pipelined
+		 */
+		public ExchangeSnapshot snapshot() {
+			if (intake != null) {
+				throw new IllegalStateException("Exchange is sharded or pipelined");
+			}
+			securitiesShared = true;
+			MarketDataCache prices = new MarketDataCache();
+			for (int sid = 0; sid < securityIndex.size(); sid++) {
+				prices.copy(sid, marketData);
+			}
+			return new ExchangeSnapshot(securities, securityIndex.copy(), accounts.snapshot(), book.snapshot(StockExchange::copyOrder),
+					prices, newsDesk, traders, matchingMode, riskChecks, localOrderIds, nextOrderId.get(), totalFees.sum());
+		}
+
+		/**
+		 * Creates an independent exchange in the current state of this one, as {@linkplain #snapshot()} then {@linkplain ExchangeSnapshot#fork()}.
+		 * @return The fork
+		 * @throws IllegalStateException If the exchange is sharded or pipelined
+		 */
+		public StockExchange fork() {
+			return snapshot().fork();
+		}
+
+		/**
+		 * Copies a resting order, with its id, for a book being copied on write.
+		 */
+		private static IOrder copyOrder(IOrder o) {
+			if (o instanceof Bid) {
+				return new LocalBid(o.getTrader(), o.getSecurity(), o.getPrice(), o.getQuantity(), o.getTime(), o.getID());
+			}
+			return new LocalAsk(o.getTrader(), o.getSecurity(), o.getPrice(), o.getQuantity(), o.getTime(), o.getID());
+		}
+
+		/**
+		 * Adds a security to the exchange, as a line of the security list file does.
+		 * @param code The ticker
+		 * @param description The name of the security
+		 * @throws IllegalStateException If the security list is shared with a {@linkplain #snapshot()}
+		 */
+		public void addSecurity(String code, String description) {
+			if (securitiesShared) {
+				throw new IllegalStateException("The security list is shared with a snapshot");
+			}
+			securities.addSecurity(code, description);
+			securityIndex.register(securities.getSecurityByTicker(code));
+		}
+
+		/**
+		 * Opens an account and creates the trading agent of an existing trader, as a line of the accounts file does.
+		 * The trader object may be shared with other exchanges: it is only ever read.
+		 * @param t The trader
+		 * @param accountType {@code "Basic"} for an {@linkplain AccountBasic}, anything else for an {@linkplain AccountPro}
+		 * @param initBalance The initial cash balance, in cents
+		 * @param tradingStyle {@code "Conservative"} for a {@linkplain TradingAgentConservative}, anything else for a {@linkplain TradingAgentAggressive}
+		 */
+		public void addAccount(Trader t, String accountType, long initBalance, String tradingStyle) {
+			if (accountType.equals("Basic")) {
+				accounts.addAccount(new AccountBasic(t,initBalance,securityIndex));
+			} else {
+				accounts.addAccount(new AccountPro(t,initBalance,securityIndex));
+			}
+			TradingAgent agent;
+			if (tradingStyle.equals("Conservative")) {
+				agent = new TradingAgentConservative(t,this,newsDesk);
+			} else {
+				agent = new TradingAgentAggressive(t,this,newsDesk);
+			}
+			agentRanks.put(agent, traders.size());
+			traders.add(agent);
+			agents.put(t, agent);
+		}
+
+		/**
+		 * Sets the holding of an account in a security, as a line of the initial positions file does, and subscribes the trading agent
+		 * of the account holder to the news of the security if it holds any.
+		 * @param t The trader, who has an account
+		 * @param sec The security, traded in this exchange
+		 * @param count The number of units held
+		 */
+		public void setInitialPosition(Trader t, Security sec, int count) {
+			accounts.getTraderAccount(t).updatePosition(sec.getTicker(), count);
+			if (count > 0) {
+				subscribeToNews(t, sec);
+			}
 		}
 
 		/**
-		 * Read the initial prices of the stocks from a file. Format: [Ticker, Company Title, Price]. <p>NOTE: Quick fix to be used by stubs. Price should be inferred from the Ask book.</p>. 
+		 * Creates an order, for the trading agents and the order readers of this exchange. Its id comes from the id counter shared by all
+		 * orders of the JVM ({@linkplain ca.yorku.cmg.lob.orderbook.Order#resetID()}), unless {@linkplain #setLocalOrderIds(boolean) local ids} are on.
+		 * Inside an {@linkplain OrderSequencer} the order is only created, with its id, when the sequencer releases it; it must be submitted with
+		 * {@linkplain #submitOrder(IOrder, long)} and reports an id of -1 until then.
+		 * @param t The trader
+		 * @param sec The security
+		 * @param bid {@code true} for a {@linkplain Bid}, {@code false} for an {@linkplain Ask}
+		 * @param price The limit price
+		 * @param qty The quantity
+		 * @param time The time of the order
+		 * @return The order
+		 */
+		public IOrder newOrder(Trader t, Security sec, boolean bid, int price, int qty, long time) {
+			if (OrderSequencer.isActive()) {
+				return new PendingOrder(this, t, sec, bid, price, qty, time);
+			}
+			if (localOrderIds) {
+				long id = nextOrderId.getAndIncrement();
+				return bid ? new LocalBid(t, sec, price, qty, time, id) : new LocalAsk(t, sec, price, qty, time, id);
+			}
+			return bid ? new Bid(t, sec, price, qty, time) : new Ask(t, sec, price, qty, time);
+		}
+
+		/**
+		 * Makes the orders created by {@linkplain #newOrder(Trader, Security, boolean, int, int, long)} take their ids from a counter of this
+		 * exchange, starting from {@linkplain #LOCAL_ORDER_ID_BASE}, instead of the counter shared by all orders of the JVM, so that exchanges
+		 * running side by side number their orders alike whatever the others do. Off by default. Orders created elsewhere keep their shared ids,
+		 * which stay below that range.
+		 * @param on {@code true} for ids local to this exchange
+		 */
+		public void setLocalOrderIds(boolean on) {
+			localOrderIds = on;
+		}
+
+		/**
+		 * Read the initial (reference) prices of the stocks from a file. Format: [Ticker, Company Title, Price]. The reference price is what {@linkplain #getPrice(String)} reports until a ticker trades or has a two-sided book. Tickers must already be in the security list.
 		 * @param filePath The path of the file
 		 */
 		public void readPriceListfromFile(String filePath) {
@@ -109,7 +1004,12 @@ public class StockExchange {
 
 					try {
 						int value = Integer.parseInt(priceStr); // Convert the value to an integer
-						prices.put(tkr, value);
+						Security sec = securities.getSecurityByTicker(tkr);
+						if (sec == null) {
+							System.err.println("Price list: Ticker not traded in this exchange: " + line);
+						} else {
+							marketData.setReferencePrice(securityIndex.idOf(sec), value);
+						}
 					} catch (NumberFormatException e) {
 						System.err.println("Invalid number format for value: " + priceStr + " in line: " + line);
 					}
@@ -138,9 +1038,7 @@ public class StockExchange {
 	                }
 	                String[] parts = line.split(",", -1); // Split by comma
 	                if (parts.length >= 2) {
-	                    String code = parts[0].trim();
-	                    String description = parts[1].trim();
-	                    securities.addSecurity(code, description);
+	                    addSecurity(parts[0].trim(), parts[1].trim());
 	                } else {
 	                    System.err.println("Skipping malformed line: " + line);
 	                }
@@ -178,17 +1076,7 @@ public class StockExchange {
 	                    } else {
 	                    	t = new TraderInstitutional(traderTitle);
 	                    }
-	                    if (accType.equals("Basic")) {
-	                    	accounts.addAccount(new AccountBasic(t,initBalance));
-	                    } else {
-	                    	accounts.addAccount(new AccountPro(t,initBalance));
-	                    }
-	                    if (tradingStyle.equals("Conservative")) {
-	                    	traders.add(new TradingAgentConservative(t,this,newsDesk));
-	                    } else {
-	                    	traders.add(new TradingAgentAggressive(t,this,newsDesk));
-	                    }
-	                    
+	                    addAccount(t, accType, initBalance, tradingStyle);
 	                } else {
 	                    System.err.println("Skipping malformed line (two few attributes): " + line);
 	                }
@@ -199,7 +1087,7 @@ public class StockExchange {
 		}
 		
 	    /**
-	     * Reads initial positions from a file and updates account holdings.
+	     * Reads initial positions from a file and updates account holdings. The trading agents of the account holders are subscribed to the news of the securities they hold.
 	     * 
 	     * @param path the path to the initial positions file
 	     */
@@ -225,7 +1113,7 @@ public class StockExchange {
 	                    } else if (securities.getSecurityByTicker(tkr) == null) { 
 	                    	System.err.println("Initial Balances: Ticker not traded in this exchange: " + line);
 	                    } else {
-	                    	accounts.getTraderAccount(trad).updatePosition(tkr, count);
+	                    	setInitialPosition(trad, securities.getSecurityByTicker(tkr), count);
 	                    }
 	                } else {
 	                    System.err.println("Skipping malformed line (too few attributes): " + line);
@@ -237,11 +1125,12 @@ public class StockExchange {
 		}
 		
 	    /**
-	     * Processes a file containing orders and submits them to the exchange.
+	     * Processes a file containing orders and submits them to the exchange, in batches of {@value #BATCH_SIZE} (see {@linkplain #submitOrders(IOrder[])}).
 	     * 
 	     * @param path the path to the orders file
 	     */
 		public void processOrderFile(String path) {
+			OrderBatch batch = new OrderBatch();
 		    try (BufferedReader br = new BufferedReader(new FileReader(path))) {
 	            String line;
 	            boolean isFirstLine = true; // Skip header
@@ -265,9 +1154,9 @@ public class StockExchange {
 	                    
 	                    if ((t!=null) && (sec!=null)) {
 	                        if (type.equals("ask")) {
-	                        	submitOrder(new Ask(t,sec,price,qty,time), time);
+	                        	batch.add(newOrder(t,sec,false,price,qty,time));
 	                        } else if (type.equals("bid")) {
-	                        	submitOrder(new Bid(t,sec,price,qty,time), time);
+	                        	batch.add(newOrder(t,sec,true,price,qty,time));
 	                        } else {
 	                        	System.err.println("Order type not found (skipping): " + line);
 	                        }
@@ -278,12 +1167,99 @@ public class StockExchange {
 	            }
 	        } catch (IOException e) {
 	            e.printStackTrace();
+	        } finally {
+	        	batch.flush();
 	        }
 		}
 		
-
-
-
+	    /**
+	     * Processes an order file like {@linkplain #processOrderFile(String)}, but by memory-mapping it and parsing fields in place
+	     * (see {@linkplain MappedOrderFileReader}), which suits multi-gigabyte files. Orders are submitted in batches of {@value #BATCH_SIZE} as they are parsed.
+	     * Lines that are skipped are counted rather than reported one by one; if there are any, a one-line summary is printed.
+	     * 
+	     * @param path the path to the orders file
+	     * @return the counts of accepted and skipped lines, {@code null} if the file could not be read
+	     */
+		public IngestReport ingestOrderFile(String path) {
+			TickerLookup tickers = new TickerLookup(securities::getSecurityByTicker);
+			for (int id = 0; id < securityIndex.size(); id++) {
+				if (securityIndex.get(id) != null) {
+					tickers.add(securityIndex.get(id));
+				}
+			}
+			OrderBatch batch = new OrderBatch();
+			try {
+				IngestReport report = new MappedOrderFileReader(tickers).read(Paths.get(path), batch);
+				if (report.skipped() > 0) {
+					System.err.println("Order file " + path + ": " + report);
+				}
+				return report;
+			} catch (IOException e) {
+				e.printStackTrace();
+				return null;
+			} finally {
+				batch.flush();
+			}
+		}
+		
+	    /**
+	     * Replays a binary order log written by an {@linkplain OrderLogWriter}, submitting its orders in log order, in batches of {@value #BATCH_SIZE}, e.g., to rebuild
+	     * the state of a session after a crash. The exchange must hold the securities and accounts of the session.
+	     * If orders are skipped (unknown trader or security), a one-line summary is printed.
+	     * 
+	     * @param path the path to the order log
+	     * @return the counts of replayed and skipped orders, {@code null} if the log could not be read
+	     */
+		public IngestReport replayOrderLog(String path) {
+			OrderBatch batch = new OrderBatch();
+			try {
+				IngestReport report = new OrderLogReader(securities::getSecurityByTicker).read(Paths.get(path), batch);
+				if (report.skipped() > 0) {
+					System.err.println("Order log " + path + ": " + report);
+				}
+				return report;
+			} catch (IOException e) {
+				e.printStackTrace();
+				return null;
+			} finally {
+				batch.flush();
+			}
+		}
+		
+		/**
+		 * Collects the orders read from a file and submits them in batches with {@linkplain StockExchange#submitOrders(IOrder[])}.
+		 * Orders must be submitted at their own time.
+		 */
+		private class OrderBatch implements OrderSink {
+			private final IOrder[] orders = new IOrder[BATCH_SIZE];
+			private int n = 0;
+			
+			void add(IOrder order) {
+				orders[n++] = order;
+				if (n == orders.length) {
+					flush();
+				}
+			}
+			
+			/**
+			 * @return {@code false} if the trader has no account in this exchange.
+			 */
+			@Override
+			public boolean accept(int tid, Security sec, boolean bid, int price, int qty, long time) {
+				Trader t = accounts.getTraderByID(tid);
+				if (t == null) {
+					return false;
+				}
+				add(newOrder(t, sec, bid, price, qty, time));
+				return true;
+			}
+			
+			void flush() {
+				submitOrders(orders, n);
+				Arrays.fill(orders, 0, n, null);
+				n = 0;
+			}
+		}
 
 		/**
 	     * Prints a table of current ask orders.
@@ -292,7 +1268,7 @@ public class StockExchange {
 	     * @return a string representation of the ask table
 	     */
 		public String printAskTable(boolean header) {
-			return(book.getAsks().printAllOrders(header));
+			return(book.printAllOrders(false, header));
 		}
 		
 	    /**
@@ -302,7 +1278,7 @@ public class StockExchange {
 	     * @return a string representation of the bid table
 	     */
 		public String printBidTable(boolean header) {
-			return(book.getBids().printAllOrders(header));
+			return(book.printAllOrders(true, header));
 		}
 		
 	    /**
@@ -312,15 +1288,31 @@ public class StockExchange {
 	     * @return a string representation of the trades log
 	     */
 		public String printTradesLog(boolean header) {
-			String output = "";
+			StringBuilder out = new StringBuilder();
+			try {
+				writeTradesLog(new ReportWriter(out), header);
+			} catch (IOException e) {
+				//A StringBuilder does not throw
+				throw new UncheckedIOException(e);
+			}
+			return (out.toString());
+		}
+
+	    /**
+	     * Writes the log of completed trades, as {@linkplain #printTradesLog(boolean)} prints it.
+	     * 
+	     * @param out the writer the log is written to
+	     * @param header whether to include a header in the output
+	     * @throws IOException if the writer fails
+	     */
+		public void writeTradesLog(ReportWriter out, boolean header) throws IOException {
 			if (header) {
-				output = "[From____  To______  Tkr_  Quantity  Price__  Time____]\n";
+				out.text("[From____  To______  Tkr_  Quantity  Price__  Time____]\n");
 				//"[%8d  %8d  %s  %8d  %7.2f  %8d]\n", 
 			}
-			for (Trade t: tradesLog) {
-				output += t.toString();
+			for (ITrade t: tradesLog) {
+				out.trade(t);
 			}
-			return (output);
 		}
 
 	    /**
@@ -332,6 +1324,17 @@ public class StockExchange {
 		public String printBalances(boolean header) {
 			return(accounts.debugPrintBalances(header));
 		}
+
+	    /**
+	     * Writes the account balances of the exchange's customers, as {@linkplain #printBalances(boolean)} prints them.
+	     * 
+	     * @param out the writer the balances are written to
+	     * @param header whether to include a header in the output
+	     * @throws IOException if the writer fails
+	     */
+		public void writeBalances(ReportWriter out, boolean header) throws IOException {
+			accounts.writeBalances(out, header);
+		}
 		
 	    /**
 	     * Prints the total fees collected by the exchange.
@@ -342,10 +1345,10 @@ public class StockExchange {
 		public String printFeesCollected(boolean header) {
 			if (header) {
 				return (String.format("            Fees Collected TOTAL: %16s", 
-						String.format("$%,.2f",this.totalFees/100.0)));
+						String.format("$%,.2f",getTotalFees()/100.0)));
 			} else {
 				return (String.format("%16s", 
-						String.format("$%,.2f",this.totalFees/100.0)));
+						String.format("$%,.2f",getTotalFees()/100.0)));
 			}
 		}
 		
@@ -389,5 +1392,146 @@ public class StockExchange {
 			return newsDesk;
 		}
 
+		/**
+		 * Returns the way submitted orders are handled.
+		 * @return the current {@linkplain MatchingMode}
+		 */
+		public MatchingMode getMatchingMode() {
+			return matchingMode;
+		}
+
+		/**
+		 * Sets the way submitted orders are handled. Affects only orders submitted after the call.
+		 * @param matchingMode the new {@linkplain MatchingMode}
+		 */
+		public void setMatchingMode(MatchingMode matchingMode) {
+			this.matchingMode = matchingMode;
+		}
+
+		/**
+		 * Returns the log of trades settled by the exchange, in the order they were executed.
+		 * @return the list of settled {@linkplain ITrade} objects
+		 */
+		public List<ITrade> getTradesLog() {
+			return tradesLog;
+		}
+
+		/**
+		 * Returns the log of orders accepted by the exchange, in the order they were submitted.
+		 * @return the list of submitted {@linkplain IOrder} objects
+		 */
+		public List<IOrder> getOrdersLog() {
+			return log;
+		}
+
+		/**
+		 * Replaces the list the accepted orders are logged in, e.g., by a {@linkplain SpillingJournal}. Orders already logged are copied to it.
+		 * @param journal the new log of orders
+		 */
+		public void setOrdersJournal(List<IOrder> journal) {
+			journal.addAll(log);
+			log = journal;
+		}
+
+		/**
+		 * Replaces the list the settled trades are logged in, e.g., by a {@linkplain SpillingJournal}. Trades already logged are copied to it.
+		 * @param journal the new log of trades
+		 */
+		public void setTradesJournal(List<ITrade> journal) {
+			journal.addAll(tradesLog);
+			tradesLog = journal;
+		}
+
+		/**
+		 * Bounds the memory used by the order and trade logs: each keeps its {@code capacity} most recent entries in memory and
+		 * spills older ones to a file in {@code dir} ({@code orders.journal} and {@code trades.journal}). Entries already logged are kept.
+		 * Journals the logs were spilled to before are closed once their entries are copied, so {@code dir} must be another directory.
+		 * @param dir the directory of the journal files
+		 * @param capacity the number of orders, and of trades, kept in memory
+		 * @throws IOException if the journal files cannot be created
+		 */
+		public void spillLogsTo(Path dir, int capacity) throws IOException {
+			List<IOrder> oldOrders = log;
+			List<ITrade> oldTrades = tradesLog;
+			setOrdersJournal(new SpillingJournal<>(dir.resolve("orders.journal"), capacity,
+					new OrderCodec(accounts::getTraderByID, securityIndex::idOf, securityIndex::get)));
+			closeLog(oldOrders);
+			setTradesJournal(new SpillingJournal<>(dir.resolve("trades.journal"), capacity,
+					new TradeCodec(accounts::getTraderByID, securityIndex::idOf, securityIndex::get)));
+			closeLog(oldTrades);
+		}
+
+		/**
+		 * Closes the order and trade logs if they hold files, e.g., {@linkplain SpillingJournal}s. The logs cannot be read afterwards.
+		 * @throws IOException if a log cannot be closed
+		 */
+		@Override
+		public void close() throws IOException {
+			closeLog(log);
+			closeLog(tradesLog);
+		}
+
+		private static void closeLog(List<?> l) throws IOException {
+			if (l instanceof Closeable) {
+				((Closeable) l).close();
+			}
+		}
+
+		/**
+		 * Returns the total fees collected by the exchange, in cents.
+		 * @return the total fees collected
+		 */
+		public long getTotalFees() {
+			return totalFees.sum();
+		}
+
+		/**
+		 * Returns the order book of the exchange.
+		 * @return the {@linkplain PriceLevelOrderbook} holding all resting orders
+		 */
+		public PriceLevelOrderbook getOrderbook() {
+			return book;
+		}
+
+		/**
+		 * Returns the dense id assignment of the securities traded in the exchange.
+		 * @return the {@linkplain SecurityIndex} of the exchange
+		 */
+		public SecurityIndex getSecurityIndex() {
+			return securityIndex;
+		}
+
+		/**
+		 * Returns the market data (last trade, top of book, VWAP) of the exchange, indexed by dense security id.
+		 * @return the {@linkplain MarketDataCache} of the exchange
+		 */
+		public MarketDataCache getMarketData() {
+			return marketData;
+		}
+
+		/**
+		 * Returns the level 2 market data of the exchange: depth by price level, as incremental updates to subscribers and as snapshots.
+		 * @return the {@linkplain DepthFeed} of the exchange
+		 */
+		public DepthFeed getDepthFeed() {
+			return depthFeed;
+		}
+
+		/**
+		 * Returns the binary log that accepted orders are appended to.
+		 * @return the {@linkplain OrderLogWriter}, {@code null} if orders are not logged
+		 */
+		public OrderLogWriter getOrderLog() {
+			return orderLog;
+		}
+
+		/**
+		 * Sets a binary log to append every order accepted from now on to. The caller remains responsible for closing it.
+		 * @param orderLog the {@linkplain OrderLogWriter}, {@code null} to stop logging
+		 */
+		public void setOrderLog(OrderLogWriter orderLog) {
+			this.orderLog = orderLog;
+		}
+
 		
 	}
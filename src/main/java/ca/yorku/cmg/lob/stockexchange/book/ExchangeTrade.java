@@ -0,0 +1,134 @@
+package ca.yorku.cmg.lob.stockexchange.book;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+/**
+ * A trade executed by a {@linkplain LimitOrderBook}. Prints exactly like {@linkplain ca.yorku.cmg.lob.orderbook.Trade},
+ * whose constructor is not accessible outside of the core order book package.
+ */
+public class ExchangeTrade implements ITrade {
+	private Trader buyer;
+	private Trader seller;
+	private Security security;
+	private int price;
+	private int quantity;
+	private long time;
+	private int buyerFee;
+	private int sellerFee;
+
+	/**
+	 * Constructor
+	 * @param buyer The buying {@linkplain Trader}.
+	 * @param seller The selling {@linkplain Trader}.
+	 * @param security The traded {@linkplain Security}.
+	 * @param price The execution price, in cents.
+	 * @param quantity The number of units traded.
+	 * @param time The time of execution.
+	 */
+	public ExchangeTrade(Trader buyer, Trader seller, Security security, int price, int quantity, long time) {
+		this.buyer = buyer;
+		this.seller = seller;
+		this.security = security;
+		this.price = price;
+		this.quantity = quantity;
+		this.time = time;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[%8d  %8d  %s  %8d  %7.2f  %8d]\n",
+				seller.getID(), buyer.getID(), security.getTicker(), quantity, price / 100.0, time);
+	}
+
+	@Override
+	public Trader getSeller() {
+		return seller;
+	}
+
+	@Override
+	public void setSeller(Trader seller) {
+		this.seller = seller;
+	}
+
+	@Override
+	public Trader getBuyer() {
+		return buyer;
+	}
+
+	@Override
+	public void setBuyer(Trader buyer) {
+		this.buyer = buyer;
+	}
+
+	@Override
+	public Security getSecurity() {
+		return security;
+	}
+
+	@Override
+	public void setSecurity(Security security) {
+		this.security = security;
+	}
+
+	@Override
+	public int getPrice() {
+		return price;
+	}
+
+	@Override
+	public void setPrice(int price) {
+		this.price = price;
+	}
+
+	@Override
+	public int getSellerFee() {
+		return sellerFee;
+	}
+
+	@Override
+	public void setSellerFee(int fee) {
+		this.sellerFee = fee;
+	}
+
+	@Override
+	public int getBuyerFee() {
+		return buyerFee;
+	}
+
+	@Override
+	public void setBuyerFee(int fee) {
+		this.buyerFee = fee;
+	}
+
+	@Override
+	public int getQuantity() {
+		return quantity;
+	}
+
+	@Override
+	public void setQuantity(int quantity) {
+		this.quantity = quantity;
+	}
+
+	/**
+	 * @return The value of the trade, in cents, capped at {@linkplain Integer#MAX_VALUE} as {@linkplain ITrade} returns an {@code int};
+	 * {@linkplain #getPrice()} times {@linkplain #getQuantity()} in {@code long} is exact.
+	 */
+	@Override
+	public int getValue() {
+		long value = (long) quantity * price;
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+	}
+
+	@Override
+	public long getTime() {
+		return time;
+	}
+
+	@Override
+	public void setTime(long time) {
+		this.time = time;
+	}
+}
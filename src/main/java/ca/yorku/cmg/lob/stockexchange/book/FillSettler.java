@@ -0,0 +1,34 @@
+package ca.yorku.cmg.lob.stockexchange.book;
+
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+/**
+ * Settles each fill of a {@linkplain LimitOrderBook} before it changes the book, on the thread matching the book.
+ */
+public interface FillSettler {
+
+	/** The fill was settled. */
+	int SETTLED = 0;
+
+	/** The buyer could not pay: the fill is dropped, and so is the bid. */
+	int BUYER_FAILED = -1;
+
+	/** The seller did not hold the units: the fill is dropped, and so is the ask. */
+	int SELLER_FAILED = -2;
+
+	/**
+	 * Settles a fill.
+	 * @param trade The fill.
+	 * @param bid The bid filled.
+	 * @param ask The ask filled.
+	 * @return {@linkplain #SETTLED}, {@linkplain #BUYER_FAILED} or {@linkplain #SELLER_FAILED}.
+	 */
+	int settle(ITrade trade, IOrder bid, IOrder ask);
+
+	/**
+	 * Called when an order is dropped because its side of a fill could not be settled.
+	 * @param order The order, with the quantity it had left.
+	 */
+	void dropped(IOrder order);
+}
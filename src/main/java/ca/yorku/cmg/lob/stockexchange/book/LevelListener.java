@@ -0,0 +1,19 @@
+package ca.yorku.cmg.lob.stockexchange.book;
+
+/**
+ * Notified of every change of a {@linkplain PriceLevel} of a {@linkplain LimitOrderBook}, on the thread changing the book,
+ * right after the change. Set on all books of a {@linkplain PriceLevelOrderbook} with {@linkplain PriceLevelOrderbook#setLevelListener(LevelListener)}.
+ */
+@FunctionalInterface
+public interface LevelListener {
+
+	/**
+	 * Called when a level is created, when its quantity or number of orders changes, and when it empties and leaves the book,
+	 * in which case its quantity and number of orders are 0.
+	 * @param book The book of the level.
+	 * @param bid {@code true} if the level is on the bid side.
+	 * @param level The level, as it is after the change.
+	 * @param added {@code true} if the level was just created.
+	 */
+	void onLevel(LimitOrderBook book, boolean bid, PriceLevel level, boolean added);
+}
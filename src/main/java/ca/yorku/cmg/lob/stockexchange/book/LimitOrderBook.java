@@ -0,0 +1,484 @@
+package ca.yorku.cmg.lob.stockexchange.book;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.UnaryOperator;
+
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+/**
+ * The order book of a single {@linkplain Security}. Each side keeps its {@linkplain PriceLevel}s in a sorted map
+ * and caches its best level, so that:
+ * <ul>
+ * <li>best bid/ask is O(1),</li>
+ * <li>adding an order is O(1) at an existing level and O(log levels) at a new one,</li>
+ * <li>cancelling an order through its {@linkplain RestingOrder} node is O(1), plus O(log levels) if its level empties.</li>
+ * </ul>
+ */
+public class LimitOrderBook {
+	private final Security security;
+
+	private final TreeMap<Integer, PriceLevel> bids = new TreeMap<>(Comparator.reverseOrder());
+	private final TreeMap<Integer, PriceLevel> asks = new TreeMap<>();
+	private PriceLevel bestBid = null;
+	private PriceLevel bestAsk = null;
+	private int size = 0;
+
+	//Order id index, shared with the other books of the same PriceLevelOrderbook generation
+	final Map<Long, RestingOrder> index;
+
+	//Notified of level changes, if set
+	LevelListener listener = null;
+
+	/**
+	 * Constructor
+	 * @param security The {@linkplain Security} this book is for.
+	 * @param index The order id index to keep up to date as orders enter and leave the book.
+	 */
+	LimitOrderBook(Security security, Map<Long, RestingOrder> index) {
+		this.security = security;
+		this.index = index;
+	}
+
+	/**
+	 * Copies the book: its levels, and at each level a copy of each resting order, in the same priority order.
+	 * @param index The order id index the copy keeps up to date.
+	 * @param copier Copies an order, keeping its id.
+	 * @return The copy, with no listener.
+	 */
+	LimitOrderBook copy(Map<Long, RestingOrder> index, UnaryOperator<IOrder> copier) {
+		LimitOrderBook c = new LimitOrderBook(security, index);
+		copyLevels(bids, c.bids, true, c, copier);
+		copyLevels(asks, c.asks, false, c, copier);
+		c.bestBid = c.bids.isEmpty() ? null : c.bids.firstEntry().getValue();
+		c.bestAsk = c.asks.isEmpty() ? null : c.asks.firstEntry().getValue();
+		c.size = size;
+		return c;
+	}
+
+	private static void copyLevels(TreeMap<Integer, PriceLevel> from, TreeMap<Integer, PriceLevel> to, boolean isBid,
+			LimitOrderBook c, UnaryOperator<IOrder> copier) {
+		for (PriceLevel level : from.values()) {
+			PriceLevel l = new PriceLevel(level.getPrice());
+			for (RestingOrder n = level.head; n != null; n = n.next) {
+				RestingOrder node = new RestingOrder(copier.apply(n.getOrder()), isBid);
+				l.append(node);
+				c.index.put(node.getOrder().getID(), node);
+			}
+			to.put(level.getPrice(), l);
+		}
+	}
+
+	/**
+	 * Rests an order at the back of the queue of its price level.
+	 * @param order The order to rest; a {@linkplain Bid} goes to the bid side, anything else to the ask side.
+	 * @return The node under which the order rests.
+	 */
+	public RestingOrder add(IOrder order) {
+		boolean isBid = order instanceof Bid;
+		RestingOrder node = new RestingOrder(order, isBid);
+		PriceLevel level = levelAt(isBid, order.getPrice());
+		boolean added = level.isEmpty();
+		level.append(node);
+		index.put(order.getID(), node);
+		size++;
+		changed(isBid, level, added);
+		return node;
+	}
+
+	/**
+	 * Rests a batch of orders of one side, as {@linkplain #add(IOrder)} would one by one, but looking up each price level only once.
+	 * Orders at the same price must be contiguous, in arrival order; the order of the prices does not matter.
+	 * @param orders The orders; all {@linkplain Bid}s, or all asks.
+	 * @param from The index of the first order to rest.
+	 * @param to The index after the last order to rest.
+	 */
+	public void addAll(IOrder[] orders, int from, int to) {
+		if (from >= to) {
+			return;
+		}
+		boolean isBid = orders[from] instanceof Bid;
+		int i = from;
+		while (i < to) {
+			int price = orders[i].getPrice();
+			PriceLevel level = levelAt(isBid, price);
+			boolean added = level.isEmpty();
+			do {
+				RestingOrder node = new RestingOrder(orders[i], isBid);
+				level.append(node);
+				index.put(orders[i].getID(), node);
+				size++;
+				i++;
+			} while (i < to && orders[i].getPrice() == price);
+			changed(isBid, level, added);
+		}
+	}
+
+	/**
+	 * Returns the level of a price on one side, creating it, and moving the best level pointer, if needed.
+	 */
+	private PriceLevel levelAt(boolean isBid, int price) {
+		PriceLevel best = isBid ? bestBid : bestAsk;
+		if (best != null && best.getPrice() == price) {
+			return best;
+		}
+		TreeMap<Integer, PriceLevel> side = isBid ? bids : asks;
+		PriceLevel level = side.get(price);
+		if (level == null) {
+			level = new PriceLevel(price);
+			side.put(price, level);
+			if (best == null || (isBid ? price > best.getPrice() : price < best.getPrice())) {
+				if (isBid) {
+					bestBid = level;
+				} else {
+					bestAsk = level;
+				}
+			}
+		}
+		return level;
+	}
+
+	/**
+	 * Takes a resting order out of the book.
+	 * @param node The node under which the order rests.
+	 */
+	public void remove(RestingOrder node) {
+		PriceLevel level = node.level;
+		level.remove(node);
+		index.remove(node.getOrder().getID());
+		size--;
+		if (level.isEmpty()) {
+			removeLevel(level, node.isBid());
+		}
+		changed(node.isBid(), level, false);
+	}
+
+	/**
+	 * Takes some quantity off a resting order, which keeps its place in the queue of its level.
+	 * @param node The node under which the order rests.
+	 * @param qty The quantity to take off, less than the quantity of the order.
+	 * @throws IllegalArgumentException If {@code qty} is not positive or would leave the order empty.
+	 */
+	public void reduce(RestingOrder node, int qty) {
+		if (qty <= 0 || qty >= node.getOrder().getQuantity()) {
+			throw new IllegalArgumentException("Cannot reduce quantity " + node.getOrder().getQuantity() + " by " + qty);
+		}
+		node.level.reduce(node, qty);
+		changed(node.isBid(), node.level, false);
+	}
+
+	/**
+	 * Tells the listener, if any, that a level has changed.
+	 */
+	private void changed(boolean isBid, PriceLevel level, boolean added) {
+		if (listener != null) {
+			listener.onLevel(this, isBid, level, added);
+		}
+	}
+
+	/**
+	 * Drops an empty level from its side and moves the best level pointer if needed.
+	 */
+	private void removeLevel(PriceLevel level, boolean isBid) {
+		if (isBid) {
+			bids.remove(level.getPrice());
+			if (bestBid == level) {
+				bestBid = bids.isEmpty() ? null : bids.firstEntry().getValue();
+			}
+		} else {
+			asks.remove(level.getPrice());
+			if (bestAsk == level) {
+				bestAsk = asks.isEmpty() ? null : asks.firstEntry().getValue();
+			}
+		}
+	}
+
+	/**
+	 * Matches an incoming order against the opposite side by price-time priority. Each fill executes at the price of the resting order.
+	 * Fully filled resting orders leave the book; the incoming order's quantity is reduced to what is left unfilled, but it is not rested.
+	 * @param incoming The incoming order.
+	 * @param time The time of execution.
+	 * @param trades The list where the resulting trades are appended.
+	 * @return The unfilled quantity of the incoming order.
+	 */
+	public int match(IOrder incoming, long time, List<ITrade> trades) {
+		return match(incoming, time, trades, null);
+	}
+
+	/**
+	 * As {@linkplain #match(IOrder, long, List)}, settling each fill before it changes the book. A fill that fails to settle is not
+	 * appended to {@code trades}, and the order whose side failed is dropped: a resting order leaves the book, the incoming order stops
+	 * matching and is left with no quantity.
+	 * @param incoming The incoming order.
+	 * @param time The time of execution.
+	 * @param trades The list where the settled trades are appended.
+	 * @param settler The settler, or {@code null} to take every fill as settled.
+	 * @return The unfilled quantity of the incoming order, 0 if it was dropped.
+	 */
+	public int match(IOrder incoming, long time, List<ITrade> trades, FillSettler settler) {
+		boolean isBid = incoming instanceof Bid;
+		int limit = incoming.getPrice();
+		int remaining = incoming.getQuantity();
+
+		while (remaining > 0) {
+			PriceLevel level = isBid ? bestAsk : bestBid;
+			if (level == null || (isBid ? level.getPrice() > limit : level.getPrice() < limit)) {
+				break;
+			}
+			RestingOrder head = level.head;
+			IOrder resting = head.getOrder();
+			int fill = Math.min(remaining, resting.getQuantity());
+			ExchangeTrade trade = isBid ? new ExchangeTrade(incoming.getTrader(), resting.getTrader(), security, level.getPrice(), fill, time)
+					: new ExchangeTrade(resting.getTrader(), incoming.getTrader(), security, level.getPrice(), fill, time);
+			int result = settler == null ? FillSettler.SETTLED : settler.settle(trade, isBid ? incoming : resting, isBid ? resting : incoming);
+			if (result != FillSettler.SETTLED) {
+				if ((result == FillSettler.BUYER_FAILED) == isBid) {
+					incoming.setQuantity(remaining);
+					settler.dropped(incoming);
+					remaining = 0;
+					break;
+				}
+				remove(head);
+				settler.dropped(resting);
+				continue;
+			}
+			trades.add(trade);
+			remaining -= fill;
+			level.reduce(head, fill);
+			if (resting.getQuantity() == 0) {
+				remove(head);
+			} else {
+				changed(!isBid, level, false);
+			}
+		}
+		incoming.setQuantity(remaining);
+		return remaining;
+	}
+
+	/**
+	 * Finds the single price at which a call auction uncrosses the book: the price that maximizes the volume executed, i.e., the minimum of
+	 * the bid volume at or above it and the ask volume at or below it. Ties go to the price leaving the smallest imbalance between the two,
+	 * then to the price closest to the reference price, then to the lowest price. Only level prices within the crossed range are candidates,
+	 * and the cumulative volume curves are built by walking those levels once from each end, so the cost is linear in the number of crossed levels,
+	 * whatever the number of orders resting at them.
+	 * @param reference The price to break ties by proximity, e.g., the last price; 0 for none.
+	 * @return The clearing price, or 0 if the book is not crossed.
+	 */
+	public int auctionPrice(int reference) {
+		if (bestBid == null || bestAsk == null || bestBid.getPrice() < bestAsk.getPrice()) {
+			return 0;
+		}
+		int low = bestAsk.getPrice();
+		int high = bestBid.getPrice();
+
+		//Crossed levels of each side, in ascending price order
+		int nb = 0;
+		for (PriceLevel l : bids.values()) {
+			if (l.getPrice() < low) {
+				break;
+			}
+			nb++;
+		}
+		int[] bidPrice = new int[nb];
+		long[] bidQty = new long[nb];
+		long bidTotal = 0;
+		int k = nb;
+		for (PriceLevel l : bids.values()) {
+			if (--k < 0) {
+				break;
+			}
+			bidPrice[k] = l.getPrice();
+			bidQty[k] = l.getTotalQuantity();
+			bidTotal += bidQty[k];
+		}
+		int na = 0;
+		for (PriceLevel l : asks.values()) {
+			if (l.getPrice() > high) {
+				break;
+			}
+			na++;
+		}
+		int[] askPrice = new int[na];
+		long[] askQty = new long[na];
+		k = 0;
+		for (PriceLevel l : asks.values()) {
+			if (k == na) {
+				break;
+			}
+			askPrice[k] = l.getPrice();
+			askQty[k] = l.getTotalQuantity();
+			k++;
+		}
+
+		//Merge the two price ladders upwards, keeping the asks at or below and the bids below the candidate price
+		int best = 0;
+		long bestVolume = -1;
+		long bestImbalance = 0;
+		long asksAtOrBelow = 0;
+		long bidsBelow = 0;
+		int i = 0;
+		int j = 0;
+		while (i < na || j < nb) {
+			int p = (j == nb || (i < na && askPrice[i] <= bidPrice[j])) ? askPrice[i] : bidPrice[j];
+			while (i < na && askPrice[i] <= p) {
+				asksAtOrBelow += askQty[i++];
+			}
+			long bidsAtOrAbove = bidTotal - bidsBelow;
+			while (j < nb && bidPrice[j] <= p) {
+				bidsBelow += bidQty[j++];
+			}
+			long volume = Math.min(bidsAtOrAbove, asksAtOrBelow);
+			long imbalance = Math.abs(bidsAtOrAbove - asksAtOrBelow);
+			if (volume > bestVolume || (volume == bestVolume && (imbalance < bestImbalance
+					|| (imbalance == bestImbalance && reference > 0 && Math.abs((long) p - reference) < Math.abs((long) best - reference))))) {
+				best = p;
+				bestVolume = volume;
+				bestImbalance = imbalance;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Uncrosses the book in a call auction: every trade executes at the {@linkplain #auctionPrice(int) auction price}, bids and asks
+	 * being filled by price-time priority until the volume executable at that price is exhausted. Filled orders leave the book;
+	 * the order partially filled last, if any, keeps its priority with its remaining quantity. A fill that fails to settle is not
+	 * appended to {@code trades}, and the order whose side failed leaves the book.
+	 * @param reference The price to break ties by proximity, e.g., the last price; 0 for none.
+	 * @param time The time of execution.
+	 * @param trades The list where the settled trades are appended.
+	 * @param settler The settler, or {@code null} to take every fill as settled.
+	 * @return The clearing price, or 0 if the book was not crossed and nothing executed.
+	 */
+	public int uncross(int reference, long time, List<ITrade> trades, FillSettler settler) {
+		int price = auctionPrice(reference);
+		if (price == 0) {
+			return 0;
+		}
+		long bidVolume = 0;
+		for (PriceLevel l : bids.values()) {
+			if (l.getPrice() < price) {
+				break;
+			}
+			bidVolume += l.getTotalQuantity();
+		}
+		long askVolume = 0;
+		for (PriceLevel l : asks.values()) {
+			if (l.getPrice() > price) {
+				break;
+			}
+			askVolume += l.getTotalQuantity();
+		}
+		long volume = Math.min(bidVolume, askVolume);
+		while (volume > 0) {
+			PriceLevel bidLevel = bestBid;
+			PriceLevel askLevel = bestAsk;
+			//Orders dropped by the settler may take the rest of the crossed volume with them
+			if (bidLevel == null || askLevel == null || bidLevel.getPrice() < price || askLevel.getPrice() > price) {
+				break;
+			}
+			RestingOrder bid = bidLevel.head;
+			RestingOrder ask = askLevel.head;
+			int fill = (int) Math.min(volume, Math.min(bid.getOrder().getQuantity(), ask.getOrder().getQuantity()));
+			ExchangeTrade trade = new ExchangeTrade(bid.getOrder().getTrader(), ask.getOrder().getTrader(), security, price, fill, time);
+			int result = settler == null ? FillSettler.SETTLED : settler.settle(trade, bid.getOrder(), ask.getOrder());
+			if (result != FillSettler.SETTLED) {
+				RestingOrder failed = result == FillSettler.BUYER_FAILED ? bid : ask;
+				remove(failed);
+				settler.dropped(failed.getOrder());
+				continue;
+			}
+			trades.add(trade);
+			volume -= fill;
+			bidLevel.reduce(bid, fill);
+			if (bid.getOrder().getQuantity() == 0) {
+				remove(bid);
+			} else {
+				changed(true, bidLevel, false);
+			}
+			askLevel.reduce(ask, fill);
+			if (ask.getOrder().getQuantity() == 0) {
+				remove(ask);
+			} else {
+				changed(false, askLevel, false);
+			}
+		}
+		return price;
+	}
+
+	/**
+	 * @return The number of orders resting in the book, both sides.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The {@linkplain Security} this book is for.
+	 */
+	public Security getSecurity() {
+		return security;
+	}
+
+	/**
+	 * @return The highest bid level, or {@code null} if there are no bids.
+	 */
+	public PriceLevel getBestBid() {
+		return bestBid;
+	}
+
+	/**
+	 * @return The lowest ask level, or {@code null} if there are no asks.
+	 */
+	public PriceLevel getBestAsk() {
+		return bestAsk;
+	}
+
+	/**
+	 * @return The highest bid price, or 0 if there are no bids.
+	 */
+	public int getBestBidPrice() {
+		return bestBid == null ? 0 : bestBid.getPrice();
+	}
+
+	/**
+	 * @return The lowest ask price, or 0 if there are no asks.
+	 */
+	public int getBestAskPrice() {
+		return bestAsk == null ? 0 : bestAsk.getPrice();
+	}
+
+	/**
+	 * @return The bid levels, best (highest) first.
+	 */
+	public Collection<PriceLevel> getBidLevels() {
+		return Collections.unmodifiableCollection(bids.values());
+	}
+
+	/**
+	 * @return The ask levels, best (lowest) first.
+	 */
+	public Collection<PriceLevel> getAskLevels() {
+		return Collections.unmodifiableCollection(asks.values());
+	}
+
+	/**
+	 * Appends the orders of one side, in priority order, one {@linkplain IOrder#toString()} per order.
+	 * @param bidSide {@code true} for the bid side, {@code false} for the ask side.
+	 * @param out The builder to append to.
+	 */
+	void printOrders(boolean bidSide, StringBuilder out) {
+		for (PriceLevel level : (bidSide ? bids : asks).values()) {
+			for (RestingOrder n = level.head; n != null; n = n.next) {
+				out.append(n.getOrder().toString());
+			}
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package ca.yorku.cmg.lob.stockexchange.book;
+
+/**
+ * All resting orders at one price on one side of a {@linkplain LimitOrderBook}, kept in arrival (FIFO) order
+ * as an intrusive doubly linked list of {@linkplain RestingOrder} nodes, so that appending, removing any node
+ * and reading the aggregate quantity are all O(1).
+ */
+public class PriceLevel {
+	private final int price;
+	private long totalQuantity = 0;
+	private int orderCount = 0;
+
+	RestingOrder head;
+	RestingOrder tail;
+
+	/**
+	 * Constructor
+	 * @param price The price of the level, in cents.
+	 */
+	PriceLevel(int price) {
+		this.price = price;
+	}
+
+	/**
+	 * Appends an order at the back of the queue.
+	 * @param node The order node to append.
+	 */
+	void append(RestingOrder node) {
+		node.level = this;
+		node.prev = tail;
+		node.next = null;
+		if (tail == null) {
+			head = node;
+		} else {
+			tail.next = node;
+		}
+		tail = node;
+		totalQuantity += node.getOrder().getQuantity();
+		orderCount++;
+	}
+
+	/**
+	 * Unlinks an order from the queue, wherever it is.
+	 * @param node The order node to remove.
+	 */
+	void remove(RestingOrder node) {
+		if (node.prev == null) {
+			head = node.next;
+		} else {
+			node.prev.next = node.next;
+		}
+		if (node.next == null) {
+			tail = node.prev;
+		} else {
+			node.next.prev = node.prev;
+		}
+		totalQuantity -= node.getOrder().getQuantity();
+		orderCount--;
+		node.prev = null;
+		node.next = null;
+		node.level = null;
+	}
+
+	/**
+	 * Reduces the quantity of an order in the queue without affecting its priority.
+	 * @param node The order node.
+	 * @param qty The quantity to take off the order.
+	 */
+	void reduce(RestingOrder node, int qty) {
+		node.getOrder().setQuantity(node.getOrder().getQuantity() - qty);
+		totalQuantity -= qty;
+	}
+
+	/**
+	 * @return The price of the level, in cents.
+	 */
+	public int getPrice() {
+		return price;
+	}
+
+	/**
+	 * @return The sum of the quantities of all orders at this level.
+	 */
+	public long getTotalQuantity() {
+		return totalQuantity;
+	}
+
+	/**
+	 * @return The number of orders at this level.
+	 */
+	public int getOrderCount() {
+		return orderCount;
+	}
+
+	/**
+	 * @return The oldest order at this level, next to be filled, or {@code null} if the level is empty.
+	 */
+	public RestingOrder getFirst() {
+		return head;
+	}
+
+	/**
+	 * @return {@code true} if no orders rest at this level.
+	 */
+	public boolean isEmpty() {
+		return head == null;
+	}
+}
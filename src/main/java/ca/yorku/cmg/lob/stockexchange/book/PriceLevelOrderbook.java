@@ -0,0 +1,294 @@
+package ca.yorku.cmg.lob.stockexchange.book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+/**
+ * A replacement for {@linkplain ca.yorku.cmg.lob.orderbook.Orderbook}: one price-level {@linkplain LimitOrderBook} per ticker,
+ * plus an index from order id ({@linkplain IOrder#getID()}) to resting order across all tickers, so that
+ * orders can be found and cancelled by id in O(1).
+ * <p>Books are copied on write. {@linkplain #snapshot(UnaryOperator)} and {@linkplain #fork()} share all books with the new orderbook in O(1);
+ * each orderbook then copies a book, resting orders included, the first time it hands it out, so that only the books touched after
+ * a snapshot are ever copied. A book belongs to the orderbook whose order id index it keeps up to date; the indexes of the shared
+ * books, which no longer change, are kept to find the orders resting in them.</p>
+ */
+public class PriceLevelOrderbook {
+	private Map<String, LimitOrderBook> books = new LinkedHashMap<>();
+	private Map<Long, RestingOrder> orders = new HashMap<>();
+	private LevelListener listener = null;
+
+	//Copy on write: the map of books is shared while booksShared; frozen holds the indexes of shared books
+	private boolean booksShared = false;
+	private List<Map<Long, RestingOrder>> frozen = Collections.emptyList();
+	private UnaryOperator<IOrder> copier = null;
+
+	/**
+	 * Creates an empty orderbook.
+	 */
+	public PriceLevelOrderbook() {
+	}
+
+	/**
+	 * Creates an orderbook sharing all books of another, as a new generation.
+	 */
+	private PriceLevelOrderbook(PriceLevelOrderbook from) {
+		this.books = from.books;
+		this.booksShared = true;
+		this.frozen = indexesOf(books.values());
+		this.copier = from.copier;
+	}
+
+	/**
+	 * @return The distinct order id indexes the books keep up to date, i.e., the generations they belong to.
+	 */
+	private static List<Map<Long, RestingOrder>> indexesOf(Collection<LimitOrderBook> books) {
+		List<Map<Long, RestingOrder>> indexes = new ArrayList<>();
+		for (LimitOrderBook b : books) {
+			boolean seen = false;
+			for (Map<Long, RestingOrder> index : indexes) {
+				seen |= index == b.index;
+			}
+			if (!seen) {
+				indexes.add(b.index);
+			}
+		}
+		return indexes;
+	}
+
+	/**
+	 * Freezes the books as they are: from now on this orderbook copies every book before handing it out, as a fork would.
+	 * @param copier Copies a resting order, keeping its id ({@linkplain IOrder#getID()}), when its book is copied.
+	 * @return The frozen books, to {@linkplain #fork()} from. The caller must not change them.
+	 */
+	public PriceLevelOrderbook snapshot(UnaryOperator<IOrder> copier) {
+		this.copier = copier;
+		PriceLevelOrderbook snapshot = new PriceLevelOrderbook();
+		snapshot.books = books;
+		snapshot.booksShared = true;
+		snapshot.orders = orders;
+		snapshot.frozen = frozen;
+		snapshot.copier = copier;
+		//This orderbook goes on as the next generation
+		booksShared = true;
+		frozen = indexesOf(books.values());
+		orders = new HashMap<>();
+		return snapshot;
+	}
+
+	/**
+	 * Creates an orderbook with the same books, in O(1), and no listener. Neither sees the changes the other makes afterwards,
+	 * as long as this orderbook is not changed in place, i.e., as long as it is a {@linkplain #snapshot(UnaryOperator)}.
+	 * @return The new orderbook.
+	 */
+	public PriceLevelOrderbook fork() {
+		return new PriceLevelOrderbook(this);
+	}
+
+	/**
+	 * Returns a book of this orderbook, copying it first if it belongs to an earlier generation.
+	 */
+	private LimitOrderBook own(LimitOrderBook b) {
+		if (b.index == orders) {
+			return b;
+		}
+		LimitOrderBook c = b.copy(orders, copier);
+		c.listener = listener;
+		putBook(b.getSecurity().getTicker(), c);
+		return c;
+	}
+
+	private void putBook(String tkr, LimitOrderBook b) {
+		if (booksShared) {
+			books = new LinkedHashMap<>(books);
+			booksShared = false;
+		}
+		books.put(tkr, b);
+	}
+
+	/**
+	 * Returns the book of a security, creating it on first use.
+	 * @param sec The {@linkplain Security}.
+	 * @return The {@linkplain LimitOrderBook} of the security.
+	 */
+	public LimitOrderBook getBook(Security sec) {
+		LimitOrderBook b = books.get(sec.getTicker());
+		if (b == null) {
+			b = new LimitOrderBook(sec, orders);
+			b.listener = listener;
+			putBook(sec.getTicker(), b);
+			return b;
+		}
+		return own(b);
+	}
+
+	/**
+	 * Returns the book of a ticker, if any order was ever added for it.
+	 * @param tkr The ticker.
+	 * @return The {@linkplain LimitOrderBook} of the ticker, or {@code null}.
+	 */
+	public LimitOrderBook getBook(String tkr) {
+		LimitOrderBook b = books.get(tkr);
+		return b == null ? null : own(b);
+	}
+
+	/**
+	 * Returns all books. Books shared with a snapshot or fork are all copied first.
+	 * @return All books, in the order their tickers were first seen.
+	 */
+	public Collection<LimitOrderBook> getBooks() {
+		if (!frozen.isEmpty()) {
+			for (LimitOrderBook b : new ArrayList<>(books.values())) {
+				own(b);
+			}
+		}
+		return Collections.unmodifiableCollection(books.values());
+	}
+
+	/**
+	 * @return The number of books this orderbook may change in place, i.e., not shared with a snapshot or fork.
+	 */
+	public int ownedSize() {
+		int n = 0;
+		for (LimitOrderBook b : books.values()) {
+			if (b.index == orders) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Rests an order in the book of its security.
+	 * @param order The order to add.
+	 * @return The node under which the order rests.
+	 */
+	public RestingOrder addOrder(IOrder order) {
+		return getBook(order.getSecurity()).add(order);
+	}
+
+	/**
+	 * Matches an incoming order against the opposite side of the book of its security. The order is not rested.
+	 * @param order The incoming order.
+	 * @param time The time of execution.
+	 * @param trades The list where the resulting trades are appended.
+	 * @return The unfilled quantity of the order.
+	 * @see LimitOrderBook#match(IOrder, long, List)
+	 */
+	public int matchOrder(IOrder order, long time, List<ITrade> trades) {
+		return getBook(order.getSecurity()).match(order, time, trades);
+	}
+
+	/**
+	 * Matches an incoming order against the opposite side of the book of its security, settling each fill before it changes the book.
+	 * The order is not rested.
+	 * @param order The incoming order.
+	 * @param time The time of execution.
+	 * @param trades The list where the settled trades are appended.
+	 * @param settler The settler.
+	 * @return The unfilled quantity of the order, 0 if it was dropped.
+	 * @see LimitOrderBook#match(IOrder, long, List, FillSettler)
+	 */
+	public int matchOrder(IOrder order, long time, List<ITrade> trades, FillSettler settler) {
+		return getBook(order.getSecurity()).match(order, time, trades, settler);
+	}
+
+	/**
+	 * Finds a resting order by id.
+	 * @param orderId The id of the order.
+	 * @return The node under which the order rests, or {@code null} if no such order rests in the book.
+	 */
+	public RestingOrder getOrder(long orderId) {
+		RestingOrder node = orders.get(orderId);
+		if (node != null || frozen.isEmpty()) {
+			return node;
+		}
+		//An order resting in a shared book is in the index of the generation its book belongs to
+		for (Map<Long, RestingOrder> index : frozen) {
+			RestingOrder old = index.get(orderId);
+			if (old != null) {
+				LimitOrderBook b = books.get(old.getOrder().getSecurity().getTicker());
+				if (b == null || b.index == orders || !b.index.containsKey(orderId)) {
+					return null;
+				}
+				return own(b).index.get(orderId);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes a resting order by id.
+	 * @param orderId The id of the order.
+	 * @return The removed order, or {@code null} if no such order rests in the book.
+	 */
+	public IOrder cancelOrder(long orderId) {
+		RestingOrder node = getOrder(orderId);
+		if (node == null) {
+			return null;
+		}
+		books.get(node.getOrder().getSecurity().getTicker()).remove(node);
+		return node.getOrder();
+	}
+
+	/**
+	 * Sets the listener notified of every change of a price level, in all books, existing and future.
+	 * @param listener The listener, or {@code null} for none, the default.
+	 */
+	public void setLevelListener(LevelListener listener) {
+		this.listener = listener;
+		for (LimitOrderBook b : books.values()) {
+			//Shared books never change; they get the listener when copied
+			if (b.index == orders) {
+				b.listener = listener;
+			}
+		}
+	}
+
+	/**
+	 * @return The listener set by {@linkplain #setLevelListener(LevelListener)}, or {@code null}.
+	 */
+	public LevelListener getLevelListener() {
+		return listener;
+	}
+
+	/**
+	 * @return The number of orders resting across all books.
+	 */
+	public int size() {
+		if (frozen.isEmpty()) {
+			return orders.size();
+		}
+		int n = 0;
+		for (LimitOrderBook b : books.values()) {
+			n += b.size();
+		}
+		return n;
+	}
+
+	/**
+	 * Prints all orders of one side, ticker by ticker, in priority order, in the same format as {@linkplain ca.yorku.cmg.lob.orderbook.HalfBook#printAllOrders(boolean)}.
+	 * @param bidSide {@code true} for the bids, {@code false} for the asks.
+	 * @param header whether to include a header in the output
+	 * @return The printout.
+	 */
+	public String printAllOrders(boolean bidSide, boolean header) {
+		StringBuilder out = new StringBuilder();
+		if (header) {
+			out.append("[TID  TKR_  PRICE__  QUANTITY  TIME____  QID__]\n");
+		}
+		for (LimitOrderBook b : books.values()) {
+			b.printOrders(bidSide, out);
+		}
+		return out.toString();
+	}
+}
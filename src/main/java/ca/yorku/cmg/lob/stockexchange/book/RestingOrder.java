@@ -0,0 +1,54 @@
+package ca.yorku.cmg.lob.stockexchange.book;
+
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * An {@linkplain IOrder} resting in a {@linkplain LimitOrderBook}: a node of the FIFO queue of its {@linkplain PriceLevel}.
+ * Holding on to the node is what allows an order to be cancelled without searching for it.
+ */
+public class RestingOrder {
+	private final IOrder order;
+	private final boolean bid;
+
+	PriceLevel level;
+	RestingOrder prev;
+	RestingOrder next;
+
+	/**
+	 * Constructor
+	 * @param order The order that rests.
+	 * @param bid {@code true} if the order rests on the bid side.
+	 */
+	RestingOrder(IOrder order, boolean bid) {
+		this.order = order;
+		this.bid = bid;
+	}
+
+	/**
+	 * @return The resting order.
+	 */
+	public IOrder getOrder() {
+		return order;
+	}
+
+	/**
+	 * @return {@code true} if the order rests on the bid side, {@code false} if on the ask side.
+	 */
+	public boolean isBid() {
+		return bid;
+	}
+
+	/**
+	 * @return The {@linkplain PriceLevel} the order is queued at, or {@code null} once it has left the book.
+	 */
+	public PriceLevel getLevel() {
+		return level;
+	}
+
+	/**
+	 * @return The order queued right behind this one at the same level, or {@code null}.
+	 */
+	public RestingOrder getNext() {
+		return next;
+	}
+}
@@ -0,0 +1,69 @@
+package ca.yorku.cmg.lob.stockexchange.concurrent;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An unbounded, lock-free, multi-producer single-consumer FIFO queue: a linked list whose tail producers claim with a single
+ * atomic swap, and whose head only the consumer ever touches (after D. Vyukov's intrusive MPSC queue).
+ * <p>{@linkplain #offer(Object)} may be called from any number of threads and never blocks or retries.
+ * {@linkplain #poll()} and {@linkplain #isEmpty()} must only be called from the one consumer thread.
+ * Elements offered by the same thread are polled in the order they were offered.</p>
+ * @param <T> The type of the elements.
+ */
+public class MpscQueue<T> {
+
+	private final AtomicReference<Node<T>> tail;
+	//Consumer side only: the last node polled, whose successor is the next element
+	private Node<T> head;
+
+	/**
+	 * Creates an empty queue.
+	 */
+	public MpscQueue() {
+		head = new Node<T>(null);
+		tail = new AtomicReference<Node<T>>(head);
+	}
+
+	/**
+	 * Appends an element. Safe to call from any thread.
+	 * @param value The element, not {@code null}.
+	 */
+	public void offer(T value) {
+		Node<T> n = new Node<T>(value);
+		Node<T> prev = tail.getAndSet(n);
+		//Between the swap and this write the consumer sees the queue end at prev, i.e., briefly empty
+		prev.next = n;
+	}
+
+	/**
+	 * Removes the oldest element. Consumer thread only.
+	 * @return The element, or {@code null} if the queue is empty (or an offer is still linking its element in).
+	 */
+	public T poll() {
+		Node<T> next = head.next;
+		if (next == null) {
+			return null;
+		}
+		T value = next.value;
+		next.value = null;
+		head = next;
+		return value;
+	}
+
+	/**
+	 * Consumer thread only.
+	 * @return {@code true} if there is nothing to poll.
+	 */
+	public boolean isEmpty() {
+		return head.next == null;
+	}
+
+	private static final class Node<T> {
+		T value;
+		volatile Node<T> next;
+
+		Node(T value) {
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package ca.yorku.cmg.lob.stockexchange.events;
+
+/**
+ * How a {@linkplain NewsBoard} delivers an event to the observers of its security.
+ * <p>In parallel, each observer runs at most twice per event: once the orders released change the state of the security, the remaining
+ * observers run again serially. Parallel delivery thus only pays off when observers do costly work and their orders rarely move the price.</p>
+ */
+public enum DispatchMode {
+
+	/** One observer after the other, on the calling thread. */
+	SERIAL,
+
+	/** In parallel on the common {@linkplain java.util.concurrent.ForkJoinPool}. */
+	FORK_JOIN,
+
+	/** In parallel on virtual threads. Requires Java 21 or later at runtime. */
+	VIRTUAL_THREADS
+}
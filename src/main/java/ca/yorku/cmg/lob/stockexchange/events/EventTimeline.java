@@ -0,0 +1,168 @@
+package ca.yorku.cmg.lob.stockexchange.events;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable store of {@linkplain Event}s sorted by time. Events sharing a time keep the order in which they were added.
+ * <p>All events at a given time are found by binary search over the distinct event times and returned as a
+ * pre-built, read-only list, so queries allocate nothing. A {@linkplain Cursor} makes a sweep over increasing
+ * times O(1) per step.</p>
+ * <p>Events must not have their time changed once they are in a timeline.</p>
+ */
+public final class EventTimeline {
+
+	/** A timeline without events. */
+	public static final EventTimeline EMPTY = new EventTimeline(new Event[0]);
+
+	private final Event[] events;
+	private final List<Event> all;
+	//Distinct event times, ascending, and the events at each of them
+	private final long[] times;
+	private final List<List<Event>> eventsByTime;
+
+	/**
+	 * Constructor
+	 * @param sorted The events, already sorted by time.
+	 */
+	private EventTimeline(Event[] sorted) {
+		this.events = sorted;
+		this.all = Collections.unmodifiableList(Arrays.asList(sorted));
+
+		long[] t = new long[sorted.length];
+		List<List<Event>> byTime = new ArrayList<>();
+		int n = 0;
+		int from = 0;
+		for (int i = 1; i <= sorted.length; i++) {
+			if (i == sorted.length || sorted[i].getTime() != sorted[from].getTime()) {
+				t[n++] = sorted[from].getTime();
+				byTime.add(all.subList(from, i));
+				from = i;
+			}
+		}
+		this.times = Arrays.copyOf(t, n);
+		this.eventsByTime = byTime;
+	}
+
+	/**
+	 * Creates a timeline holding the given events.
+	 * @param events The events, in any order.
+	 * @return The new timeline.
+	 */
+	public static EventTimeline of(Collection<? extends Event> events) {
+		Event[] sorted = events.toArray(new Event[0]);
+		Arrays.sort(sorted, Comparator.comparingLong(Event::getTime)); //stable
+		return new EventTimeline(sorted);
+	}
+
+	/**
+	 * Creates a timeline holding the events of this one plus the given ones. Events of this timeline come first among events at the same time.
+	 * @param more The events to add.
+	 * @return The new timeline; this one is left unchanged.
+	 */
+	public EventTimeline merge(Collection<? extends Event> more) {
+		ArrayList<Event> merged = new ArrayList<>(events.length + more.size());
+		merged.addAll(all);
+		merged.addAll(more);
+		return of(merged);
+	}
+
+	/**
+	 * Returns the position of {@code time} among the distinct event times, as {@linkplain Arrays#binarySearch(long[], long)}.
+	 */
+	private int find(long time) {
+		return Arrays.binarySearch(times, time);
+	}
+
+	/**
+	 * Returns all events at a time.
+	 * @param time The time.
+	 * @return The events at that time in the order they were added, an empty list if there are none. The list is read-only.
+	 */
+	public List<Event> getEventsAt(long time) {
+		int i = find(time);
+		return i >= 0 ? eventsByTime.get(i) : Collections.emptyList();
+	}
+
+	/**
+	 * Returns the first event at a time.
+	 * @param time The time.
+	 * @return The first event added for that time, or {@code null} if there is none.
+	 */
+	public Event getFirstEventAt(long time) {
+		int i = find(time);
+		return i >= 0 ? eventsByTime.get(i).get(0) : null;
+	}
+
+	/**
+	 * Returns the earliest event time strictly after a time.
+	 * @param time The time.
+	 * @return The next event time, or {@linkplain Long#MAX_VALUE} if there is no later event.
+	 */
+	public long nextTimeAfter(long time) {
+		int i = find(time);
+		i = i >= 0 ? i + 1 : -i - 1;
+		return i < times.length ? times[i] : Long.MAX_VALUE;
+	}
+
+	/**
+	 * @return All events, sorted by time. The list is read-only.
+	 */
+	public List<Event> getEvents() {
+		return all;
+	}
+
+	/**
+	 * @return The number of events.
+	 */
+	public int size() {
+		return events.length;
+	}
+
+	/**
+	 * @return A new cursor positioned before the first event.
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Walks a timeline forward in time. Each call to {@linkplain #advanceTo(long)} costs O(1) amortized, as long as times do not decrease.
+	 */
+	public final class Cursor {
+		private int pos = 0;
+
+		private Cursor() {
+		}
+
+		/**
+		 * Moves the cursor to a time and returns the events at it.
+		 * @param time The time; if not later than the previous one the cursor is repositioned by binary search.
+		 * @return The events at that time, an empty list if there are none.
+		 */
+		public List<Event> advanceTo(long time) {
+			if (pos > 0 && times[pos - 1] >= time) {
+				int i = find(time);
+				pos = i >= 0 ? i : -i - 1;
+			}
+			while (pos < times.length && times[pos] < time) {
+				pos++;
+			}
+			if (pos < times.length && times[pos] == time) {
+				return eventsByTime.get(pos++);
+			}
+			return Collections.emptyList();
+		}
+
+		/**
+		 * @return The time of the next event the cursor has not passed, or {@linkplain Long#MAX_VALUE} if there is none.
+		 */
+		public long peekNextTime() {
+			return pos < times.length ? times[pos] : Long.MAX_VALUE;
+		}
+	}
+}
@@ -3,28 +3,71 @@ package ca.yorku.cmg.lob.stockexchange.events;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.PriorityQueue;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 import ca.yorku.cmg.lob.security.Security;
 import ca.yorku.cmg.lob.security.SecurityList;
+import ca.yorku.cmg.lob.stockexchange.OrderSequencer;
+import ca.yorku.cmg.lob.stockexchange.metrics.ExchangeMetrics;
+import ca.yorku.cmg.lob.stockexchange.metrics.NewsDispatchedEvent;
+import ca.yorku.cmg.lob.stockexchange.tradingagent.INewsObserver;
 
 /**
  * A NewsBoard object generates and shares financial/economic events that affect specific securities 
  */
 public class NewsBoard {
 
-	//Events are queued ordered by time
-	PriorityQueue<Event> eventQueue = new PriorityQueue<>((e1, e2) -> Long.compare(e1.getTime(), e2.getTime()));
+	//Events are stored ordered by time
+	EventTimeline timeline = EventTimeline.EMPTY;
 
 	SecurityList securities;
 	
+	//Observers subscribed to each ticker, in subscription order
+	private Map<String, Subscribers> subscribers = new HashMap<>();
+	
+	//Parallel delivery: null executor means serial
+	private ExecutorService dispatchExecutor = null;
+	private boolean ownsExecutor = false;
+	private int dispatchChunkSize = 64;
+	private ToLongFunction<Security> stateVersion = null;
+	
+	//Order in which observers handle events sharing a time, null for subscription order
+	private ToIntFunction<INewsObserver> observerRank = null;
+	
+	//Null unless metrics are on
+	private ExchangeMetrics metrics = null;
+	
 	public NewsBoard(SecurityList x) {
 		this.securities = x;
 	}
 	
+	/**
+	 * Creates a board with events already loaded, e.g., those of the board of another exchange. Events loaded later are only added to this board.
+	 * @param x The securities the events are about.
+	 * @param timeline The events.
+	 */
+	public NewsBoard(SecurityList x, EventTimeline timeline) {
+		this.securities = x;
+		this.timeline = timeline;
+	}
+	
     // Allowed event values
     private static final Set<String> VALID_EVENTS = new HashSet<>(
 	        Arrays.asList("Good", "Bad")
@@ -38,6 +81,7 @@ public class NewsBoard {
     public void loadEvents(String filePath) {
     	String line;
     	String delimiter = ","; // Assuming the CSV is comma-separated
+    	ArrayList<Event> loaded = new ArrayList<>();
 
     	try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
     		while ((line = br.readLine()) != null) {
@@ -78,45 +122,341 @@ public class NewsBoard {
     				throw new IllegalArgumentException("Unexpected event value: " + event);
     			}
 
-    			eventQueue.add(eventObj);
+    			loaded.add(eventObj);
     			
     		}
     	} catch (IOException e) {
     		System.err.println("Error reading the file: " + e.getMessage());
     	}
+    	timeline = timeline.merge(loaded);
     }
 
 	
 	//Get the event at time time
 	/**
-	 * Returns the event that happened at time {@code time}
+	 * Returns the event that happened at time {@code time}. If several events happened at that time, the first one loaded is returned.
 	 * @param time The time at which the event happened.
 	 * @return The event that happened at that time, or {@code null} if no event happened at that time. 
 	 */
 	public Event getEventAt(long time) {
+		return(timeline.getFirstEventAt(time));
+	}
+	
+	/**
+	 * Returns all events that happened at time {@code time}, in the order they were loaded. Allocates nothing.
+	 * @param time The time at which the events happened.
+	 * @return A read-only list of the events at that time, empty if no event happened at that time.
+	 */
+	public List<Event> getEventsAt(long time) {
+		return(timeline.getEventsAt(time));
+	}
+	
+	/**
+	 * Returns the time-indexed store of all events loaded so far.
+	 * @return The {@linkplain EventTimeline} of the board.
+	 */
+	public EventTimeline getTimeline() {
+		return timeline;
+	}
+	
+	
+	/**
+	 * Subscribes an observer to the events of a security. Subscribing twice has no effect.
+	 * @param o The observer, typically a trading agent holding a position in the security.
+	 * @param sec The {@linkplain Security} whose events the observer receives.
+	 */
+	public void registerObserver(INewsObserver o, Security sec) {
+		Subscribers subs = subscribers.get(sec.getTicker());
+		if (subs == null) {
+			subs = new Subscribers();
+			subscribers.put(sec.getTicker(), subs);
+		}
+		subs.add(o);
+	}
+	
+	/**
+	 * Unsubscribes an observer from the events of a security.
+	 * @param o The observer.
+	 * @param sec The {@linkplain Security}.
+	 */
+	public void removeObserver(INewsObserver o, Security sec) {
+		Subscribers subs = subscribers.get(sec.getTicker());
+		if (subs != null) {
+			subs.remove(o);
+		}
+	}
+	
+	/**
+	 * Returns the observers subscribed to a security.
+	 * @param sec The {@linkplain Security}.
+	 * @return A read-only list of the observers, in subscription order.
+	 */
+	public List<INewsObserver> getObservers(Security sec) {
+		Subscribers subs = subscribers.get(sec.getTicker());
+		return subs == null ? Collections.emptyList() : Collections.unmodifiableList(subs.list);
+	}
+	
+	/**
+	 * Sends an event to the observers subscribed to its security, in subscription order, or in parallel under a parallel {@linkplain DispatchMode}
+	 * with the same resulting orders (see {@linkplain OrderSequencer}). Observers subscribing meanwhile only receive later events.
+	 * @param e The {@linkplain Event} to deliver.
+	 */
+	public void notifyObservers(Event e) {
+		Subscribers subs = subscribers.get(e.getSecrity().getTicker());
+		if (subs == null) {
+			return;
+		}
+		ArrayList<INewsObserver> list = subs.list;
+		int n = list.size();
+		ExchangeMetrics m = metrics;
+		if (m == null) {
+			deliver(e, list, n);
+			return;
+		}
+		NewsDispatchedEvent event = new NewsDispatchedEvent();
+		event.begin();
+		long start = System.nanoTime();
+		deliver(e, list, n);
+		m.recordDispatch(System.nanoTime() - start, n);
+		if (event.shouldCommit()) {
+			event.ticker = e.getSecrity().getTicker();
+			event.time = e.getTime();
+			event.observers = n;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Sends events sharing a time to the observers subscribed to their securities, observer by observer: each observer receives all of its events,
+	 * in the order of the list, before the next observer receives any, as when agents poll for the events of that time one after the other.
+	 * Observers are taken in the order of their {@linkplain #setObserverRank(ToIntFunction) rank}, then in subscription order, those of the first
+	 * event first. Observers subscribing while the events are being delivered only receive later events.
+	 * <p>A single event is delivered by {@linkplain #notifyObservers(Event)}, so possibly in parallel; several are always delivered serially.</p>
+	 * @param events The events, all at the same time, e.g., those of {@linkplain #getEventsAt(long)}.
+	 */
+	public void notifyObservers(List<Event> events) {
+		if (events.size() <= 1) {
+			if (!events.isEmpty()) {
+				notifyObservers(events.get(0));
+			}
+			return;
+		}
+		ArrayList<INewsObserver> order = new ArrayList<>();
+		Set<INewsObserver> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Set<INewsObserver>> audiences = new ArrayList<>(events.size());
+		for (int i = 0; i < events.size(); i++) {
+			Subscribers subs = subscribers.get(events.get(i).getSecrity().getTicker());
+			Set<INewsObserver> audience = Collections.newSetFromMap(new IdentityHashMap<>());
+			if (subs != null) {
+				audience.addAll(subs.list);
+				for (INewsObserver o : subs.list) {
+					if (seen.add(o)) {
+						order.add(o);
+					}
+				}
+			}
+			audiences.add(audience);
+		}
+		ToIntFunction<INewsObserver> rank = observerRank;
+		if (rank != null) {
+			order.sort(Comparator.comparingInt(rank)); //stable
+		}
 		
-		PriorityQueue<Event> clonedQueue = new PriorityQueue<>(eventQueue);
-		Event e = null;
+		ExchangeMetrics m = metrics;
+		long start = m == null ? 0 : System.nanoTime();
+		int n = 0;
+		for (INewsObserver o : order) {
+			for (int i = 0; i < events.size(); i++) {
+				if (audiences.get(i).contains(o)) {
+					o.update(events.get(i));
+					n++;
+				}
+			}
+		}
+		if (m != null) {
+			m.recordDispatch(System.nanoTime() - start, n);
+		}
+	}
+	
+	private void deliver(Event e, ArrayList<INewsObserver> list, int n) {
+		if (dispatchExecutor == null || n <= dispatchChunkSize) {
+			for (int i = 0; i < n; i++) {
+				list.get(i).update(e);
+			}
+		} else {
+			notifyInParallel(e, list, n);
+		}
+	}
+	
+	/**
+	 * Delivers an event to the first {@code n} observers of a list on the dispatch executor, then releases their orders in list order,
+	 * delivering the event again to the observers after the state of the security changed.
+	 */
+	private void notifyInParallel(Event e, ArrayList<INewsObserver> list, int n) {
+		int chunks = (n + dispatchChunkSize - 1) / dispatchChunkSize;
+		OrderSequencer[] sequencers = new OrderSequencer[chunks];
+		int[] ends = new int[n];
+		ToLongFunction<Security> version = stateVersion;
+		long before = version == null ? 0 : version.applyAsLong(e.getSecrity());
+		List<Callable<Void>> tasks = new ArrayList<>(chunks);
+		for (int c = 0; c < chunks; c++) {
+			int from = c * dispatchChunkSize;
+			int to = Math.min(n, from + dispatchChunkSize);
+			OrderSequencer seq = new OrderSequencer();
+			sequencers[c] = seq;
+			tasks.add(() -> {
+				seq.run(() -> {
+					for (int i = from; i < to; i++) {
+						list.get(i).update(e);
+						ends[i] = seq.size();
+					}
+				});
+				return null;
+			});
+		}
+		
+		try {
+			for (Future<Void> f : dispatchExecutor.invokeAll(tasks)) {
+				f.get();
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while dispatching event", ex);
+		} catch (ExecutionException ex) {
+			throw new IllegalStateException("Observer failed while handling event", ex.getCause());
+		}
 		
-		while (!clonedQueue.isEmpty()) {
-			long next = clonedQueue.peek().getTime();
-			if (time > next) {
-				clonedQueue.poll();
-			} else if (time < next) {
-				return(null);
-			} else {//time == next
-				return(clonedQueue.poll());
+		for (int c = 0; c < chunks; c++) {
+			OrderSequencer seq = sequencers[c];
+			int start = 0;
+			for (int i = c * dispatchChunkSize; i < Math.min(n, (c + 1) * dispatchChunkSize); i++) {
+				if (version == null || version.applyAsLong(e.getSecrity()) == before) {
+					seq.release(start, ends[i]);
+				} else {
+					list.get(i).update(e);
+				}
+				start = ends[i];
 			}
+			seq.clear();
+		}
+	}
+	
+	/**
+	 * Sets how events are delivered to observers. Any executor previously created by the board is shut down.
+	 * @param mode The {@linkplain DispatchMode}.
+	 * @throws UnsupportedOperationException if virtual threads are requested on a runtime older than Java 21.
+	 */
+	public void setDispatchMode(DispatchMode mode) {
+		switch (mode) {
+		case SERIAL:
+			setExecutor(null, false);
+			break;
+		case FORK_JOIN:
+			setExecutor(ForkJoinPool.commonPool(), false);
+			break;
+		case VIRTUAL_THREADS:
+			setExecutor(newVirtualThreadExecutor(), true);
+			break;
+		default:
+			throw new IllegalArgumentException("Unexpected dispatch mode: " + mode);
+		}
+	}
+	
+	/**
+	 * Delivers events in parallel on a given executor, e.g., a dedicated {@linkplain ForkJoinPool}. The caller remains responsible for shutting it down.
+	 * @param executor The executor, or {@code null} for serial delivery.
+	 */
+	public void setDispatchExecutor(ExecutorService executor) {
+		setExecutor(executor, false);
+	}
+	
+	/**
+	 * Records event delivery in metrics, usually those of the exchange (see {@linkplain ca.yorku.cmg.lob.stockexchange.StockExchange#setMetrics(ExchangeMetrics)}).
+	 * @param metrics The metrics, or {@code null} to record nothing.
+	 */
+	public void setMetrics(ExchangeMetrics metrics) {
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * Sets the state version of a security, which parallel delivery watches to know when observers must be called again serially.
+	 * @param version Gives a number that changes whenever the state observers of a security read changes, or {@code null} if observers
+	 * do not depend on each other's orders.
+	 */
+	public void setStateVersion(ToLongFunction<Security> version) {
+		this.stateVersion = version;
+	}
+	
+	/**
+	 * Sets the order in which observers handle events sharing a time (see {@linkplain #notifyObservers(List)}), usually that in which the agents
+	 * of the exchange poll for news.
+	 * @param rank Gives the rank of an observer, lowest first, or {@code null} for subscription order.
+	 */
+	public void setObserverRank(ToIntFunction<INewsObserver> rank) {
+		this.observerRank = rank;
+	}
+	
+	/**
+	 * Sets how many observers one parallel task handles. Events with at most that many observers are delivered serially.
+	 * @param chunkSize The number of observers per task, at least 1. Default is 64.
+	 */
+	public void setDispatchChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
 		}
-		return (e);
+		this.dispatchChunkSize = chunkSize;
 	}
 	
+	private void setExecutor(ExecutorService executor, boolean owned) {
+		if (ownsExecutor) {
+			dispatchExecutor.shutdown();
+		}
+		this.dispatchExecutor = executor;
+		this.ownsExecutor = owned;
+	}
+	
+	/**
+	 * Creates a virtual-thread-per-task executor, looked up reflectively so that the code still compiles for Java 17.
+	 */
+	private static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			throw new UnsupportedOperationException("Virtual threads require Java 21 or later", e);
+		}
+	}
 	
 	/**
-	 * Stub for the observer part. Runs the entire queue of events and sends notifications to registered trading agents.   
+	 * Runs the entire list of events in time order and sends each to the observers subscribed to its security.
+	 * The events of each time are delivered together, observer by observer ({@linkplain #notifyObservers(List)}).
 	 */
 	public void runEventsList() {
-
+		EventTimeline.Cursor cursor = timeline.cursor();
+		long t;
+		while ((t = cursor.peekNextTime()) != Long.MAX_VALUE) {
+			notifyObservers(cursor.advanceTo(t));
+		}
+	}
+	
+	
+	/**
+	 * The observers of one ticker: a list for fast in-order delivery, and an identity set to reject duplicates.
+	 */
+	private static class Subscribers {
+		ArrayList<INewsObserver> list = new ArrayList<>();
+		Set<INewsObserver> members = Collections.newSetFromMap(new IdentityHashMap<>());
+		
+		void add(INewsObserver o) {
+			if (members.add(o)) {
+				list.add(o);
+			}
+		}
+		
+		void remove(INewsObserver o) {
+			if (members.remove(o)) {
+				list.remove(o);
+			}
+		}
 	}
 	
 	
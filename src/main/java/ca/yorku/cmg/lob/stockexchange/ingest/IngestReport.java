@@ -0,0 +1,67 @@
+package ca.yorku.cmg.lob.stockexchange.ingest;
+
+/**
+ * Counts of what happened to the lines of an order file read by a {@linkplain MappedOrderFileReader}.
+ * Bad lines are counted rather than reported one by one; {@linkplain #firstBadLine()} points at the first of them.
+ */
+public class IngestReport {
+	long lines;
+	long accepted;
+	long malformed;
+	long badType;
+	long unknownTicker;
+	long rejected;
+	long firstBadLine;
+
+	void bad(long lineNo) {
+		if (firstBadLine == 0) {
+			firstBadLine = lineNo;
+		}
+	}
+
+	/** @return The number of lines read, excluding the header. */
+	public long lines() {
+		return lines;
+	}
+
+	/** @return The number of orders accepted by the sink. */
+	public long accepted() {
+		return accepted;
+	}
+
+	/** @return The number of lines with too few fields or a field that is not a valid number. */
+	public long malformed() {
+		return malformed;
+	}
+
+	/** @return The number of lines whose order type is neither {@code ask} nor {@code bid}. */
+	public long badType() {
+		return badType;
+	}
+
+	/** @return The number of lines whose ticker is not traded. */
+	public long unknownTicker() {
+		return unknownTicker;
+	}
+
+	/** @return The number of orders the sink rejected (e.g., unknown trader). */
+	public long rejected() {
+		return rejected;
+	}
+
+	/** @return The number of lines that did not yield an accepted order. */
+	public long skipped() {
+		return malformed + badType + unknownTicker + rejected;
+	}
+
+	/** @return The line number (the header being line 1) of the first skipped line, 0 if none was skipped. */
+	public long firstBadLine() {
+		return firstBadLine;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d lines, %d orders accepted, %d skipped (%d malformed, %d unknown order type, %d unknown ticker, %d rejected), first skipped at line %d",
+				lines, accepted, skipped(), malformed, badType, unknownTicker, rejected, firstBadLine);
+	}
+}
@@ -0,0 +1,265 @@
+package ca.yorku.cmg.lob.stockexchange.ingest;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import ca.yorku.cmg.lob.security.Security;
+
+/**
+ * Reads an order file ({@code tid,tkr,type,qty,price,time}, with a header line) by memory-mapping it and parsing the fields
+ * straight into primitives: no line Strings, no splitting, no boxing. Tickers are resolved through a {@linkplain TickerLookup},
+ * and every valid line is handed to an {@linkplain OrderSink} as it is parsed.
+ * <p>The file is mapped in windows of at most {@code window} bytes, so files larger than 2GB are supported. The mapped bytes are
+ * bulk-copied, one block at a time, into a reused array that the fields are parsed from, as indexed array reads are much cheaper than
+ * per-byte reads from the mapped buffer; a line cut by the end of a block is re-read at the start of the next one.
+ * Lines longer than a block are counted as malformed. Bad lines are counted in the returned {@linkplain IngestReport} rather than
+ * reported one by one.</p>
+ * <p>Lines are accepted under the same rules as {@linkplain ca.yorku.cmg.lob.stockexchange.StockExchange#processOrderFile(String)}:
+ * fields are trimmed, fields beyond the sixth are ignored, and the type is {@code ask} or {@code bid}.</p>
+ */
+public class MappedOrderFileReader {
+
+	/** Default size of the mapped windows. */
+	public static final int DEFAULT_WINDOW = 1 << 28;
+
+	/** Size of the blocks lines are parsed from, i.e., the longest line accepted. */
+	public static final int BLOCK = 1 << 16;
+
+	private static final int FIELDS = 6;
+
+	private final TickerLookup tickers;
+	private final int window;
+
+	/**
+	 * @param tickers Resolves the tickers of the file.
+	 */
+	public MappedOrderFileReader(TickerLookup tickers) {
+		this(tickers, DEFAULT_WINDOW);
+	}
+
+	/**
+	 * @param tickers Resolves the tickers of the file.
+	 * @param window The maximum number of bytes mapped at a time. Lines longer than that (or than {@linkplain #BLOCK}) are counted as malformed.
+	 */
+	public MappedOrderFileReader(TickerLookup tickers, int window) {
+		this.tickers = tickers;
+		this.window = window;
+	}
+
+	/**
+	 * Reads an order file, passing each valid order to a sink.
+	 * @param path The order file.
+	 * @param sink Receives the orders, in file order.
+	 * @return What happened to the lines of the file.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public IngestReport read(Path path, OrderSink sink) throws IOException {
+		Pass pass = new Pass(sink);
+		byte[] block = new byte[Math.min(BLOCK, window)];
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = ch.size();
+			long pos = 0;
+			MappedByteBuffer mapped = null;
+			long mappedStart = 0;
+			long mappedEnd = 0;
+			while (pos < size) {
+				int n = (int) Math.min(block.length, size - pos);
+				if (pos + n > mappedEnd) {
+					mappedStart = pos;
+					mappedEnd = Math.min(pos + window, size);
+					mapped = ch.map(MapMode.READ_ONLY, mappedStart, mappedEnd - mappedStart);
+				}
+				mapped.get((int) (pos - mappedStart), block, 0, n);
+				int consumed = pass.readLines(block, n, pos + n == size);
+				if (consumed == 0) {
+					//No line ends in this block: count the line as malformed and skip the rest of it
+					pass.badLine().malformed++;
+					pass.skipping = true;
+					consumed = n;
+				}
+				pos += consumed;
+			}
+		}
+		return pass.report;
+	}
+
+	/**
+	 * The state of one read of a file.
+	 */
+	private class Pass {
+		final IngestReport report = new IngestReport();
+		final OrderSink sink;
+		final int[] start = new int[FIELDS];
+		final int[] end = new int[FIELDS];
+		final int[] comma = new int[FIELDS];
+		long lineNo = 0;
+		long value;
+		boolean skipping = false;
+
+		Pass(OrderSink sink) {
+			this.sink = sink;
+		}
+
+		/**
+		 * Reads the complete lines of a block.
+		 * @return The number of bytes consumed, up to the end of the last complete line (the whole block if it ends the file).
+		 */
+		int readLines(byte[] buf, int limit, boolean last) {
+			int lineStart = 0;
+			while (lineStart < limit) {
+				//Find the end of the line and, in the same pass, the commas separating the fields
+				int eol = lineStart;
+				int commas = 0;
+				for (byte b; eol < limit && (b = buf[eol]) != '\n'; eol++) {
+					if (b == ',' && commas < FIELDS) {
+						comma[commas++] = eol;
+					}
+				}
+				if (eol == limit && !last) {
+					if (skipping) {
+						return limit;
+					}
+					break;
+				}
+				if (skipping) {
+					skipping = false;
+				} else {
+					int lineEnd = eol;
+					if (lineEnd > lineStart && buf[lineEnd - 1] == '\r') {
+						lineEnd--;
+					}
+					if (++lineNo > 1) {
+						report.lines++;
+						readLine(buf, lineStart, lineEnd, commas);
+					}
+				}
+				lineStart = eol + 1;
+			}
+			return Math.min(lineStart, limit);
+		}
+
+		/**
+		 * Counts a line as read and bad.
+		 */
+		IngestReport badLine() {
+			lineNo++;
+			report.lines++;
+			report.bad(lineNo);
+			return report;
+		}
+
+		private void readLine(byte[] buf, int from, int to, int commas) {
+			if (commas < FIELDS - 1) {
+				report.malformed++;
+				report.bad(lineNo);
+				return;
+			}
+			start[0] = from;
+			for (int f = 0; f < FIELDS - 1; f++) {
+				end[f] = comma[f];
+				start[f + 1] = comma[f] + 1;
+			}
+			end[FIELDS - 1] = commas == FIELDS ? comma[FIELDS - 1] : to;
+			for (int i = 0; i < FIELDS; i++) {
+				while (start[i] < end[i] && buf[start[i]] <= ' ') {
+					start[i]++;
+				}
+				while (end[i] > start[i] && buf[end[i] - 1] <= ' ') {
+					end[i]--;
+				}
+			}
+
+			if (!parse(buf, 0, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+				return;
+			}
+			int traderID = (int) value;
+			if (!parse(buf, 3, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+				return;
+			}
+			int qty = (int) value;
+			if (!parse(buf, 4, Integer.MIN_VALUE, Integer.MAX_VALUE)) {
+				return;
+			}
+			int price = (int) value;
+			if (!parse(buf, 5, Long.MIN_VALUE, Long.MAX_VALUE)) {
+				return;
+			}
+			long time = value;
+
+			boolean bid;
+			if (is(buf, 2, 'b', 'i', 'd')) {
+				bid = true;
+			} else if (is(buf, 2, 'a', 's', 'k')) {
+				bid = false;
+			} else {
+				report.badType++;
+				report.bad(lineNo);
+				return;
+			}
+
+			Security sec = tickers.find(buf, start[1], end[1]);
+			if (sec == null) {
+				report.unknownTicker++;
+				report.bad(lineNo);
+			} else if (sink.accept(traderID, sec, bid, price, qty, time)) {
+				report.accepted++;
+			} else {
+				report.rejected++;
+				report.bad(lineNo);
+			}
+		}
+
+		/**
+		 * Parses a field as a decimal integer in {@code [min, max]} into {@link #value}, counting the line as malformed if it is not one.
+		 */
+		private boolean parse(byte[] buf, int field, long min, long max) {
+			int i = start[field];
+			int to = end[field];
+			boolean negative = false;
+			if (i < to && (buf[i] == '-' || buf[i] == '+')) {
+				negative = buf[i] == '-';
+				i++;
+			}
+			if (i == to) {
+				report.malformed++;
+				report.bad(lineNo);
+				return false;
+			}
+			//Accumulate negatively, so that Long.MIN_VALUE is representable
+			long v = 0;
+			for (; i < to; i++) {
+				int d = buf[i] - '0';
+				if (d < 0 || d > 9 || v < Long.MIN_VALUE / 10 || (v == Long.MIN_VALUE / 10 && d > 8)) {
+					report.malformed++;
+					report.bad(lineNo);
+					return false;
+				}
+				v = v * 10 - d;
+			}
+			if (!negative) {
+				if (v == Long.MIN_VALUE) {
+					report.malformed++;
+					report.bad(lineNo);
+					return false;
+				}
+				v = -v;
+			}
+			if (v < min || v > max) {
+				report.malformed++;
+				report.bad(lineNo);
+				return false;
+			}
+			value = v;
+			return true;
+		}
+
+		private boolean is(byte[] buf, int field, char a, char b, char c) {
+			int i = start[field];
+			return end[field] - i == 3 && buf[i] == a && buf[i + 1] == b && buf[i + 2] == c;
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package ca.yorku.cmg.lob.stockexchange.ingest;
+
+import java.nio.ByteOrder;
+
+/**
+ * The binary order log format written by {@linkplain OrderLogWriter} and read by {@linkplain OrderLogReader}.
+ * <p>A log is a {@value #HEADER_SIZE}-byte header ({@linkplain #MAGIC}, {@linkplain #VERSION}, {@linkplain #RECORD_SIZE}, then zeros)
+ * followed by fixed-width {@value #RECORD_SIZE}-byte records, all little-endian. Every record starts with a kind byte:</p>
+ * <ul>
+ * <li>{@linkplain #ORDER}: {@code kind(1) side(1) reserved(2) traderID(4) securityID(4) price(4) quantity(4) reserved(4) time(8)},
+ * side being {@linkplain #BID} or {@linkplain #ASK}.</li>
+ * <li>{@linkplain #SECURITY}: {@code kind(1) tickerLength(1) reserved(2) securityID(4) ticker(24)}, the ticker in UTF-8.
+ * Written before the first order for a security, it tells which ticker the security id of the log stands for.</li>
+ * </ul>
+ * <p>As records are fixed-width, a log cut short by a crash is read up to its last complete record.</p>
+ */
+public final class OrderLog {
+
+	/** The first four bytes of a log: "LOBO". */
+	public static final int MAGIC = 0x4F424F4C;
+
+	/** The version of the format. */
+	public static final int VERSION = 1;
+
+	/** The size of the header. */
+	public static final int HEADER_SIZE = 32;
+
+	/** The size of a record. */
+	public static final int RECORD_SIZE = 32;
+
+	/** The byte order of headers and records. */
+	public static final ByteOrder ORDER_BYTES = ByteOrder.LITTLE_ENDIAN;
+
+	/** Kind of a record holding an order. */
+	public static final byte ORDER = 1;
+
+	/** Kind of a record defining the ticker of a security id. */
+	public static final byte SECURITY = 2;
+
+	/** Side of a bid. */
+	public static final byte BID = 0;
+
+	/** Side of an ask. */
+	public static final byte ASK = 1;
+
+	/** The longest ticker, in UTF-8 bytes, a security record can hold. */
+	public static final int MAX_TICKER = RECORD_SIZE - 8;
+
+	private OrderLog() {
+	}
+}
@@ -0,0 +1,113 @@
+package ca.yorku.cmg.lob.stockexchange.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import ca.yorku.cmg.lob.security.Security;
+
+/**
+ * Reads a binary order log (see {@linkplain OrderLog}), passing each order to an {@linkplain OrderSink} in log order.
+ * Security ids of the log are mapped to {@linkplain Security} objects through their tickers, once per id.
+ * A record cut short at the end of the log (e.g., by a crash) is ignored.
+ */
+public class OrderLogReader {
+
+	private static final int BUFFER = 1 << 20;
+
+	private final Function<String, Security> securities;
+
+	/**
+	 * @param securities Resolves tickers to securities (e.g., {@linkplain ca.yorku.cmg.lob.security.SecurityList#getSecurityByTicker(String)}); returns {@code null} for unknown tickers.
+	 */
+	public OrderLogReader(Function<String, Security> securities) {
+		this.securities = securities;
+	}
+
+	/**
+	 * Reads a log.
+	 * @param path The log file.
+	 * @param sink Receives the orders.
+	 * @return The counts of orders read, accepted and skipped; orders of unknown securities count as unknown tickers.
+	 * @throws IOException If the file cannot be read or is not an order log.
+	 */
+	public IngestReport read(Path path, OrderSink sink) throws IOException {
+		IngestReport report = new IngestReport();
+		Security[] secs = new Security[16];
+		boolean[] known = new boolean[16];
+		ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER / OrderLog.RECORD_SIZE * OrderLog.RECORD_SIZE).order(OrderLog.ORDER_BYTES);
+		byte[] tkr = new byte[OrderLog.MAX_TICKER];
+		try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+			buf.limit(OrderLog.HEADER_SIZE);
+			readFully(ch, buf);
+			buf.flip();
+			if (buf.remaining() < OrderLog.HEADER_SIZE || buf.getInt() != OrderLog.MAGIC) {
+				throw new IOException("Not an order log: " + path);
+			}
+			if (buf.getInt() != OrderLog.VERSION || buf.getInt() != OrderLog.RECORD_SIZE) {
+				throw new IOException("Unsupported order log version: " + path);
+			}
+			buf.clear();
+			while (readFully(ch, buf)) {
+				buf.flip();
+				while (buf.remaining() >= OrderLog.RECORD_SIZE) {
+					int p = buf.position();
+					byte kind = buf.get(p);
+					if (kind == OrderLog.ORDER) {
+						int sid = buf.getInt(p + 8);
+						report.lines++;
+						Security sec = (sid >= 0 && sid < secs.length) ? secs[sid] : null;
+						if (sec == null) {
+							report.unknownTicker++;
+							report.bad(report.lines);
+						} else if (sink.accept(buf.getInt(p + 4), sec, buf.get(p + 1) == OrderLog.BID, buf.getInt(p + 12), buf.getInt(p + 16), buf.getLong(p + 24))) {
+							report.accepted++;
+						} else {
+							report.rejected++;
+							report.bad(report.lines);
+						}
+					} else if (kind == OrderLog.SECURITY) {
+						int sid = buf.getInt(p + 4);
+						int len = buf.get(p + 1);
+						if (sid < 0 || len < 0 || len > OrderLog.MAX_TICKER) {
+							throw new IOException("Corrupt order log security record: " + path);
+						}
+						if (sid >= secs.length) {
+							secs = Arrays.copyOf(secs, Math.max(sid + 1, secs.length * 2));
+							known = Arrays.copyOf(known, secs.length);
+						}
+						if (!known[sid]) {
+							buf.get(p + 8, tkr, 0, len);
+							secs[sid] = securities.apply(new String(tkr, 0, len, StandardCharsets.UTF_8));
+							known[sid] = true;
+						}
+					} else {
+						throw new IOException("Corrupt order log record kind " + kind + ": " + path);
+					}
+					buf.position(p + OrderLog.RECORD_SIZE);
+				}
+				buf.compact();
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Reads until the buffer is full or the file ends.
+	 * @return {@code true} if at least one byte was read.
+	 */
+	private static boolean readFully(FileChannel ch, ByteBuffer buf) throws IOException {
+		int start = buf.position();
+		while (buf.hasRemaining()) {
+			if (ch.read(buf) < 0) {
+				break;
+			}
+		}
+		return buf.position() > start;
+	}
+}
@@ -0,0 +1,137 @@
+package ca.yorku.cmg.lob.stockexchange.ingest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Appends orders to a binary order log (see {@linkplain OrderLog}) through a buffered {@linkplain FileChannel}.
+ * Records are buffered in memory and written when the buffer fills up, on {@linkplain #flush()} and on {@linkplain #close()};
+ * {@linkplain #sync()} also forces them to the storage device.
+ * <p>Attached to a {@linkplain ca.yorku.cmg.lob.stockexchange.StockExchange} with
+ * {@linkplain ca.yorku.cmg.lob.stockexchange.StockExchange#setOrderLog(OrderLogWriter)}, it records every order the exchange accepts.</p>
+ */
+public class OrderLogWriter implements Closeable {
+
+	/** Default size of the write buffer. */
+	public static final int DEFAULT_BUFFER = 1 << 16;
+
+	private final FileChannel ch;
+	private final ByteBuffer buf;
+	private final BitSet defined = new BitSet();
+	private long records = 0;
+
+	/**
+	 * Creates a log, replacing any existing file.
+	 * @param path The log file.
+	 * @throws IOException If the file cannot be created.
+	 */
+	public OrderLogWriter(Path path) throws IOException {
+		this(path, DEFAULT_BUFFER);
+	}
+
+	/**
+	 * Creates a log, replacing any existing file.
+	 * @param path The log file.
+	 * @param bufferSize The size of the write buffer, at least {@linkplain OrderLog#RECORD_SIZE}.
+	 * @throws IOException If the file cannot be created.
+	 */
+	public OrderLogWriter(Path path, int bufferSize) throws IOException {
+		ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		buf = ByteBuffer.allocateDirect(Math.max(bufferSize, OrderLog.HEADER_SIZE) / OrderLog.RECORD_SIZE * OrderLog.RECORD_SIZE).order(OrderLog.ORDER_BYTES);
+		buf.putInt(OrderLog.MAGIC).putInt(OrderLog.VERSION).putInt(OrderLog.RECORD_SIZE);
+		buf.position(OrderLog.HEADER_SIZE);
+	}
+
+	/**
+	 * Appends an order.
+	 * @param order The order.
+	 * @param securityID The id of the security of the order, unique to its ticker within the log.
+	 * @param time The time of submission.
+	 * @throws IOException If the buffer cannot be written out.
+	 */
+	public void append(IOrder order, int securityID, long time) throws IOException {
+		if (!defined.get(securityID)) {
+			defineSecurity(securityID, order.getSecurity().getTicker());
+		}
+		ensureRoom();
+		buf.put(OrderLog.ORDER)
+			.put(order instanceof Bid ? OrderLog.BID : OrderLog.ASK)
+			.putShort((short) 0)
+			.putInt(order.getTrader().getID())
+			.putInt(securityID)
+			.putInt(order.getPrice())
+			.putInt(order.getQuantity())
+			.putInt(0)
+			.putLong(time);
+		records++;
+	}
+
+	private void defineSecurity(int securityID, String ticker) throws IOException {
+		byte[] tkr = ticker.getBytes(StandardCharsets.UTF_8);
+		if (tkr.length > OrderLog.MAX_TICKER) {
+			throw new IllegalArgumentException("Ticker longer than " + OrderLog.MAX_TICKER + " bytes: " + ticker);
+		}
+		ensureRoom();
+		int start = buf.position();
+		buf.put(OrderLog.SECURITY).put((byte) tkr.length).putShort((short) 0).putInt(securityID).put(tkr);
+		while (buf.position() < start + OrderLog.RECORD_SIZE) {
+			buf.put((byte) 0);
+		}
+		defined.set(securityID);
+	}
+
+	private void ensureRoom() throws IOException {
+		if (buf.remaining() < OrderLog.RECORD_SIZE) {
+			flush();
+		}
+	}
+
+	/**
+	 * @return The number of orders appended so far.
+	 */
+	public long size() {
+		return records;
+	}
+
+	/**
+	 * Writes the buffered records to the file.
+	 * @throws IOException If the records cannot be written.
+	 */
+	public void flush() throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			ch.write(buf);
+		}
+		buf.clear();
+	}
+
+	/**
+	 * Writes the buffered records to the file and forces the file to the storage device.
+	 * @throws IOException If the records cannot be written.
+	 */
+	public void sync() throws IOException {
+		flush();
+		ch.force(false);
+	}
+
+	/**
+	 * Writes the buffered records and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			ch.close();
+		}
+	}
+}
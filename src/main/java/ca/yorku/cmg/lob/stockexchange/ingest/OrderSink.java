@@ -0,0 +1,22 @@
+package ca.yorku.cmg.lob.stockexchange.ingest;
+
+import ca.yorku.cmg.lob.security.Security;
+
+/**
+ * Receives the orders parsed by a {@linkplain MappedOrderFileReader}, one call per valid line, as primitives.
+ */
+@FunctionalInterface
+public interface OrderSink {
+
+	/**
+	 * Accepts an order.
+	 * @param traderID The id of the trader placing the order.
+	 * @param sec The {@linkplain Security} traded.
+	 * @param bid {@code true} for a bid, {@code false} for an ask.
+	 * @param price The limit price, in cents.
+	 * @param qty The quantity.
+	 * @param time The time of the order.
+	 * @return {@code false} if the order was rejected (e.g., the trader is unknown), {@code true} otherwise.
+	 */
+	boolean accept(int traderID, Security sec, boolean bid, int price, int qty, long time);
+}
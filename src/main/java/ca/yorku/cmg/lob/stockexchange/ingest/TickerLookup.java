@@ -0,0 +1,100 @@
+package ca.yorku.cmg.lob.stockexchange.ingest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Function;
+
+import ca.yorku.cmg.lob.security.Security;
+
+/**
+ * Resolves tickers to {@linkplain Security} objects straight from the bytes of a buffer, without decoding them into Strings.
+ * Tickers are kept in an open-addressing table keyed by their bytes. A ticker that is not in the table is decoded once and
+ * resolved through a fallback (e.g., {@linkplain ca.yorku.cmg.lob.security.SecurityList#getSecurityByTicker(String)});
+ * the outcome, found or not, is remembered.
+ */
+public class TickerLookup {
+	private byte[][] keys = new byte[16][];
+	private Security[] values = new Security[16];
+	private int size = 0;
+	private final Function<String, Security> fallback;
+
+	/**
+	 * @param fallback Resolves tickers that were not added to the lookup; returns {@code null} for unknown tickers.
+	 */
+	public TickerLookup(Function<String, Security> fallback) {
+		this.fallback = fallback;
+	}
+
+	/**
+	 * Adds a security under its ticker.
+	 * @param sec The {@linkplain Security}.
+	 */
+	public void add(Security sec) {
+		byte[] key = sec.getTicker().getBytes(StandardCharsets.UTF_8);
+		put(key, hash(key, 0, key.length), sec);
+	}
+
+	/**
+	 * Resolves the ticker held in bytes {@code [start, end)} of a buffer.
+	 * @param buf The buffer.
+	 * @param start Index of the first byte of the ticker.
+	 * @param end Index past the last byte of the ticker.
+	 * @return The {@linkplain Security} with that ticker, {@code null} if there is none.
+	 */
+	public Security find(byte[] buf, int start, int end) {
+		int h = hash(buf, start, end);
+		int mask = keys.length - 1;
+		for (int i = h & mask; keys[i] != null; i = (i + 1) & mask) {
+			if (equal(keys[i], buf, start, end)) {
+				return values[i];
+			}
+		}
+		byte[] key = Arrays.copyOfRange(buf, start, end);
+		Security sec = fallback.apply(new String(key, StandardCharsets.UTF_8));
+		put(key, h, sec);
+		return sec;
+	}
+
+	private void put(byte[] key, int h, Security sec) {
+		if (2 * (size + 1) > keys.length) {
+			grow();
+		}
+		int mask = keys.length - 1;
+		int i = h & mask;
+		while (keys[i] != null) {
+			if (Arrays.equals(keys[i], key)) {
+				values[i] = sec;
+				return;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = sec;
+		size++;
+	}
+
+	private void grow() {
+		byte[][] oldKeys = keys;
+		Security[] oldValues = values;
+		keys = new byte[oldKeys.length * 2][];
+		values = new Security[oldKeys.length * 2];
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				put(oldKeys[i], hash(oldKeys[i], 0, oldKeys[i].length), oldValues[i]);
+			}
+		}
+	}
+
+	private static boolean equal(byte[] key, byte[] buf, int start, int end) {
+		return Arrays.equals(key, 0, key.length, buf, start, end);
+	}
+
+	private static int hash(byte[] b, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + b[i];
+		}
+		return h ^ (h >>> 16);
+	}
+}
@@ -0,0 +1,112 @@
+package ca.yorku.cmg.lob.stockexchange.journal;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * A read-only snapshot of an order, as read back from a {@linkplain SpillingJournal}. It keeps the id of the original order
+ * and prints exactly like {@linkplain ca.yorku.cmg.lob.orderbook.Order}, but, unlike creating a new order, creating it does not
+ * consume an order id. Setters throw {@linkplain UnsupportedOperationException}.
+ */
+public class LoggedOrder implements IOrder {
+	private final long id;
+	private final Trader trader;
+	private final Security security;
+	private final boolean bid;
+	private final int price;
+	private final int quantity;
+	private final long time;
+
+	/**
+	 * Constructor
+	 * @param id The id of the original order.
+	 * @param trader The {@linkplain Trader} who placed the order.
+	 * @param security The {@linkplain Security} of the order.
+	 * @param bid {@code true} for a bid, {@code false} for an ask.
+	 * @param price The limit price, in cents.
+	 * @param quantity The quantity.
+	 * @param time The time of the order.
+	 */
+	public LoggedOrder(long id, Trader trader, Security security, boolean bid, int price, int quantity, long time) {
+		this.id = id;
+		this.trader = trader;
+		this.security = security;
+		this.bid = bid;
+		this.price = price;
+		this.quantity = quantity;
+		this.time = time;
+	}
+
+	/**
+	 * @return {@code true} if the original order was a bid, {@code false} if it was an ask.
+	 */
+	public boolean isBid() {
+		return bid;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[%3d  %s  %7.2f  %8d  %8d  %5d]", trader.getID(), security.getTicker(), price / 100.0, quantity, time, id);
+	}
+
+	@Override
+	public int getPrice() {
+		return price;
+	}
+
+	@Override
+	public void setPrice(int price) {
+		throw new UnsupportedOperationException("Logged orders are read-only");
+	}
+
+	@Override
+	public Trader getTrader() {
+		return trader;
+	}
+
+	@Override
+	public void setTrader(Trader trader) {
+		throw new UnsupportedOperationException("Logged orders are read-only");
+	}
+
+	@Override
+	public Security getSecurity() {
+		return security;
+	}
+
+	@Override
+	public void setSecurity(Security security) {
+		throw new UnsupportedOperationException("Logged orders are read-only");
+	}
+
+	@Override
+	public int getQuantity() {
+		return quantity;
+	}
+
+	@Override
+	public void setQuantity(int quantity) {
+		throw new UnsupportedOperationException("Logged orders are read-only");
+	}
+
+	@Override
+	public long getTime() {
+		return time;
+	}
+
+	@Override
+	public void setTime(long time) {
+		throw new UnsupportedOperationException("Logged orders are read-only");
+	}
+
+	@Override
+	public long getID() {
+		return id;
+	}
+
+	@Override
+	public long getValue() {
+		return (long) price * quantity;
+	}
+}
@@ -0,0 +1,66 @@
+package ca.yorku.cmg.lob.stockexchange.journal;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+/**
+ * Encodes orders as {@value #RECORD_SIZE}-byte records: {@code id(8) time(8) traderID(4) securityID(4) price(4) quantity(4) side(1) reserved(7)}.
+ * Orders are decoded as {@linkplain LoggedOrder}s, traders and securities being resolved from their ids.
+ */
+public class OrderCodec implements RecordCodec<IOrder> {
+
+	/** The size of a record. */
+	public static final int RECORD_SIZE = 40;
+
+	private final IntFunction<Trader> traders;
+	private final ToIntFunction<Security> securityIds;
+	private final IntFunction<Security> securities;
+
+	/**
+	 * @param traders Resolves trader ids to traders.
+	 * @param securityIds Gives the id of a security.
+	 * @param securities Resolves security ids to securities.
+	 */
+	public OrderCodec(IntFunction<Trader> traders, ToIntFunction<Security> securityIds, IntFunction<Security> securities) {
+		this.traders = traders;
+		this.securityIds = securityIds;
+		this.securities = securities;
+	}
+
+	@Override
+	public int recordSize() {
+		return RECORD_SIZE;
+	}
+
+	@Override
+	public void encode(IOrder o, ByteBuffer buf) {
+		boolean bid = (o instanceof LoggedOrder) ? ((LoggedOrder) o).isBid() : (o instanceof Bid);
+		buf.putLong(o.getID())
+			.putLong(o.getTime())
+			.putInt(o.getTrader().getID())
+			.putInt(securityIds.applyAsInt(o.getSecurity()))
+			.putInt(o.getPrice())
+			.putInt(o.getQuantity())
+			.put(bid ? (byte) 1 : (byte) 0)
+			.put((byte) 0).putShort((short) 0).putInt(0);
+	}
+
+	@Override
+	public IOrder decode(ByteBuffer buf) {
+		long id = buf.getLong();
+		long time = buf.getLong();
+		Trader t = traders.apply(buf.getInt());
+		Security sec = securities.apply(buf.getInt());
+		int price = buf.getInt();
+		int qty = buf.getInt();
+		boolean bid = buf.get() == 1;
+		buf.position(buf.position() + 7);
+		return new LoggedOrder(id, t, sec, bid, price, qty, time);
+	}
+}
@@ -0,0 +1,29 @@
+package ca.yorku.cmg.lob.stockexchange.journal;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts journal entries to and from fixed-width binary records, for a {@linkplain SpillingJournal}.
+ * @param <T> The type of the entries.
+ */
+public interface RecordCodec<T> {
+
+	/**
+	 * @return The size of a record, in bytes.
+	 */
+	int recordSize();
+
+	/**
+	 * Writes an entry at the position of a buffer, advancing it by exactly {@linkplain #recordSize()} bytes.
+	 * @param entry The entry.
+	 * @param buf The buffer.
+	 */
+	void encode(T entry, ByteBuffer buf);
+
+	/**
+	 * Reads an entry at the position of a buffer, advancing it by exactly {@linkplain #recordSize()} bytes.
+	 * @param buf The buffer.
+	 * @return The entry.
+	 */
+	T decode(ByteBuffer buf);
+}
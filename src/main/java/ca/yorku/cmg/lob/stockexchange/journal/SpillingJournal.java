@@ -0,0 +1,215 @@
+package ca.yorku.cmg.lob.stockexchange.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An append-only list that keeps only its most recent entries in memory, in a ring of fixed capacity, and spills older entries
+ * to a file as fixed-width records (see {@linkplain RecordCodec}). Reading is transparent: {@linkplain #get(int)} and
+ * {@linkplain #iterator()} return spilled entries decoded from the file and recent entries from the ring. Heap use is therefore
+ * bounded by the capacity of the ring, however many entries are appended.
+ * <p>Entries are appended with {@linkplain #add(Object)}; other modifications are not supported. An entry is encoded when it
+ * leaves the ring, so spilled entries are snapshots: later changes to the original object are not reflected, and a spilled entry
+ * read back is a new object. Not thread-safe.</p>
+ * @param <T> The type of the entries.
+ */
+public class SpillingJournal<T> extends AbstractList<T> implements Closeable {
+
+	private static final int BUFFER = 1 << 16;
+
+	private final RecordCodec<T> codec;
+	private final int recordSize;
+	private final FileChannel ch;
+	private final Object[] ring;
+	private final ByteBuffer writeBuf;
+	private final ByteBuffer readBuf;
+
+	//Entries [0, spilled) are in the file or the write buffer, entries [spilled, size) in the ring
+	private int size = 0;
+	private int spilled = 0;
+	private int flushed = 0;
+
+	/**
+	 * Creates an empty journal, replacing any existing file.
+	 * @param path The file spilled entries are written to.
+	 * @param capacity The number of most recent entries kept in memory.
+	 * @param codec Converts entries to and from records.
+	 * @throws IOException If the file cannot be created.
+	 */
+	public SpillingJournal(Path path, int capacity, RecordCodec<T> codec) throws IOException {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+		}
+		this.codec = codec;
+		this.recordSize = codec.recordSize();
+		this.ring = new Object[capacity];
+		int records = Math.max(1, BUFFER / recordSize);
+		this.writeBuf = ByteBuffer.allocateDirect(records * recordSize);
+		this.readBuf = ByteBuffer.allocateDirect(recordSize);
+		this.ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Appends an entry, spilling the oldest entry of the ring if the ring is full.
+	 * @param entry The entry.
+	 * @return {@code true}
+	 */
+	@Override
+	public boolean add(T entry) {
+		if (size - spilled == ring.length) {
+			spill();
+		}
+		ring[size % ring.length] = entry;
+		size++;
+		modCount++;
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void spill() {
+		int slot = spilled % ring.length;
+		if (!writeBuf.hasRemaining()) {
+			flushQuietly();
+		}
+		codec.encode((T) ring[slot], writeBuf);
+		ring[slot] = null;
+		spilled++;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+		}
+		if (index >= spilled) {
+			return (T) ring[index % ring.length];
+		}
+		if (index >= flushed) {
+			ByteBuffer b = writeBuf.duplicate();
+			b.position((index - flushed) * recordSize);
+			return codec.decode(b);
+		}
+		readBuf.clear().limit(recordSize);
+		readAt(readBuf, (long) index * recordSize);
+		readBuf.flip();
+		return codec.decode(readBuf);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The number of entries held in memory.
+	 */
+	public int inMemory() {
+		return size - spilled;
+	}
+
+	/**
+	 * Returns an iterator over all entries, oldest first, reading spilled entries from the file block by block.
+	 * Appending while iterating fails the iterator.
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		flushQuietly();
+		return new Iterator<T>() {
+			private int next = 0;
+			private final int expectedModCount = modCount;
+			private ByteBuffer block = null;
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public T next() {
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				if (next >= spilled) {
+					return (T) ring[next++ % ring.length];
+				}
+				if (block == null) {
+					block = ByteBuffer.allocate(writeBuf.capacity()).limit(0);
+				}
+				if (!block.hasRemaining()) {
+					int records = Math.min(spilled - next, block.capacity() / recordSize);
+					block.clear().limit(records * recordSize);
+					readAt(block, (long) next * recordSize);
+					block.flip();
+				}
+				next++;
+				return codec.decode(block);
+			}
+		};
+	}
+
+	/**
+	 * Fills a buffer from the file, starting at a position of the file.
+	 */
+	private void readAt(ByteBuffer buf, long position) {
+		try {
+			while (buf.hasRemaining()) {
+				if (ch.read(buf, position + buf.position()) < 0) {
+					throw new IOException("Journal file shorter than expected");
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Writes the buffered spilled entries to the file.
+	 * @throws IOException If they cannot be written.
+	 */
+	public void flush() throws IOException {
+		writeBuf.flip();
+		long position = (long) flushed * recordSize;
+		while (writeBuf.hasRemaining()) {
+			position += ch.write(writeBuf, position);
+		}
+		writeBuf.clear();
+		flushed = spilled;
+	}
+
+	private void flushQuietly() {
+		try {
+			flush();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @return {@code true} until the journal is {@linkplain #close() closed}.
+	 */
+	public boolean isOpen() {
+		return ch.isOpen();
+	}
+
+	/**
+	 * Closes the file. The journal cannot be used afterwards.
+	 */
+	@Override
+	public void close() throws IOException {
+		ch.close();
+	}
+}
@@ -0,0 +1,69 @@
+package ca.yorku.cmg.lob.stockexchange.journal;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.book.ExchangeTrade;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+/**
+ * Encodes trades as {@value #RECORD_SIZE}-byte records:
+ * {@code time(8) buyerID(4) sellerID(4) securityID(4) price(4) quantity(4) buyerFee(4) sellerFee(4) reserved(4)}.
+ * Trades are decoded as {@linkplain ExchangeTrade}s, traders and securities being resolved from their ids.
+ */
+public class TradeCodec implements RecordCodec<ITrade> {
+
+	/** The size of a record. */
+	public static final int RECORD_SIZE = 40;
+
+	private final IntFunction<Trader> traders;
+	private final ToIntFunction<Security> securityIds;
+	private final IntFunction<Security> securities;
+
+	/**
+	 * @param traders Resolves trader ids to traders.
+	 * @param securityIds Gives the id of a security.
+	 * @param securities Resolves security ids to securities.
+	 */
+	public TradeCodec(IntFunction<Trader> traders, ToIntFunction<Security> securityIds, IntFunction<Security> securities) {
+		this.traders = traders;
+		this.securityIds = securityIds;
+		this.securities = securities;
+	}
+
+	@Override
+	public int recordSize() {
+		return RECORD_SIZE;
+	}
+
+	@Override
+	public void encode(ITrade t, ByteBuffer buf) {
+		buf.putLong(t.getTime())
+			.putInt(t.getBuyer().getID())
+			.putInt(t.getSeller().getID())
+			.putInt(securityIds.applyAsInt(t.getSecurity()))
+			.putInt(t.getPrice())
+			.putInt(t.getQuantity())
+			.putInt(t.getBuyerFee())
+			.putInt(t.getSellerFee())
+			.putInt(0);
+	}
+
+	@Override
+	public ITrade decode(ByteBuffer buf) {
+		long time = buf.getLong();
+		Trader buyer = traders.apply(buf.getInt());
+		Trader seller = traders.apply(buf.getInt());
+		Security sec = securities.apply(buf.getInt());
+		int price = buf.getInt();
+		int qty = buf.getInt();
+		ITrade t = new ExchangeTrade(buyer, seller, sec, price, qty, time);
+		t.setBuyerFee(buf.getInt());
+		t.setSellerFee(buf.getInt());
+		buf.getInt();
+		return t;
+	}
+}
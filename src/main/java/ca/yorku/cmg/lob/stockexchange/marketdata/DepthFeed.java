@@ -0,0 +1,125 @@
+package ca.yorku.cmg.lob.stockexchange.marketdata;
+
+import java.util.Iterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.book.LevelListener;
+import ca.yorku.cmg.lob.stockexchange.book.LimitOrderBook;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevel;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevelOrderbook;
+
+/**
+ * Level 2 market data of a {@linkplain PriceLevelOrderbook}: depth aggregated by price level (price, total quantity, number of orders),
+ * read straight from the {@linkplain PriceLevel}s, which keep those aggregates as orders come and go.
+ * <p>Subscribers receive a {@linkplain DepthUpdate} for every change of a level: added, modified or deleted. A subscriber joining a running
+ * book takes a {@linkplain #snapshot(Security, int)}, then applies the updates with a higher sequence number. Updates are delivered
+ * on the thread changing the book, before the change that caused them returns; the feed only listens to the book while it has subscribers,
+ * so an exchange without any pays nothing for it.</p>
+ * <p>While a {@linkplain ca.yorku.cmg.lob.stockexchange.ShardedExchange} runs, the books are owned by its shards and updates of different
+ * securities may be delivered concurrently, from the shard threads; the updates of one security are still delivered in order.
+ * Subscribe, unsubscribe and take snapshots on the thread submitting orders, and not while sharded or pipelined.</p>
+ */
+public class DepthFeed implements LevelListener {
+	private final PriceLevelOrderbook book;
+	private final CopyOnWriteArrayList<Consumer<DepthUpdate>> subscribers = new CopyOnWriteArrayList<>();
+	private final AtomicLong sequence = new AtomicLong();
+
+	/**
+	 * Constructor
+	 * @param book The book to publish the depth of.
+	 */
+	public DepthFeed(PriceLevelOrderbook book) {
+		this.book = book;
+	}
+
+	/**
+	 * Adds a subscriber, and starts listening to the book if it is the first.
+	 * @param subscriber Receives every update, from now on.
+	 */
+	public void subscribe(Consumer<DepthUpdate> subscriber) {
+		subscribers.add(subscriber);
+		book.setLevelListener(this);
+	}
+
+	/**
+	 * Removes a subscriber, and stops listening to the book if it was the last.
+	 * @param subscriber A subscriber added by {@linkplain #subscribe(Consumer)}.
+	 */
+	public void unsubscribe(Consumer<DepthUpdate> subscriber) {
+		subscribers.remove(subscriber);
+		if (subscribers.isEmpty() && book.getLevelListener() == this) {
+			book.setLevelListener(null);
+		}
+	}
+
+	/**
+	 * @return The sequence number of the last update published, 0 if none was.
+	 */
+	public long getSequence() {
+		return sequence.get();
+	}
+
+	@Override
+	public void onLevel(LimitOrderBook b, boolean bid, PriceLevel level, boolean added) {
+		DepthUpdate.Action action = added ? DepthUpdate.Action.ADD : level.isEmpty() ? DepthUpdate.Action.DELETE : DepthUpdate.Action.MODIFY;
+		DepthUpdate u = new DepthUpdate(sequence.incrementAndGet(), action, b.getSecurity(), bid, level.getPrice(),
+				level.getTotalQuantity(), level.getOrderCount());
+		for (Consumer<DepthUpdate> s : subscribers) {
+			s.accept(u);
+		}
+	}
+
+	/**
+	 * Reads the top levels of both sides of the book of a security. Costs O(levels), whatever the number of orders resting.
+	 * @param sec The security.
+	 * @param levels The maximum number of levels per side.
+	 * @return The depth, with as many levels per side as there are, up to {@code levels}.
+	 */
+	public DepthSnapshot snapshot(Security sec, int levels) {
+		return snapshot(book.getBook(sec.getTicker()), sec, levels);
+	}
+
+	/**
+	 * As {@linkplain #snapshot(Security, int)}, by ticker.
+	 * @param tkr The ticker.
+	 * @param levels The maximum number of levels per side.
+	 * @return The depth, or {@code null} if no order was ever added for the ticker.
+	 */
+	public DepthSnapshot snapshot(String tkr, int levels) {
+		LimitOrderBook b = book.getBook(tkr);
+		return b == null ? null : snapshot(b, b.getSecurity(), levels);
+	}
+
+	private DepthSnapshot snapshot(LimitOrderBook b, Security sec, int levels) {
+		long seq = sequence.get();
+		if (b == null) {
+			return new DepthSnapshot(sec, seq, new int[0], new long[0], new int[0], new int[0], new long[0], new int[0]);
+		}
+		int nb = Math.min(levels, b.getBidLevels().size());
+		int na = Math.min(levels, b.getAskLevels().size());
+		int[] bidPrices = new int[nb];
+		long[] bidQuantities = new long[nb];
+		int[] bidOrders = new int[nb];
+		Iterator<PriceLevel> it = b.getBidLevels().iterator();
+		for (int i = 0; i < nb; i++) {
+			PriceLevel l = it.next();
+			bidPrices[i] = l.getPrice();
+			bidQuantities[i] = l.getTotalQuantity();
+			bidOrders[i] = l.getOrderCount();
+		}
+		int[] askPrices = new int[na];
+		long[] askQuantities = new long[na];
+		int[] askOrders = new int[na];
+		it = b.getAskLevels().iterator();
+		for (int i = 0; i < na; i++) {
+			PriceLevel l = it.next();
+			askPrices[i] = l.getPrice();
+			askQuantities[i] = l.getTotalQuantity();
+			askOrders[i] = l.getOrderCount();
+		}
+		return new DepthSnapshot(sec, seq, bidPrices, bidQuantities, bidOrders, askPrices, askQuantities, askOrders);
+	}
+}
@@ -0,0 +1,119 @@
+package ca.yorku.cmg.lob.stockexchange.marketdata;
+
+import ca.yorku.cmg.lob.security.Security;
+
+/**
+ * The aggregated depth of the top levels of both sides of one book at one moment: price, total quantity and number of orders
+ * per level, best level first. Taken by {@linkplain DepthFeed#snapshot(Security, int)}.
+ */
+public class DepthSnapshot {
+	private final Security security;
+	private final long sequence;
+	private final int[] bidPrices;
+	private final long[] bidQuantities;
+	private final int[] bidOrders;
+	private final int[] askPrices;
+	private final long[] askQuantities;
+	private final int[] askOrders;
+
+	DepthSnapshot(Security security, long sequence, int[] bidPrices, long[] bidQuantities, int[] bidOrders,
+			int[] askPrices, long[] askQuantities, int[] askOrders) {
+		this.security = security;
+		this.sequence = sequence;
+		this.bidPrices = bidPrices;
+		this.bidQuantities = bidQuantities;
+		this.bidOrders = bidOrders;
+		this.askPrices = askPrices;
+		this.askQuantities = askQuantities;
+		this.askOrders = askOrders;
+	}
+
+	/** @return The security of the book. */
+	public Security getSecurity() {
+		return security;
+	}
+
+	/** @return The sequence number of the last update published before the snapshot was taken. */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/** @return The number of bid levels in the snapshot. */
+	public int getBidLevels() {
+		return bidPrices.length;
+	}
+
+	/** @return The number of ask levels in the snapshot. */
+	public int getAskLevels() {
+		return askPrices.length;
+	}
+
+	/**
+	 * @param i The level, 0 for the best.
+	 * @return The price of the bid level.
+	 */
+	public int getBidPrice(int i) {
+		return bidPrices[i];
+	}
+
+	/**
+	 * @param i The level, 0 for the best.
+	 * @return The total quantity of the bid level.
+	 */
+	public long getBidQuantity(int i) {
+		return bidQuantities[i];
+	}
+
+	/**
+	 * @param i The level, 0 for the best.
+	 * @return The number of orders of the bid level.
+	 */
+	public int getBidOrders(int i) {
+		return bidOrders[i];
+	}
+
+	/**
+	 * @param i The level, 0 for the best.
+	 * @return The price of the ask level.
+	 */
+	public int getAskPrice(int i) {
+		return askPrices[i];
+	}
+
+	/**
+	 * @param i The level, 0 for the best.
+	 * @return The total quantity of the ask level.
+	 */
+	public long getAskQuantity(int i) {
+		return askQuantities[i];
+	}
+
+	/**
+	 * @param i The level, 0 for the best.
+	 * @return The number of orders of the ask level.
+	 */
+	public int getAskOrders(int i) {
+		return askOrders[i];
+	}
+
+	/**
+	 * @return One line per level, bids and asks side by side, best first.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		out.append(String.format("[%s #%d]%n[ORDERS  BID_QTY  BID____  ASK____  ASK_QTY  ORDERS]%n", security.getTicker(), sequence));
+		for (int i = 0; i < Math.max(bidPrices.length, askPrices.length); i++) {
+			if (i < bidPrices.length) {
+				out.append(String.format("%6d  %7d  %7d", bidOrders[i], bidQuantities[i], bidPrices[i]));
+			} else {
+				out.append(String.format("%6s  %7s  %7s", "", "", ""));
+			}
+			if (i < askPrices.length) {
+				out.append(String.format("  %7d  %7d  %6d", askPrices[i], askQuantities[i], askOrders[i]));
+			}
+			out.append(System.lineSeparator());
+		}
+		return out.toString();
+	}
+}
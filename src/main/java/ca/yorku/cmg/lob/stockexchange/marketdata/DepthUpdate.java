@@ -0,0 +1,81 @@
+package ca.yorku.cmg.lob.stockexchange.marketdata;
+
+import ca.yorku.cmg.lob.security.Security;
+
+/**
+ * An incremental update of the aggregated depth of one price level, published by a {@linkplain DepthFeed}:
+ * the level appeared, changed, or left the book. Updates carry the level as it is after the change, so applying
+ * them in sequence order to a {@linkplain DepthSnapshot} of an earlier sequence number gives the current depth.
+ */
+public class DepthUpdate {
+
+	/**
+	 * What happened to the level.
+	 */
+	public enum Action {
+		/** The level was created by an order resting at a new price. */
+		ADD,
+		/** The quantity or number of orders of the level changed. */
+		MODIFY,
+		/** The level emptied and left the book; quantity and orders are 0. */
+		DELETE
+	}
+
+	private final long sequence;
+	private final Action action;
+	private final Security security;
+	private final boolean bid;
+	private final int price;
+	private final long quantity;
+	private final int orders;
+
+	DepthUpdate(long sequence, Action action, Security security, boolean bid, int price, long quantity, int orders) {
+		this.sequence = sequence;
+		this.action = action;
+		this.security = security;
+		this.bid = bid;
+		this.price = price;
+		this.quantity = quantity;
+		this.orders = orders;
+	}
+
+	/** @return The sequence number of the update, increasing by 1 from one update of the feed to the next. */
+	public long getSequence() {
+		return sequence;
+	}
+
+	/** @return What happened to the level. */
+	public Action getAction() {
+		return action;
+	}
+
+	/** @return The security of the book. */
+	public Security getSecurity() {
+		return security;
+	}
+
+	/** @return {@code true} for a bid level, {@code false} for an ask level. */
+	public boolean isBid() {
+		return bid;
+	}
+
+	/** @return The price of the level, in cents. */
+	public int getPrice() {
+		return price;
+	}
+
+	/** @return The total quantity resting at the level after the change. */
+	public long getQuantity() {
+		return quantity;
+	}
+
+	/** @return The number of orders resting at the level after the change. */
+	public int getOrders() {
+		return orders;
+	}
+
+	@Override
+	public String toString() {
+		return "#" + sequence + " " + action + " " + security.getTicker() + " " + (bid ? "bid" : "ask") + " " + price + " x " + quantity + " (" + orders + ")";
+	}
+}
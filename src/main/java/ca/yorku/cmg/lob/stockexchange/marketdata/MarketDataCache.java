@@ -0,0 +1,198 @@
+package ca.yorku.cmg.lob.stockexchange.marketdata;
+
+import java.util.Arrays;
+
+/**
+ * Per-security market data, updated incrementally as trades execute and the top of the book changes:
+ * last trade, best bid/ask, mid, VWAP and a reference price (e.g., the previous close read from a price list).
+ * Everything is kept in primitive arrays indexed by the dense id of the security, so reads neither box nor hash.
+ * <p>Prices are in cents; 0 means "not available".</p>
+ */
+public class MarketDataCache {
+	private int[] reference = new int[0];
+	private int[] last = new int[0];
+	private int[] bestBid = new int[0];
+	private int[] bestAsk = new int[0];
+	private long[] volume = new long[0];
+	private long[] notional = new long[0];
+	private long[] changes = new long[0];
+
+	/**
+	 * Makes room for securities with ids up to {@code id}.
+	 * @param id The highest id to be supported.
+	 */
+	private void ensureCapacity(int id) {
+		if (id < last.length) {
+			return;
+		}
+		int n = Math.max(16, Math.max(id + 1, last.length * 2));
+		reference = Arrays.copyOf(reference, n);
+		last = Arrays.copyOf(last, n);
+		bestBid = Arrays.copyOf(bestBid, n);
+		bestAsk = Arrays.copyOf(bestAsk, n);
+		volume = Arrays.copyOf(volume, n);
+		notional = Arrays.copyOf(notional, n);
+		changes = Arrays.copyOf(changes, n);
+	}
+
+	/**
+	 * Makes room for securities with ids below {@code n} up front, so that updating them never reallocates the arrays,
+	 * and threads reading the cache while another updates it always see current arrays.
+	 * @param n The number of ids.
+	 */
+	public void reserve(int n) {
+		if (n > 0) {
+			ensureCapacity(n - 1);
+		}
+	}
+
+	/**
+	 * Sets the reference price of a security, used when it has neither traded nor has a two-sided book.
+	 * @param id The dense id of the security.
+	 * @param price The reference price.
+	 */
+	public void setReferencePrice(int id, int price) {
+		ensureCapacity(id);
+		int before = getPrice(id);
+		reference[id] = price;
+		if (getPrice(id) != before) {
+			changes[id]++;
+		}
+	}
+
+	/**
+	 * Copies everything known about one security from another cache, e.g., to hand the security over to a cache owned by another thread.
+	 * @param id The dense id of the security.
+	 * @param from The cache to copy from.
+	 */
+	public void copy(int id, MarketDataCache from) {
+		ensureCapacity(id);
+		boolean known = id < from.last.length;
+		reference[id] = known ? from.reference[id] : 0;
+		last[id] = known ? from.last[id] : 0;
+		bestBid[id] = known ? from.bestBid[id] : 0;
+		bestAsk[id] = known ? from.bestAsk[id] : 0;
+		volume[id] = known ? from.volume[id] : 0;
+		notional[id] = known ? from.notional[id] : 0;
+		changes[id] = known ? from.changes[id] : 0;
+	}
+
+	/**
+	 * Records a trade.
+	 * @param id The dense id of the security.
+	 * @param price The execution price.
+	 * @param qty The quantity traded.
+	 */
+	public void onTrade(int id, int price, int qty) {
+		ensureCapacity(id);
+		last[id] = price;
+		volume[id] += qty;
+		notional[id] += (long) price * qty;
+		changes[id]++;
+	}
+
+	/**
+	 * Records the current top of the book.
+	 * @param id The dense id of the security.
+	 * @param bid The best bid price, 0 if there are no bids.
+	 * @param ask The best ask price, 0 if there are no asks.
+	 */
+	public void onTopOfBook(int id, int bid, int ask) {
+		ensureCapacity(id);
+		int before = getPrice(id);
+		bestBid[id] = bid;
+		bestAsk[id] = ask;
+		if (getPrice(id) != before) {
+			changes[id]++;
+		}
+	}
+
+	/**
+	 * The current price of a security: the last trade price if it has traded, else the mid of a two-sided, uncrossed book, else the reference price.
+	 * @param id The dense id of the security.
+	 * @return The current price, 0 if nothing is known about the security.
+	 */
+	public int getPrice(int id) {
+		if (id < 0 || id >= last.length) {
+			return 0;
+		}
+		if (last[id] != 0) {
+			return last[id];
+		}
+		int mid = getMid(id);
+		return mid != 0 ? mid : reference[id];
+	}
+
+	/**
+	 * Counts the changes of the {@linkplain #getPrice(int) price} of a security, and its trades, whether or not they changed the price.
+	 * Whoever reads nothing but the price of a security and the positions in it can tell from an unchanged count that they would read the same.
+	 * @param id The dense id of the security.
+	 * @return The number of changes so far.
+	 */
+	public long getChangeCount(int id) {
+		return id >= 0 && id < changes.length ? changes[id] : 0;
+	}
+
+	/**
+	 * @param id The dense id of the security.
+	 * @return The reference price, 0 if none.
+	 */
+	public int getReferencePrice(int id) {
+		return id < reference.length ? reference[id] : 0;
+	}
+
+	/**
+	 * @param id The dense id of the security.
+	 * @return The price of the last trade, 0 if none.
+	 */
+	public int getLastTradePrice(int id) {
+		return id < last.length ? last[id] : 0;
+	}
+
+	/**
+	 * @param id The dense id of the security.
+	 * @return The best bid, 0 if none.
+	 */
+	public int getBestBid(int id) {
+		return id < bestBid.length ? bestBid[id] : 0;
+	}
+
+	/**
+	 * @param id The dense id of the security.
+	 * @return The best ask, 0 if none.
+	 */
+	public int getBestAsk(int id) {
+		return id < bestAsk.length ? bestAsk[id] : 0;
+	}
+
+	/**
+	 * @param id The dense id of the security.
+	 * @return The midpoint of best bid and ask (rounded down), 0 unless both sides are present and the book is not crossed.
+	 * A crossed book can only occur when orders are not matched (see {@linkplain ca.yorku.cmg.lob.stockexchange.MatchingMode#NONE}) and carries no price information.
+	 */
+	public int getMid(int id) {
+		if (id >= bestBid.length || bestBid[id] == 0 || bestAsk[id] == 0 || bestBid[id] > bestAsk[id]) {
+			return 0;
+		}
+		return (int) (((long) bestBid[id] + bestAsk[id]) / 2);
+	}
+
+	/**
+	 * @param id The dense id of the security.
+	 * @return The volume-weighted average price of all trades so far (rounded), 0 if none.
+	 */
+	public int getVwap(int id) {
+		if (id >= volume.length || volume[id] == 0) {
+			return 0;
+		}
+		return (int) Math.round((double) notional[id] / volume[id]);
+	}
+
+	/**
+	 * @param id The dense id of the security.
+	 * @return The total quantity traded so far.
+	 */
+	public long getVolume(int id) {
+		return id < volume.length ? volume[id] : 0;
+	}
+}
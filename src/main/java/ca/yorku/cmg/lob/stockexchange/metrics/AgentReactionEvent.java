@@ -0,0 +1,27 @@
+package ca.yorku.cmg.lob.stockexchange.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for a {@linkplain ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgent} acting on a news event, emitted while metrics are on.
+ */
+@Name("ca.yorku.cmg.lob.AgentReaction")
+@Label("Agent Reaction")
+@Category({"Limit Order Book", "Agents"})
+@Description("A trading agent acting on a news event about a security it holds")
+@StackTrace(false)
+public class AgentReactionEvent extends Event {
+	@Label("Trader")
+	public int trader;
+
+	@Label("Ticker")
+	public String ticker;
+
+	@Label("Position")
+	public int position;
+}
@@ -0,0 +1,203 @@
+package ca.yorku.cmg.lob.stockexchange.metrics;
+
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters and latency histograms of order submission, matching, news delivery and agent reactions, safe to record from any thread.
+ * Set on an exchange with {@linkplain ca.yorku.cmg.lob.stockexchange.StockExchange#setMetrics(ExchangeMetrics)}.
+ */
+public class ExchangeMetrics {
+
+	private final LongAdder orders = new LongAdder();
+	private final LongAdder trades = new LongAdder();
+	private final LongAdder events = new LongAdder();
+	private final LongAdder notifications = new LongAdder();
+	private final LongAdder reactions = new LongAdder();
+
+	private final LatencyHistogram submitLatency = new LatencyHistogram();
+	private final LatencyHistogram matchLatency = new LatencyHistogram();
+	private final LatencyHistogram dispatchLatency = new LatencyHistogram();
+	private final LatencyHistogram reactionLatency = new LatencyHistogram();
+
+	private volatile LongSupplier bookDepth = () -> 0;
+	private final long started = System.nanoTime();
+
+	/**
+	 * Counts an order whose latency is not measured, e.g., one handed to a sharded exchange or pipeline.
+	 */
+	public void countOrder() {
+		orders.increment();
+	}
+
+	/**
+	 * Counts orders whose latencies are not measured, e.g., those of a batch.
+	 * @param n The number of orders.
+	 */
+	public void countOrders(long n) {
+		orders.add(n);
+	}
+
+	/**
+	 * Records the submission of an order, from the call to {@code submitOrder} until it rests or is filled.
+	 * @param nanos The time taken, in nanoseconds.
+	 */
+	public void recordSubmit(long nanos) {
+		orders.increment();
+		submitLatency.record(nanos);
+	}
+
+	/**
+	 * Records the matching of an incoming order against the book, settlement excluded.
+	 * @param nanos The time taken, in nanoseconds.
+	 * @param fills The number of trades it produced.
+	 */
+	public void recordMatch(long nanos, int fills) {
+		trades.add(fills);
+		matchLatency.record(nanos);
+	}
+
+	/**
+	 * Records the delivery of a news event to the observers of its security.
+	 * @param nanos The time taken, in nanoseconds.
+	 * @param observers The number of observers notified.
+	 */
+	public void recordDispatch(long nanos, int observers) {
+		events.increment();
+		notifications.add(observers);
+		dispatchLatency.record(nanos);
+	}
+
+	/**
+	 * Records a trading agent acting on a news event.
+	 * @param nanos The time taken, orders submitted included, in nanoseconds.
+	 */
+	public void recordReaction(long nanos) {
+		reactions.increment();
+		reactionLatency.record(nanos);
+	}
+
+	/**
+	 * Sets where the book depth of snapshots is read from. Set by the exchange the metrics are set on.
+	 * @param bookDepth Returns the number of resting orders.
+	 */
+	public void setBookDepth(LongSupplier bookDepth) {
+		this.bookDepth = bookDepth;
+	}
+
+	/**
+	 * @return The orders submitted so far.
+	 */
+	public long getOrders() {
+		return orders.sum();
+	}
+
+	/**
+	 * @return The latencies of order submission.
+	 */
+	public LatencyHistogram getSubmitLatency() {
+		return submitLatency;
+	}
+
+	/**
+	 * @return The latencies of matching.
+	 */
+	public LatencyHistogram getMatchLatency() {
+		return matchLatency;
+	}
+
+	/**
+	 * @return The latencies of news delivery.
+	 */
+	public LatencyHistogram getDispatchLatency() {
+		return dispatchLatency;
+	}
+
+	/**
+	 * @return The latencies of agent reactions.
+	 */
+	public LatencyHistogram getReactionLatency() {
+		return reactionLatency;
+	}
+
+	/**
+	 * Reads all counters, the book depth and copies of all histograms. Recording may go on meanwhile.
+	 * @return The snapshot.
+	 */
+	public MetricsSnapshot snapshot() {
+		return new MetricsSnapshot(System.nanoTime() - started, orders.sum(), trades.sum(), events.sum(), notifications.sum(),
+				reactions.sum(), bookDepth.getAsLong(), submitLatency.copy(), matchLatency.copy(), dispatchLatency.copy(),
+				reactionLatency.copy());
+	}
+
+	/**
+	 * Sets all counters and histograms back to 0.
+	 */
+	public void reset() {
+		orders.reset();
+		trades.reset();
+		events.reset();
+		notifications.reset();
+		reactions.reset();
+		submitLatency.reset();
+		matchLatency.reset();
+		dispatchLatency.reset();
+		reactionLatency.reset();
+	}
+
+	/**
+	 * Takes a snapshot every {@code period} on a daemon thread and hands it to a consumer, until the returned dump is closed.
+	 * @param period The time between snapshots.
+	 * @param unit The unit of {@code period}.
+	 * @param sink Receives the snapshots, on the dump thread.
+	 * @return The running dump.
+	 */
+	public Dump startDump(long period, TimeUnit unit, Consumer<MetricsSnapshot> sink) {
+		ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "exchange-metrics-dump");
+			t.setDaemon(true);
+			return t;
+		});
+		timer.scheduleAtFixedRate(() -> sink.accept(snapshot()), period, period, unit);
+		return new Dump(timer);
+	}
+
+	/**
+	 * Prints a line per snapshot, with the rates since the previous one ({@linkplain MetricsSnapshot#toString(MetricsSnapshot)}).
+	 * @param period The time between snapshots.
+	 * @param unit The unit of {@code period}.
+	 * @param out Where to print.
+	 * @return The running dump.
+	 */
+	public Dump startDump(long period, TimeUnit unit, PrintStream out) {
+		MetricsSnapshot[] previous = {snapshot()};
+		return startDump(period, unit, s -> {
+			out.println(s.toString(previous[0]));
+			previous[0] = s;
+		});
+	}
+
+	/**
+	 * A periodic dump started by {@linkplain ExchangeMetrics#startDump(long, TimeUnit, Consumer)}.
+	 */
+	public static final class Dump implements AutoCloseable {
+		private final ScheduledExecutorService timer;
+
+		private Dump(ScheduledExecutorService timer) {
+			this.timer = timer;
+		}
+
+		/**
+		 * Stops taking snapshots. A snapshot being handed over completes.
+		 */
+		@Override
+		public void close() {
+			timer.shutdown();
+		}
+	}
+}
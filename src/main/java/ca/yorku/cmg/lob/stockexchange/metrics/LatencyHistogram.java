@@ -0,0 +1,149 @@
+package ca.yorku.cmg.lob.stockexchange.metrics;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A histogram of latencies in nanoseconds, with HdrHistogram-style buckets precise to about 3%, that any number of threads may record into.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (63 - SUB_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+	private static final VarHandle COUNTS = MethodHandles.arrayElementVarHandle(long[].class);
+	private static final VarHandle TOTAL;
+	private static final VarHandle MAX;
+	static {
+		try {
+			TOTAL = MethodHandles.lookup().findVarHandle(LatencyHistogram.class, "total", long.class);
+			MAX = MethodHandles.lookup().findVarHandle(LatencyHistogram.class, "max", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final long[] counts;
+	private volatile long total;
+	private volatile long max;
+
+	public LatencyHistogram() {
+		this.counts = new long[BUCKETS];
+	}
+
+	private LatencyHistogram(long[] counts, long total, long max) {
+		this.counts = counts;
+		this.total = total;
+		this.max = max;
+	}
+
+	/**
+	 * Records a latency. Negative values are recorded as 0.
+	 * @param nanos The latency, in nanoseconds.
+	 */
+	public void record(long nanos) {
+		long v = Math.max(0, nanos);
+		COUNTS.getAndAdd(counts, bucketOf(v), 1L);
+		TOTAL.getAndAdd(this, v);
+		long m;
+		while (v > (m = max) && !MAX.compareAndSet(this, m, v)) {
+			//Retry until the maximum is at least v
+		}
+	}
+
+	private static int bucketOf(long v) {
+		int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(v) - SUB_BITS);
+		return (shift << SUB_BITS) + (int) (v >>> shift);
+	}
+
+	/**
+	 * @return The highest value recorded in a bucket.
+	 */
+	private static long highestOf(int bucket) {
+		if (bucket < 2 * SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = (bucket >>> SUB_BITS) - 1;
+		long lowest = (long) (bucket - (shift << SUB_BITS)) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+
+	/**
+	 * @return The number of latencies recorded.
+	 */
+	public long getCount() {
+		long n = 0;
+		for (int i = 0; i < counts.length; i++) {
+			n += (long) COUNTS.getVolatile(counts, i);
+		}
+		return n;
+	}
+
+	/**
+	 * @return The mean of the latencies recorded, 0 if none was.
+	 */
+	public long getMean() {
+		long n = getCount();
+		return n == 0 ? 0 : total / n;
+	}
+
+	/**
+	 * @return The highest latency recorded, exactly.
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * Returns the latency below or at which a given percentage of the recorded latencies lie, to within the precision of the buckets.
+	 * @param percentile The percentage, from 0 to 100.
+	 * @return The latency, in nanoseconds, 0 if nothing was recorded.
+	 */
+	public long getPercentile(double percentile) {
+		long n = getCount();
+		if (n == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += (long) COUNTS.getVolatile(counts, i);
+			if (seen >= rank) {
+				return Math.min(highestOf(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * @return A copy of the histogram as it is now, which later recordings do not change.
+	 */
+	public LatencyHistogram copy() {
+		long[] c = new long[counts.length];
+		for (int i = 0; i < c.length; i++) {
+			c[i] = (long) COUNTS.getVolatile(counts, i);
+		}
+		return new LatencyHistogram(c, total, max);
+	}
+
+	/**
+	 * Sets every count back to 0.
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length; i++) {
+			COUNTS.setVolatile(counts, i, 0L);
+		}
+		total = 0;
+		max = 0;
+	}
+
+	/**
+	 * @return Count, mean, median, 99th and 99.9th percentiles and maximum, in microseconds.
+	 */
+	@Override
+	public String toString() {
+		return String.format("n=%d mean=%.1fus p50=%.1fus p99=%.1fus p99.9=%.1fus max=%.1fus", getCount(), getMean() / 1000.0,
+				getPercentile(50) / 1000.0, getPercentile(99) / 1000.0, getPercentile(99.9) / 1000.0, getMax() / 1000.0);
+	}
+}
@@ -0,0 +1,115 @@
+package ca.yorku.cmg.lob.stockexchange.metrics;
+
+/**
+ * The values of {@linkplain ExchangeMetrics} at one moment. Rates are computed between two snapshots of the same metrics.
+ */
+public class MetricsSnapshot {
+	private final long uptime;
+	private final long orders;
+	private final long trades;
+	private final long events;
+	private final long notifications;
+	private final long reactions;
+	private final long bookDepth;
+	private final LatencyHistogram submitLatency;
+	private final LatencyHistogram matchLatency;
+	private final LatencyHistogram dispatchLatency;
+	private final LatencyHistogram reactionLatency;
+
+	MetricsSnapshot(long uptime, long orders, long trades, long events, long notifications, long reactions, long bookDepth,
+			LatencyHistogram submitLatency, LatencyHistogram matchLatency, LatencyHistogram dispatchLatency, LatencyHistogram reactionLatency) {
+		this.uptime = uptime;
+		this.orders = orders;
+		this.trades = trades;
+		this.events = events;
+		this.notifications = notifications;
+		this.reactions = reactions;
+		this.bookDepth = bookDepth;
+		this.submitLatency = submitLatency;
+		this.matchLatency = matchLatency;
+		this.dispatchLatency = dispatchLatency;
+		this.reactionLatency = reactionLatency;
+	}
+
+	/** @return Nanoseconds from the creation of the metrics to the snapshot. */
+	public long getUptime() {
+		return uptime;
+	}
+
+	/** @return Orders submitted. */
+	public long getOrders() {
+		return orders;
+	}
+
+	/** @return Trades produced by matching. */
+	public long getTrades() {
+		return trades;
+	}
+
+	/** @return News events delivered. */
+	public long getEvents() {
+		return events;
+	}
+
+	/** @return Observers notified of news events, over all events. */
+	public long getNotifications() {
+		return notifications;
+	}
+
+	/** @return Reactions of trading agents to news events. */
+	public long getReactions() {
+		return reactions;
+	}
+
+	/** @return Orders resting in the book. */
+	public long getBookDepth() {
+		return bookDepth;
+	}
+
+	/** @return Latencies of order submission. */
+	public LatencyHistogram getSubmitLatency() {
+		return submitLatency;
+	}
+
+	/** @return Latencies of matching. */
+	public LatencyHistogram getMatchLatency() {
+		return matchLatency;
+	}
+
+	/** @return Latencies of news delivery. */
+	public LatencyHistogram getDispatchLatency() {
+		return dispatchLatency;
+	}
+
+	/** @return Latencies of agent reactions. */
+	public LatencyHistogram getReactionLatency() {
+		return reactionLatency;
+	}
+
+	/**
+	 * @param earlier An earlier snapshot of the same metrics, or {@code null} for the start.
+	 * @return Orders submitted per second between the two snapshots.
+	 */
+	public double getOrdersPerSecond(MetricsSnapshot earlier) {
+		long dt = uptime - (earlier == null ? 0 : earlier.uptime);
+		return dt <= 0 ? 0 : (orders - (earlier == null ? 0 : earlier.orders)) * 1e9 / dt;
+	}
+
+	/**
+	 * @param earlier An earlier snapshot of the same metrics, or {@code null} for the start.
+	 * @return One line: rates since the earlier snapshot, counts, book depth, and submit, match, dispatch and reaction latencies.
+	 */
+	public String toString(MetricsSnapshot earlier) {
+		return String.format("orders/s=%.0f orders=%d trades=%d events=%d notified=%d reactions=%d depth=%d | submit[%s] match[%s] dispatch[%s] reaction[%s]",
+				getOrdersPerSecond(earlier), orders, trades, events, notifications, reactions, bookDepth,
+				submitLatency, matchLatency, dispatchLatency, reactionLatency);
+	}
+
+	/**
+	 * @return As {@linkplain #toString(MetricsSnapshot)}, with rates since the start.
+	 */
+	@Override
+	public String toString() {
+		return toString(null);
+	}
+}
@@ -0,0 +1,28 @@
+package ca.yorku.cmg.lob.stockexchange.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for the delivery of a news event by a {@linkplain ca.yorku.cmg.lob.stockexchange.events.NewsBoard}, emitted while metrics are on.
+ */
+@Name("ca.yorku.cmg.lob.NewsDispatched")
+@Label("News Dispatched")
+@Category({"Limit Order Book", "News"})
+@Description("A news event delivered to the observers of its security")
+@StackTrace(false)
+public class NewsDispatchedEvent extends Event {
+	@Label("Ticker")
+	public String ticker;
+
+	@Label("Time")
+	@Description("Simulated time of the news event")
+	public long time;
+
+	@Label("Observers")
+	public int observers;
+}
@@ -0,0 +1,34 @@
+package ca.yorku.cmg.lob.stockexchange.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for an order submitted to a {@linkplain ca.yorku.cmg.lob.stockexchange.StockExchange}, emitted while metrics are on.
+ */
+@Name("ca.yorku.cmg.lob.OrderSubmitted")
+@Label("Order Submitted")
+@Category({"Limit Order Book", "Exchange"})
+@Description("An order submitted to the exchange, from submission until it rests or is filled")
+@StackTrace(false)
+public class OrderSubmittedEvent extends Event {
+	@Label("Ticker")
+	public String ticker;
+
+	@Label("Bid")
+	public boolean bid;
+
+	@Label("Price")
+	public int price;
+
+	@Label("Quantity")
+	public int quantity;
+
+	@Label("Fills")
+	@Description("Trades the order took part in on submission")
+	public int fills;
+}
@@ -0,0 +1,240 @@
+package ca.yorku.cmg.lob.stockexchange.report;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+import ca.yorku.cmg.lob.stockexchange.book.ExchangeTrade;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+/**
+ * Writes the rows of the exchange's reports (trades log, balances, order log sample) straight to an {@linkplain Appendable},
+ * such as a {@linkplain java.io.Writer} or a {@linkplain StringBuilder}, so that reports of any length take time linear in their size.
+ * <p>Cells are written exactly as the {@linkplain String#format(String, Object...)} patterns they replace ({@code %8d}, {@code %30s},
+ * {@code %7.2f} of cents / 100.0, {@code $%,.2f} of cents / 100.0) would write them, but from a reused character buffer and without
+ * going through {@code double}. If the default locale does not format numbers with ASCII digits, a {@code '-'} minus sign,
+ * a {@code '.'} decimal separator and {@code ','} grouping by thousands, or for amounts too large to be exact as a {@code double},
+ * cells are written with {@code String.format} instead, so the output is the same either way.</p>
+ */
+public class ReportWriter {
+
+	/** Amounts in cents below this (in absolute value) print the same through {@code double} and through exact integer formatting. */
+	private static final long EXACT_CENTS = 1_000_000_000_000_000L;
+
+	private static final char[] SPACES = "                                ".toCharArray();
+
+	private final Appendable out;
+	private final boolean plainLocale;
+	private final char[] buf = new char[48];
+
+	/**
+	 * @param out Where rows are written.
+	 */
+	public ReportWriter(Appendable out) {
+		this.out = out;
+		this.plainLocale = isPlain(Locale.getDefault(Locale.Category.FORMAT));
+	}
+
+	private static boolean isPlain(Locale locale) {
+		DecimalFormatSymbols sym = DecimalFormatSymbols.getInstance(locale);
+		NumberFormat nf = NumberFormat.getIntegerInstance(locale);
+		return sym.getZeroDigit() == '0' && sym.getMinusSign() == '-' && sym.getDecimalSeparator() == '.'
+				&& sym.getGroupingSeparator() == ',' && nf instanceof DecimalFormat && ((DecimalFormat) nf).getGroupingSize() == 3;
+	}
+
+	/**
+	 * @return The {@linkplain Appendable} rows are written to.
+	 */
+	public Appendable out() {
+		return out;
+	}
+
+	/**
+	 * Writes text as is.
+	 * @param s The text.
+	 * @return This writer.
+	 * @throws IOException If the underlying {@linkplain Appendable} fails.
+	 */
+	public ReportWriter text(CharSequence s) throws IOException {
+		out.append(s);
+		return this;
+	}
+
+	/**
+	 * Writes a character.
+	 * @param c The character.
+	 * @return This writer.
+	 * @throws IOException If the underlying {@linkplain Appendable} fails.
+	 */
+	public ReportWriter text(char c) throws IOException {
+		out.append(c);
+		return this;
+	}
+
+	/**
+	 * Writes text right-aligned in a cell, as {@code %<width>s}.
+	 * @param s The text.
+	 * @param width The minimum width of the cell.
+	 * @return This writer.
+	 * @throws IOException If the underlying {@linkplain Appendable} fails.
+	 */
+	public ReportWriter text(CharSequence s, int width) throws IOException {
+		pad(width - s.length());
+		out.append(s);
+		return this;
+	}
+
+	/**
+	 * Writes an integer right-aligned in a cell, as {@code %<width>d}.
+	 * @param v The integer.
+	 * @param width The minimum width of the cell.
+	 * @return This writer.
+	 * @throws IOException If the underlying {@linkplain Appendable} fails.
+	 */
+	public ReportWriter integer(long v, int width) throws IOException {
+		if (!plainLocale) {
+			out.append(String.format("%" + width + "d", v));
+			return this;
+		}
+		if (v == Long.MIN_VALUE) {
+			return text(Long.toString(v), width);
+		}
+		int from = digits(Math.abs(v), buf.length, false);
+		if (v < 0) {
+			buf[--from] = '-';
+		}
+		return flush(from, width);
+	}
+
+	/**
+	 * Writes an amount in cents as a decimal number of dollars, right-aligned in a cell, as {@code %<width>.2f} of {@code cents / 100.0}.
+	 * @param cents The amount, in cents.
+	 * @param width The minimum width of the cell.
+	 * @return This writer.
+	 * @throws IOException If the underlying {@linkplain Appendable} fails.
+	 */
+	public ReportWriter decimal(long cents, int width) throws IOException {
+		if (!plainLocale || cents <= -EXACT_CENTS || cents >= EXACT_CENTS) {
+			out.append(String.format("%" + width + ".2f", cents / 100.0));
+			return this;
+		}
+		return flush(amount(cents, false, false), width);
+	}
+
+	/**
+	 * Writes an amount in cents as dollars with thousands separators, right-aligned in a cell,
+	 * as {@code %<width>s} of {@code String.format("$%,.2f", cents / 100.0)}.
+	 * @param cents The amount, in cents.
+	 * @param width The minimum width of the cell.
+	 * @return This writer.
+	 * @throws IOException If the underlying {@linkplain Appendable} fails.
+	 */
+	public ReportWriter dollars(long cents, int width) throws IOException {
+		if (!plainLocale || cents <= -EXACT_CENTS || cents >= EXACT_CENTS) {
+			return text(String.format("$%,.2f", cents / 100.0), width);
+		}
+		return flush(amount(cents, true, true), width);
+	}
+
+	/**
+	 * Writes a trade as a row of the trades log, exactly as its {@code toString()}.
+	 * @param t The trade.
+	 * @return This writer.
+	 * @throws IOException If the underlying {@linkplain Appendable} fails.
+	 */
+	public ReportWriter trade(ITrade t) throws IOException {
+		if (t.getClass() != ExchangeTrade.class) {
+			//Other implementations print themselves
+			out.append(t.toString());
+			return this;
+		}
+		//"[%8d  %8d  %s  %8d  %7.2f  %8d]\n"
+		text('[').integer(t.getSeller().getID(), 8).text("  ").integer(t.getBuyer().getID(), 8).text("  ");
+		text(t.getSecurity().getTicker()).text("  ").integer(t.getQuantity(), 8).text("  ");
+		decimal(t.getPrice(), 7).text("  ").integer(t.getTime(), 8).text("]\n");
+		return this;
+	}
+
+	/**
+	 * Writes an order as an entry of {@linkplain ca.yorku.cmg.lob.stockexchange.StockExchange#getLogTestSample()}.
+	 * @param o The order.
+	 * @return This writer.
+	 * @throws IOException If the underlying {@linkplain Appendable} fails.
+	 */
+	public ReportWriter orderSample(IOrder o) throws IOException {
+		//"[%3d  %s  %6d  %6d]"
+		text('[').integer(o.getTrader().getID(), 3).text("  ").text(o.getSecurity().getTicker()).text("  ");
+		integer(o.getPrice(), 6).text("  ").integer(o.getQuantity(), 6).text(']');
+		return this;
+	}
+
+	/**
+	 * Renders an amount in cents at the end of {@link #buf}.
+	 * @return The index of the first character.
+	 */
+	private int amount(long cents, boolean grouped, boolean dollarSign) {
+		long abs = Math.abs(cents);
+		int from = buf.length;
+		int frac = (int) (abs % 100);
+		buf[--from] = (char) ('0' + frac % 10);
+		buf[--from] = (char) ('0' + frac / 10);
+		buf[--from] = '.';
+		from = digits(abs / 100, from, grouped);
+		if (cents < 0) {
+			buf[--from] = '-';
+		}
+		if (dollarSign) {
+			buf[--from] = '$';
+		}
+		return from;
+	}
+
+	/**
+	 * Renders a non-negative integer, optionally grouped by thousands, ending just before {@code end} in {@link #buf}.
+	 * @return The index of the first character.
+	 */
+	private int digits(long v, int end, boolean grouped) {
+		int from = end;
+		int n = 0;
+		do {
+			if (grouped && n > 0 && n % 3 == 0) {
+				buf[--from] = ',';
+			}
+			buf[--from] = (char) ('0' + (v % 10));
+			v /= 10;
+			n++;
+		} while (v != 0);
+		return from;
+	}
+
+	private ReportWriter flush(int from, int width) throws IOException {
+		pad(width - (buf.length - from));
+		write(buf, from, buf.length - from);
+		return this;
+	}
+
+	private void pad(int n) throws IOException {
+		for (; n > 0; n -= SPACES.length) {
+			write(SPACES, 0, Math.min(n, SPACES.length));
+		}
+	}
+
+	/**
+	 * Writes characters in bulk where the {@linkplain Appendable} allows it, as {@code append(CharSequence, int, int)} copies for Writers.
+	 */
+	private void write(char[] chars, int from, int len) throws IOException {
+		if (out instanceof StringBuilder) {
+			((StringBuilder) out).append(chars, from, len);
+		} else if (out instanceof Writer) {
+			((Writer) out).write(chars, from, len);
+		} else {
+			for (int i = from; i < from + len; i++) {
+				out.append(chars[i]);
+			}
+		}
+	}
+}
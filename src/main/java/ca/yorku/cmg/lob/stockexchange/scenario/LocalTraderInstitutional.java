@@ -0,0 +1,20 @@
+package ca.yorku.cmg.lob.stockexchange.scenario;
+
+import ca.yorku.cmg.lob.trader.TraderInstitutional;
+
+/**
+ * A {@linkplain TraderInstitutional} numbered by its {@linkplain ReferenceData} rather than by the id counter shared by all traders.
+ */
+class LocalTraderInstitutional extends TraderInstitutional {
+	private final int id;
+
+	LocalTraderInstitutional(String title, int id) {
+		super(title);
+		this.id = id;
+	}
+
+	@Override
+	public int getID() {
+		return id;
+	}
+}
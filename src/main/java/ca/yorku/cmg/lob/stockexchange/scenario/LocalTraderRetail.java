@@ -0,0 +1,20 @@
+package ca.yorku.cmg.lob.stockexchange.scenario;
+
+import ca.yorku.cmg.lob.trader.TraderRetail;
+
+/**
+ * A {@linkplain TraderRetail} numbered by its {@linkplain ReferenceData} rather than by the id counter shared by all traders.
+ */
+class LocalTraderRetail extends TraderRetail {
+	private final int id;
+
+	LocalTraderRetail(String title, int id) {
+		super(title);
+		this.id = id;
+	}
+
+	@Override
+	public int getID() {
+		return id;
+	}
+}
@@ -0,0 +1,169 @@
+package ca.yorku.cmg.lob.stockexchange.scenario;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ca.yorku.cmg.lob.stockexchange.StockExchange;
+import ca.yorku.cmg.lob.trader.Trader;
+
+/**
+ * The securities, accounts and initial positions shared by the scenarios of a {@linkplain ScenarioRunner}, parsed once from files in the
+ * formats of {@linkplain StockExchange#readSecurityListfromFile(String)}, {@linkplain StockExchange#readAccountsListFromFile(String)} and
+ * {@linkplain StockExchange#readInitialPositionsFromFile(String)}, and never changed afterwards.
+ * <p>The {@linkplain Trader}s are created once, here, and shared by all exchanges built from the data, so building an exchange creates no
+ * trader. Traders are numbered from 1 in the order of the accounts file, as the positions file expects, whatever the shared id counter says.</p>
+ */
+public final class ReferenceData {
+	private final List<String[]> securities;
+	private final Trader[] traders;
+	private final String[] accountTypes;
+	private final long[] balances;
+	private final String[] styles;
+	private final List<Position> positions;
+
+	private ReferenceData(List<String[]> securities, Trader[] traders, String[] accountTypes, long[] balances, String[] styles, List<Position> positions) {
+		this.securities = securities;
+		this.traders = traders;
+		this.accountTypes = accountTypes;
+		this.balances = balances;
+		this.styles = styles;
+		this.positions = positions;
+	}
+
+	/**
+	 * Parses the reference data. Malformed lines are reported on {@code System.err} and skipped.
+	 * @param securitiesPath The security list file.
+	 * @param accountsPath The accounts file.
+	 * @param positionsPath The initial positions file.
+	 * @return The data.
+	 * @throws UncheckedIOException If a file cannot be read.
+	 */
+	public static ReferenceData load(String securitiesPath, String accountsPath, String positionsPath) {
+		List<String[]> securities = new ArrayList<>();
+		for (String[] parts : readCsv(securitiesPath)) {
+			if (parts.length >= 2) {
+				securities.add(new String[] {parts[0].trim(), parts[1].trim()});
+			} else {
+				System.err.println("Skipping malformed line: " + String.join(",", parts));
+			}
+		}
+
+		List<String[]> accounts = new ArrayList<>();
+		for (String[] parts : readCsv(accountsPath)) {
+			if (parts.length >= 5) {
+				accounts.add(parts);
+			} else {
+				System.err.println("Skipping malformed line (two few attributes): " + String.join(",", parts));
+			}
+		}
+		int n = accounts.size();
+		Trader[] traders = new Trader[n];
+		String[] accountTypes = new String[n];
+		long[] balances = new long[n];
+		String[] styles = new String[n];
+		for (int i = 0; i < n; i++) {
+			String[] parts = accounts.get(i);
+			traders[i] = parts[1].trim().equals("Retail") ? new LocalTraderRetail(parts[0].trim(), i + 1) : new LocalTraderInstitutional(parts[0].trim(), i + 1);
+			accountTypes[i] = parts[2].trim();
+			balances[i] = Long.parseLong(parts[3].trim());
+			styles[i] = parts[4].trim();
+		}
+
+		List<Position> positions = new ArrayList<>();
+		for (String[] parts : readCsv(positionsPath)) {
+			if (parts.length >= 3) {
+				int tid = Integer.parseInt(parts[0].trim());
+				if (tid < 1 || tid > n) {
+					System.err.println("Initial Balances: Trader does not exist: " + String.join(",", parts));
+				} else {
+					positions.add(new Position(tid - 1, parts[1].trim(), Integer.parseInt(parts[2].trim())));
+				}
+			} else {
+				System.err.println("Skipping malformed line (too few attributes): " + String.join(",", parts));
+			}
+		}
+		return new ReferenceData(securities, traders, accountTypes, balances, styles, positions);
+	}
+
+	/**
+	 * @return The lines of a CSV file, header excluded, split on commas.
+	 */
+	private static List<String[]> readCsv(String path) {
+		List<String[]> lines = new ArrayList<>();
+		try (BufferedReader br = new BufferedReader(new FileReader(path))) {
+			String line = br.readLine(); //Skip header
+			while ((line = br.readLine()) != null) {
+				lines.add(line.split(",", -1));
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return lines;
+	}
+
+	/**
+	 * Builds an exchange holding the securities, accounts (with their trading agents) and initial positions, with
+	 * {@linkplain StockExchange#setLocalOrderIds(boolean) local order ids}, and no prices, events or orders.
+	 * @return The exchange.
+	 */
+	public StockExchange newExchange() {
+		return newExchange(styles);
+	}
+
+	/**
+	 * As {@linkplain #newExchange()}, with other trading styles for the agents.
+	 * @param styles The trading style of each account, in the order of {@linkplain #getTraders()}.
+	 * @return The exchange.
+	 */
+	StockExchange newExchange(String[] styles) {
+		StockExchange exc = new StockExchange();
+		exc.setLocalOrderIds(true);
+		for (String[] s : securities) {
+			exc.addSecurity(s[0], s[1]);
+		}
+		for (int i = 0; i < traders.length; i++) {
+			exc.addAccount(traders[i], accountTypes[i], balances[i], styles[i]);
+		}
+		for (Position p : positions) {
+			if (exc.getSecurities().getSecurityByTicker(p.ticker) == null) {
+				System.err.println("Initial Balances: Ticker not traded in this exchange: " + p.ticker);
+			} else {
+				exc.setInitialPosition(traders[p.trader], exc.getSecurities().getSecurityByTicker(p.ticker), p.count);
+			}
+		}
+		return exc;
+	}
+
+	/**
+	 * @return The traders, in the order of the accounts file. The array is a copy.
+	 */
+	public Trader[] getTraders() {
+		return traders.clone();
+	}
+
+	/**
+	 * @return The trading style of each account, as in the accounts file. The array is a copy.
+	 */
+	public String[] getStyles() {
+		return styles.clone();
+	}
+
+	/**
+	 * An initial holding: the index of the trader, the ticker and the number of units.
+	 */
+	private static final class Position {
+		final int trader;
+		final String ticker;
+		final int count;
+
+		Position(int trader, String ticker, int count) {
+			this.trader = trader;
+			this.ticker = ticker;
+			this.count = count;
+		}
+	}
+}
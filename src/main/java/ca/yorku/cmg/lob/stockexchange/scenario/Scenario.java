@@ -0,0 +1,79 @@
+package ca.yorku.cmg.lob.stockexchange.scenario;
+
+import ca.yorku.cmg.lob.stockexchange.MatchingMode;
+
+/**
+ * One what-if scenario over the {@linkplain ReferenceData} of a {@linkplain ScenarioRunner}: a price list, a news event file,
+ * a mix of trading agents and a matching mode.
+ */
+public class Scenario {
+	private final String name;
+	private final String pricesPath;
+	private final String eventsPath;
+	private double aggressiveShare = -1;
+	private long seed = 0;
+	private MatchingMode matchingMode = MatchingMode.NONE;
+
+	/**
+	 * Constructor
+	 * @param name The name of the scenario, reported with its result.
+	 * @param pricesPath The price list file, in the format of {@linkplain ca.yorku.cmg.lob.stockexchange.StockExchange#readPriceListfromFile(String)}.
+	 * @param eventsPath The news event file, in the format of {@linkplain ca.yorku.cmg.lob.stockexchange.events.NewsBoard#loadEvents(String)}.
+	 */
+	public Scenario(String name, String pricesPath, String eventsPath) {
+		this.name = name;
+		this.pricesPath = pricesPath;
+		this.eventsPath = eventsPath;
+	}
+
+	/**
+	 * Replaces the trading styles of the accounts file by a random mix: each agent is aggressive with a given probability, conservative otherwise.
+	 * @param aggressiveShare The probability, from 0 to 1.
+	 * @param seed The seed of the draw, so that the mix is the same from one run to the next.
+	 * @throws IllegalArgumentException If the share is not between 0 and 1.
+	 */
+	public void setAgentMix(double aggressiveShare, long seed) {
+		if (!(aggressiveShare >= 0 && aggressiveShare <= 1)) {
+			throw new IllegalArgumentException("Share of aggressive agents must be between 0 and 1: " + aggressiveShare);
+		}
+		this.aggressiveShare = aggressiveShare;
+		this.seed = seed;
+	}
+
+	/**
+	 * @param matchingMode The matching mode of the exchange. {@linkplain MatchingMode#NONE} by default.
+	 */
+	public void setMatchingMode(MatchingMode matchingMode) {
+		this.matchingMode = matchingMode;
+	}
+
+	/** @return The name of the scenario. */
+	public String getName() {
+		return name;
+	}
+
+	/** @return The price list file. */
+	public String getPricesPath() {
+		return pricesPath;
+	}
+
+	/** @return The news event file. */
+	public String getEventsPath() {
+		return eventsPath;
+	}
+
+	/** @return The probability of an agent being aggressive, or a negative value to keep the styles of the accounts file. */
+	public double getAggressiveShare() {
+		return aggressiveShare;
+	}
+
+	/** @return The seed of the agent mix. */
+	public long getSeed() {
+		return seed;
+	}
+
+	/** @return The matching mode of the exchange. */
+	public MatchingMode getMatchingMode() {
+		return matchingMode;
+	}
+}
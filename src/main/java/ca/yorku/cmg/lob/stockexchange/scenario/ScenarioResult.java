@@ -0,0 +1,70 @@
+package ca.yorku.cmg.lob.stockexchange.scenario;
+
+/**
+ * The outcome of one {@linkplain Scenario}: the profit and loss of every account and the activity of the exchange.
+ * P&amp;L is the change of the value of an account, its cash plus its holdings marked at the price of the exchange
+ * ({@linkplain ca.yorku.cmg.lob.stockexchange.StockExchange#getPrice(ca.yorku.cmg.lob.security.Security)}), from before the first
+ * event to after the last, fees included. Amounts are in cents.
+ */
+public class ScenarioResult {
+	private final String name;
+	private final long[] pnl;
+	private final long fees;
+	private final int orders;
+	private final int trades;
+
+	ScenarioResult(String name, long[] pnl, long fees, int orders, int trades) {
+		this.name = name;
+		this.pnl = pnl;
+		this.fees = fees;
+		this.orders = orders;
+		this.trades = trades;
+	}
+
+	/** @return The name of the scenario. */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @param trader The index of the trader in {@linkplain ReferenceData#getTraders()}.
+	 * @return The P&amp;L of its account.
+	 */
+	public long getPnl(int trader) {
+		return pnl[trader];
+	}
+
+	/** @return The number of accounts. */
+	public int getAccounts() {
+		return pnl.length;
+	}
+
+	/** @return The sum of the P&amp;L of all accounts, which is minus the fees plus the change of the marks of all holdings. */
+	public long getTotalPnl() {
+		long sum = 0;
+		for (long p : pnl) {
+			sum += p;
+		}
+		return sum;
+	}
+
+	/** @return The fees collected by the exchange. */
+	public long getFees() {
+		return fees;
+	}
+
+	/** @return The number of orders submitted. */
+	public int getOrders() {
+		return orders;
+	}
+
+	/** @return The number of trades. */
+	public int getTrades() {
+		return trades;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: orders=%d trades=%d fees=%d pnl=%d", name, orders, trades, fees, getTotalPnl());
+	}
+}
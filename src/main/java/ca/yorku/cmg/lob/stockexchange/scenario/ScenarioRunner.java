@@ -0,0 +1,114 @@
+package ca.yorku.cmg.lob.stockexchange.scenario;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.Account;
+import ca.yorku.cmg.lob.stockexchange.SimulationDriver;
+import ca.yorku.cmg.lob.stockexchange.StockExchange;
+import ca.yorku.cmg.lob.trader.Trader;
+
+/**
+ * Runs many {@linkplain Scenario}s side by side in one JVM, each on its own {@linkplain StockExchange} built from shared
+ * {@linkplain ReferenceData}, on a work-stealing {@linkplain ForkJoinPool}.
+ * <p>Exchanges share nothing mutable: each has its own securities, accounts, agents, books and news board, the shared traders are only read,
+ * and orders are numbered per exchange ({@linkplain StockExchange#setLocalOrderIds(boolean)}). A scenario gives the same result whether it runs
+ * alone or alongside others, on any number of threads. Each scenario runs on one thread, with a {@linkplain SimulationDriver}.</p>
+ */
+public class ScenarioRunner {
+	private final ReferenceData data;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Constructor, running scenarios on the common pool.
+	 * @param data The reference data of all scenarios.
+	 */
+	public ScenarioRunner(ReferenceData data) {
+		this(data, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructor
+	 * @param data The reference data of all scenarios.
+	 * @param pool The pool to run scenarios on.
+	 */
+	public ScenarioRunner(ReferenceData data, ForkJoinPool pool) {
+		this.data = data;
+		this.pool = pool;
+	}
+
+	/**
+	 * Runs scenarios in parallel and waits for all of them.
+	 * @param scenarios The scenarios.
+	 * @return Their results, in the order of the scenarios.
+	 * @throws RuntimeException Whatever a scenario threw, if one failed.
+	 */
+	public List<ScenarioResult> runAll(List<Scenario> scenarios) {
+		List<ForkJoinTask<ScenarioResult>> tasks = new ArrayList<>(scenarios.size());
+		for (Scenario s : scenarios) {
+			tasks.add(pool.submit(() -> run(s)));
+		}
+		List<ScenarioResult> results = new ArrayList<>(scenarios.size());
+		for (ForkJoinTask<ScenarioResult> t : tasks) {
+			results.add(t.join());
+		}
+		return results;
+	}
+
+	/**
+	 * Runs one scenario on the calling thread: builds its exchange, loads its prices and events, and runs the events to the end.
+	 * @param s The scenario.
+	 * @return Its result.
+	 */
+	public ScenarioResult run(Scenario s) {
+		StockExchange exc = data.newExchange(styles(s));
+		exc.setMatchingMode(s.getMatchingMode());
+		exc.readPriceListfromFile(s.getPricesPath());
+		exc.getNewsBoard().loadEvents(s.getEventsPath());
+
+		Trader[] traders = data.getTraders();
+		long[] pnl = new long[traders.length];
+		for (int i = 0; i < traders.length; i++) {
+			pnl[i] = -valueOf(exc, traders[i]);
+		}
+		new SimulationDriver(exc).run();
+		for (int i = 0; i < traders.length; i++) {
+			pnl[i] += valueOf(exc, traders[i]);
+		}
+		return new ScenarioResult(s.getName(), pnl, exc.getTotalFees(), exc.getOrdersLog().size(), exc.getTradesLog().size());
+	}
+
+	/**
+	 * @return The trading styles of the scenario: those of the reference data, or a random mix.
+	 */
+	private String[] styles(Scenario s) {
+		String[] styles = data.getStyles();
+		if (s.getAggressiveShare() >= 0) {
+			Random rnd = new Random(s.getSeed());
+			for (int i = 0; i < styles.length; i++) {
+				styles[i] = rnd.nextDouble() < s.getAggressiveShare() ? "Aggressive" : "Conservative";
+			}
+		}
+		return styles;
+	}
+
+	/**
+	 * @return The cash of an account plus its holdings at the prices of the exchange.
+	 */
+	private static long valueOf(StockExchange exc, Trader t) {
+		Account a = exc.getAccounts().getTraderAccount(t);
+		long value = a.getBalance();
+		for (int sid = 0; sid < exc.getSecurityIndex().size(); sid++) {
+			int units = a.getPosition(sid);
+			if (units != 0) {
+				Security sec = exc.getSecurityIndex().get(sid);
+				value += (long) units * exc.getPrice(sec);
+			}
+		}
+		return value;
+	}
+}
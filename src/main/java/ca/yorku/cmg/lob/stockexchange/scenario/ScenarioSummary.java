@@ -0,0 +1,106 @@
+package ca.yorku.cmg.lob.stockexchange.scenario;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Statistics of the {@linkplain ScenarioResult}s of many scenarios: fees and total P&amp;L across scenarios, and mean P&amp;L per account.
+ */
+public class ScenarioSummary {
+	private final int scenarios;
+	private final long[] fees;
+	private final long[] totalPnl;
+	private final double[] meanPnl;
+
+	private ScenarioSummary(int scenarios, long[] fees, long[] totalPnl, double[] meanPnl) {
+		this.scenarios = scenarios;
+		this.fees = fees;
+		this.totalPnl = totalPnl;
+		this.meanPnl = meanPnl;
+	}
+
+	/**
+	 * Aggregates results.
+	 * @param results The results, all over the same reference data.
+	 * @return The summary.
+	 * @throws IllegalArgumentException If there are no results.
+	 */
+	public static ScenarioSummary of(List<ScenarioResult> results) {
+		if (results.isEmpty()) {
+			throw new IllegalArgumentException("No results to summarize");
+		}
+		int n = results.size();
+		long[] fees = new long[n];
+		long[] totalPnl = new long[n];
+		double[] meanPnl = new double[results.get(0).getAccounts()];
+		for (int i = 0; i < n; i++) {
+			ScenarioResult r = results.get(i);
+			fees[i] = r.getFees();
+			totalPnl[i] = r.getTotalPnl();
+			for (int a = 0; a < meanPnl.length; a++) {
+				meanPnl[a] += (double) r.getPnl(a) / n;
+			}
+		}
+		Arrays.sort(fees);
+		Arrays.sort(totalPnl);
+		return new ScenarioSummary(n, fees, totalPnl, meanPnl);
+	}
+
+	private static double mean(long[] sorted) {
+		double sum = 0;
+		for (long v : sorted) {
+			sum += v;
+		}
+		return sum / sorted.length;
+	}
+
+	private static long percentile(long[] sorted, double p) {
+		return sorted[(int) Math.min(sorted.length - 1, Math.max(0, Math.ceil(p / 100.0 * sorted.length) - 1))];
+	}
+
+	/** @return The number of scenarios. */
+	public int getScenarios() {
+		return scenarios;
+	}
+
+	/** @return The mean of the fees collected per scenario. */
+	public double getMeanFees() {
+		return mean(fees);
+	}
+
+	/**
+	 * @param p The percentage, from 0 to 100.
+	 * @return The fees collected in a scenario below or at which that percentage of the scenarios lie.
+	 */
+	public long getFeesPercentile(double p) {
+		return percentile(fees, p);
+	}
+
+	/** @return The mean over scenarios of the P&amp;L of all accounts together. */
+	public double getMeanTotalPnl() {
+		return mean(totalPnl);
+	}
+
+	/**
+	 * @param p The percentage, from 0 to 100.
+	 * @return The P&amp;L of all accounts together below or at which that percentage of the scenarios lie.
+	 */
+	public long getTotalPnlPercentile(double p) {
+		return percentile(totalPnl, p);
+	}
+
+	/**
+	 * @param trader The index of the trader in {@linkplain ReferenceData#getTraders()}.
+	 * @return The mean P&amp;L of its account over the scenarios.
+	 */
+	public double getMeanPnl(int trader) {
+		return meanPnl[trader];
+	}
+
+	@Override
+	public String toString() {
+		return String.format("scenarios=%d fees[mean=%.0f p5=%d p50=%d p95=%d] pnl[mean=%.0f p5=%d p50=%d p95=%d]", scenarios,
+				getMeanFees(), getFeesPercentile(5), getFeesPercentile(50), getFeesPercentile(95),
+				getMeanTotalPnl(), getTotalPnlPercentile(5), getTotalPnlPercentile(50), getTotalPnlPercentile(95));
+	}
+}
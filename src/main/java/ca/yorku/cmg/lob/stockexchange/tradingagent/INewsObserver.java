@@ -3,8 +3,12 @@ package ca.yorku.cmg.lob.stockexchange.tradingagent;
 import ca.yorku.cmg.lob.stockexchange.events.Event;
 
 /**
- * Interface to be implemented by object wishing to receive events from a NewsBoard.git 
+ * Interface to be implemented by object wishing to receive events from a NewsBoard. 
  */
 public interface INewsObserver {
+	/**
+	 * Called by the NewsBoard for each event about a security the observer is subscribed to.
+	 * @param e The {@linkplain Event} that occurred.
+	 */
 	public void update(Event e);
 }
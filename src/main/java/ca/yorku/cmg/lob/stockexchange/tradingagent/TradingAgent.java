@@ -1,14 +1,19 @@
 package ca.yorku.cmg.lob.stockexchange.tradingagent;
 
+import java.util.List;
+
 import ca.yorku.cmg.lob.stockexchange.StockExchange;
 import ca.yorku.cmg.lob.stockexchange.events.Event;
 import ca.yorku.cmg.lob.stockexchange.events.NewsBoard;
+import ca.yorku.cmg.lob.stockexchange.metrics.AgentReactionEvent;
+import ca.yorku.cmg.lob.stockexchange.metrics.ExchangeMetrics;
 import ca.yorku.cmg.lob.trader.Trader;
 
 /**
  * An trading agent that receives news and reacts by submitting ask or bid orders.
+ * News either is polled for as time advances ({@linkplain #timeAdvancedTo(long)}), or is pushed by the {@linkplain NewsBoard} the agent is subscribed to ({@linkplain #update(Event)}).
  */
-public abstract class TradingAgent {
+public abstract class TradingAgent implements INewsObserver {
 	protected Trader t;
 	protected StockExchange exc;
 	protected NewsBoard news;
@@ -25,6 +30,14 @@ public abstract class TradingAgent {
 		this.news = n;
 	}
 	
+	/**
+	 * Returns the {@linkplain Trader} the agent trades for.
+	 * @return The {@linkplain Trader} object associated with the agent.
+	 */
+	public Trader getTrader() {
+		return t;
+	}
+	
 	/**
 	 * Method to be called as time advances to {@code time}. In response the TradingAgent will poll the NewsBoard for events.
 	 * @param time The time to advance to.
@@ -33,28 +46,55 @@ public abstract class TradingAgent {
 		pollForEvents(time);
 	}
 
+	/**
+	 * Called by the {@linkplain NewsBoard} when an event occurs for a security the agent is subscribed to.
+	 * @param e The {@linkplain Event} that occurred.
+	 */
+	@Override
+	public void update(Event e) {
+		examineEvent(e);
+	}
+
 	/**
 	 * Examine if an event is relevant for the Agent, i.e., if the Agent has a position on it.
 	 * @param e The {@linkplain Event} object in question
 	 */
 	private void examineEvent(Event e) {
-		int positionInSecurity = exc.getAccounts().getTraderAccount(t).getPosition(e.getSecrity().getTicker());
+		int sid = exc.getSecurityIndex().idOf(e.getSecrity());
+		if (sid < 0) {
+			return;
+		}
+		int positionInSecurity = exc.getAccounts().getTraderAccount(t).getPosition(sid);
 		if (positionInSecurity > 0) {
-			actOnEvent(e,positionInSecurity,exc.getPrice(e.getSecrity().getTicker()));
+			ExchangeMetrics m = exc.getMetrics();
+			if (m == null) {
+				actOnEvent(e,positionInSecurity,exc.getPrice(e.getSecrity()));
+				return;
+			}
+			AgentReactionEvent event = new AgentReactionEvent();
+			event.begin();
+			long start = System.nanoTime();
+			actOnEvent(e,positionInSecurity,exc.getPrice(e.getSecrity()));
+			m.recordReaction(System.nanoTime() - start);
+			if (event.shouldCommit()) {
+				event.trader = t.getID();
+				event.ticker = e.getSecrity().getTicker();
+				event.position = positionInSecurity;
+				event.commit();
+			}
 		}
 	}
 
 	
 	/**
-	 * Check into the {@linkplain NewsBoard} if there are any events at time {@code time}. If there is one (it assumes only one event at a time), send it for examination.
+	 * Check into the {@linkplain NewsBoard} if there are any events at time {@code time}. Each of them is sent for examination, in the order they were loaded.
 	 * @param time The time for which to poll for events. Unit is days.
 	 */
 	private void pollForEvents(long time) {
-		Event e = news.getEventAt(time);
-		if (e!=null) {
-			examineEvent(e);
+		List<Event> events = news.getEventsAt(time);
+		for (int i = 0; i < events.size(); i++) {
+			examineEvent(events.get(i));
 		}
-
 	}
 	
 	
@@ -1,7 +1,5 @@
 package ca.yorku.cmg.lob.stockexchange.tradingagent;
 
-import ca.yorku.cmg.lob.orderbook.Ask;
-import ca.yorku.cmg.lob.orderbook.Bid;
 import ca.yorku.cmg.lob.stockexchange.StockExchange;
 import ca.yorku.cmg.lob.stockexchange.events.BadNews;
 import ca.yorku.cmg.lob.stockexchange.events.Event;
@@ -25,9 +23,9 @@ public class TradingAgentAggressive extends TradingAgent {
 		IOrder newOrder = null;
 		
 		if (e instanceof GoodNews) {
-            newOrder = new Bid(t,e.getSecrity(),(int) Math.round(price*1.05), (int) Math.round(pos*0.5),e.getTime());
+            newOrder = exc.newOrder(t,e.getSecrity(),true,(int) Math.round(price*1.05), (int) Math.round(pos*0.5),e.getTime());
         } else if (e instanceof BadNews) {
-        	newOrder = new Ask(t,e.getSecrity(),(int) Math.round(price*0.90), (int) Math.round(pos*0.8),e.getTime());
+        	newOrder = exc.newOrder(t,e.getSecrity(),false,(int) Math.round(price*0.90), (int) Math.round(pos*0.8),e.getTime());
         } else {
             System.out.println("Unknown event type");
         }
@@ -1,6 +1,5 @@
 package ca.yorku.cmg.lob.stockexchange.tradingagent;
 
-import ca.yorku.cmg.lob.orderbook.Bid;
 import ca.yorku.cmg.lob.stockexchange.StockExchange;
 import ca.yorku.cmg.lob.stockexchange.events.BadNews;
 import ca.yorku.cmg.lob.stockexchange.events.Event;
@@ -8,7 +7,6 @@ import ca.yorku.cmg.lob.stockexchange.events.GoodNews;
 import ca.yorku.cmg.lob.stockexchange.events.NewsBoard;
 import ca.yorku.cmg.lob.trader.Trader;
 import ca.yorku.cmg.lob.tradestandards.IOrder;
-import ca.yorku.cmg.lob.orderbook.Ask;
 
 /**
  * A trading agent kind that reacts more carefully and conservatively to news.
@@ -25,9 +23,9 @@ public class TradingAgentConservative extends TradingAgent {
 		IOrder newOrder = null;
 		
 		if (e instanceof GoodNews) {
-            newOrder = new Bid(t,e.getSecrity(),(int) Math.round(price*1.05), (int) Math.round(pos*0.2),e.getTime());
+            newOrder = exc.newOrder(t,e.getSecrity(),true,(int) Math.round(price*1.05), (int) Math.round(pos*0.2),e.getTime());
         } else if (e instanceof BadNews) {
-        	newOrder = new Ask(t,e.getSecrity(),(int) Math.round(price*0.95), (int) Math.round(pos*0.2),e.getTime());
+        	newOrder = exc.newOrder(t,e.getSecrity(),false,(int) Math.round(price*0.95), (int) Math.round(pos*0.2),e.getTime());
         } else {
             System.out.println("Unknown event type");
         }
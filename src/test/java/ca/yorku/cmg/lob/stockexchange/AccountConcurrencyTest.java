@@ -0,0 +1,158 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.book.ExchangeTrade;
+import ca.yorku.cmg.lob.stockexchange.book.FillSettler;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.trader.TraderInstitutional;
+import ca.yorku.cmg.lob.trader.TraderRetail;
+
+
+/**
+ * Stress tests concurrent balance updates on {@linkplain Account}s: money moved and charged by several threads at once is conserved.
+ */
+class AccountConcurrencyTest {
+
+	static final int THREADS = 4;
+	static final int OPERATIONS = 50000;
+	static final long INITIAL = 100000;
+	static final int POSITION = 100;
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+	}
+
+	private static Account[] accounts() {
+		Account[] accounts = new Account[8];
+		for (int i = 0; i < accounts.length; i++) {
+			accounts[i] = i % 2 == 0 ? new AccountBasic(new TraderRetail("Retail " + i), INITIAL)
+					: new AccountPro(new TraderInstitutional("Institution " + i), INITIAL);
+		}
+		return accounts;
+	}
+
+	/**
+	 * Runs {@code task(thread index)} on {@linkplain #THREADS} threads released at once.
+	 */
+	private static void race(IntConsumer task) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		Thread[] threads = new Thread[THREADS];
+		for (int t = 0; t < THREADS; t++) {
+			int id = t;
+			threads[t] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				task.accept(id);
+			});
+			threads[t].start();
+		}
+		start.countDown();
+		for (Thread t : threads) {
+			t.join();
+		}
+	}
+
+	private static long total(Account[] accounts) {
+		long total = 0;
+		for (Account a : accounts) {
+			total += a.getBalance();
+		}
+		return total;
+	}
+
+	/**
+	 * Transfers that only credit what was actually withdrawn neither create nor destroy money, and never overdraw an account,
+	 * although balances are small enough for many withdrawals to be refused.
+	 */
+	@Test
+	void transfersConserveMoney() throws InterruptedException {
+		Account[] accounts = accounts();
+		LongAdder refused = new LongAdder();
+		race(id -> {
+			Random rnd = new Random(id);
+			for (int i = 0; i < OPERATIONS; i++) {
+				Account from = accounts[rnd.nextInt(accounts.length)];
+				Account to = accounts[rnd.nextInt(accounts.length)];
+				int amount = 1 + rnd.nextInt(20000);
+				if (from.withdrawMoney(amount)) {
+					to.addMoney(amount);
+				} else {
+					refused.increment();
+				}
+			}
+		});
+		assertEquals(INITIAL * accounts.length, total(accounts));
+		assertTrue(refused.sum() > 0);
+		for (Account a : accounts) {
+			assertTrue(a.getBalance() >= 0, a.getTrader().getTitle());
+		}
+	}
+
+	/**
+	 * Trades settled concurrently by the exchange, one thread per security as shards do, between accounts trading all securities,
+	 * keep cash plus fees collected constant and units constant, although balances and positions are small enough for many trades to fail settlement.
+	 */
+	@Test
+	void settlementsConserveMoney() throws InterruptedException {
+		StockExchange exc = new StockExchange();
+		Trader[] traders = new Trader[8];
+		for (int i = 0; i < traders.length; i++) {
+			traders[i] = i % 2 == 0 ? new TraderRetail("Retail " + i) : new TraderInstitutional("Institution " + i);
+			exc.addAccount(traders[i], i % 2 == 0 ? "Basic" : "Pro", INITIAL, "Conservative");
+		}
+		Security[] secs = new Security[THREADS];
+		int[] sids = new int[THREADS];
+		for (int s = 0; s < THREADS; s++) {
+			exc.addSecurity("T" + s, "Test security " + s);
+			secs[s] = exc.getSecurities().getSecurityByTicker("T" + s);
+			sids[s] = exc.getSecurityIndex().idOf(secs[s]);
+			for (Trader t : traders) {
+				exc.setInitialPosition(t, secs[s], POSITION);
+			}
+		}
+		for (Account a : exc.getAccounts().getAccounts()) {
+			a.reservePositions(THREADS);
+		}
+		LongAdder settled = new LongAdder();
+		race(id -> {
+			Random rnd = new Random(100 + id);
+			for (int i = 0; i < OPERATIONS; i++) {
+				Trader buyer = traders[rnd.nextInt(traders.length)];
+				Trader seller = traders[rnd.nextInt(traders.length)];
+				ExchangeTrade t = new ExchangeTrade(buyer, seller, secs[id], 1 + rnd.nextInt(100), 1 + rnd.nextInt(50), i);
+				if (exc.settleConcurrently(t, sids[id]) == FillSettler.SETTLED) {
+					settled.increment();
+				}
+			}
+		});
+		long total = 0;
+		for (Account a : exc.getAccounts().getAccounts()) {
+			total += a.getBalance();
+		}
+		assertEquals(INITIAL * traders.length, total + exc.getTotalFees());
+		assertTrue(exc.getFailedSettlementCount() > 0);
+		assertEquals((long) THREADS * OPERATIONS, settled.sum() + exc.getFailedSettlementCount());
+		for (int s = 0; s < THREADS; s++) {
+			long units = 0;
+			for (Account a : exc.getAccounts().getAccounts()) {
+				assertTrue(a.getPosition(sids[s]) >= 0, a.getTrader().getTitle());
+				units += a.getPosition(sids[s]);
+			}
+			assertEquals((long) POSITION * traders.length, units, secs[s].getTicker());
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.stockexchange.ingest.OrderLogWriter;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+
+/**
+ * Tests that {@linkplain StockExchange#submitOrders(IOrder[])} leaves the exchange as submitting the orders one by one would.
+ */
+class BatchSubmitTest {
+
+	@TempDir
+	Path dir;
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	/**
+	 * Submits the same orders one by one and as batches, under a matching mode, and compares everything observable.
+	 */
+	private void assertSameAsSerial(MatchingMode mode) throws IOException {
+		StockExchange serial = ShardedExchangeTest.newExchange();
+		serial.setMatchingMode(mode);
+		Order.resetID();
+		try (OrderLogWriter w = new OrderLogWriter(dir.resolve("serial.bin"))) {
+			serial.setOrderLog(w);
+			for (IOrder o : ShardedExchangeTest.orders(serial, 9, 5000, 1, 7)) {
+				serial.submitOrder(o, o.getTime());
+			}
+			serial.setOrderLog(null);
+		}
+
+		StockExchange batched = ShardedExchangeTest.newExchange();
+		batched.setMatchingMode(mode);
+		Order.resetID();
+		try (OrderLogWriter w = new OrderLogWriter(dir.resolve("batched.bin"))) {
+			batched.setOrderLog(w);
+			List<IOrder> orders = ShardedExchangeTest.orders(batched, 9, 5000, 1, 7);
+			batched.submitOrders(orders.subList(0, 1));
+			batched.submitOrders(orders.subList(1, 2000));
+			batched.submitOrders(orders.subList(2000, orders.size()).toArray(new IOrder[0]));
+			batched.setOrderLog(null);
+		}
+
+		assertEquals(serial.printBidTable(true), batched.printBidTable(true));
+		assertEquals(serial.printAskTable(true), batched.printAskTable(true));
+		for (String tkr : ShardedExchangeTest.TICKERS) {
+			assertEquals(ShardedExchangeTest.resting(serial, tkr), ShardedExchangeTest.resting(batched, tkr), tkr);
+			assertEquals(serial.getPrice(tkr), batched.getPrice(tkr), tkr);
+		}
+		assertEquals(serial.getOrdersLog().toString(), batched.getOrdersLog().toString());
+		assertEquals(serial.getLogTestSample(), batched.getLogTestSample());
+		assertEquals(serial.printTradesLog(true), batched.printTradesLog(true));
+		assertEquals(serial.printBalances(true), batched.printBalances(true));
+		assertArrayEquals(Files.readAllBytes(dir.resolve("serial.bin")), Files.readAllBytes(dir.resolve("batched.bin")));
+	}
+
+	/**
+	 * Resting orders are bulk-inserted with the priorities they would have had one by one.
+	 */
+	@Test
+	void restingBatchMatchesSerial() throws IOException {
+		assertSameAsSerial(MatchingMode.NONE);
+	}
+
+	/**
+	 * Under continuous matching, batches are matched in arrival order.
+	 */
+	@Test
+	void matchingBatchMatchesSerial() throws IOException {
+		assertSameAsSerial(MatchingMode.CONTINUOUS);
+	}
+}
@@ -0,0 +1,181 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.book.LimitOrderBook;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevelOrderbook;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+
+/**
+ * Tests the single-price uncross of {@linkplain MatchingMode#CALL_AUCTION}.
+ */
+class CallAuctionTest {
+
+	StockExchange exc = null;
+	Security aapl = null;
+	Trader t1, t2, t3, t4;
+
+	@BeforeEach
+	void setUp() {
+		exc = ShardedExchangeTest.newExchange();
+		exc.setMatchingMode(MatchingMode.CALL_AUCTION);
+		aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+		t1 = exc.getAccounts().getTraderByID(1);
+		t2 = exc.getAccounts().getTraderByID(2);
+		t3 = exc.getAccounts().getTraderByID(3);
+		t4 = exc.getAccounts().getTraderByID(4);
+	}
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+		exc = null;
+	}
+
+	/**
+	 * Orders cross without trading during the call, then execute at the price of maximum volume, by price-time priority,
+	 * and are settled; what cannot execute at that price rests.
+	 */
+	@Test
+	void uncrossesAtMaximumVolume() {
+		exc.submitOrder(new Bid(t1, aapl, 10100, 10, 1), 1);
+		exc.submitOrder(new Bid(t2, aapl, 10000, 5, 2), 2);
+		exc.submitOrder(new Bid(t1, aapl, 9900, 10, 3), 3);
+		exc.submitOrder(new Ask(t3, aapl, 9800, 8, 4), 4);
+		exc.submitOrder(new Ask(t4, aapl, 10000, 7, 5), 5);
+		exc.submitOrder(new Ask(t4, aapl, 10200, 10, 6), 6);
+		assertTrue(exc.getTradesLog().isEmpty());
+		assertEquals(10000, exc.getOrderbook().getBook(aapl).auctionPrice(0));
+
+		int held1 = exc.getAccounts().getTraderAccount(t1).getPosition("AAPL");
+		assertEquals(15, exc.uncross(7));
+
+		List<ITrade> trades = exc.getTradesLog();
+		assertEquals(3, trades.size());
+		int[][] expected = {{1, 3, 8}, {1, 4, 2}, {2, 4, 5}};
+		for (int i = 0; i < 3; i++) {
+			ITrade t = trades.get(i);
+			assertEquals(expected[i][0], t.getBuyer().getID());
+			assertEquals(expected[i][1], t.getSeller().getID());
+			assertEquals(expected[i][2], t.getQuantity());
+			assertEquals(10000, t.getPrice());
+			assertEquals(7, t.getTime());
+		}
+		assertEquals(held1 + 10, exc.getAccounts().getTraderAccount(t1).getPosition("AAPL"));
+		assertEquals(10000, exc.getPrice(aapl));
+		LimitOrderBook b = exc.getOrderbook().getBook(aapl);
+		assertEquals(9900, b.getBestBidPrice());
+		assertEquals(10200, b.getBestAskPrice());
+		assertEquals(0, exc.uncross(8));
+	}
+
+	/**
+	 * Between prices of equal volume and imbalance, the one closest to the reference price wins, else the lowest.
+	 */
+	@Test
+	void tiesGoToReferenceThenLowest() {
+		PriceLevelOrderbook book = new PriceLevelOrderbook();
+		book.addOrder(new Bid(t1, aapl, 10100, 10, 1));
+		book.addOrder(new Ask(t2, aapl, 9900, 10, 2));
+		LimitOrderBook b = book.getBook(aapl);
+		assertEquals(9900, b.auctionPrice(0));
+		assertEquals(9900, b.auctionPrice(10000));
+		assertEquals(10100, b.auctionPrice(10050));
+		assertEquals(9900, b.auctionPrice(5000));
+	}
+
+	/**
+	 * On random books, the uncross executes the maximum volume found by brute force over all prices, and leaves the book uncrossed.
+	 */
+	@Test
+	void executesMaximumVolume() {
+		Random rnd = new Random(17);
+		for (int round = 0; round < 50; round++) {
+			PriceLevelOrderbook book = new PriceLevelOrderbook();
+			List<IOrder> orders = new ArrayList<IOrder>();
+			for (int i = 0; i < 200; i++) {
+				int price = 9500 + rnd.nextInt(100) * 10;
+				int qty = 1 + rnd.nextInt(50);
+				orders.add(rnd.nextBoolean() ? new Bid(t1, aapl, price, qty, i) : new Ask(t2, aapl, price, qty, i));
+			}
+			long best = 0;
+			for (int p = 9500; p < 10500; p++) {
+				long bids = 0;
+				long asks = 0;
+				for (IOrder o : orders) {
+					if (o instanceof Bid && o.getPrice() >= p) {
+						bids += o.getQuantity();
+					} else if (!(o instanceof Bid) && o.getPrice() <= p) {
+						asks += o.getQuantity();
+					}
+				}
+				best = Math.max(best, Math.min(bids, asks));
+			}
+			for (IOrder o : orders) {
+				book.addOrder(o);
+			}
+
+			LimitOrderBook b = book.getBook(aapl);
+			List<ITrade> trades = new ArrayList<ITrade>();
+			int price = b.uncross(0, 0, trades, null);
+			long volume = 0;
+			for (ITrade t : trades) {
+				assertEquals(price, t.getPrice());
+				volume += t.getQuantity();
+			}
+			assertEquals(best, volume, "round " + round);
+			assertTrue(b.getBestBid() == null || b.getBestAsk() == null || b.getBestBidPrice() < b.getBestAskPrice(), "round " + round);
+		}
+	}
+
+	/**
+	 * Reservations of the risk checks are released at the bids' limit prices, not at the auction price.
+	 */
+	@Test
+	void releasesReservationsAtLimitPrices() {
+		exc.setRiskChecks(true);
+		exc.submitOrder(new Bid(t1, aapl, 10100, 10, 1), 1);
+		exc.submitOrder(new Ask(t3, aapl, 9800, 4, 2), 2);
+		exc.uncross(3);
+		Account a = exc.getAccounts().getTraderAccount(t1);
+		assertEquals(6 * 10100, a.getReservedCash());
+		assertEquals(0, exc.getAccounts().getTraderAccount(t3).getReservedPosition(exc.getSecurityIndex().idOf(aapl)));
+	}
+
+	/**
+	 * A bid whose buyer cannot pay leaves the book during the uncross, and the ask it crossed goes on to the next bid.
+	 */
+	@Test
+	void unpaidBidLeavesBookInUncross() {
+		Trader poor = exc.getAccounts().getTraderByID(5);
+		exc.submitOrder(new Bid(poor, aapl, 10000, 100, 1), 1);
+		exc.submitOrder(new Bid(t2, aapl, 10000, 20, 2), 2);
+		Ask a = new Ask(t3, aapl, 9800, 80, 3);
+		exc.submitOrder(a, 3);
+
+		assertEquals(20, exc.uncross(4));
+		assertEquals(1, exc.getTradesLog().size());
+		assertEquals(t2, exc.getTradesLog().get(0).getBuyer());
+		assertEquals(9800, exc.getTradesLog().get(0).getPrice());
+		assertEquals(1, exc.getFailedSettlementCount());
+		assertEquals(60, a.getQuantity());
+		assertEquals(1, exc.getOrderbook().size());
+		assertEquals(500000, exc.getAccounts().getTraderAccount(poor).getBalance());
+	}
+}
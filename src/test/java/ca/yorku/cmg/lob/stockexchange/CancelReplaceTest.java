@@ -0,0 +1,203 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.book.LimitOrderBook;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevel;
+import ca.yorku.cmg.lob.stockexchange.book.RestingOrder;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+
+/**
+ * Tests cancelling and replacing resting orders by id on the {@linkplain StockExchange}.
+ */
+class CancelReplaceTest {
+
+	StockExchange exc = null;
+	Security aapl = null;
+	Trader t1, t2;
+	int sid;
+
+	@BeforeEach
+	void setUp() {
+		exc = ShardedExchangeTest.newExchange();
+		aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+		t1 = exc.getAccounts().getTraderByID(1);
+		t2 = exc.getAccounts().getTraderByID(2);
+		sid = exc.getSecurityIndex().idOf(aapl);
+	}
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+		exc = null;
+	}
+
+	/**
+	 * A cancelled order leaves the book and the id index, and the top of book follows.
+	 */
+	@Test
+	void cancelRemovesOrder() {
+		Bid best = new Bid(t1, aapl, 10100, 10, 1);
+		Bid second = new Bid(t2, aapl, 10000, 5, 2);
+		exc.submitOrder(best, 1);
+		exc.submitOrder(second, 2);
+		assertEquals(10100, exc.getMarketData().getBestBid(sid));
+
+		assertSame(best, exc.cancelOrder(best.getID()));
+		assertNull(exc.getOrderbook().getOrder(best.getID()));
+		assertEquals(1, exc.getOrderbook().size());
+		assertEquals(10000, exc.getMarketData().getBestBid(sid));
+		assertNull(exc.cancelOrder(best.getID()));
+		assertFalse(exc.replaceOrder(best.getID(), 10000, 1));
+
+		assertSame(second, exc.cancelOrder(second.getID()));
+		assertEquals(0, exc.getOrderbook().size());
+		assertNull(exc.getOrderbook().getBook(aapl).getBestBid());
+	}
+
+	/**
+	 * Lowering the quantity at the same price keeps the order first in its queue; any other change sends it to the back.
+	 */
+	@Test
+	void quantityDownKeepsPriority() {
+		Bid first = new Bid(t1, aapl, 10000, 10, 1);
+		Bid second = new Bid(t2, aapl, 10000, 10, 2);
+		exc.submitOrder(first, 1);
+		exc.submitOrder(second, 2);
+		PriceLevel level = exc.getOrderbook().getBook(aapl).getBestBid();
+
+		assertTrue(exc.replaceOrder(first.getID(), 10000, 4));
+		assertSame(first, level.getFirst().getOrder());
+		assertEquals(4, first.getQuantity());
+		assertEquals(14, level.getTotalQuantity());
+
+		assertTrue(exc.replaceOrder(first.getID(), 10000, 6, 3));
+		assertSame(second, level.getFirst().getOrder());
+		assertSame(first, level.getFirst().getNext().getOrder());
+		assertEquals(3, first.getTime());
+		assertEquals(16, level.getTotalQuantity());
+
+		assertTrue(exc.replaceOrder(second.getID(), 10200, 10));
+		assertEquals(10200, exc.getMarketData().getBestBid(sid));
+		assertEquals(2, second.getTime());
+		assertEquals(2, exc.getOrderbook().size());
+		assertEquals(2, exc.getOrdersLog().size());
+	}
+
+	/**
+	 * Under continuous matching, a replace whose new price crosses the book trades as a new order would.
+	 */
+	@Test
+	void crossingReplaceTrades() {
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		Bid bid = new Bid(t1, aapl, 9900, 10, 1);
+		exc.submitOrder(bid, 1);
+		exc.submitOrder(new Ask(t2, aapl, 10000, 4, 2), 2);
+		assertTrue(exc.getTradesLog().isEmpty());
+
+		assertTrue(exc.replaceOrder(bid.getID(), 10000, 10, 3));
+		assertEquals(1, exc.getTradesLog().size());
+		assertEquals(4, exc.getTradesLog().get(0).getQuantity());
+		assertEquals(10000, exc.getTradesLog().get(0).getPrice());
+		assertEquals(6, bid.getQuantity());
+		assertSame(bid, exc.getOrderbook().getOrder(bid.getID()).getOrder());
+		assertEquals(0, exc.getMarketData().getBestAsk(sid));
+	}
+
+	/**
+	 * With risk checks on, cancels release and replaces move the reservations of their orders, and a replace the account cannot cover
+	 * leaves the order as it was.
+	 */
+	@Test
+	void reservationsFollowCancelsAndReplaces() {
+		exc.setRiskChecks(true);
+		Trader retail = exc.getAccounts().getTraderByID(5);
+		Account account = exc.getAccounts().getAccountByID(5);
+		Bid bid = new Bid(retail, aapl, 1000, 300, 1);
+		exc.submitOrder(bid, 1);
+		assertEquals(300000, account.getReservedCash());
+
+		assertFalse(exc.replaceOrder(bid.getID(), 1000, 600));
+		assertEquals(1, exc.getRiskRejectedCount());
+		assertEquals(300, bid.getQuantity());
+		assertEquals(300000, account.getReservedCash());
+
+		assertTrue(exc.replaceOrder(bid.getID(), 2000, 250));
+		assertEquals(500000, account.getReservedCash());
+		assertTrue(exc.replaceOrder(bid.getID(), 2000, 100));
+		assertEquals(200000, account.getReservedCash());
+		exc.cancelOrder(bid.getID());
+		assertEquals(0, account.getReservedCash());
+
+		//Random flows of orders, cancels and replaces
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		Random rnd = new Random(5);
+		List<IOrder> submitted = new ArrayList<>();
+		for (IOrder o : ShardedExchangeTest.orders(exc, 21, 2000, 1, 4)) {
+			exc.submitOrder(o, o.getTime());
+			submitted.add(o);
+			IOrder target = submitted.get(rnd.nextInt(submitted.size()));
+			switch (rnd.nextInt(4)) {
+			case 0:
+				exc.cancelOrder(target.getID());
+				break;
+			case 1:
+				exc.replaceOrder(target.getID(), 30000 + 10 * rnd.nextInt(21), 1 + rnd.nextInt(100), o.getTime());
+				break;
+			case 2:
+				exc.replaceOrder(target.getID(), target.getPrice(), Math.max(1, target.getQuantity() / 2));
+				break;
+			default:
+			}
+		}
+		assertFalse(exc.getTradesLog().isEmpty());
+		PreTradeRiskTest.assertReservationsMatchBook(exc);
+		for (LimitOrderBook b : exc.getOrderbook().getBooks()) {
+			for (PriceLevel level : b.getBidLevels()) {
+				long total = 0;
+				for (RestingOrder n = level.getFirst(); n != null; n = n.getNext()) {
+					assertSame(n, exc.getOrderbook().getOrder(n.getOrder().getID()));
+					total += n.getOrder().getQuantity();
+				}
+				assertEquals(total, level.getTotalQuantity());
+			}
+		}
+	}
+
+	/**
+	 * Inside an {@linkplain OrderSequencer}, cancels and replaces are captured and applied in turn with the orders on release.
+	 */
+	@Test
+	void sequencerCapturesCancels() {
+		Bid bid = new Bid(t1, aapl, 10000, 10, 1);
+		exc.submitOrder(bid, 1);
+		OrderSequencer seq = new OrderSequencer();
+		seq.run(() -> {
+			assertFalse(exc.replaceOrder(bid.getID(), 10000, 5));
+			assertNull(exc.cancelOrder(bid.getID()));
+			exc.submitOrder(new Bid(t2, aapl, 9900, 10, 2), 2);
+		});
+		assertEquals(3, seq.size());
+		assertEquals(10, bid.getQuantity());
+		assertEquals(1, exc.getOrderbook().size());
+		seq.release();
+		assertEquals(5, bid.getQuantity());
+		assertNull(exc.getOrderbook().getOrder(bid.getID()));
+		assertEquals(9900, exc.getMarketData().getBestBid(sid));
+	}
+}
@@ -0,0 +1,182 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.trader.Trader;
+
+
+/**
+ * Tests order matching and trade settlement under {@linkplain MatchingMode#CONTINUOUS}.
+ */
+class ContinuousMatchingTest {
+
+	StockExchange exc = null;
+	Security aapl = null;
+	Trader t1, t2, t3;
+
+	@BeforeEach
+	void setUp() {
+		exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+		t1 = exc.getAccounts().getTraderByID(1);
+		t2 = exc.getAccounts().getTraderByID(2);
+		t3 = exc.getAccounts().getTraderByID(3);
+	}
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+		exc = null;
+	}
+
+	/**
+	 * A crossing bid trades at the resting ask price, both sides are settled and charged, and the ask remainder keeps resting.
+	 */
+	@Test
+	void partialFillSettlesBothSides() {
+		exc.submitOrder(new Ask(t1, aapl, 38000, 100, 1), 1);
+		exc.submitOrder(new Bid(t2, aapl, 38500, 60, 2), 2);
+
+		assertEquals(1, exc.getTradesLog().size());
+		assertEquals(60, exc.getTradesLog().get(0).getQuantity());
+		assertEquals(38000, exc.getTradesLog().get(0).getPrice());
+
+		Account seller = exc.getAccounts().getTraderAccount(t1);
+		Account buyer = exc.getAccounts().getTraderAccount(t2);
+		assertEquals(101, seller.getPosition("AAPL"));
+		assertEquals(992, buyer.getPosition("AAPL"));
+		assertEquals(10000000000L + 60 * 38000 - 1000, seller.getBalance());
+		assertEquals(5000000000L - 60 * 38000 - 1000, buyer.getBalance());
+		assertEquals(2000, exc.getTotalFees());
+
+		//The remaining 40 units of the ask are filled next, the rest of the bid rests
+		Bid b = new Bid(t3, aapl, 38000, 50, 3);
+		exc.submitOrder(b, 3);
+		assertEquals(2, exc.getTradesLog().size());
+		assertEquals(40, exc.getTradesLog().get(1).getQuantity());
+		assertEquals(61, seller.getPosition("AAPL"));
+		assertEquals(10, b.getQuantity());
+		assertTrue(exc.printBidTable(false).contains("AAPL"));
+		assertFalse(exc.printAskTable(false).contains("AAPL"));
+	}
+
+	/**
+	 * Orders that do not cross simply rest.
+	 */
+	@Test
+	void nonCrossingOrdersRest() {
+		exc.submitOrder(new Ask(t1, aapl, 39000, 100, 1), 1);
+		exc.submitOrder(new Bid(t2, aapl, 38000, 60, 2), 2);
+
+		assertTrue(exc.getTradesLog().isEmpty());
+		assertEquals(0, exc.getTotalFees());
+		assertEquals(161, exc.getAccounts().getTraderAccount(t1).getPosition("AAPL"));
+	}
+
+	/**
+	 * A trade whose seller does not hold the units is not settled, and does not set the price.
+	 */
+	@Test
+	void unsettledTradeLeavesPrice() {
+		exc.submitOrder(new Ask(t1, aapl, 38000, 1000, 1), 1);
+		exc.submitOrder(new Bid(t2, aapl, 38000, 500, 2), 2);
+
+		assertTrue(exc.getTradesLog().isEmpty());
+		assertEquals(1, exc.getFailedSettlementCount());
+		assertEquals(0, exc.getPrice(aapl));
+		assertEquals(161, exc.getAccounts().getTraderAccount(t1).getPosition("AAPL"));
+		//The short ask is dropped and the bid rests in full
+		assertEquals(1, exc.getOrderbook().size());
+		assertFalse(exc.printAskTable(false).contains("AAPL"));
+		assertTrue(exc.printBidTable(false).contains("AAPL"));
+	}
+
+	/**
+	 * An incoming ask whose seller does not hold the units trades nothing and does not rest; the bid it crossed keeps resting in full.
+	 */
+	@Test
+	void shortAskIsDropped() {
+		Bid b = new Bid(t2, aapl, 38000, 500, 1);
+		exc.submitOrder(b, 1);
+		Ask a = new Ask(t1, aapl, 38000, 1000, 2);
+		exc.submitOrder(a, 2);
+
+		assertTrue(exc.getTradesLog().isEmpty());
+		assertEquals(1, exc.getFailedSettlementCount());
+		assertEquals(0, a.getQuantity());
+		assertEquals(500, b.getQuantity());
+		assertEquals(1, exc.getOrderbook().size());
+		assertFalse(exc.printAskTable(false).contains("AAPL"));
+		assertEquals(161, exc.getAccounts().getTraderAccount(t1).getPosition("AAPL"));
+		assertEquals(932, exc.getAccounts().getTraderAccount(t2).getPosition("AAPL"));
+		assertEquals(5000000000L, exc.getAccounts().getTraderAccount(t2).getBalance());
+	}
+
+	/**
+	 * A bid whose buyer cannot pay is dropped, and the ask it crossed keeps resting in full.
+	 */
+	@Test
+	void unpaidBidLeavesAskResting() {
+		Trader poor = exc.getAccounts().getTraderByID(5);
+		Ask a = new Ask(t1, aapl, 38000, 100, 1);
+		exc.submitOrder(a, 1);
+		exc.submitOrder(new Bid(poor, aapl, 38000, 50, 2), 2);
+
+		assertTrue(exc.getTradesLog().isEmpty());
+		assertEquals(1, exc.getFailedSettlementCount());
+		assertEquals(100, a.getQuantity());
+		assertEquals(1, exc.getOrderbook().size());
+		assertTrue(exc.printAskTable(false).contains("AAPL"));
+		assertFalse(exc.printBidTable(false).contains("AAPL"));
+		assertEquals(161, exc.getAccounts().getTraderAccount(t1).getPosition("AAPL"));
+		assertEquals(500000, exc.getAccounts().getTraderAccount(poor).getBalance());
+	}
+
+	/**
+	 * A resting bid whose buyer cannot pay leaves the book, and the incoming ask goes on to the next bid.
+	 */
+	@Test
+	void unpaidRestingBidLeavesBook() {
+		Trader poor = exc.getAccounts().getTraderByID(5);
+		exc.submitOrder(new Bid(poor, aapl, 38000, 50, 1), 1);
+		exc.submitOrder(new Bid(t2, aapl, 37000, 10, 2), 2);
+		Ask a = new Ask(t1, aapl, 37000, 20, 3);
+		exc.submitOrder(a, 3);
+
+		assertEquals(1, exc.getTradesLog().size());
+		assertEquals(t2, exc.getTradesLog().get(0).getBuyer());
+		assertEquals(10, exc.getTradesLog().get(0).getQuantity());
+		assertEquals(1, exc.getFailedSettlementCount());
+		assertEquals(10, a.getQuantity());
+		assertEquals(1, exc.getOrderbook().size());
+		assertFalse(exc.printBidTable(false).contains("AAPL"));
+		assertTrue(exc.printAskTable(false).contains("AAPL"));
+	}
+
+	/**
+	 * Trades worth more than an {@code int} holds settle for their full value.
+	 */
+	@Test
+	void largeTradeSettlesInFull() {
+		exc.setInitialPosition(t1, aapl, 30000);
+		exc.submitOrder(new Ask(t1, aapl, 100000, 30000, 1), 1);
+		exc.submitOrder(new Bid(t2, aapl, 100000, 30000, 2), 2);
+
+		assertEquals(1, exc.getTradesLog().size());
+		assertEquals(10000000000L + 3000000000L - 30000, exc.getAccounts().getTraderAccount(t1).getBalance());
+		assertEquals(5000000000L - 3000000000L - 30000, exc.getAccounts().getTraderAccount(t2).getBalance());
+	}
+}
@@ -0,0 +1,193 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.marketdata.DepthFeed;
+import ca.yorku.cmg.lob.stockexchange.marketdata.DepthSnapshot;
+import ca.yorku.cmg.lob.stockexchange.marketdata.DepthUpdate;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+
+/**
+ * Tests that the {@linkplain DepthFeed} of a {@linkplain StockExchange} publishes every change of depth, so that a subscriber
+ * applying the updates to a snapshot always has the depth of the book.
+ */
+class DepthFeedTest {
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	/**
+	 * Levels are added when an order rests at a new price, modified as orders join, fill or leave, and deleted when they empty.
+	 */
+	@Test
+	void publishesLevelChanges() {
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		Security aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+		Trader t1 = exc.getAccounts().getTraderByID(1);
+		Trader t2 = exc.getAccounts().getTraderByID(2);
+		List<String> updates = new ArrayList<>();
+		exc.getDepthFeed().subscribe(u -> updates.add(u.getAction() + " " + (u.isBid() ? "bid " : "ask ") + u.getPrice() + " " + u.getQuantity() + " " + u.getOrders()));
+
+		Bid b1 = new Bid(t1, aapl, 10000, 10, 1);
+		exc.submitOrder(b1, 1);
+		exc.submitOrder(new Bid(t2, aapl, 10000, 5, 2), 2);
+		exc.submitOrder(new Ask(t2, aapl, 10000, 4, 3), 3);
+		exc.cancelOrder(b1.getID());
+		exc.submitOrder(new Ask(t1, aapl, 9900, 8, 4), 4);
+		assertEquals(List.of("ADD bid 10000 10 1", "MODIFY bid 10000 15 2", "MODIFY bid 10000 11 2", "MODIFY bid 10000 5 1",
+				"DELETE bid 10000 0 0", "ADD ask 9900 3 1"), updates);
+		assertEquals(6, exc.getDepthFeed().getSequence());
+
+		DepthSnapshot s = exc.getDepthFeed().snapshot(aapl, 5);
+		assertEquals(6, s.getSequence());
+		assertEquals(0, s.getBidLevels());
+		assertEquals(1, s.getAskLevels());
+		assertEquals(9900, s.getAskPrice(0));
+		assertEquals(3, s.getAskQuantity(0));
+		assertEquals(1, s.getAskOrders(0));
+	}
+
+	/**
+	 * A subscriber joining midway, from a snapshot, ends up with the depth of the book after any flow of orders, cancels and replaces.
+	 */
+	@Test
+	void snapshotPlusUpdatesIsDepth() {
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		DepthFeed feed = exc.getDepthFeed();
+		Order.resetID();
+		List<IOrder> flow = ShardedExchangeTest.orders(exc, 17, 4000, 1, 4);
+		Random rnd = new Random(17);
+		Map<String, Depth> books = null;
+		Consumer<DepthUpdate> subscriber = null;
+		for (int i = 0; i < flow.size(); i++) {
+			if (i == flow.size() / 2) {
+				books = new HashMap<>();
+				for (String tkr : ShardedExchangeTest.TICKERS) {
+					books.put(tkr, new Depth(feed.snapshot(exc.getSecurities().getSecurityByTicker(tkr), Integer.MAX_VALUE)));
+				}
+				Map<String, Depth> b = books;
+				subscriber = u -> b.get(u.getSecurity().getTicker()).apply(u);
+				feed.subscribe(subscriber);
+			}
+			IOrder o = flow.get(i);
+			exc.submitOrder(o, o.getTime());
+			IOrder target = flow.get(rnd.nextInt(i + 1));
+			if (rnd.nextInt(3) == 0) {
+				exc.cancelOrder(target.getID());
+			} else if (rnd.nextInt(3) == 0) {
+				exc.replaceOrder(target.getID(), 30000 + 10 * rnd.nextInt(21), 1 + rnd.nextInt(3));
+			}
+		}
+		for (String tkr : ShardedExchangeTest.TICKERS) {
+			assertEquals(new Depth(feed.snapshot(tkr, Integer.MAX_VALUE)).toString(), books.get(tkr).toString(), tkr);
+		}
+		feed.unsubscribe(subscriber);
+		assertNull(exc.getOrderbook().getLevelListener());
+	}
+
+	/**
+	 * While sharded, the shards publish the changes of their books; handing the books over publishes nothing.
+	 */
+	@Test
+	void publishesWhileSharded() {
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		DepthFeed feed = exc.getDepthFeed();
+		Order.resetID();
+		List<IOrder> flow = ShardedExchangeTest.orders(exc, 23, 3000, 1, 4);
+		for (IOrder o : flow.subList(0, 1000)) {
+			exc.submitOrder(o, o.getTime());
+		}
+		Map<String, Depth> books = new HashMap<>();
+		for (String tkr : ShardedExchangeTest.TICKERS) {
+			books.put(tkr, new Depth(feed.snapshot(exc.getSecurities().getSecurityByTicker(tkr), Integer.MAX_VALUE)));
+		}
+		feed.subscribe(u -> {
+			Depth d = books.get(u.getSecurity().getTicker());
+			synchronized (d) {
+				d.apply(u);
+			}
+		});
+		long before = feed.getSequence();
+		try (ShardedExchange shards = new ShardedExchange(exc, 3)) {
+			assertEquals(before, feed.getSequence());
+			for (IOrder o : flow.subList(1000, flow.size())) {
+				exc.submitOrder(o, o.getTime());
+			}
+		}
+		assertTrue(feed.getSequence() > before);
+		long after = feed.getSequence();
+		for (String tkr : ShardedExchangeTest.TICKERS) {
+			assertEquals(new Depth(feed.snapshot(tkr, Integer.MAX_VALUE)).toString(), books.get(tkr).toString(), tkr);
+		}
+		assertEquals(after, feed.getSequence());
+		assertSame(feed, exc.getOrderbook().getLevelListener());
+	}
+
+	/**
+	 * The depth of one book as a subscriber rebuilds it: price to quantity and orders, per side.
+	 */
+	private static class Depth {
+		final TreeMap<Integer, String> bids = new TreeMap<>();
+		final TreeMap<Integer, String> asks = new TreeMap<>();
+		final long sequence;
+		long last;
+
+		Depth(DepthSnapshot s) {
+			for (int i = 0; i < s.getBidLevels(); i++) {
+				bids.put(s.getBidPrice(i), s.getBidQuantity(i) + "/" + s.getBidOrders(i));
+			}
+			for (int i = 0; i < s.getAskLevels(); i++) {
+				asks.put(s.getAskPrice(i), s.getAskQuantity(i) + "/" + s.getAskOrders(i));
+			}
+			sequence = s.getSequence();
+			last = sequence;
+		}
+
+		void apply(DepthUpdate u) {
+			if (u.getSequence() <= sequence) {
+				return;
+			}
+			assertTrue(u.getSequence() > last);
+			last = u.getSequence();
+			TreeMap<Integer, String> side = u.isBid() ? bids : asks;
+			switch (u.getAction()) {
+			case ADD:
+				assertNull(side.put(u.getPrice(), u.getQuantity() + "/" + u.getOrders()));
+				break;
+			case MODIFY:
+				assertNotNull(side.put(u.getPrice(), u.getQuantity() + "/" + u.getOrders()));
+				break;
+			default:
+				assertNotNull(side.remove(u.getPrice()));
+			}
+		}
+
+		@Override
+		public String toString() {
+			return bids + " " + asks;
+		}
+	}
+}
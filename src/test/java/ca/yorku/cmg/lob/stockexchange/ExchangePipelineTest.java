@@ -0,0 +1,140 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+
+/**
+ * Tests that an {@linkplain ExchangePipeline} processes orders as the exchange would, rejects what its validate and risk stages should,
+ * and reports on its stages.
+ */
+class ExchangePipelineTest {
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	/**
+	 * Orders that pass the checks are matched, settled and logged exactly as by the exchange itself.
+	 */
+	@Test
+	void matchesSerialExchange() {
+		StockExchange serial = ShardedExchangeTest.newExchange();
+		Order.resetID();
+		for (IOrder o : ShardedExchangeTest.orders(serial, 5, 1000, 1, 4)) {
+			serial.submitOrder(o, o.getTime());
+		}
+
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		Order.resetID();
+		List<IOrder> orders = ShardedExchangeTest.orders(exc, 5, 1000, 1, 4);
+		ExchangePipeline.StageStats[] stats;
+		try (ExchangePipeline pipeline = new ExchangePipeline(exc, 64)) {
+			for (IOrder o : orders) {
+				exc.submitOrder(o, o.getTime());
+			}
+			pipeline.awaitIdle();
+			assertEquals(0, pipeline.getInvalidCount());
+			assertEquals(0, pipeline.getRiskRejectedCount());
+			stats = pipeline.getStageStats();
+		}
+
+		assertEquals(5, stats.length);
+		for (ExchangePipeline.StageStats s : stats) {
+			assertEquals(orders.size(), s.getProcessed(), s.getName());
+			assertEquals(0, s.getDepth(), s.getName());
+			assertTrue(s.getMeanLatency() > 0 && s.getMaxLatency() >= s.getMeanLatency(), s.toString());
+		}
+		assertFalse(serial.getTradesLog().isEmpty());
+		assertEquals(serial.printTradesLog(true), exc.printTradesLog(true));
+		assertEquals(serial.printBalances(true), exc.printBalances(true));
+		assertEquals(serial.getTotalFees(), exc.getTotalFees());
+		assertEquals(serial.getLogTestSample(), exc.getLogTestSample());
+		for (String tkr : ShardedExchangeTest.TICKERS) {
+			assertEquals(ShardedExchangeTest.resting(serial, tkr), ShardedExchangeTest.resting(exc, tkr), tkr);
+			assertEquals(serial.getPrice(tkr), exc.getPrice(tkr), tkr);
+		}
+	}
+
+	/**
+	 * Malformed orders, bids beyond the balance and asks beyond the position are rejected and leave no trace.
+	 */
+	@Test
+	void rejectsInvalidAndRiskyOrders() {
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		Security aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+		Trader bank = exc.getAccounts().getTraderByID(1);
+		Trader retail = exc.getAccounts().getTraderByID(5);
+		int holding = exc.getAccounts().getAccountByID(1).getPosition("AAPL");
+		try (ExchangePipeline pipeline = new ExchangePipeline(exc, 8)) {
+			exc.submitOrder(new Bid(bank, aapl, 38000, 0, 1), 1);
+			exc.submitOrder(new Ask(bank, aapl, 0, 10, 1), 1);
+			exc.submitOrder(new Bid(retail, aapl, 38000, 1000, 2), 2);
+			exc.submitOrder(new Ask(bank, aapl, 38000, holding + 1, 3), 3);
+			exc.submitOrder(new Ask(bank, aapl, 38000, holding, 4), 4);
+			pipeline.awaitIdle();
+			assertEquals(2, pipeline.getInvalidCount());
+			assertEquals(2, pipeline.getRiskRejectedCount());
+			assertEquals(5, pipeline.getStageStats()[4].getProcessed());
+		}
+		assertEquals(1, exc.getOrdersLog().size());
+		assertEquals(1, exc.getOrderbook().size());
+		assertEquals(holding, exc.getOrdersLog().get(0).getQuantity());
+	}
+
+	/**
+	 * Orders submitted while the pipeline closes are either rejected or go through every stage before close returns, never dropped.
+	 */
+	@Test
+	void closeRejectsOrProcessesEveryOrder() throws InterruptedException {
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		int producers = 4;
+		List<List<IOrder>> flows = new ArrayList<List<IOrder>>();
+		for (int p = 0; p < producers; p++) {
+			flows.add(ShardedExchangeTest.orders(exc, 200 + p, 20000, p + 1, p + 1));
+		}
+		AtomicInteger accepted = new AtomicInteger();
+		Thread[] threads = new Thread[producers];
+		ExchangePipeline pipeline = new ExchangePipeline(exc, 64);
+		for (int p = 0; p < producers; p++) {
+			List<IOrder> flow = flows.get(p);
+			threads[p] = new Thread(() -> {
+				try {
+					for (IOrder o : flow) {
+						pipeline.submitOrder(o, o.getTime());
+						accepted.incrementAndGet();
+					}
+				} catch (IllegalStateException e) {
+					//Closed
+				}
+			});
+			threads[p].start();
+		}
+		while (pipeline.getStageStats()[4].getProcessed() == 0) {
+			Thread.onSpinWait();
+		}
+		pipeline.close();
+		for (Thread t : threads) {
+			t.join();
+		}
+
+		for (ExchangePipeline.StageStats s : pipeline.getStageStats()) {
+			assertEquals(accepted.get(), s.getProcessed(), s.getName());
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.book.LimitOrderBook;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevel;
+import ca.yorku.cmg.lob.stockexchange.book.RestingOrder;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+
+/**
+ * Tests that the pre-trade risk checks of the {@linkplain StockExchange} reject what accounts cannot cover,
+ * and that their reservations follow the resting orders as they rest and fill, serially and sharded.
+ */
+class PreTradeRiskTest {
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	/**
+	 * Resting orders commit cash and units, later orders are checked against what is left, and fills release their share.
+	 */
+	@Test
+	void reservesAndReleases() {
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		exc.setRiskChecks(true);
+		Security aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+		Trader retail = exc.getAccounts().getTraderByID(5);
+		Account retailAccount = exc.getAccounts().getAccountByID(5);
+		long balance = retailAccount.getBalance();
+		int sid = exc.getSecurityIndex().idOf(aapl);
+
+		exc.submitOrder(new Bid(retail, aapl, 1000, 400, 1), 1);
+		assertEquals(400000, retailAccount.getReservedCash());
+		assertEquals(balance - 400000, retailAccount.getAvailableBalance());
+		exc.submitOrder(new Bid(retail, aapl, 1000, 101, 2), 2);
+		exc.submitOrder(new Bid(retail, aapl, 1000, 100, 3), 3);
+		assertEquals(1, exc.getRiskRejectedCount());
+		assertEquals(0, retailAccount.getAvailableBalance());
+
+		//A fill of the resting bid releases its value at the bid's price; the seller's units are released as soon as they sell
+		Trader seller = exc.getAccounts().getTraderByID(2);
+		Account sellerAccount = exc.getAccounts().getAccountByID(2);
+		exc.submitOrder(new Ask(seller, aapl, 1000, 150, 4), 4);
+		assertEquals(1, exc.getTradesLog().size());
+		assertEquals(350000, retailAccount.getReservedCash());
+		assertEquals(retailAccount.getBalance() - 350000, retailAccount.getAvailableBalance());
+		assertEquals(0, sellerAccount.getReservedPosition(sid));
+
+		Trader bank = exc.getAccounts().getTraderByID(1);
+		Account bankAccount = exc.getAccounts().getAccountByID(1);
+		int holding = bankAccount.getPosition(sid);
+		exc.submitOrder(new Ask(bank, aapl, 50000, holding, 5), 5);
+		assertEquals(holding, bankAccount.getReservedPosition(sid));
+		assertEquals(0, bankAccount.getAvailablePosition(sid));
+		exc.submitOrder(new Ask(bank, aapl, 50000, 1, 6), 6);
+		assertEquals(2, exc.getRiskRejectedCount());
+		assertEquals(4, exc.getOrdersLog().size());
+		assertReservationsMatchBook(exc);
+	}
+
+	/**
+	 * Orders resting before checks are turned on are reserved for when they are.
+	 */
+	@Test
+	void turningOnReservesRestingOrders() {
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		Order.resetID();
+		for (IOrder o : ShardedExchangeTest.orders(exc, 3, 500, 1, 4)) {
+			exc.submitOrder(o, o.getTime());
+		}
+		exc.setRiskChecks(true);
+		assertReservationsMatchBook(exc);
+		assertTrue(exc.getAccounts().getAccountByID(1).getReservedCash() > 0);
+	}
+
+	/**
+	 * After any flow of orders, serial or sharded, what is reserved is exactly what the resting orders commit.
+	 */
+	@Test
+	void reservationsFollowRestingOrders() {
+		StockExchange serial = ShardedExchangeTest.newExchange();
+		serial.setRiskChecks(true);
+		Order.resetID();
+		for (IOrder o : ShardedExchangeTest.orders(serial, 11, 3000, 1, 4)) {
+			serial.submitOrder(o, o.getTime());
+		}
+		assertFalse(serial.getTradesLog().isEmpty());
+		assertReservationsMatchBook(serial);
+
+		StockExchange sharded = ShardedExchangeTest.newExchange();
+		sharded.setRiskChecks(true);
+		Order.resetID();
+		try (ShardedExchange shards = new ShardedExchange(sharded, 3)) {
+			for (IOrder o : ShardedExchangeTest.orders(sharded, 11, 3000, 1, 4)) {
+				sharded.submitOrder(o, o.getTime());
+			}
+		}
+		assertReservationsMatchBook(sharded);
+		assertEquals(serial.getRiskRejectedCount(), sharded.getRiskRejectedCount());
+		assertEquals(serial.printBalances(true), sharded.printBalances(true));
+	}
+
+	/**
+	 * Recomputes what the resting orders commit, account by account, and compares it with the reservations.
+	 */
+	static void assertReservationsMatchBook(StockExchange exc) {
+		SecurityIndex index = exc.getSecurityIndex();
+		long[] cash = new long[exc.getAccounts().getAccounts().size() + 1];
+		int[][] units = new int[cash.length][index.size()];
+		for (LimitOrderBook b : exc.getOrderbook().getBooks()) {
+			int sid = index.idOf(b.getSecurity());
+			for (PriceLevel level : b.getBidLevels()) {
+				for (RestingOrder n = level.getFirst(); n != null; n = n.getNext()) {
+					cash[n.getOrder().getTrader().getID()] += (long) level.getPrice() * n.getOrder().getQuantity();
+				}
+			}
+			for (PriceLevel level : b.getAskLevels()) {
+				for (RestingOrder n = level.getFirst(); n != null; n = n.getNext()) {
+					units[n.getOrder().getTrader().getID()][sid] += n.getOrder().getQuantity();
+				}
+			}
+		}
+		for (int tid = 1; tid < cash.length; tid++) {
+			Account a = exc.getAccounts().getAccountByID(tid);
+			assertEquals(cash[tid], a.getReservedCash(), "cash of " + tid);
+			for (int sid = 0; sid < index.size(); sid++) {
+				assertEquals(units[tid][sid], a.getReservedPosition(sid), "units of " + tid + " in " + index.getTicker(sid));
+			}
+		}
+	}
+}
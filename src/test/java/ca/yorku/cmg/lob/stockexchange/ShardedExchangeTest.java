@@ -0,0 +1,228 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.book.LimitOrderBook;
+import ca.yorku.cmg.lob.stockexchange.book.PriceLevel;
+import ca.yorku.cmg.lob.stockexchange.book.RestingOrder;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+
+/**
+ * Tests that a {@linkplain ShardedExchange} processes orders as the exchange it shards would, and settles trades safely across threads.
+ */
+class ShardedExchangeTest {
+
+	static final String[] TICKERS = {"AAPL", "MSFT", "NVDA", "AMZN", "GOOG", "META", "AVGO", "TSLA"};
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	static StockExchange newExchange() {
+		Trader.resetID();
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		return exc;
+	}
+
+	/**
+	 * Orders among the institutional traders (1 to 4), whose balances never run short, around a price per ticker.
+	 */
+	static List<IOrder> orders(StockExchange exc, long seed, int n, int traderFrom, int traderTo) {
+		Random rnd = new Random(seed);
+		List<IOrder> orders = new ArrayList<IOrder>();
+		for (int i = 0; i < n; i++) {
+			Security sec = exc.getSecurities().getSecurityByTicker(TICKERS[rnd.nextInt(TICKERS.length)]);
+			Trader t = exc.getAccounts().getTraderByID(traderFrom + rnd.nextInt(traderTo - traderFrom + 1));
+			int price = 30000 + rnd.nextInt(21) * 10;
+			if (rnd.nextBoolean()) {
+				orders.add(new Bid(t, sec, price, 1 + rnd.nextInt(3), i));
+			} else {
+				orders.add(new Ask(t, sec, price, 1, i));
+			}
+		}
+		return orders;
+	}
+
+	/**
+	 * The resting orders of a ticker, in priority order, bids then asks.
+	 */
+	static String resting(StockExchange exc, String tkr) {
+		StringBuilder out = new StringBuilder();
+		LimitOrderBook b = exc.getOrderbook().getBook(tkr);
+		if (b != null) {
+			for (PriceLevel level : b.getBidLevels()) {
+				for (RestingOrder n = level.getFirst(); n != null; n = n.getNext()) {
+					out.append(n.getOrder());
+				}
+			}
+			out.append('|');
+			for (PriceLevel level : b.getAskLevels()) {
+				for (RestingOrder n = level.getFirst(); n != null; n = n.getNext()) {
+					out.append(n.getOrder());
+				}
+			}
+		}
+		return out.toString();
+	}
+
+	/**
+	 * Each ticker sees the same trades as on the serial exchange, and balances, positions, fees and books end up the same.
+	 */
+	@Test
+	void matchesSerialExchange() {
+		StockExchange serial = newExchange();
+		Order.resetID();
+		for (IOrder o : orders(serial, 11, 3000, 1, 4)) {
+			serial.submitOrder(o, o.getTime());
+		}
+
+		StockExchange exc = newExchange();
+		Order.resetID();
+		List<IOrder> orders = orders(exc, 11, 3000, 1, 4);
+		try (ShardedExchange sharded = new ShardedExchange(exc, 3)) {
+			for (IOrder o : orders) {
+				//Forwarded to the shards
+				exc.submitOrder(o, o.getTime());
+			}
+			sharded.awaitIdle();
+			assertEquals(orders.size(), sharded.getProcessedCount());
+		}
+
+		assertFalse(serial.getTradesLog().isEmpty());
+		for (String tkr : TICKERS) {
+			StringBuilder expected = new StringBuilder();
+			StringBuilder actual = new StringBuilder();
+			for (ITrade t : serial.getTradesLog()) {
+				if (t.getSecurity().getTicker().equals(tkr)) {
+					expected.append(t);
+				}
+			}
+			for (ITrade t : exc.getTradesLog()) {
+				if (t.getSecurity().getTicker().equals(tkr)) {
+					actual.append(t);
+				}
+			}
+			assertEquals(expected.toString(), actual.toString(), tkr);
+			assertEquals(serial.getPrice(tkr), exc.getPrice(tkr), tkr);
+			assertEquals(resting(serial, tkr), resting(exc, tkr), tkr);
+			for (int id = 1; id <= serial.getAccounts().size(); id++) {
+				assertEquals(serial.getAccounts().getAccountByID(id).getPosition(tkr), exc.getAccounts().getAccountByID(id).getPosition(tkr));
+			}
+		}
+		assertEquals(serial.printBalances(true), exc.printBalances(true));
+		assertEquals(serial.getTotalFees(), exc.getTotalFees());
+		assertEquals(serial.getOrdersLog().size(), exc.getOrdersLog().size());
+	}
+
+	/**
+	 * Several threads submitting at once: no order is lost, and no cash or units are created or destroyed by settlement.
+	 */
+	@Test
+	void concurrentProducersConserveCashAndUnits() throws InterruptedException {
+		StockExchange exc = newExchange();
+		long cash = 0;
+		int[] units = new int[TICKERS.length];
+		for (Account a : exc.getAccounts().getAccounts()) {
+			cash += a.getBalance();
+			for (int s = 0; s < TICKERS.length; s++) {
+				units[s] += a.getPosition(TICKERS[s]);
+			}
+		}
+
+		//Each producer trades for its own institutional trader, selling at most one unit per order
+		int producers = 4;
+		int perProducer = 200;
+		List<List<IOrder>> flows = new ArrayList<List<IOrder>>();
+		for (int p = 0; p < producers; p++) {
+			flows.add(orders(exc, 100 + p, perProducer, p + 1, p + 1));
+		}
+		Thread[] threads = new Thread[producers];
+		try (ShardedExchange sharded = new ShardedExchange(exc, 4)) {
+			for (int p = 0; p < producers; p++) {
+				List<IOrder> flow = flows.get(p);
+				threads[p] = new Thread(() -> {
+					for (IOrder o : flow) {
+						sharded.submitOrder(o, o.getTime());
+					}
+				});
+				threads[p].start();
+			}
+			for (Thread t : threads) {
+				t.join();
+			}
+		}
+
+		assertEquals(producers * perProducer, exc.getOrdersLog().size());
+		assertFalse(exc.getTradesLog().isEmpty());
+		long cashAfter = exc.getTotalFees();
+		int[] unitsAfter = new int[TICKERS.length];
+		for (Account a : exc.getAccounts().getAccounts()) {
+			cashAfter += a.getBalance();
+			for (int s = 0; s < TICKERS.length; s++) {
+				unitsAfter[s] += a.getPosition(TICKERS[s]);
+			}
+		}
+		assertEquals(cash, cashAfter);
+		assertArrayEquals(units, unitsAfter);
+	}
+
+	/**
+	 * Orders submitted while the sharded exchange closes are either rejected or processed before close returns, never dropped.
+	 */
+	@Test
+	void closeRejectsOrProcessesEveryOrder() throws InterruptedException {
+		StockExchange exc = newExchange();
+		int producers = 4;
+		List<List<IOrder>> flows = new ArrayList<List<IOrder>>();
+		for (int p = 0; p < producers; p++) {
+			flows.add(orders(exc, 200 + p, 20000, p + 1, p + 1));
+		}
+		AtomicInteger accepted = new AtomicInteger();
+		Thread[] threads = new Thread[producers];
+		ShardedExchange sharded = new ShardedExchange(exc, 4);
+		for (int p = 0; p < producers; p++) {
+			List<IOrder> flow = flows.get(p);
+			threads[p] = new Thread(() -> {
+				try {
+					for (IOrder o : flow) {
+						sharded.submitOrder(o, o.getTime());
+						accepted.incrementAndGet();
+					}
+				} catch (IllegalStateException e) {
+					//Closed
+				}
+			});
+			threads[p].start();
+		}
+		while (sharded.getProcessedCount() == 0) {
+			Thread.onSpinWait();
+		}
+		sharded.close();
+		for (Thread t : threads) {
+			t.join();
+		}
+
+		assertEquals(accepted.get(), exc.getOrdersLog().size());
+	}
+}
@@ -0,0 +1,124 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgent;
+import ca.yorku.cmg.lob.trader.Trader;
+
+
+/**
+ * Tests that the {@linkplain SimulationDriver} wakes only at the times at which something happens, and in the right order.
+ */
+class SimulationDriverTest {
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	/**
+	 * Jumping from event time to event time gives the same orders as every agent polling at every tick.
+	 */
+	@Test
+	void sameOrdersAsPolling() throws IOException {
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.readPriceListfromFile("src/test/resources/prices.csv");
+		exc.getNewsBoard().loadEvents("src/test/resources/events.csv");
+
+		SimulationDriver sim = new SimulationDriver(exc);
+		long distinctTimes = exc.getNewsBoard().getTimeline().getEvents().stream().mapToLong(e -> e.getTime()).distinct().count();
+		assertEquals(distinctTimes, sim.run());
+		assertEquals(distinctTimes, sim.getSteps());
+		assertEquals(Long.MAX_VALUE, sim.nextTime());
+		assertEquals(Files.readString(Paths.get("src/test/resources/testOut.txt")), exc.getLogTestSample());
+	}
+
+	/**
+	 * Events sharing a time are handled agent by agent, as when every agent polls for them.
+	 */
+	@Test
+	void sameTimeEventsAsPolling(@TempDir Path dir) throws IOException {
+		Path news = dir.resolve("news.csv");
+		Files.writeString(news, "2,GOOG,Good\n2,MSFT,Bad\n5,MSFT,Good\n5,GOOG,Bad\n5,AAPL,Good\n");
+		StockExchange polled = newExchange(news);
+		for (int i = 0; i <= 5; i++) {
+			for (TradingAgent t : polled.getTraders()) {
+				t.timeAdvancedTo(i);
+			}
+		}
+		String expected = polled.getLogTestSample();
+
+		Trader.resetID();
+		Order.resetID();
+		StockExchange exc = newExchange(news);
+		SimulationDriver sim = new SimulationDriver(exc);
+		assertEquals(2, sim.run());
+		assertEquals(expected, exc.getLogTestSample());
+	}
+
+	private static StockExchange newExchange(Path news) {
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.readPriceListfromFile("src/test/resources/prices.csv");
+		exc.getNewsBoard().loadEvents(news.toString());
+		return exc;
+	}
+
+	/**
+	 * Orders due at a time are submitted before the actions scheduled for it run, times at which nothing happens are skipped,
+	 * and running up to a time stops there.
+	 */
+	@Test
+	void ordersThenActions() {
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		Security aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+		Trader t1 = exc.getAccounts().getTraderByID(1);
+		Trader t2 = exc.getAccounts().getTraderByID(2);
+		exc.setMatchingMode(MatchingMode.CALL_AUCTION);
+
+		SimulationDriver sim = new SimulationDriver(exc);
+		sim.addOrders(List.of(new Bid(t1, aapl, 10000, 10, 1000), new Ask(t2, aapl, 9900, 4, 1000), new Bid(t1, aapl, 9800, 1, 5000)));
+		sim.addOrders(List.of(new Ask(t2, aapl, 9950, 2, 1000)));
+		List<String> seen = new ArrayList<>();
+		sim.schedule(1000, () -> {
+			seen.add(sim.getTime() + ":" + exc.getOrdersLog().size());
+			exc.uncross(sim.getTime());
+			exc.setMatchingMode(MatchingMode.CONTINUOUS);
+			sim.schedule(3000, () -> seen.add(sim.getTime() + ":" + exc.getTradesLog().size()));
+		});
+		sim.schedule(1000, () -> seen.add("second"));
+
+		assertEquals(1, sim.runUntil(2999));
+		assertEquals(1000, sim.getTime());
+		assertEquals(List.of("1000:3", "second"), seen);
+		assertEquals(2, exc.getTradesLog().size());
+		assertThrows(IllegalArgumentException.class, () -> sim.schedule(1000, () -> {}));
+
+		assertEquals(2, sim.run());
+		assertEquals(5000, sim.getTime());
+		assertEquals(List.of("1000:3", "second", "3000:2"), seen);
+		assertEquals(4, exc.getOrdersLog().size());
+		assertEquals(3, sim.getSteps());
+	}
+}
@@ -0,0 +1,157 @@
+package ca.yorku.cmg.lob.stockexchange;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+
+/**
+ * Tests that exchanges forked from a {@linkplain StockExchange#snapshot()} go on from the state of the snapshot, independently of each other
+ * and of the exchange, and that only what they touch is copied.
+ */
+class SnapshotTest {
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	/**
+	 * A fork given the orders the exchange would have been given ends up where the exchange would have, while the exchange, given other orders,
+	 * ends up where it would have without the fork.
+	 */
+	@Test
+	void forksDivergeIndependently() {
+		StockExchange expected = ShardedExchangeTest.newExchange();
+		expected.setRiskChecks(true);
+		submit(expected, ShardedExchangeTest.orders(expected, 5, 1000, 1, 4));
+		submit(expected, ShardedExchangeTest.orders(expected, 6, 1000, 1, 4));
+
+		StockExchange other = ShardedExchangeTest.newExchange();
+		other.setRiskChecks(true);
+		submit(other, ShardedExchangeTest.orders(other, 5, 1000, 1, 4));
+		submit(other, ShardedExchangeTest.orders(other, 7, 1000, 1, 4));
+
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		exc.setRiskChecks(true);
+		submit(exc, ShardedExchangeTest.orders(exc, 5, 1000, 1, 4));
+		ExchangeSnapshot snapshot = exc.snapshot();
+		StockExchange fork = snapshot.fork();
+		submit(exc, ShardedExchangeTest.orders(exc, 7, 1000, 1, 4));
+		submit(fork, ShardedExchangeTest.orders(fork, 6, 1000, 1, 4));
+
+		assertEquals(expected.printBalances(true), fork.printBalances(true));
+		assertEquals(expected.getTotalFees(), fork.getTotalFees());
+		assertEquals(other.printBalances(true), exc.printBalances(true));
+		for (String tkr : ShardedExchangeTest.TICKERS) {
+			assertEquals(expected.getPrice(tkr), fork.getPrice(tkr), tkr);
+			assertEquals(other.getPrice(tkr), exc.getPrice(tkr), tkr);
+		}
+		assertEquals(expected.getOrderbook().size(), fork.getOrderbook().size());
+		assertEquals(other.getOrderbook().size(), exc.getOrderbook().size());
+		PreTradeRiskTest.assertReservationsMatchBook(fork);
+		PreTradeRiskTest.assertReservationsMatchBook(exc);
+
+		//The snapshot is untouched: a second fork starts from it again
+		StockExchange again = snapshot.fork();
+		submit(again, ShardedExchangeTest.orders(again, 6, 1000, 1, 4));
+		assertEquals(expected.printBalances(true), again.printBalances(true));
+	}
+
+	/**
+	 * Forking copies no account and no book; each side then copies those it touches, and only those, resting orders keeping their ids.
+	 */
+	@Test
+	void copiesOnlyWhatIsTouched() {
+		StockExchange exc = ShardedExchangeTest.newExchange();
+		exc.setMatchingMode(MatchingMode.NONE);
+		Security aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+		Security msft = exc.getSecurities().getSecurityByTicker("MSFT");
+		Trader t1 = exc.getAccounts().getTraderByID(1);
+		Trader t2 = exc.getAccounts().getTraderByID(2);
+		IOrder bid = new Bid(t1, aapl, 30000, 10, 1);
+		exc.submitOrder(bid, 1);
+		exc.submitOrder(new Ask(t2, msft, 31000, 5, 2), 2);
+
+		StockExchange fork = exc.fork();
+		assertEquals(0, fork.getAccounts().ownedSize());
+		assertEquals(0, fork.getOrderbook().ownedSize());
+		assertEquals(0, exc.getOrderbook().ownedSize());
+		assertEquals(2, fork.getOrderbook().size());
+
+		fork.setMatchingMode(MatchingMode.CONTINUOUS);
+		fork.submitOrder(new Ask(t2, aapl, 30000, 4, 3), 3);
+		assertEquals(1, fork.getTradesLog().size());
+		assertEquals(1, fork.getOrderbook().ownedSize());
+		assertEquals(2, fork.getAccounts().ownedSize());
+		assertEquals(6, fork.getOrderbook().getOrder(bid.getID()).getOrder().getQuantity());
+		assertEquals(10, bid.getQuantity());
+		assertEquals(0, exc.getOrderbook().ownedSize());
+		assertEquals(0, exc.getAccounts().ownedSize());
+
+		//Cancelling in one leaves the order resting in the other
+		assertEquals(bid.getID(), fork.cancelOrder(bid.getID()).getID());
+		assertNull(fork.getOrderbook().getOrder(bid.getID()));
+		assertEquals(10, exc.getOrderbook().getOrder(bid.getID()).getOrder().getQuantity());
+		assertNotNull(exc.cancelOrder(bid.getID()));
+		assertEquals(1, exc.getOrderbook().size());
+		assertEquals(1, fork.getOrderbook().size());
+		assertThrows(IllegalStateException.class, () -> fork.addSecurity("ZZZZ", "Not listed"));
+	}
+
+	/**
+	 * A simulation forked halfway goes on as the original does, and a fork given news of its own plays out another future.
+	 */
+	@Test
+	void whatIfNews(@TempDir Path dir) throws IOException {
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.readPriceListfromFile("src/test/resources/prices.csv");
+		exc.getNewsBoard().loadEvents("src/test/resources/events.csv");
+		SimulationDriver sim = new SimulationDriver(exc);
+		for (int i = 0; i < 5; i++) {
+			sim.step();
+		}
+		String before = exc.getLogTestSample();
+
+		StockExchange same = exc.fork();
+		SimulationDriver sameSim = sim.fork(same);
+		StockExchange alternative = exc.fork();
+		Path news = dir.resolve("news.csv");
+		Files.writeString(news, "17,TSLA,Bad\n19,GOOG,Good\n");
+		alternative.getNewsBoard().loadEvents(news.toString());
+		SimulationDriver alternativeSim = sim.fork(alternative);
+
+		sim.run();
+		sameSim.run();
+		alternativeSim.run();
+		String expected = Files.readString(Paths.get("src/test/resources/testOut.txt"));
+		assertEquals(expected, exc.getLogTestSample());
+		assertEquals(expected, before + same.getLogTestSample());
+		assertEquals(exc.printBalances(true), same.printBalances(true));
+		assertTrue(alternative.getOrdersLog().size() > same.getOrdersLog().size());
+	}
+
+	private static void submit(StockExchange exc, Iterable<IOrder> orders) {
+		for (IOrder o : orders) {
+			exc.submitOrder(o, o.getTime());
+		}
+	}
+}
@@ -2,17 +2,22 @@ package ca.yorku.cmg.lob.stockexchange;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.events.DispatchMode;
 import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgent;
 import ca.yorku.cmg.lob.trader.Trader;
 
@@ -34,13 +39,7 @@ class StockExchangeTest {
 	 */
 	@BeforeEach
 	void setUp() {
-		exc = new StockExchange();
-		
-		exc.readSecurityListfromFile("src/test/resources/securities.csv"); 
-		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
-		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
-		exc.readPriceListfromFile("src/test/resources/prices.csv");
-		exc.getNewsBoard().loadEvents("src/test/resources/events.csv");
+		exc = loadExchange();
 		traders = exc.getTraders();
 		
 		//Read the expected test output for the assertions.
@@ -53,6 +52,17 @@ class StockExchangeTest {
 		
 	}
 
+	private static StockExchange loadExchange() {
+		StockExchange exc = new StockExchange();
+		
+		exc.readSecurityListfromFile("src/test/resources/securities.csv"); 
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.readPriceListfromFile("src/test/resources/prices.csv");
+		exc.getNewsBoard().loadEvents("src/test/resources/events.csv");
+		return exc;
+	}
+
 	/**
 	 * Reset objects and statics
 	 */
@@ -101,5 +111,105 @@ class StockExchangeTest {
 		assertEquals(expectedVal,exc.getLogTestSample());
 	}
 	
+	/**
+	 * Events sharing a time are pushed agent by agent, as agents polling for that time handle them.
+	 */
+	@Test
+	void sameTimePushTest(@TempDir Path dir) throws IOException {
+		Path news = dir.resolve("news.csv");
+		Files.writeString(news, "2,MSFT,Bad\n8,GOOG,Good\n8,AMZN,Bad\n");
+		exc.getNewsBoard().loadEvents(news.toString());
+		for (int i = 0; i <= 30; i++) {
+			for (TradingAgent t : this.traders) {
+				t.timeAdvancedTo(i);
+			}
+		}
+		String polled = exc.getLogTestSample();
+		assertNotEquals(expectedVal, polled);
+		
+		Trader.resetID();
+		Order.resetID();
+		StockExchange pushed = loadExchange();
+		pushed.getNewsBoard().loadEvents(news.toString());
+		pushed.getNewsBoard().runEventsList();
+		assertEquals(polled, pushed.getLogTestSample());
+	}
+	
+	/**
+	 * An order for a security the exchange does not trade is rejected, and the security is not added to the index.
+	 */
+	@Test
+	void unknownSecurityRejected() {
+		int securities = exc.getSecurityIndex().size();
+		Security other = new Security("ZZZZ", "Not traded");
+		exc.submitOrder(exc.newOrder(traders.get(0).getTrader(), other, true, 100, 10, 0), 0);
+		assertTrue(exc.getOrdersLog().isEmpty());
+		assertEquals(0, exc.getOrderbook().size());
+		assertEquals(-1, exc.getSecurityIndex().idOf(other));
+		assertEquals(securities, exc.getSecurityIndex().size());
+		assertEquals(0, exc.getPrice(other));
+	}
+	
+	/**
+	 * Parallel delivery of events must submit the same orders, with the same ids, in the same order as serial delivery.
+	 */
+	@Test
+	void parallelPushTest() {
+		exc.getNewsBoard().runEventsList();
+		assertEquals(expectedVal,exc.getLogTestSample());
+		
+		Trader.resetID();
+		Order.resetID();
+		StockExchange parallel = loadExchange();
+		parallel.getNewsBoard().setDispatchChunkSize(1);
+		parallel.getNewsBoard().setDispatchMode(DispatchMode.FORK_JOIN);
+		parallel.getNewsBoard().runEventsList();
+		parallel.getNewsBoard().setDispatchMode(DispatchMode.SERIAL);
+		
+		assertEquals(expectedVal,parallel.getLogTestSample());
+		assertSameOrders(exc, parallel);
+	}
+	
+	/**
+	 * Under continuous matching agents react to the trades and prices of the agents before them: parallel delivery must still
+	 * end up exactly where serial delivery does.
+	 */
+	@Test
+	void parallelPushContinuousTest() {
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		exc.getNewsBoard().runEventsList();
+		String orders = exc.getLogTestSample();
+		String balances = exc.printBalances(true);
+		int trades = exc.getTradesLog().size();
+		assertTrue(trades > 0);
+		
+		Trader.resetID();
+		Order.resetID();
+		StockExchange parallel = loadExchange();
+		parallel.setMatchingMode(MatchingMode.CONTINUOUS);
+		parallel.getNewsBoard().setDispatchChunkSize(1);
+		parallel.getNewsBoard().setDispatchMode(DispatchMode.FORK_JOIN);
+		parallel.getNewsBoard().runEventsList();
+		parallel.getNewsBoard().setDispatchMode(DispatchMode.SERIAL);
+		
+		assertEquals(orders, parallel.getLogTestSample());
+		assertEquals(trades, parallel.getTradesLog().size());
+		assertEquals(balances, parallel.printBalances(true));
+		assertEquals(exc.getTotalFees(), parallel.getTotalFees());
+		assertSameOrders(exc, parallel);
+	}
+	
+	/**
+	 * Asserts that two exchanges logged orders with the same ids, and hold the same resting orders.
+	 */
+	private static void assertSameOrders(StockExchange expected, StockExchange actual) {
+		long[] ids = expected.getOrdersLog().stream().mapToLong(o -> o.getID()).toArray();
+		assertEquals(ids.length, Arrays.stream(ids).distinct().count());
+		assertArrayEquals(ids, actual.getOrdersLog().stream().mapToLong(o -> o.getID()).toArray());
+		assertEquals(expected.printAskTable(true), actual.printAskTable(true));
+		assertEquals(expected.printBidTable(true), actual.printBidTable(true));
+		assertEquals(expected.getOrderbook().size(), actual.getOrderbook().size());
+	}
+	
 	
 }
@@ -0,0 +1,105 @@
+package ca.yorku.cmg.lob.stockexchange.book;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.trader.TraderRetail;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+
+/**
+ * Tests the price-level order book.
+ */
+class PriceLevelOrderbookTest {
+
+	PriceLevelOrderbook book = null;
+	Security sec = new Security("AAPL", "Apple Inc.");
+	Trader a, b, c;
+
+	@BeforeEach
+	void setUp() {
+		book = new PriceLevelOrderbook();
+		a = new TraderRetail("A");
+		b = new TraderRetail("B");
+		c = new TraderRetail("C");
+	}
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	@Test
+	void bestPricesFollowAddsAndCancels() {
+		Bid b1 = new Bid(a, sec, 100, 10, 1);
+		Bid b2 = new Bid(b, sec, 102, 10, 2);
+		Ask a1 = new Ask(c, sec, 105, 10, 3);
+		book.addOrder(b1);
+		book.addOrder(b2);
+		book.addOrder(a1);
+
+		LimitOrderBook lob = book.getBook("AAPL");
+		assertEquals(102, lob.getBestBidPrice());
+		assertEquals(105, lob.getBestAskPrice());
+		assertEquals(3, book.size());
+
+		assertSame(b2, book.cancelOrder(b2.getID()));
+		assertEquals(100, lob.getBestBidPrice());
+		assertNull(book.cancelOrder(b2.getID()));
+
+		book.cancelOrder(a1.getID());
+		assertEquals(0, lob.getBestAskPrice());
+		assertEquals(1, book.size());
+	}
+
+	@Test
+	void cancelInsideLevelKeepsQueueAndTotals() {
+		Ask a1 = new Ask(a, sec, 100, 10, 1);
+		Ask a2 = new Ask(b, sec, 100, 20, 2);
+		Ask a3 = new Ask(c, sec, 100, 30, 3);
+		book.addOrder(a1);
+		book.addOrder(a2);
+		book.addOrder(a3);
+		book.cancelOrder(a2.getID());
+
+		PriceLevel level = book.getBook("AAPL").getBestAsk();
+		assertEquals(40, level.getTotalQuantity());
+		assertEquals(2, level.getOrderCount());
+		assertSame(a1, level.getFirst().getOrder());
+		assertSame(a3, level.getFirst().getNext().getOrder());
+	}
+
+	@Test
+	void matchFillsByPriceThenTime() {
+		book.addOrder(new Ask(a, sec, 101, 10, 1));
+		book.addOrder(new Ask(b, sec, 100, 10, 2));
+		book.addOrder(new Ask(c, sec, 100, 10, 3));
+
+		ArrayList<ITrade> trades = new ArrayList<>();
+		Bid bid = new Bid(a, sec, 101, 25, 4);
+		assertEquals(0, book.matchOrder(bid, 4, trades));
+
+		assertEquals(3, trades.size());
+		assertSame(b, trades.get(0).getSeller());
+		assertEquals(100, trades.get(0).getPrice());
+		assertSame(c, trades.get(1).getSeller());
+		assertSame(a, trades.get(2).getSeller());
+		assertEquals(101, trades.get(2).getPrice());
+		assertEquals(5, trades.get(2).getQuantity());
+
+		assertEquals(101, book.getBook("AAPL").getBestAskPrice());
+		assertEquals(5, book.getBook("AAPL").getBestAsk().getTotalQuantity());
+		assertEquals(1, book.size());
+	}
+}
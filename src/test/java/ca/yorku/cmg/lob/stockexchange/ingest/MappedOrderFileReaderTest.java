@@ -0,0 +1,137 @@
+package ca.yorku.cmg.lob.stockexchange.ingest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.SecurityList;
+import ca.yorku.cmg.lob.stockexchange.StockExchange;
+import ca.yorku.cmg.lob.trader.Trader;
+
+
+/**
+ * Tests parsing of order files by {@linkplain MappedOrderFileReader}.
+ */
+class MappedOrderFileReaderTest {
+
+	@TempDir
+	Path dir;
+
+	SecurityList securities;
+	List<String> orders;
+	OrderSink sink;
+
+	@BeforeEach
+	void setUp() {
+		securities = new SecurityList();
+		securities.addSecurity("AAPL", "Apple");
+		securities.addSecurity("MSFT", "Microsoft");
+		orders = new ArrayList<>();
+		sink = (tid, sec, bid, price, qty, time) -> {
+			orders.add(tid + " " + sec.getTicker() + " " + (bid ? "bid" : "ask") + " " + qty + " " + price + " " + time);
+			return tid != 99;
+		};
+	}
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	private Path write(String content) throws IOException {
+		Path p = dir.resolve("orders.csv");
+		Files.writeString(p, content);
+		return p;
+	}
+
+	/**
+	 * Valid lines are parsed whatever the window size, including lines cut by the end of a window; bad lines are counted by kind.
+	 */
+	@Test
+	void parsesAndCountsAcrossWindows() throws IOException {
+		Path p = write("tid,tkr,type,qty,price,time\n"
+				+ "1,AAPL,bid,100,38000,1\n"
+				+ " 2 , MSFT , ask , 50 , 29000 , 2 ,extra\r\n"
+				+ "3,AAPL,buy,10,1,3\n"
+				+ "4,GOOG,bid,10,1,4\n"
+				+ "5,AAPL,ask,x,1,5\n"
+				+ "6,AAPL,ask,1\n"
+				+ "7,AAPL,ask,1,99999999999,7\n"
+				+ "99,AAPL,ask,1,1,8\n"
+				+ "\n"
+				+ "8,MSFT,bid,-1,1,-9223372036854775808");
+		List<String> expected = List.of("1 AAPL bid 100 38000 1", "2 MSFT ask 50 29000 2", "99 AAPL ask 1 1 8", "8 MSFT bid -1 1 -9223372036854775808");
+
+		for (int window : new int[] {MappedOrderFileReader.DEFAULT_WINDOW, 64, 41}) {
+			orders.clear();
+			IngestReport r = new MappedOrderFileReader(new TickerLookup(securities::getSecurityByTicker), window).read(p, sink);
+			assertEquals(expected, orders, "window " + window);
+			assertEquals(10, r.lines());
+			assertEquals(3, r.accepted());
+			assertEquals(4, r.malformed());
+			assertEquals(1, r.badType());
+			assertEquals(1, r.unknownTicker());
+			assertEquals(1, r.rejected());
+			assertEquals(4, r.firstBadLine());
+		}
+	}
+
+	/**
+	 * A line longer than a window is counted as malformed and skipped, and reading resumes at the next line.
+	 */
+	@Test
+	void skipsLinesLongerThanTheWindow() throws IOException {
+		Path p = write("tid,tkr,type,qty,price,time\n"
+				+ "1,AAPL,bid,100,38000,1\n"
+				+ "2,AAPL,bid,100,38000," + "1".repeat(100) + "\n"
+				+ "3,AAPL,ask,100,38000,3\n");
+		IngestReport r = new MappedOrderFileReader(new TickerLookup(securities::getSecurityByTicker), 32).read(p, sink);
+		assertEquals(List.of("1 AAPL bid 100 38000 1", "3 AAPL ask 100 38000 3"), orders);
+		assertEquals(3, r.lines());
+		assertEquals(1, r.malformed());
+		assertEquals(3, r.firstBadLine());
+	}
+
+	/**
+	 * Ingesting a file through the exchange submits the same orders as {@linkplain StockExchange#processOrderFile(String)}.
+	 */
+	@Test
+	void ingestMatchesProcessOrderFile() throws IOException {
+		Path p = write("tid,tkr,type,qty,price,time\n"
+				+ "1,AAPL,bid,100,38000,1\n"
+				+ "2,MSFT,ask,50,29000,2\n"
+				+ "3,NVDA,bid,70,18000,3\n"
+				+ "42,NVDA,bid,70,18000,4\n"
+				+ "4,AAPL,ask,20,38500,5\n");
+
+		StockExchange lineByLine = newExchange();
+		lineByLine.processOrderFile(p.toString());
+		String expected = lineByLine.getLogTestSample();
+
+		Trader.resetID();
+		Order.resetID();
+		StockExchange mapped = newExchange();
+		IngestReport r = mapped.ingestOrderFile(p.toString());
+		assertEquals(4, r.accepted());
+		assertEquals(1, r.rejected());
+		assertEquals(expected, mapped.getLogTestSample());
+	}
+
+	private StockExchange newExchange() {
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		return exc;
+	}
+}
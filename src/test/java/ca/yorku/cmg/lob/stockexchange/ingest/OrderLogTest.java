@@ -0,0 +1,102 @@
+package ca.yorku.cmg.lob.stockexchange.ingest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.stockexchange.MatchingMode;
+import ca.yorku.cmg.lob.stockexchange.StockExchange;
+import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgent;
+import ca.yorku.cmg.lob.trader.Trader;
+
+
+/**
+ * Tests writing a session to a binary order log and replaying it with {@linkplain OrderLogReader}.
+ */
+class OrderLogTest {
+
+	@TempDir
+	Path dir;
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	private StockExchange newExchange() {
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.readPriceListfromFile("src/test/resources/prices.csv");
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		return exc;
+	}
+
+	/**
+	 * Runs the polling simulation with an order log attached.
+	 */
+	private StockExchange runSession(Path log) throws IOException {
+		StockExchange exc = newExchange();
+		exc.getNewsBoard().loadEvents("src/test/resources/events.csv");
+		try (OrderLogWriter w = new OrderLogWriter(log, 100)) {
+			exc.setOrderLog(w);
+			for (int i = 0; i <= 30; i++) {
+				for (TradingAgent t : exc.getTraders()) {
+					t.timeAdvancedTo(i);
+				}
+			}
+			exc.setOrderLog(null);
+		}
+		return exc;
+	}
+
+	/**
+	 * Replaying the log into a fresh exchange submits the same orders and reproduces trades, fees and balances.
+	 */
+	@Test
+	void replayReproducesSession() throws IOException {
+		Path log = dir.resolve("orders.bin");
+		StockExchange session = runSession(log);
+		assertFalse(session.getTradesLog().isEmpty());
+
+		Trader.resetID();
+		Order.resetID();
+		StockExchange replayed = newExchange();
+		IngestReport r = replayed.replayOrderLog(log.toString());
+		assertTrue(r.accepted() > 0);
+		assertEquals(0, r.skipped());
+		assertEquals(session.getLogTestSample(), replayed.getLogTestSample());
+		assertEquals(session.printTradesLog(true), replayed.printTradesLog(true));
+		assertEquals(session.printBalances(true), replayed.printBalances(true));
+		assertEquals(session.getTotalFees(), replayed.getTotalFees());
+	}
+
+	/**
+	 * A log cut in the middle of a record is replayed up to its last complete record.
+	 */
+	@Test
+	void replayIgnoresTruncatedRecord() throws IOException {
+		Path log = dir.resolve("orders.bin");
+		runSession(log);
+		Trader.resetID();
+		Order.resetID();
+		long complete = newExchange().replayOrderLog(log.toString()).accepted();
+
+		try (FileChannel ch = FileChannel.open(log, StandardOpenOption.WRITE)) {
+			ch.truncate(ch.size() - OrderLog.RECORD_SIZE / 2);
+		}
+		Trader.resetID();
+		Order.resetID();
+		assertEquals(complete - 1, newExchange().replayOrderLog(log.toString()).accepted());
+	}
+}
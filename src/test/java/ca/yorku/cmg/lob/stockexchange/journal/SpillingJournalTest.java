@@ -0,0 +1,155 @@
+package ca.yorku.cmg.lob.stockexchange.journal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.MatchingMode;
+import ca.yorku.cmg.lob.stockexchange.StockExchange;
+import ca.yorku.cmg.lob.stockexchange.tradingagent.TradingAgent;
+import ca.yorku.cmg.lob.trader.Trader;
+
+
+/**
+ * Tests reading back entries from a {@linkplain SpillingJournal}, alone and as the order and trade logs of a {@linkplain StockExchange}.
+ */
+class SpillingJournalTest {
+
+	@TempDir
+	Path dir;
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	private StockExchange newExchange() {
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.readPriceListfromFile("src/test/resources/prices.csv");
+		return exc;
+	}
+
+	/**
+	 * Entries are read back in order from the ring, the write buffer and the file, by index and by iteration.
+	 */
+	@Test
+	void readsBackAllEntries() throws IOException {
+		RecordCodec<Long> codec = new RecordCodec<Long>() {
+			public int recordSize() {
+				return 8;
+			}
+			public void encode(Long entry, ByteBuffer buf) {
+				buf.putLong(entry);
+			}
+			public Long decode(ByteBuffer buf) {
+				return buf.getLong();
+			}
+		};
+		try (SpillingJournal<Long> j = new SpillingJournal<>(dir.resolve("longs"), 3, codec)) {
+			int n = 20000;
+			for (long i = 0; i < n; i++) {
+				j.add(i * 7);
+			}
+			assertEquals(n, j.size());
+			assertEquals(3, j.inMemory());
+			for (int i = 0; i < n; i += 997) {
+				assertEquals(i * 7L, j.get(i));
+			}
+			assertEquals((n - 1) * 7L, j.get(n - 1));
+			long expected = 0;
+			Iterator<Long> it = j.iterator();
+			while (it.hasNext()) {
+				assertEquals(expected, it.next());
+				expected += 7;
+			}
+			assertEquals(n * 7L, expected);
+		}
+	}
+
+	/**
+	 * With orders spilled after only a few, the polling simulation still logs the expected orders.
+	 */
+	@Test
+	void orderLogSpillsTransparently() throws IOException {
+		StockExchange exc = newExchange();
+		exc.getNewsBoard().loadEvents("src/test/resources/events.csv");
+		exc.spillLogsTo(dir, 4);
+		for (int i = 0; i <= 30; i++) {
+			for (TradingAgent t : exc.getTraders()) {
+				t.timeAdvancedTo(i);
+			}
+		}
+		assertEquals(Files.readString(Paths.get("src/test/resources/testOut.txt")), exc.getLogTestSample());
+		assertEquals(4, ((SpillingJournal<?>) exc.getOrdersLog()).inMemory());
+	}
+
+	/**
+	 * The value of an order read back is computed in {@code long}, as large orders are worth more than an {@code int} holds.
+	 */
+	@Test
+	void loggedOrderValueDoesNotOverflow() {
+		LoggedOrder o = new LoggedOrder(1, null, null, true, 100000, 50000, 1);
+		assertEquals(5000000000L, o.getValue());
+	}
+
+	/**
+	 * Spilling again closes the journals spilled to before, once their entries are copied, and closing the exchange closes the current ones.
+	 */
+	@Test
+	void closesReplacedJournals() throws IOException {
+		StockExchange exc = newExchange();
+		exc.getNewsBoard().loadEvents("src/test/resources/events.csv");
+		exc.spillLogsTo(dir, 4);
+		SpillingJournal<?> first = (SpillingJournal<?>) exc.getOrdersLog();
+		exc.getNewsBoard().runEventsList();
+		Path again = Files.createDirectory(dir.resolve("again"));
+		exc.spillLogsTo(again, 4);
+		SpillingJournal<?> second = (SpillingJournal<?>) exc.getOrdersLog();
+		assertFalse(first.isOpen());
+		assertTrue(second.isOpen());
+		assertEquals(Files.readString(Paths.get("src/test/resources/testOut.txt")), exc.getLogTestSample());
+		exc.close();
+		assertFalse(second.isOpen());
+		assertFalse(((SpillingJournal<?>) exc.getTradesLog()).isOpen());
+	}
+
+	/**
+	 * Spilled trades read back with their traders, prices, quantities and fees.
+	 */
+	@Test
+	void tradeLogSpillsTransparently() throws IOException {
+		StockExchange inMemory = newExchange();
+		Trader.resetID();
+		StockExchange spilled = newExchange();
+		spilled.spillLogsTo(dir, 2);
+		for (StockExchange exc : new StockExchange[] {inMemory, spilled}) {
+			exc.setMatchingMode(MatchingMode.CONTINUOUS);
+			Security aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+			for (int i = 1; i <= 6; i++) {
+				exc.submitOrder(new Ask(exc.getAccounts().getTraderByID(1), aapl, 38000 + i, 10, i), i);
+				exc.submitOrder(new Bid(exc.getAccounts().getTraderByID(i + 1), aapl, 39000, 10 * i, i), i);
+			}
+		}
+		assertEquals(inMemory.getTradesLog().size(), spilled.getTradesLog().size());
+		assertEquals(inMemory.printTradesLog(true), spilled.printTradesLog(true));
+		assertEquals(inMemory.getTradesLog().get(0).getBuyerFee(), spilled.getTradesLog().get(0).getBuyerFee());
+		assertEquals(inMemory.getTradesLog().get(0).getSellerFee(), spilled.getTradesLog().get(0).getSellerFee());
+	}
+}
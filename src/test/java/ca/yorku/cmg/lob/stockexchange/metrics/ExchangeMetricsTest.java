@@ -0,0 +1,212 @@
+package ca.yorku.cmg.lob.stockexchange.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.ExchangePipeline;
+import ca.yorku.cmg.lob.stockexchange.MatchingMode;
+import ca.yorku.cmg.lob.stockexchange.ShardedExchange;
+import ca.yorku.cmg.lob.stockexchange.StockExchange;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+/**
+ * Tests the precision of {@linkplain LatencyHistogram} and that {@linkplain ExchangeMetrics} see everything an exchange does without changing it.
+ */
+class ExchangeMetricsTest {
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	/**
+	 * Percentiles are within the precision of the buckets, and the count, mean and maximum are exact, also when recorded from several threads.
+	 */
+	@Test
+	void histogramPercentiles() throws InterruptedException {
+		LatencyHistogram h = new LatencyHistogram();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			int from = i;
+			threads[i] = new Thread(() -> {
+				for (long v = 1 + from; v <= 1_000_000; v += threads.length) {
+					h.record(v);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertEquals(1_000_000, h.getCount());
+		assertEquals(500_000, h.getMean());
+		assertEquals(1_000_000, h.getMax());
+		for (double p : new double[] {1, 50, 90, 99, 99.9}) {
+			long expected = (long) (p * 10_000);
+			long actual = h.getPercentile(p);
+			assertTrue(actual >= expected && actual <= expected * 1.04, p + ": " + actual);
+		}
+		assertEquals(1_000_000, h.getPercentile(100));
+
+		LatencyHistogram copy = h.copy();
+		h.reset();
+		assertEquals(0, h.getCount());
+		assertEquals(1_000_000, copy.getCount());
+		h.record(7);
+		assertEquals(7, h.getPercentile(50));
+	}
+
+	/**
+	 * A push simulation with metrics on produces the expected output, counts every order and reaction, and emits a JFR event per order.
+	 */
+	@Test
+	void pushWithMetrics() throws Exception {
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.readPriceListfromFile("src/test/resources/prices.csv");
+		exc.getNewsBoard().loadEvents("src/test/resources/events.csv");
+		exc.getTraders();
+		ExchangeMetrics metrics = new ExchangeMetrics();
+		exc.setMetrics(metrics);
+
+		Path jfr = Files.createTempFile("metrics", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable(OrderSubmittedEvent.class).withThreshold(Duration.ZERO);
+			recording.start();
+			exc.getNewsBoard().runEventsList();
+			recording.stop();
+			recording.dump(jfr);
+		}
+
+		assertEquals(Files.readString(Paths.get("src/test/resources/testOut.txt")), exc.getLogTestSample());
+		MetricsSnapshot s = metrics.snapshot();
+		assertEquals(exc.getOrdersLog().size(), s.getOrders());
+		assertEquals(s.getOrders(), s.getSubmitLatency().getCount());
+		assertEquals(exc.getOrderbook().size(), s.getBookDepth());
+		assertEquals(s.getOrders(), s.getReactions());
+		assertTrue(s.getEvents() > 0 && s.getNotifications() >= s.getReactions());
+		assertEquals(s.getEvents(), s.getDispatchLatency().getCount());
+		assertTrue(s.getOrdersPerSecond(null) > 0);
+
+		try {
+			List<RecordedEvent> events = RecordingFile.readAllEvents(jfr);
+			long submitted = events.stream().filter(e -> e.getEventType().getName().equals("ca.yorku.cmg.lob.OrderSubmitted")).count();
+			assertEquals(s.getOrders(), submitted);
+		} finally {
+			Files.delete(jfr);
+		}
+	}
+
+	/**
+	 * A single submission is counted once, and timed.
+	 */
+	@Test
+	void singleSubmitCountedOnce() {
+		StockExchange exc = newExchange(MatchingMode.CONTINUOUS);
+		ExchangeMetrics metrics = new ExchangeMetrics();
+		exc.setMetrics(metrics);
+		exc.submitOrder(orders(exc, 1)[0], 1);
+		assertEquals(1, metrics.getOrders());
+		assertEquals(1, metrics.getSubmitLatency().getCount());
+	}
+
+	/**
+	 * A batch is counted once per order, whether it is bulk-inserted, untimed, or submitted one by one, timed.
+	 */
+	@Test
+	void batchCountedOnce() {
+		StockExchange exc = newExchange(MatchingMode.NONE);
+		ExchangeMetrics metrics = new ExchangeMetrics();
+		exc.setMetrics(metrics);
+		exc.submitOrders(orders(exc, 20));
+		assertEquals(20, metrics.getOrders());
+		assertEquals(0, metrics.getSubmitLatency().getCount());
+
+		exc = newExchange(MatchingMode.CONTINUOUS);
+		metrics = new ExchangeMetrics();
+		exc.setMetrics(metrics);
+		exc.submitOrders(orders(exc, 20));
+		assertEquals(20, metrics.getOrders());
+		assertEquals(20, metrics.getSubmitLatency().getCount());
+	}
+
+	/**
+	 * Orders handed to a sharded exchange are counted once, untimed.
+	 */
+	@Test
+	void shardedCountedOnce() {
+		StockExchange exc = newExchange(MatchingMode.CONTINUOUS);
+		ExchangeMetrics metrics = new ExchangeMetrics();
+		exc.setMetrics(metrics);
+		try (ShardedExchange sharded = new ShardedExchange(exc, 2)) {
+			for (IOrder o : orders(exc, 20)) {
+				exc.submitOrder(o, o.getTime());
+			}
+		}
+		assertEquals(20, exc.getOrdersLog().size());
+		assertEquals(20, metrics.getOrders());
+		assertEquals(0, metrics.getSubmitLatency().getCount());
+	}
+
+	/**
+	 * Orders handed to a pipeline are counted once, untimed.
+	 */
+	@Test
+	void pipelineCountedOnce() {
+		StockExchange exc = newExchange(MatchingMode.CONTINUOUS);
+		ExchangeMetrics metrics = new ExchangeMetrics();
+		exc.setMetrics(metrics);
+		try (ExchangePipeline pipeline = new ExchangePipeline(exc, 8)) {
+			for (IOrder o : orders(exc, 20)) {
+				exc.submitOrder(o, o.getTime());
+			}
+		}
+		assertEquals(20, exc.getOrdersLog().size());
+		assertEquals(20, metrics.getOrders());
+		assertEquals(0, metrics.getSubmitLatency().getCount());
+	}
+
+	private static StockExchange newExchange(MatchingMode mode) {
+		Trader.resetID();
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.setMatchingMode(mode);
+		return exc;
+	}
+
+	/**
+	 * Alternating bids and asks of the two largest accounts on AAPL, some of which cross.
+	 */
+	private static IOrder[] orders(StockExchange exc, int n) {
+		Security aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+		Trader buyer = exc.getAccounts().getTraderByID(1);
+		Trader seller = exc.getAccounts().getTraderByID(2);
+		IOrder[] orders = new IOrder[n];
+		for (int i = 0; i < n; i++) {
+			orders[i] = i % 2 == 0 ? new Bid(buyer, aapl, 38000 + 100 * (i % 5), 10, i + 1) : new Ask(seller, aapl, 38200, 10, i + 1);
+		}
+		return orders;
+	}
+}
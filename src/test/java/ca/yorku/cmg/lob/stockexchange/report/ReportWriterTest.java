@@ -0,0 +1,90 @@
+package ca.yorku.cmg.lob.stockexchange.report;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Ask;
+import ca.yorku.cmg.lob.orderbook.Bid;
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.security.Security;
+import ca.yorku.cmg.lob.stockexchange.Account;
+import ca.yorku.cmg.lob.stockexchange.MatchingMode;
+import ca.yorku.cmg.lob.stockexchange.StockExchange;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.tradestandards.ITrade;
+
+
+/**
+ * Tests that {@linkplain ReportWriter} writes cells and reports exactly as the {@code String.format} code it replaces.
+ */
+class ReportWriterTest {
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	@Test
+	void cellsMatchStringFormat() throws IOException {
+		Random rnd = new Random(7);
+		long[] values = new long[2000];
+		long[] edges = {0, 1, -1, 5, -5, 99, 100, -100, 101, 99999, 100000, -123456789, Integer.MAX_VALUE, Integer.MIN_VALUE,
+				999_999_999_999_999L, -999_999_999_999_999L, 1_000_000_000_000_000L, Long.MAX_VALUE, Long.MIN_VALUE};
+		System.arraycopy(edges, 0, values, 0, edges.length);
+		for (int i = edges.length; i < values.length; i++) {
+			values[i] = rnd.nextLong() >> rnd.nextInt(64);
+		}
+		for (long v : values) {
+			StringBuilder sb = new StringBuilder();
+			new ReportWriter(sb).integer(v, 8).text('|').decimal(v, 7).text('|').dollars(v, 16);
+			String expected = String.format("%8d", v) + "|" + String.format("%7.2f", v / 100.0) + "|"
+					+ String.format("%16s", String.format("$%,.2f", v / 100.0));
+			assertEquals(expected, sb.toString(), "value " + v);
+		}
+	}
+
+	@Test
+	void reportsMatchFormerOutput() throws IOException {
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile("src/test/resources/securities.csv");
+		exc.readAccountsListFromFile("src/test/resources/accounts.csv");
+		exc.readInitialPositionsFromFile("src/test/resources/initial.csv");
+		exc.readPriceListfromFile("src/test/resources/prices.csv");
+		exc.setMatchingMode(MatchingMode.CONTINUOUS);
+		Security aapl = exc.getSecurities().getSecurityByTicker("AAPL");
+		for (int i = 1; i <= 6; i++) {
+			exc.submitOrder(new Ask(exc.getAccounts().getTraderByID(1), aapl, 38000 + i, 10, i), i);
+			exc.submitOrder(new Bid(exc.getAccounts().getTraderByID(i + 1), aapl, 39000, 10 * i, i), i);
+		}
+
+		String trades = "[From____  To______  Tkr_  Quantity  Price__  Time____]\n";
+		for (ITrade t : exc.getTradesLog()) {
+			trades += t.toString();
+		}
+		assertFalse(exc.getTradesLog().isEmpty());
+		assertEquals(trades, exc.printTradesLog(true));
+
+		String balances = "";
+		long total = 0;
+		for (int id = 1; id <= exc.getAccounts().size(); id++) {
+			Account a = exc.getAccounts().getTraderAccount(exc.getAccounts().getTraderByID(id));
+			String ttl = a.getTrader().getTitle();
+			total += a.getBalance();
+			balances += String.format("[%2d %30s %16s]\n", a.getTrader().getID(), (ttl.length() > 30 ? ttl.substring(0, 30) : ttl),
+					String.format("$%,.2f", a.getBalance() / 100.0));
+		}
+		balances += String.format("[%30s %16s]\n", "                           TOTAL:", String.format("$%,.2f", total / 100.0));
+		assertEquals(balances, exc.printBalances(false));
+
+		StringWriter w = new StringWriter();
+		exc.writeTradesLog(new ReportWriter(w), true);
+		assertEquals(trades, w.toString());
+	}
+}
@@ -0,0 +1,141 @@
+package ca.yorku.cmg.lob.stockexchange.scenario;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import ca.yorku.cmg.lob.orderbook.Order;
+import ca.yorku.cmg.lob.stockexchange.MatchingMode;
+import ca.yorku.cmg.lob.stockexchange.SimulationDriver;
+import ca.yorku.cmg.lob.stockexchange.StockExchange;
+import ca.yorku.cmg.lob.trader.Trader;
+import ca.yorku.cmg.lob.trader.TraderRetail;
+import ca.yorku.cmg.lob.tradestandards.IOrder;
+
+
+/**
+ * Tests that scenarios run side by side on exchanges built from shared reference data give the results they give alone.
+ */
+class ScenarioRunnerTest {
+
+	static final String RESOURCES = "src/test/resources/";
+
+	@AfterEach
+	void tearDown() {
+		Trader.resetID();
+		Order.resetID();
+	}
+
+	static ReferenceData load() {
+		return ReferenceData.load(RESOURCES + "securities.csv", RESOURCES + "accounts.csv", RESOURCES + "initial.csv");
+	}
+
+	/**
+	 * An exchange built from reference data behaves as one loaded from the files.
+	 */
+	@Test
+	void sameAsLoadedFromFiles() {
+		ReferenceData data = load();
+		ScenarioResult result = new ScenarioRunner(data).run(new Scenario("base", RESOURCES + "prices.csv", RESOURCES + "events.csv"));
+
+		Trader.resetID();
+		StockExchange exc = new StockExchange();
+		exc.readSecurityListfromFile(RESOURCES + "securities.csv");
+		exc.readAccountsListFromFile(RESOURCES + "accounts.csv");
+		exc.readInitialPositionsFromFile(RESOURCES + "initial.csv");
+		exc.readPriceListfromFile(RESOURCES + "prices.csv");
+		exc.getNewsBoard().loadEvents(RESOURCES + "events.csv");
+		exc.getNewsBoard().runEventsList();
+
+		assertEquals(exc.getOrdersLog().size(), result.getOrders());
+		assertEquals(exc.getTradesLog().size(), result.getTrades());
+		assertEquals(exc.getTotalFees(), result.getFees());
+		assertEquals(exc.getAccounts().size(), result.getAccounts());
+	}
+
+	/**
+	 * Traders are numbered from 1 in the order of the accounts file, whatever traders were created before.
+	 */
+	@Test
+	void traderIdsAreLocal() {
+		new TraderRetail("Someone else");
+		Trader[] traders = load().getTraders();
+		assertTrue(traders.length > 0);
+		for (int i = 0; i < traders.length; i++) {
+			assertEquals(i + 1, traders[i].getID());
+		}
+	}
+
+	/**
+	 * Each exchange numbers its own orders, apart from the shared ids, however they interleave with orders of other exchanges.
+	 */
+	@Test
+	void orderIdsAreLocal() {
+		ReferenceData data = load();
+		StockExchange a = data.newExchange();
+		StockExchange b = data.newExchange();
+		for (StockExchange exc : List.of(a, b)) {
+			exc.readPriceListfromFile(RESOURCES + "prices.csv");
+			exc.getNewsBoard().loadEvents(RESOURCES + "events.csv");
+		}
+		SimulationDriver da = new SimulationDriver(a);
+		SimulationDriver db = new SimulationDriver(b);
+		while (da.step() != Long.MAX_VALUE | db.step() != Long.MAX_VALUE) {
+			//Interleave the two runs
+		}
+		for (StockExchange exc : List.of(a, b)) {
+			List<IOrder> orders = exc.getOrdersLog();
+			assertFalse(orders.isEmpty());
+			for (int i = 0; i < orders.size(); i++) {
+				assertEquals(StockExchange.LOCAL_ORDER_ID_BASE + i, orders.get(i).getID());
+				assertTrue(orders.get(i).toString().endsWith(String.format("%5d]", StockExchange.LOCAL_ORDER_ID_BASE + i)));
+			}
+		}
+		assertEquals(a.printBalances(true), b.printBalances(true));
+	}
+
+	/**
+	 * Scenarios run in parallel give exactly the results they give run one by one.
+	 */
+	@Test
+	void parallelEqualsSerial() {
+		ReferenceData data = load();
+		List<Scenario> scenarios = new ArrayList<>();
+		for (int i = 0; i < 24; i++) {
+			Scenario s = new Scenario("mix-" + i, RESOURCES + "prices.csv", RESOURCES + "events.csv");
+			s.setAgentMix(i / 23.0, i);
+			s.setMatchingMode(i % 2 == 0 ? MatchingMode.CONTINUOUS : MatchingMode.NONE);
+			scenarios.add(s);
+		}
+		ScenarioRunner serial = new ScenarioRunner(data);
+		List<ScenarioResult> expected = new ArrayList<>();
+		for (Scenario s : scenarios) {
+			expected.add(serial.run(s));
+		}
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			List<ScenarioResult> results = new ScenarioRunner(data, pool).runAll(scenarios);
+			assertEquals(expected.size(), results.size());
+			for (int i = 0; i < results.size(); i++) {
+				assertEquals(expected.get(i).toString(), results.get(i).toString());
+				for (int a = 0; a < results.get(i).getAccounts(); a++) {
+					assertEquals(expected.get(i).getPnl(a), results.get(i).getPnl(a));
+				}
+			}
+			assertTrue(expected.stream().anyMatch(r -> r.getTrades() > 0));
+
+			ScenarioSummary summary = ScenarioSummary.of(results);
+			assertEquals(24, summary.getScenarios());
+			assertEquals(expected.stream().mapToLong(ScenarioResult::getFees).average().getAsDouble(), summary.getMeanFees(), 1e-6);
+			assertTrue(summary.getFeesPercentile(5) <= summary.getFeesPercentile(95));
+		} finally {
+			pool.shutdown();
+		}
+	}
+}